@@ -0,0 +1,51 @@
+package dnd.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.AbilityType;
+import dnd.game.World;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+
+/**
+ * A full melee attack of a level 5 fighter: the AC check, the damage roll and
+ * the damage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttackBenchmark {
+	private World world;
+	private Player player;
+	private NPC monster;
+
+	@Setup
+	public void setup() {
+		world = Fixtures.world(8, 0);
+		player = world.getPlayers().get(0);
+		monster = new NPC();
+		monster.getBaseAbilityModifiers().add(AbilityType.HP, 10);
+		monster.setLocation(1, 0);
+		world.getMonsters().add(monster);
+	}
+
+	@Benchmark
+	public boolean attackEntity() {
+		monster.setHP(Integer.MAX_VALUE / 2); // never dies
+		return world.getAttackManager().attackEntity(player, monster);
+	}
+}
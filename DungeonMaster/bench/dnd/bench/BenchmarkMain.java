@@ -0,0 +1,35 @@
+package dnd.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the engine's hot paths with the allocation profiler, so
+ * that every result gives the throughput and the allocation rate
+ * (gc.alloc.rate.norm is the number of bytes allocated per operation).
+ *
+ * The benchmarks are kept out of the game's sources. To build them, compile this
+ * folder along with src, the jars of lib, jmh-core and jmh-generator-annprocess
+ * (the annotation processor writes the benchmark harness next to the classes),
+ * then run this class. The first argument, if any, is a regular expression
+ * selecting benchmarks, for instance "WorldBenchmark.move". On Java 9 and later,
+ * XStream needs --add-opens java.base/java.util=ALL-UNNAMED (and the other
+ * java.base packages) for the mapper benchmarks.
+ */
+public class BenchmarkMain {
+
+	/**
+	 * @param args an optional benchmark selection
+	 * @throws RunnerException if a benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "dnd\\.bench\\..*")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,84 @@
+package dnd.bench;
+
+import java.util.Random;
+
+import dnd.game.AbilityType;
+import dnd.game.Dice;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.PlayerClass;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Armor;
+import dnd.game.entity.item.Weapon;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+
+/**
+ * The seeded worlds the benchmarks run on. The same arguments always give the
+ * same world, so results can be compared between runs and versions.
+ */
+final class Fixtures {
+	/** The seed of every benchmark fixture */
+	static final long SEED = 20121;
+
+	/**
+	 * Private constructor - don't permit external instantiation
+	 */
+	private Fixtures() { }
+
+	/**
+	 * Creates a started world on an open floor, with one armed player in the
+	 * corner and monsters spread over random cells. The cell right of the player
+	 * is kept free.
+	 * @param size the width and height of the level, at least 2
+	 * @param monsters the number of monsters
+	 * @return the world
+	 */
+	static World world(int size, int monsters) {
+		World world = new World();
+		world.setDice(new Dice(SEED)); // the initiative and the attack rolls too
+		Level level = new Level(size, size);
+		level.fillRegion(0, 0, size, size, Tile.Floor);
+		level.setSpawnLocation(new Location(0, 0));
+		world.setLevel(level);
+
+		Random random = new Random(SEED);
+		boolean[] taken = new boolean[size * size];
+		taken[0] = true; // the player
+		taken[1] = true; // where the player moves
+		for (int i = 0; i < monsters && i < taken.length - 2; i++) {
+			int cell;
+			do {
+				cell = random.nextInt(taken.length);
+			} while (taken[cell]);
+			taken[cell] = true;
+			NPC monster = new NPC();
+			monster.getBaseAbilityModifiers().add(AbilityType.HP, 10);
+			monster.setLocation(cell % size, cell / size);
+			level.getInitialEntities().add(monster);
+		}
+
+		world.getPlayers().add(player());
+		world.start();
+		return world;
+	}
+
+	/**
+	 * @return a level 5 fighter with a sword and an armor
+	 */
+	static Player player() {
+		Player player = new Player();
+		player.setName("Bench");
+		player.setPlayerClass(PlayerClass.FIGHTER);
+		player.setLevel(5);
+		player.getBaseAbilityModifiers().add(AbilityType.HP, 40, AbilityType.STR, 14, AbilityType.DEX, 12);
+		Weapon sword = new Weapon("Sword", 8, 0);
+		Armor armor = new Armor(4);
+		player.getInventory().addItem(sword);
+		player.getInventory().addItem(armor);
+		player.getInventory().equipItem(sword);
+		player.getInventory().equipItem(armor);
+		return player;
+	}
+}
@@ -0,0 +1,74 @@
+package dnd.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.Entity;
+import dnd.game.Location;
+import dnd.game.Trace;
+import dnd.game.World;
+
+/**
+ * Tracing lines (ranged attacks, monsters walking to the players) and measuring
+ * distances, for lines of growing length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmark {
+	@Param({ "8", "64", "512" })
+	public int length;
+
+	private World world;
+	private Location start;
+	private Location end;
+	private Trace.Visitor clear;
+
+	@Setup
+	public void setup() {
+		world = Fixtures.world(length + 1, length);
+		start = new Location(0, 0);
+		end = new Location(length, length / 3);
+		clear = new Trace.Visitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				return world.getEntitiesAtLocation(x, y).isEmpty();
+			}
+		};
+	}
+
+	@Benchmark
+	public List<Location> trace() {
+		return new Trace(start, end).getLocations();
+	}
+
+	@Benchmark
+	public List<Entity> traceInWorld() {
+		return new Trace(world, start, end).getEntities();
+	}
+
+	@Benchmark
+	public boolean walkInWorld() {
+		return Trace.walk(start, end, clear);
+	}
+
+	@Benchmark
+	public int distanceTo() {
+		return start.distanceTo(end);
+	}
+}
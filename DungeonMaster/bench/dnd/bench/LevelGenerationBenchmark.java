@@ -0,0 +1,37 @@
+package dnd.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.Level;
+import dnd.game.RandomLevelGenerator;
+
+/**
+ * Generating a random level, from the usual sizes up to very large maps. The
+ * seed is fixed, so every operation generates the same level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelGenerationBenchmark {
+	@Param({ "100", "500", "1000", "2000" })
+	public int size;
+
+	@Benchmark
+	public Level randomLevel() {
+		return new RandomLevelGenerator((int) Fixtures.SEED).randomLevel(size, size);
+	}
+}
@@ -0,0 +1,77 @@
+package dnd.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.World;
+import dnd.game.mapper.GameMapper.Format;
+import dnd.game.mapper.WorldMapper;
+import dnd.util.XmlMapper;
+
+/**
+ * Saving and loading a whole world, in XML and, for comparison, in the binary
+ * format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+	@Param({ "32", "128" })
+	public int size;
+
+	private World world;
+	private XmlMapper<World> xml;
+	private WorldMapper binary;
+	private byte[] xmlSave;
+	private byte[] binarySave;
+
+	@Setup
+	public void setup() {
+		world = Fixtures.world(size, size);
+		xml = new XmlMapper<World>();
+		binary = new WorldMapper();
+		binary.setFormat(Format.BINARY);
+		xmlSave = xmlSave().toByteArray();
+		binarySave = binarySave().toByteArray();
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream xmlSave() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		xml.save(world, output);
+		return output;
+	}
+
+	@Benchmark
+	public World xmlLoad() {
+		return xml.load(new ByteArrayInputStream(xmlSave));
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream binarySave() {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		binary.save(world, output);
+		return output;
+	}
+
+	@Benchmark
+	public World binaryLoad() {
+		return binary.load(new ByteArrayInputStream(binarySave));
+	}
+}
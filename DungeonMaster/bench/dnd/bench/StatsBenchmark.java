@@ -0,0 +1,68 @@
+package dnd.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.AbilityType;
+import dnd.game.entity.living.Player;
+import dnd.util.Modifier;
+import dnd.util.ModifierSet;
+
+/**
+ * Summing modifiers and computing the armor class, which every attack does, both
+ * from the cache and after a change of modifiers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsBenchmark {
+	@Param({ "4", "32" })
+	public int modifiers;
+
+	private ModifierSet<AbilityType> set;
+	private Player player;
+	private Modifier<AbilityType> potion;
+
+	@Setup
+	public void setup() {
+		AbilityType[] types = AbilityType.values();
+		set = new ModifierSet<AbilityType>();
+		for (int i = 0; i < modifiers; i++) {
+			set.add(types[i % types.length], i + 1);
+		}
+		player = Fixtures.player();
+		potion = new Modifier<AbilityType>(AbilityType.DEX, 2);
+	}
+
+	@Benchmark
+	public int modifierSetDelta() {
+		return set.delta(AbilityType.STR);
+	}
+
+	@Benchmark
+	public int armorClass() {
+		return player.armorClass();
+	}
+
+	@Benchmark
+	public int armorClassAfterChange() {
+		player.getBaseAbilityModifiers().add(potion);
+		int armorClass = player.armorClass();
+		player.getBaseAbilityModifiers().remove(potion);
+		return armorClass + player.armorClass();
+	}
+}
@@ -0,0 +1,70 @@
+package dnd.bench;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dnd.game.Entity;
+import dnd.game.Location;
+import dnd.game.World;
+import dnd.game.entity.living.Player;
+
+/**
+ * Looking entities up by location and moving them, as every AI decision and
+ * every rendered frame does, on worlds holding more and more monsters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+	private static final Location RIGHT = new Location(1, 0);
+	private static final Location LEFT = new Location(-1, 0);
+
+	@Param({ "64", "256" })
+	public int size;
+
+	@Param({ "10", "100", "1000" })
+	public int monsters;
+
+	private World world;
+	private Player player;
+	private Location[] probes;
+	private int probe;
+	private int step;
+
+	@Setup
+	public void setup() {
+		world = Fixtures.world(size, monsters);
+		player = world.getPlayers().get(0);
+		Random random = new Random(Fixtures.SEED);
+		probes = new Location[1024];
+		for (int i = 0; i < probes.length; i++) {
+			probes[i] = new Location(random.nextInt(size), random.nextInt(size));
+		}
+	}
+
+	@Benchmark
+	public List<Entity> getEntitiesAtLocation() {
+		return world.getEntitiesAtLocation(probes[probe++ & (probes.length - 1)]);
+	}
+
+	@Benchmark
+	public boolean moveEntity() {
+		return world.moveEntity(player, (step++ & 1) == 0 ? RIGHT : LEFT);
+	}
+}
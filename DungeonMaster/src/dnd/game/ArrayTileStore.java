@@ -0,0 +1,53 @@
+package dnd.game;
+
+import java.util.Arrays;
+
+/**
+ * Keeps every cell of a level in a single row major byte array on the heap
+ */
+class ArrayTileStore extends TileStore {
+	private int width;
+	private byte[] cells;
+
+	/**
+	 * Constructor
+	 * @param width the number of columns
+	 * @param height the number of rows
+	 */
+	ArrayTileStore(int width, int height) {
+		this.width = width;
+		this.cells = new byte[width * height];
+	}
+
+	@Override
+	Tile get(int x, int y) {
+		return tile(cells[x + y * width]);
+	}
+
+	@Override
+	void set(int x, int y, Tile tile) {
+		cells[x + y * width] = ordinal(tile);
+	}
+
+	@Override
+	void getRow(int y, int x, int length, Tile[] dest, int offset) {
+		int start = x + y * width;
+		for (int i = 0; i < length; i++) {
+			dest[offset + i] = tile(cells[start + i]);
+		}
+	}
+
+	@Override
+	void setRow(int y, int x, int length, Tile[] src) {
+		int start = x + y * width;
+		for (int i = 0; i < length; i++) {
+			cells[start + i] = ordinal(src[i]);
+		}
+	}
+
+	@Override
+	void fillRow(int y, int x, int length, Tile tile) {
+		int start = x + y * width;
+		Arrays.fill(cells, start, start + length, ordinal(tile));
+	}
+}
@@ -35,10 +35,10 @@ public class AttackManager {
 	 */
 	public boolean attackEntity(LivingEntity source, LivingEntity target) {
 		for (int i = 1; i <= baseAttack.getNumberOfAttacks(source.getLevel()); i++) {
-			if (source.damageModifiers().delta(MELEE) > 0) {
+			if (source.damageDelta(MELEE) > 0) {
 				if (!meleeAttack(source, target, i)) return false;
 			}
-			else if (source.damageModifiers().delta(RANGED) > 0) {
+			else if (source.damageDelta(RANGED) > 0) {
 				if (!rangedAttack(source, target, i)) return false;
 			}
 			else {
@@ -79,22 +79,22 @@ public class AttackManager {
 	 * @return whether a melee attack took place (failing AC check counts as attack)
 	 */
 	private boolean rangedAttack(LivingEntity source, LivingEntity target, int attackNum) {
-		// perform trace to see if any entities/objects are in the way
-		Trace trace = new Trace(world, source.getLocation(), target.getLocation());
-		if (trace.distance() > 3) {
+		if (source.getLocation().distanceTo(target.getLocation()) > 3) {
 			tooFar(source);
 			return false; // max ranged distance is 3
 		}
-		if (trace.getEntities().size() != 2) {
+		if (!world.getFieldOfView().canSee(source, target.getLocation())) {
 			blocked(source);
 			return false;
 		}
-		if (trace.getEntities().get(0) != source) return false; 
-		if (trace.getEntities().get(1) != target) return false;
-		if (!Tile.tilesAcceptEntity(trace.getCells(), world, source)) {
+		// perform trace to see if any entities are in the way
+		LineOfFire line = new LineOfFire();
+		if (!Trace.walk(source.getLocation(), target.getLocation(), line) || line.count != 2) {
 			blocked(source);
 			return false;
 		}
+		if (line.entities[0] != source) return false; 
+		if (line.entities[1] != target) return false;
 		
 		// AC check counts as attack
 		if (!canAttack(source, target, attackNum)) return true; 
@@ -111,11 +111,11 @@ public class AttackManager {
 	 */
 	private void damage(LivingEntity source, LivingEntity target) {
 		int amount = 0;
-		if (source.damageModifiers().delta(MELEE) > 0) {
-			amount = world.abilityRoll(1, source.damageModifiers().delta(MELEE), source, STR);
+		if (source.damageDelta(MELEE) > 0) {
+			amount = world.abilityRoll(1, source.damageDelta(MELEE), source, STR);
 		}
-		else if (source.damageModifiers().delta(RANGED) > 0) {
-			amount = world.roll(1, source.damageModifiers().delta(RANGED), source);
+		else if (source.damageDelta(RANGED) > 0) {
+			amount = world.roll(1, source.damageDelta(RANGED), source);
 		}
 		world.damage(source, target, amount);
 	}
@@ -130,10 +130,15 @@ public class AttackManager {
 	 * @return whether the AC check succeeds
 	 */
 	private boolean canAttack(LivingEntity source, LivingEntity target, int attackNum) {
-		world.sendEvent(new InitiateAttackEvent(source, target, attackNum));
+		if (world.isObserved(InitiateAttackEvent.class)) {
+			world.sendEvent(new InitiateAttackEvent(source, target, attackNum));
+		}
 		int roll = world.roll(1, 20, source);
 		int bonus = attackBonus(source, attackNum);
-		world.sendEvent(new AttackCheckEvent(source, target, attackNum, roll, bonus));
+		target.attackedBy(world, source);
+		if (world.isObserved(AttackCheckEvent.class)) {
+			world.sendEvent(new AttackCheckEvent(source, target, attackNum, roll, bonus));
+		}
 		return roll + bonus >= target.armorClass();
 	}
 
@@ -146,21 +151,83 @@ public class AttackManager {
 	private int attackBonus(LivingEntity source, int attackNum) {
 		int bonus = baseAttack.getBaseAttackBonus(source.getLevel(), attackNum);
 
-		if (source.damageModifiers().delta(MELEE) > 0) {
+		if (source.damageDelta(MELEE) > 0) {
 			bonus += source.getAbilityModifier(STR);
 		}
-		else if (source.damageModifiers().delta(RANGED) > 0) {
+		else if (source.damageDelta(RANGED) > 0) {
 			bonus += source.getAbilityModifier(DEX);
 		}
 		return bonus;
 	}
 	
+	/**
+	 * The chance that an attack passes the AC check of {@link #canAttack}, without
+	 * rolling any dice
+	 * @param source the source of the attack
+	 * @param target the target of the attack
+	 * @param attackNum the attack number
+	 * @return the probability of hitting, between 0 and 1
+	 */
+	public double hitChance(LivingEntity source, LivingEntity target, int attackNum) {
+		return DiceDistribution.of(1, 20, attackBonus(source, attackNum)).atLeast(target.armorClass());
+	}
+
+	/**
+	 * The damage done by a hit of the source's weapon, as rolled by {@link #damage}
+	 * @param source the source of the attack
+	 * @return the distribution of the damage, always 0 if the source has no weapon
+	 */
+	public DiceDistribution damageDistribution(LivingEntity source) {
+		if (source.damageDelta(MELEE) > 0) {
+			return DiceDistribution.of(1, source.damageDelta(MELEE), source.getAbilityModifier(STR));
+		}
+		else if (source.damageDelta(RANGED) > 0) {
+			return DiceDistribution.of(1, source.damageDelta(RANGED), 0);
+		}
+		return DiceDistribution.constant(0);
+	}
+
+	/**
+	 * The average damage of a full attack (every attack of the source's level),
+	 * assuming the target is in reach
+	 * @param source the source of the attack
+	 * @param target the target of the attack
+	 * @return the expected damage
+	 */
+	public double expectedDamage(LivingEntity source, LivingEntity target) {
+		double damage = damageDistribution(source).mean();
+		double expected = 0;
+		for (int i = 1; i <= baseAttack.getNumberOfAttacks(source.getLevel()); i++) {
+			expected += hitChance(source, target, i) * damage;
+		}
+		return expected;
+	}
+
+	/**
+	 * Walks the line of a ranged attack, stopping at the third entity met
+	 */
+	private class LineOfFire implements Trace.Visitor {
+		private Entity[] entities = new Entity[2];
+		private int count;
+
+		@Override
+		public boolean visit(int x, int y) {
+			for (Entity entity : world.getEntitiesAtLocation(x, y)) {
+				if (count == entities.length) return false;
+				entities[count++] = entity;
+			}
+			return true;
+		}
+	}
+
 	/**
 	 * Notify the source that they are too far to attack
 	 * @param source the attacker
 	 */
 	private void tooFar(LivingEntity source) {
-		world.sendEvent(new SpeakEvent(source + " is too far to attack"));
+		if (world.isObserved(SpeakEvent.class)) {
+			world.sendEvent(new SpeakEvent(source + " is too far to attack"));
+		}
 	}
 	
 	/**
@@ -168,6 +235,8 @@ public class AttackManager {
 	 * @param source the attacker
 	 */
 	private void blocked(LivingEntity source) {
-		world.sendEvent(new SpeakEvent("Something is blocking the path of the attack"));
+		if (world.isObserved(SpeakEvent.class)) {
+			world.sendEvent(new SpeakEvent("Something is blocking the path of the attack"));
+		}
 	}
 }
@@ -1,22 +1,171 @@
 package dnd.game;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 
 /**
  * A Random number generator class, customized for dice rolling in the Dungeons
  * and Dragons environment.
  * 
+ * Besides its own rolls, the dice give a separate stream of rolls to each
+ * subsystem (see {@link #stream(String)}), seeded from the dice's seed and the
+ * stream's name only. An extra roll in one subsystem, say the AI, then changes
+ * nothing in the others, say the loot. Dice are not thread safe: a thread
+ * should roll its own dice or streams.
  */
 public class Dice {
+	/** The stream for initiative, attack and damage rolls */
+	public static final String COMBAT = "combat";
+	/** The stream for the monsters' decisions */
+	public static final String AI = "ai";
+	/** The stream for chest contents and starting equipment */
+	public static final String LOOT = "loot";
+	/** The stream for the builds and abilities of characters */
+	public static final String CHARACTERS = "characters";
+	/** The stream for new levels and their population */
+	public static final String LEVELS = "levels";
+	
 	protected Random generator;
+	private long streamSeed;
+	private Map<String, Dice> streams;
+	private transient volatile Dice combat; // the COMBAT stream, without the synchronized lookup
 
 	public Dice(int seed) {
+		this((long) seed);
+	}
+
+	/**
+	 * Creates seeded dice, dice with the same seed roll alike
+	 * @param seed the seed
+	 */
+	public Dice(long seed) {
 		// Set the seed in the constructor - that is, only once per instantiation.
-		this.generator = new Random(seed);
+		this(new SplitMix64(seed), seed);
 	}
 
+	/**
+	 * Creates unseeded dice. Every instance gets its own unique seed, so dice created
+	 * in the same millisecond (e.g. by worlds built in parallel) do not roll alike.
+	 */
 	public Dice() {
-		this.generator = new Random(System.currentTimeMillis());
+		this(SplitMix64.randomSeed());
+	}
+
+	private Dice(Random generator, long streamSeed) {
+		this.generator = generator;
+		this.streamSeed = streamSeed;
+	}
+
+	/**
+	 * Gets the dice of a subsystem, which roll independently from these dice and
+	 * from the other streams. The same stream is returned for the same name.
+	 * 
+	 * @param name the name of the stream, for instance {@link #COMBAT}
+	 * @return the stream's dice
+	 */
+	public synchronized Dice stream(String name) {
+		if (streams == null) streams = new TreeMap<String, Dice>();
+		Dice stream = streams.get(name);
+		if (stream == null) {
+			long hash = 0;
+			for (int i = 0; i < name.length(); i++) {
+				hash = SplitMix64.mix64(hash + name.charAt(i));
+			}
+			stream = new Dice(SplitMix64.mix64(streamSeed ^ hash));
+			streams.put(name, stream);
+		}
+		return stream;
+	}
+
+	/**
+	 * Gets the {@link #COMBAT} stream, the one rolled for every attack, without
+	 * looking it up by name
+	 * 
+	 * @return the combat stream's dice
+	 */
+	public Dice combat() {
+		Dice stream = combat;
+		if (stream == null) {
+			combat = stream = stream(COMBAT);
+		}
+		return stream;
+	}
+
+	/**
+	 * Creates new dice from these, rolling independently of them, for instance
+	 * for another thread
+	 * 
+	 * @return the new dice
+	 */
+	public Dice split() {
+		Random split = generator instanceof SplitMix64 ? ((SplitMix64) generator).split()
+				: new SplitMix64(generator.nextLong());
+		return new Dice(split, split.nextLong());
+	}
+
+	/**
+	 * Saves the state of the random generator, so a saved game continues with the
+	 * same rolls after loading
+	 * 
+	 * @return the serialized generator state
+	 * @throws IOException if the generator cannot be serialized
+	 */
+	public synchronized byte[] getState() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(generator);
+		out.writeLong(streamSeed);
+		out.writeInt(streams == null ? 0 : streams.size());
+		if (streams != null) {
+			for (Map.Entry<String, Dice> stream : streams.entrySet()) {
+				out.writeUTF(stream.getKey());
+				out.writeObject(stream.getValue().getState());
+			}
+		}
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Restores a generator state saved by {@link #getState()}
+	 * 
+	 * @param state the serialized generator state
+	 * @throws IOException if the state is not a valid generator
+	 */
+	public synchronized void setState(byte[] state) throws IOException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(state));
+		try {
+			generator = (Random) in.readObject();
+			streams = null;
+			combat = null;
+			try {
+				streamSeed = in.readLong();
+			}
+			catch (EOFException e) { // saved before the streams, derive them from the generator
+				streamSeed = generator.nextLong();
+				return;
+			}
+			for (int n = in.readInt(); n > 0; n--) {
+				String name = in.readUTF();
+				stream(name).setState((byte[]) in.readObject());
+			}
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException("Unknown generator class: " + e.getMessage());
+		}
+		catch (ClassCastException e) {
+			throw new IOException("Not a generator: " + e.getMessage());
+		}
+		finally {
+			in.close();
+		}
 	}
 
 	/**
@@ -35,6 +184,40 @@ public class Dice {
 		return roll + modifier;
 	}
 
+	/**
+	 * Rolls the same dice several times, filling an array with the results. The
+	 * results are the ones as many calls to {@link #roll(int, int, int)} would give.
+	 * 
+	 * @param numDice The number of dice in each roll
+	 * @param dieSize The size of the die (4 sided, 6 sided, 20 sided, etc)
+	 * @param modifier A value to add to each roll
+	 * @param results The array to fill with the rolls
+	 */
+	public void roll(int numDice, int dieSize, int modifier, int[] results) {
+		roll(numDice, dieSize, modifier, results, 0, results.length);
+	}
+
+	/**
+	 * Rolls the same dice several times, filling part of an array with the results
+	 * 
+	 * @param numDice The number of dice in each roll
+	 * @param dieSize The size of the die (4 sided, 6 sided, 20 sided, etc)
+	 * @param modifier A value to add to each roll
+	 * @param results The array to fill with the rolls
+	 * @param offset The index of the first roll in the array
+	 * @param count The number of rolls
+	 */
+	public void roll(int numDice, int dieSize, int modifier, int[] results, int offset, int count) {
+		Random generator = this.generator;
+		for (int i = offset; i < offset + count; i++) {
+			int roll = modifier;
+			for (int j = 0; j < numDice; j++) {
+				roll += generator.nextInt(dieSize) + 1;
+			}
+			results[i] = roll;
+		}
+	}
+
 	/**
 	 * Method for simulating dice rolls, but with no modifier
 	 * 
@@ -0,0 +1,190 @@
+package dnd.game;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The exact probability of every result of a roll, for instance 2d6+1, so that the
+ * odds of a roll can be known without rolling it many times.
+ *
+ * Distributions are immutable. The distributions of NdM rolls are computed once,
+ * by convolving smaller rolls, and kept in a cache shared by all threads; adding a
+ * modifier to a cached distribution costs nothing.
+ *
+ * @see Dice
+ */
+public final class DiceDistribution {
+	private static final ConcurrentMap<Long, DiceDistribution> cache =
+			new ConcurrentHashMap<Long, DiceDistribution>();
+	private static volatile DiceDistribution abilityRoll;
+
+	private final int min;
+	private final double[] p; // p[i] is the probability of min + i
+	private final double mean;
+
+	private DiceDistribution(int min, double[] p) {
+		this.min = min;
+		this.p = p;
+		double sum = 0;
+		for (int i = 0; i < p.length; i++) {
+			sum += (min + i) * p[i];
+		}
+		this.mean = sum;
+	}
+
+	private DiceDistribution(DiceDistribution base, int shift) {
+		this.min = base.min + shift;
+		this.p = base.p;
+		this.mean = base.mean + shift;
+	}
+
+	/**
+	 * @param value the only result
+	 * @return the distribution of a roll always giving the same result
+	 */
+	public static DiceDistribution constant(int value) {
+		return new DiceDistribution(value, new double[] { 1 });
+	}
+
+	/**
+	 * The distribution of {@link Dice#roll(int, int, int)}
+	 * @param numDice the number of dice
+	 * @param dieSize the size of the die
+	 * @param modifier the value added to the roll
+	 * @return the distribution of the roll
+	 */
+	public static DiceDistribution of(int numDice, int dieSize, int modifier) {
+		if (numDice < 0 || dieSize < 1) {
+			throw new IllegalArgumentException("Invalid roll " + numDice + "d" + dieSize);
+		}
+		DiceDistribution roll = of(numDice, dieSize);
+		return modifier == 0 ? roll : new DiceDistribution(roll, modifier);
+	}
+
+	/**
+	 * NdM, from the cache or convolved from the two halves of the dice
+	 */
+	private static DiceDistribution of(int numDice, int dieSize) {
+		Long key = Long.valueOf(((long) numDice << 32) | dieSize);
+		DiceDistribution roll = cache.get(key);
+		if (roll != null) return roll;
+		if (numDice == 0) {
+			roll = constant(0);
+		}
+		else if (numDice == 1) {
+			double[] p = new double[dieSize];
+			for (int i = 0; i < dieSize; i++) {
+				p[i] = 1.0 / dieSize;
+			}
+			roll = new DiceDistribution(1, p);
+		}
+		else {
+			roll = of(numDice / 2, dieSize).plus(of(numDice - numDice / 2, dieSize));
+		}
+		DiceDistribution cached = cache.putIfAbsent(key, roll);
+		return cached == null ? roll : cached;
+	}
+
+	/**
+	 * The distribution of {@link Dice#abilityRoll()}: four six-sided dice, keeping
+	 * the three highest
+	 * @return the distribution of the roll
+	 */
+	public static DiceDistribution abilityRoll() {
+		DiceDistribution roll = abilityRoll;
+		if (roll == null) {
+			double[] p = new double[16]; // 3 to 18
+			for (int a = 1; a <= 6; a++) {
+				for (int b = 1; b <= 6; b++) {
+					for (int c = 1; c <= 6; c++) {
+						for (int d = 1; d <= 6; d++) {
+							int lowest = Math.min(Math.min(a, b), Math.min(c, d));
+							p[a + b + c + d - lowest - 3] += 1.0 / 1296;
+						}
+					}
+				}
+			}
+			roll = abilityRoll = new DiceDistribution(3, p);
+		}
+		return roll;
+	}
+
+	/**
+	 * @param other another roll
+	 * @return the distribution of the sum of this roll and another
+	 */
+	public DiceDistribution plus(DiceDistribution other) {
+		double[] sum = new double[p.length + other.p.length - 1];
+		for (int i = 0; i < p.length; i++) {
+			if (p[i] == 0) continue;
+			for (int j = 0; j < other.p.length; j++) {
+				sum[i + j] += p[i] * other.p[j];
+			}
+		}
+		return new DiceDistribution(min + other.min, sum);
+	}
+
+	/**
+	 * @param modifier a value to add to every result
+	 * @return the distribution of this roll plus the modifier
+	 */
+	public DiceDistribution plus(int modifier) {
+		return modifier == 0 ? this : new DiceDistribution(this, modifier);
+	}
+
+	/**
+	 * @return the lowest possible result
+	 */
+	public int min() {
+		return min;
+	}
+
+	/**
+	 * @return the highest possible result
+	 */
+	public int max() {
+		return min + p.length - 1;
+	}
+
+	/**
+	 * @return the average result
+	 */
+	public double mean() {
+		return mean;
+	}
+
+	/**
+	 * @param value a result
+	 * @return the probability of rolling exactly the value
+	 */
+	public double probability(int value) {
+		int i = value - min;
+		return i < 0 || i >= p.length ? 0 : p[i];
+	}
+
+	/**
+	 * @param value a result
+	 * @return the probability of rolling the value or more
+	 */
+	public double atLeast(int value) {
+		if (value <= min) return 1;
+		double sum = 0;
+		for (int i = value - min; i < p.length; i++) {
+			sum += p[i];
+		}
+		return sum;
+	}
+
+	/**
+	 * @param value a result
+	 * @return the probability of rolling the value or less
+	 */
+	public double atMost(int value) {
+		return 1 - atLeast(value + 1);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + min() + ".." + max() + ", mean " + mean + "]";
+	}
+}
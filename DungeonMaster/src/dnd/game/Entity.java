@@ -10,10 +10,11 @@ import dnd.util.ModifierSet;
  */
 public abstract class Entity {
 
-	private Location location = new Location(0, 0);
+	private Location location = Location.of(0, 0);
 	private ModifierSet<AbilityType> baseAbilityModifiers = new ModifierSet<AbilityType>();
 	private ModifierSet<DamageType> baseDamageModifiers = new ModifierSet<DamageType>();
 	private String name;
+	private transient EntityIndex index;
 
 	/**
 	 * Alias for {@link #getBaseAbilityModifiers() getBaseAbilityModifiers()}
@@ -33,6 +34,28 @@ public abstract class Entity {
 		return getBaseDamageModifiers();
 	}
 
+	/**
+	 * Get the total of a given ability type in {@link #abilityModifiers()}, without
+	 * building the modifier set when subclasses can avoid it
+	 * 
+	 * @param type the ability type
+	 * @return the total ability modifier value
+	 */
+	public int abilityDelta(AbilityType type) {
+		return abilityModifiers().delta(type);
+	}
+
+	/**
+	 * Get the total of a given damage type in {@link #damageModifiers()}, without
+	 * building the modifier set when subclasses can avoid it
+	 * 
+	 * @param type the damage type
+	 * @return the total damage modifier value
+	 */
+	public int damageDelta(DamageType type) {
+		return damageModifiers().delta(type);
+	}
+
 	/**
 	 * Get the base ability modifiers
 	 * 
@@ -97,7 +120,24 @@ public abstract class Entity {
 	 *            The y coordinate of the location to set
 	 */
 	public void setLocation(int x, int y) {
-		location = new Location(x, y);
+		Location old = location;
+		location = Location.of(x, y);
+		if (index != null) index.moved(this, old);
+	}
+
+	/**
+	 * @return the spatial index tracking this entity, or null if it is not in a world
+	 */
+	EntityIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Sets the spatial index tracking this entity (see {@link World#getEntitiesAtLocation(Location)})
+	 * @param index the index to notify of location changes, or null
+	 */
+	void setIndex(EntityIndex index) {
+		this.index = index;
 	}
 
 	@Override
@@ -0,0 +1,190 @@
+package dnd.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A grid backed spatial index of the entities in a {@link World}. Every cell of
+ * the level holds the entity standing on it, or an immutable list when several
+ * entities share the cell, so looking up a cell is a single array access and moving
+ * an entity between empty cells allocates nothing. Entities keep the index in sync by calling {@link #moved(Entity, Location)}
+ * from {@link Entity#setLocation(int, int)}.
+ *
+ * The grid is split into the same square chunks as a file backed {@link Level}, and
+ * a chunk's cells are only allocated once an entity enters it, so the index of a
+ * very large level only costs memory around its entities.
+ *
+ * Entities outside the level boundaries (or placed before a level is set) are kept
+ * in a small overflow list that is scanned linearly.
+ */
+class EntityIndex {
+	private static final List<Entity> EMPTY = Collections.emptyList();
+	private static final int CHUNK_SHIFT = MappedTileStore.CHUNK_SHIFT;
+	private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+	private int width;
+	private int height;
+	private int chunksX;
+	private Object[][] chunks;
+	private List<Entity> outside;
+
+	/**
+	 * Creates an index sized for a level
+	 * @param level the level to size the grid for, can be null
+	 */
+	public EntityIndex(Level level) {
+		this.outside = new ArrayList<Entity>();
+		allocate(level);
+	}
+
+	/**
+	 * Resizes the grid for a new level and re-buckets every indexed entity
+	 * @param level the new level, can be null
+	 */
+	public void resize(Level level) {
+		List<Entity> all = new ArrayList<Entity>(outside);
+		for (Object[] chunk : chunks) {
+			if (chunk == null) continue;
+			for (Object cell : chunk) {
+				if (cell != null) all.addAll(cellList(cell));
+			}
+		}
+		outside.clear();
+		allocate(level);
+		for (Entity e : all) {
+			insert(e, e.getLocation());
+		}
+	}
+
+	/**
+	 * Adds an entity to the index. Adding an entity twice has no effect.
+	 * @param entity the entity to add
+	 */
+	public void add(Entity entity) {
+		if (entity.getIndex() == this) return;
+		if (entity.getIndex() != null) entity.getIndex().remove(entity);
+		entity.setIndex(this);
+		insert(entity, entity.getLocation());
+	}
+
+	/**
+	 * Removes an entity from the index
+	 * @param entity the entity to remove
+	 */
+	public void remove(Entity entity) {
+		if (entity.getIndex() != this) return;
+		delete(entity, entity.getLocation());
+		entity.setIndex(null);
+	}
+
+	/**
+	 * Callback from an indexed entity that changed its location
+	 * @param entity the entity that moved
+	 * @param oldLocation the location the entity was indexed at
+	 */
+	public void moved(Entity entity, Location oldLocation) {
+		delete(entity, oldLocation);
+		insert(entity, entity.getLocation());
+	}
+
+	/**
+	 * Returns the entities at a location. The returned list is read only and is
+	 * not affected by later changes to the index.
+	 *
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return all entities at the location
+	 */
+	public List<Entity> entitiesAt(int x, int y) {
+		if (inGrid(x, y)) {
+			Object[] chunk = chunks[chunk(x, y)];
+			Object cell = chunk == null ? null : chunk[cell(x, y)];
+			return cell == null ? EMPTY : cellList(cell);
+		}
+		if (outside.isEmpty()) return EMPTY;
+		List<Entity> ents = new ArrayList<Entity>();
+		for (Entity e : outside) {
+			if (e.getLocation().getX() == x && e.getLocation().getY() == y) ents.add(e);
+		}
+		return ents;
+	}
+
+	private void allocate(Level level) {
+		width = level == null ? 0 : level.getWidth();
+		height = level == null ? 0 : level.getHeight();
+		chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+		chunks = new Object[chunksX * ((height + CHUNK_MASK) >> CHUNK_SHIFT)][];
+	}
+
+	private int chunk(int x, int y) {
+		return (x >> CHUNK_SHIFT) + (y >> CHUNK_SHIFT) * chunksX;
+	}
+
+	private static int cell(int x, int y) {
+		return (x & CHUNK_MASK) + ((y & CHUNK_MASK) << CHUNK_SHIFT);
+	}
+
+	private boolean inGrid(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
+	}
+
+	private void insert(Entity entity, Location loc) {
+		if (loc == null || !inGrid(loc.getX(), loc.getY())) {
+			outside.add(entity);
+			return;
+		}
+		int c = chunk(loc.getX(), loc.getY());
+		if (chunks[c] == null) chunks[c] = new Object[1 << (2 * CHUNK_SHIFT)];
+		Object[] cells = chunks[c];
+		int i = cell(loc.getX(), loc.getY());
+		Object cell = cells[i];
+		if (cell == null) { // the usual case, a lone entity is kept as is
+			cells[i] = entity;
+			return;
+		}
+		List<Entity> list = cellList(cell);
+		Entity[] ents = list.toArray(new Entity[list.size() + 1]);
+		ents[list.size()] = entity;
+		cells[i] = Collections.unmodifiableList(Arrays.asList(ents));
+	}
+
+	private void delete(Entity entity, Location loc) {
+		if (loc == null || !inGrid(loc.getX(), loc.getY())) {
+			outside.remove(entity);
+			return;
+		}
+		Object[] cells = chunks[chunk(loc.getX(), loc.getY())];
+		if (cells == null) return;
+		int i = cell(loc.getX(), loc.getY());
+		Object cell = cells[i];
+		if (cell == null) return;
+		if (cell == entity) {
+			cells[i] = null;
+			return;
+		}
+		if (cell instanceof Entity) return;
+		List<Entity> list = cellList(cell);
+		int pos = list.indexOf(entity);
+		if (pos < 0) return;
+		if (list.size() == 2) {
+			cells[i] = list.get(1 - pos);
+			return;
+		}
+		Entity[] ents = new Entity[list.size() - 1];
+		for (int j = 0, k = 0; j < list.size(); j++) {
+			if (j != pos) ents[k++] = list.get(j);
+		}
+		cells[i] = Collections.unmodifiableList(Arrays.asList(ents));
+	}
+
+	/**
+	 * @return the entities of a cell holding a lone entity or a list of them
+	 */
+	@SuppressWarnings("unchecked")
+	private static List<Entity> cellList(Object cell) {
+		if (cell instanceof Entity) return Collections.singletonList((Entity) cell);
+		return (List<Entity>) cell;
+	}
+}
@@ -0,0 +1,75 @@
+package dnd.game;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A list view over one of the {@link World}'s entity lists which keeps the world's
+ * {@link EntityIndex} up to date when entities are added or removed. The backing list
+ * is the one that is saved with the world, so the save format is not affected.
+ *
+ * @param <T> the entity type held by the list
+ */
+class EntityList<T extends Entity> extends AbstractList<T> {
+	private List<T> backing;
+	private EntityIndex index;
+
+	/**
+	 * Creates a view over a backing list
+	 * @param backing the list holding the entities
+	 * @param index the index to keep in sync
+	 */
+	public EntityList(List<T> backing, EntityIndex index) {
+		this.backing = backing;
+		this.index = index;
+	}
+
+	@Override
+	public T get(int i) {
+		return backing.get(i);
+	}
+
+	@Override
+	public int size() {
+		return backing.size();
+	}
+
+	@Override
+	public T set(int i, T entity) {
+		T old = backing.set(i, entity);
+		unindex(old);
+		index.add(entity);
+		return old;
+	}
+
+	@Override
+	public void add(int i, T entity) {
+		backing.add(i, entity);
+		index.add(entity);
+	}
+
+	@Override
+	public T remove(int i) {
+		T old = backing.remove(i);
+		unindex(old);
+		return old;
+	}
+
+	@Override
+	public void clear() {
+		for (T entity : backing) {
+			index.remove(entity);
+		}
+		backing.clear();
+	}
+
+	/**
+	 * Removes an entity from the index unless it is still in the list
+	 * @param entity the entity that left the list
+	 */
+	private void unindex(T entity) {
+		if (entity != null && !backing.contains(entity)) {
+			index.remove(entity);
+		}
+	}
+}
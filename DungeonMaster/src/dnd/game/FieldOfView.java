@@ -0,0 +1,203 @@
+package dnd.game;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Finds the cells an entity can see on a {@link Level}, by recursive shadowcasting:
+ * each of the eight octants around the entity is scanned row by row moving away
+ * from it, and the shadow of every collidable tile (rock, walls, closed doors) is
+ * skipped in the rows behind it. Other entities do not block the sight. An entity
+ * sees at most {@link #getRadius()} cells away in every direction.
+ *
+ * The cells seen by each entity are kept until the entity moves or a cell it sees
+ * changes (for instance when a door is toggled): a change of the level's cells only
+ * forgets the entities whose view overlaps the changed region.
+ */
+public class FieldOfView implements LevelObserver {
+	/** The default sight radius, in cells */
+	public static final int DEFAULT_RADIUS = 8;
+
+	// coordinate multipliers xx, xy, yx, yy turning the first octant into each of the eight
+	private static final int[][] OCTANTS = {
+		{ 1, 0, 0, 1 }, { 0, 1, 1, 0 }, { 0, -1, 1, 0 }, { -1, 0, 0, 1 },
+		{ -1, 0, 0, -1 }, { 0, -1, -1, 0 }, { 0, 1, -1, 0 }, { 1, 0, 0, -1 }
+	};
+
+	private Level level;
+	private int radius;
+	private Map<Entity, Visibility> views;
+
+	/**
+	 * Creates a field of view with the default sight radius
+	 * @param level the level to look at
+	 */
+	public FieldOfView(Level level) {
+		this(level, DEFAULT_RADIUS);
+	}
+
+	/**
+	 * Constructor
+	 * @param level the level to look at
+	 * @param radius the number of cells an entity sees in every direction
+	 */
+	public FieldOfView(Level level, int radius) {
+		this.level = level;
+		this.radius = radius;
+		this.views = new IdentityHashMap<Entity, Visibility>();
+		level.addObserver(this);
+	}
+
+	/**
+	 * @return the level looked at
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the number of cells an entity sees in every direction
+	 */
+	public int getRadius() {
+		return radius;
+	}
+
+	/**
+	 * Stops tracking the level's changes. The field of view cannot be used afterwards.
+	 */
+	public void dispose() {
+		level.removeObserver(this);
+		views.clear();
+	}
+
+	@Override
+	public void cellsChanged(Level level, int x, int y, int width, int height) {
+		for (Iterator<Visibility> i = views.values().iterator(); i.hasNext(); ) {
+			if (i.next().overlaps(x, y, width, height)) i.remove();
+		}
+	}
+
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return whether a cell blocks the sight, cells outside the map or empty do
+	 */
+	public boolean isOpaque(int x, int y) {
+		Tile tile = level.getCell(x, y);
+		return tile == null || tile.isCollidable();
+	}
+
+	/**
+	 * @param viewer an entity on the level
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return whether the entity sees the cell
+	 */
+	public boolean canSee(Entity viewer, int x, int y) {
+		Location location = viewer.getLocation();
+		if (location == null || Location.distance(location.getX(), location.getY(), x, y) > radius) return false;
+		return getVisibility(viewer).isVisible(x, y);
+	}
+
+	/**
+	 * @param viewer an entity on the level
+	 * @param location a location
+	 * @return whether the entity sees the cell at the location
+	 */
+	public boolean canSee(Entity viewer, Location location) {
+		return canSee(viewer, location.getX(), location.getY());
+	}
+
+	/**
+	 * Gets the cells an entity sees, computed again only if the entity moved or a
+	 * cell in its view changed since they were last asked for
+	 * @param viewer an entity on the level
+	 * @return the cells seen by the entity, none if it has no location
+	 */
+	public Visibility getVisibility(Entity viewer) {
+		Location location = viewer.getLocation();
+		if (location == null) return new Visibility(0, 0, 0, 0);
+		Visibility view = views.get(viewer);
+		if (view == null || view.getX() + radius != location.getX() || view.getY() + radius != location.getY()) {
+			view = compute(location.getX(), location.getY());
+			views.put(viewer, view);
+		}
+		return view;
+	}
+
+	/**
+	 * @param viewers entities on the level
+	 * @return the cells seen by any of the entities
+	 */
+	public Visibility getVisibility(Collection<? extends Entity> viewers) {
+		int left = Integer.MAX_VALUE, top = Integer.MAX_VALUE;
+		int right = Integer.MIN_VALUE, bottom = Integer.MIN_VALUE;
+		for (Entity viewer : viewers) {
+			Location location = viewer.getLocation();
+			if (location == null) continue;
+			left = Math.min(left, location.getX() - radius);
+			top = Math.min(top, location.getY() - radius);
+			right = Math.max(right, location.getX() + radius);
+			bottom = Math.max(bottom, location.getY() + radius);
+		}
+		if (left > right) return new Visibility(0, 0, 0, 0);
+		Visibility union = new Visibility(left, top, right - left + 1, bottom - top + 1);
+		for (Entity viewer : viewers) {
+			if (viewer.getLocation() != null) union.add(getVisibility(viewer));
+		}
+		return union;
+	}
+
+	/**
+	 * Shadowcasts the eight octants around a cell
+	 */
+	private Visibility compute(int x, int y) {
+		Visibility view = new Visibility(x - radius, y - radius, 2 * radius + 1, 2 * radius + 1);
+		if (level.inBounds(x, y)) view.set(x, y);
+		for (int[] octant : OCTANTS) {
+			castLight(view, x, y, 1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+		}
+		return view;
+	}
+
+	/**
+	 * Scans the rows of an octant from a row on, between two slopes, calling itself
+	 * for the part of the next rows left lit beside each run of opaque cells
+	 */
+	private void castLight(Visibility view, int x, int y, int row, double start, double end,
+			int xx, int xy, int yx, int yy) {
+		if (start < end) return;
+		double newStart = 0;
+		for (int j = row; j <= radius; j++) {
+			boolean blocked = false;
+			for (int dx = -j, dy = -j; dx <= 0; dx++) {
+				double leftSlope = (dx - 0.5) / (dy + 0.5);
+				double rightSlope = (dx + 0.5) / (dy - 0.5);
+				if (start < rightSlope) continue;
+				if (end > leftSlope) break;
+
+				int cellX = x + dx * xx + dy * xy;
+				int cellY = y + dx * yx + dy * yy;
+				if (level.inBounds(cellX, cellY)) view.set(cellX, cellY);
+				boolean opaque = isOpaque(cellX, cellY);
+				if (blocked) {
+					if (opaque) {
+						newStart = rightSlope;
+					}
+					else {
+						blocked = false;
+						start = newStart;
+					}
+				}
+				else if (opaque && j < radius) {
+					blocked = true;
+					castLight(view, x, y, j + 1, start, leftSlope, xx, xy, yx, yy);
+					newStart = rightSlope;
+				}
+			}
+			if (blocked) break;
+		}
+	}
+}
@@ -2,7 +2,7 @@ package dnd.game;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -15,7 +15,8 @@ import dnd.game.entity.item.Item;
 /**
  * Inventory is a data structure which represents the inventory
  * (typically of) a LivingEntity. It also defines rules for accessing and
- * manipulating the inventory and validating inventory related requests
+ * manipulating the inventory and validating inventory related requests.
+ * Items are kept in insertion order so that games replay identically.
  * 
  * @see EquippableItem
  * @see EquipmentSlot
@@ -28,12 +29,13 @@ public class Inventory implements Iterable<Item> {
 	private int maxItemSlots;
 	private Map<EquipmentSlot, EquippableItem> equipmentSlots;
 	private int gold;
+	private transient int equipmentVersion;
 	
 	/**
 	 * Constructor
 	 */
 	public Inventory() {
-		itemSlots = new HashSet<Item>();
+		itemSlots = new LinkedHashSet<Item>();
 		gold = 0;
 		maxItemSlots = DEFAULT_MAX_ITEMS;
 		equipmentSlots = new HashMap<EquipmentSlot, EquippableItem>();
@@ -50,7 +52,7 @@ public class Inventory implements Iterable<Item> {
 	 * @return The slots in this inventory
 	 */
 	public Set<Item> getItemSlots() {
-		return new HashSet<Item>(itemSlots);
+		return new LinkedHashSet<Item>(itemSlots);
 	}
 	
 	/**
@@ -61,6 +63,30 @@ public class Inventory implements Iterable<Item> {
 		return new ArrayList<EquippableItem>(equipmentSlots.values());
 	}
 
+	/**
+	 * Get the modification count of the equipment slots. The count goes up every time
+	 * an item is equipped or unequipped.
+	 * @return the equipment modification count
+	 */
+	public int getEquipmentVersion() {
+		return equipmentVersion;
+	}
+	
+	/**
+	 * Get the sum of the modification counts of the equipped items' modifier sets.
+	 * Together with {@link #getEquipmentVersion()} this tells whether the modifiers
+	 * given by the equipment changed, without copying the equipped items.
+	 * @return the summed modifier set modification counts
+	 */
+	public int getEquippedModifierVersion() {
+		int version = 0;
+		for (EquippableItem item : equipmentSlots.values()) {
+			version += item.getBaseAbilityModifiers().getVersion();
+			version += item.getBaseDamageModifiers().getVersion();
+		}
+		return version;
+	}
+
 	/**
 	 * @return The maximum number of slots for items in this inventory
 	 */
@@ -169,6 +195,7 @@ public class Inventory implements Iterable<Item> {
 			}
 			equipmentSlots.remove(equippedSlot);
 			equipmentSlots.put(slot, equipment);
+			equipmentVersion++;
 			return true;
 		}
 		return false;
@@ -194,6 +221,7 @@ public class Inventory implements Iterable<Item> {
 	public boolean unequipSlot(EquipmentSlot slot) {
 		EquippableItem e = equipmentSlots.remove(slot);
 		if (e != null) {
+			equipmentVersion++;
 			addItem(e);
 			return true;
 		}
@@ -228,7 +256,7 @@ public class Inventory implements Iterable<Item> {
 	 * @return The total number of slots in this inventory
 	 */
 	public int itemCount() {
-		return getItemSlots().size();
+		return itemSlots.size();
 	}
 	
 	/**
@@ -237,7 +265,7 @@ public class Inventory implements Iterable<Item> {
 	 * @return True if the item is in the inventory, false otherwise.
 	 */
 	public boolean hasItem(Item item) {
-		return getItemSlots().contains(item);
+		return itemSlots.contains(item);
 	}
 	
 	/**
@@ -257,6 +285,7 @@ public class Inventory implements Iterable<Item> {
 	public void clear() {
 		itemSlots.clear();
 		equipmentSlots.clear();
+		equipmentVersion++;
 		gold = 0;
 	}
 	
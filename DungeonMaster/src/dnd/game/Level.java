@@ -1,19 +1,27 @@
 package dnd.game;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * The level class implements the map for the map editor and game
  * 
+ * Each cell's tile is kept as a single byte, either in a row major array on the heap
+ * or, for levels too large for the heap, in a memory mapped file paged in by chunks
+ * (see {@link #Level(int, int, File)}). The saved format still uses a Tile[][] array,
+ * see {@link #writeReplace()} and {@link #readResolve()}.
  */
 public class Level {
-
 	private int width;
 	private int height;
 	private Location spawnLocation;
-	private Tile[][] tiles;
+	private Tile[][] tiles; // save format only, null while the level is in use
 	private List<Entity> initialEntities;
+	private transient TileStore cells;
+	private transient volatile CopyOnWriteArrayList<LevelObserver> observers; // added and notified from several threads
 
 	/**
 	 * Constructor
@@ -24,7 +32,26 @@ public class Level {
 		this.initialEntities = new ArrayList<Entity>();
 		this.width = width;
 		this.height = height;
-		this.tiles = new Tile[width][height];
+		this.cells = new ArrayTileStore(width, height);
+	}
+
+	/**
+	 * Creates a level whose cells are kept in a file. Only the chunks of the file
+	 * around the cells being used are mapped in memory, so the level can be much
+	 * larger than the heap. An existing file keeps its tiles, so a level can be
+	 * reopened with the same dimensions; the cells of a new file are empty.
+	 *
+	 * @param width Number of column in the map
+	 * @param height Number of rows in the map
+	 * @param file The file holding the cells
+	 * @throws IOException if the file cannot be opened
+	 * @see #close()
+	 */
+	public Level(int width, int height, File file) throws IOException {
+		this.initialEntities = new ArrayList<Entity>();
+		this.width = width;
+		this.height = height;
+		this.cells = new MappedTileStore(file, width, height);
 	}
 
 	/**
@@ -47,25 +74,20 @@ public class Level {
 	 * @return The Tile object from the specified location
 	 */
 	public Tile getCell(Location location) {
-		try {
-			return tiles[location.getX()][location.getY()];
-		}
-		catch (NullPointerException e) {
-			return null;
-		}
-		catch (ArrayIndexOutOfBoundsException e) {
-			return null;
-		}
+		if (location == null) return null;
+		return getCell(location.getX(), location.getY());
 	}
 	
 	/**
 	 * Get a specific map cell Tile
 	 * @param x The x coordinate of the map cell to get the Tile from
 	 * @param y The y coordinate of the map cell to get the Tile from
-	 * @return The Tile object from the specified location
+	 * @return The Tile object from the specified location, null if the cell is empty
+	 *         or outside the map
 	 */
 	public Tile getCell(int x, int y) {
-		return tiles[x][y];
+		if (!inBounds(x, y)) return null;
+		return cells.get(x, y);
 	}
 
 	/**
@@ -73,9 +95,72 @@ public class Level {
 	 * @param x The x coordinate of the map cell to set the Tile at
 	 * @param y The y coordinate of the map cell to set the Tile at
 	 * @param tile The Tile to set
+	 * @throws IndexOutOfBoundsException if the cell is outside the map
 	 */
 	public void setCell(int x, int y, Tile tile) {
-		tiles[x][y] = tile;
+		checkRegion(x, y, 1, 1);
+		cells.set(x, y, tile);
+		cellsChanged(x, y, 1, 1);
+	}
+
+	/**
+	 * Copy a horizontal run of cells into an array
+	 * @param y The row to read
+	 * @param x The first column to read
+	 * @param length The number of cells to read
+	 * @param dest The array to copy the tiles to, starting at index 0
+	 * @throws IndexOutOfBoundsException if the run is outside the map
+	 */
+	public void getRow(int y, int x, int length, Tile[] dest) {
+		checkRegion(x, y, length, 1);
+		cells.getRow(y, x, length, dest, 0);
+	}
+
+	/**
+	 * Copy a rectangular region of cells into an array, row by row
+	 * @param x The left column of the region
+	 * @param y The top row of the region
+	 * @param regionWidth The number of columns in the region
+	 * @param regionHeight The number of rows in the region
+	 * @param dest The array to copy the tiles to, cell (x + i, y + j) goes to index i + j * regionWidth
+	 * @throws IndexOutOfBoundsException if the region is outside the map
+	 */
+	public void getRegion(int x, int y, int regionWidth, int regionHeight, Tile[] dest) {
+		checkRegion(x, y, regionWidth, regionHeight);
+		for (int j = 0; j < regionHeight; j++) {
+			cells.getRow(y + j, x, regionWidth, dest, j * regionWidth);
+		}
+	}
+
+	/**
+	 * Set a horizontal run of cells from an array
+	 * @param y The row to write
+	 * @param x The first column to write
+	 * @param length The number of cells to write
+	 * @param src The tiles to write, starting at index 0
+	 * @throws IndexOutOfBoundsException if the run is outside the map
+	 */
+	public void setRow(int y, int x, int length, Tile[] src) {
+		checkRegion(x, y, length, 1);
+		cells.setRow(y, x, length, src);
+		cellsChanged(x, y, length, 1);
+	}
+
+	/**
+	 * Set every cell of a rectangular region to the same tile
+	 * @param x The left column of the region
+	 * @param y The top row of the region
+	 * @param regionWidth The number of columns in the region
+	 * @param regionHeight The number of rows in the region
+	 * @param tile The tile to set
+	 * @throws IndexOutOfBoundsException if the region is outside the map
+	 */
+	public void fillRegion(int x, int y, int regionWidth, int regionHeight, Tile tile) {
+		checkRegion(x, y, regionWidth, regionHeight);
+		for (int j = 0; j < regionHeight; j++) {
+			cells.fillRow(y + j, x, regionWidth, tile);
+		}
+		cellsChanged(x, y, regionWidth, regionHeight);
 	}
 
 	/**
@@ -86,10 +171,22 @@ public class Level {
 	 * @return True if the Entity can be set the given location
 	 */
 	public boolean acceptsEntity(World world, Entity entity, Location location) {
-		if (!locationInBounds(location))
+		return acceptsEntity(world, entity, location.getX(), location.getY());
+	}
+
+	/**
+	 * Test a map cell to see if it prevents or allows a specific Entity to set it's current location to it.
+	 * @param world the world to test in
+	 * @param entity The entity to test
+	 * @param x The x coordinate of the map cell to test
+	 * @param y The y coordinate of the map cell to test
+	 * @return True if the Entity can be set the given location
+	 */
+	public boolean acceptsEntity(World world, Entity entity, int x, int y) {
+		if (!inBounds(x, y))
 			return false;
 		
-		if (!getCell(location.getX(), location.getY()).acceptsEntity(world, entity))
+		if (!getCell(x, y).acceptsEntity(world, entity))
 			return false;
 		
 		return true;
@@ -101,8 +198,17 @@ public class Level {
 	 * @return True if the location is within the boundaries
 	 */
 	public boolean locationInBounds(Location location) {
-		return location.getX() >= 0 && location.getX() < getWidth() &&
-			location.getY() >= 0 && location.getY() < getHeight();
+		return inBounds(location.getX(), location.getY());
+	}
+
+	/**
+	 * Test if the given cell is within the boundaries of the map
+	 * @param x The x coordinate
+	 * @param y The y coordinate
+	 * @return True if the cell is within the boundaries
+	 */
+	public boolean inBounds(int x, int y) {
+		return x >= 0 && x < width && y >= 0 && y < height;
 	}
 
 	/**
@@ -129,4 +235,104 @@ public class Level {
 	public List<Entity> getInitialEntities() {
 		return initialEntities;
 	}
+
+	/**
+	 * Registers an observer to be told when cells change. Observers can be added
+	 * and removed by any thread, they are told on the thread changing the cells.
+	 * @param observer the observer to add
+	 */
+	public void addObserver(LevelObserver observer) {
+		CopyOnWriteArrayList<LevelObserver> list = observers;
+		if (list == null) {
+			synchronized (this) {
+				list = observers;
+				if (list == null)
+					observers = list = new CopyOnWriteArrayList<LevelObserver>();
+			}
+		}
+		list.addIfAbsent(observer);
+	}
+
+	/**
+	 * Removes an observer from the observers list
+	 * @param observer the observer to remove
+	 */
+	public void removeObserver(LevelObserver observer) {
+		List<LevelObserver> list = observers;
+		if (list != null)
+			list.remove(observer);
+	}
+
+	private void cellsChanged(int x, int y, int regionWidth, int regionHeight) {
+		List<LevelObserver> list = observers;
+		if (list == null) return;
+		for (LevelObserver observer : list) {
+			observer.cellsChanged(this, x, y, regionWidth, regionHeight);
+		}
+	}
+
+	/**
+	 * Releases the file holding the cells of a level created with
+	 * {@link #Level(int, int, File)}. Levels kept on the heap need not be closed.
+	 * The level cannot be used afterwards.
+	 *
+	 * @throws IOException if the file could not be closed
+	 */
+	public void close() throws IOException {
+		cells.close();
+	}
+
+	/**
+	 * Throws an exception if a region is not entirely inside the map
+	 */
+	private void checkRegion(int x, int y, int regionWidth, int regionHeight) {
+		if (x < 0 || y < 0 || regionWidth < 0 || regionHeight < 0 ||
+				x + regionWidth > width || y + regionHeight > height) {
+			throw new IndexOutOfBoundsException("Region (" + x + ", " + y + ") " + regionWidth + 
+					"x" + regionHeight + " is outside the " + width + "x" + height + " map");
+		}
+	}
+
+	/**
+	 * Called by xStream before saving: saves a copy of this level which has the
+	 * cells unpacked into the Tile[][] save format.
+	 * @return the level to save in place of this one
+	 */
+	private Object writeReplace() {
+		Level copy = new Level();
+		copy.width = width;
+		copy.height = height;
+		copy.spawnLocation = spawnLocation;
+		copy.initialEntities = initialEntities;
+		copy.tiles = new Tile[width][height];
+		for (int x = 0; x < width; x++) {
+			for (int y = 0; y < height; y++) {
+				copy.tiles[x][y] = getCell(x, y);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Called by xStream after loading: packs the saved Tile[][] array into the cells.
+	 * @return this level
+	 */
+	private Object readResolve() {
+		cells = new ArrayTileStore(width, height);
+		if (tiles != null) {
+			for (int x = 0; x < width && x < tiles.length; x++) {
+				for (int y = 0; y < height && tiles[x] != null && y < tiles[x].length; y++) {
+					cells.set(x, y, tiles[x][y]);
+				}
+			}
+			tiles = null;
+		}
+		return this;
+	}
+
+	/**
+	 * Constructor for the save copy, see {@link #writeReplace()}
+	 */
+	private Level() {
+	}
 }
@@ -0,0 +1,19 @@
+package dnd.game;
+
+/**
+ * An interface for objects that keep state derived from a {@link Level}'s cells and
+ * need to know when the cells change.
+ *
+ * @see Level#addObserver(LevelObserver)
+ */
+public interface LevelObserver {
+	/**
+	 * Signal that a rectangular region of cells was changed
+	 * @param level the level that changed
+	 * @param x the left column of the region
+	 * @param y the top row of the region
+	 * @param width the number of columns in the region
+	 * @param height the number of rows in the region
+	 */
+	public void cellsChanged(Level level, int x, int y, int width, int height);
+}
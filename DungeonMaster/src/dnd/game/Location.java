@@ -3,11 +3,18 @@ package dnd.game;
 /**
  * Location defines an x, y pair which represent a location on the map grid.
  * 
+ * Locations never change, so the same object can be shared by every entity and
+ * collection using it: {@link #of(int, int)} returns shared locations for the cells
+ * of the usual levels instead of allocating new ones. Locations can be used as
+ * hash keys, and {@link #pack()} gives both coordinates as a single long.
  */
-public class Location implements Comparable<Location> {
+public final class Location implements Comparable<Location> {
+	private static final int CACHE_MIN = -16;
+	private static final int CACHE_SIZE = 256;
+	private static final Location[] cache = new Location[CACHE_SIZE * CACHE_SIZE];
 
-	private int x;
-	private int y;
+	private final int x;
+	private final int y;
 	
 	/**
 	 * Constructor
@@ -19,6 +26,49 @@ public class Location implements Comparable<Location> {
 		this.y = y;
 	}
 
+	/**
+	 * Gets a location, shared with the other callers when the coordinates are
+	 * small enough to be cached
+	 * @param x The x coordinate of the location
+	 * @param y The y coordinate of the location
+	 * @return the location
+	 */
+	public static Location of(int x, int y) {
+		int i = x - CACHE_MIN, j = y - CACHE_MIN;
+		if (i < 0 || j < 0 || i >= CACHE_SIZE || j >= CACHE_SIZE) return new Location(x, y);
+		int cell = i + j * CACHE_SIZE;
+		Location location = cache[cell];
+		if (location == null) { // two threads may both create it, either one is fine
+			location = cache[cell] = new Location(x, y);
+		}
+		return location;
+	}
+
+	/**
+	 * @param packed the coordinates packed by {@link #pack(int, int)}
+	 * @return the location
+	 */
+	public static Location unpack(long packed) {
+		return of((int) (packed >> 32), (int) packed);
+	}
+
+	/**
+	 * Packs two coordinates into a single value, for instance to use as a key
+	 * @param x The x coordinate
+	 * @param y The y coordinate
+	 * @return the packed coordinates
+	 */
+	public static long pack(int x, int y) {
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+
+	/**
+	 * @return both coordinates packed into a single value, see {@link #pack(int, int)}
+	 */
+	public long pack() {
+		return pack(x, y);
+	}
+
 	/**
 	 * @return The x coordinate of this location
 	 */
@@ -39,7 +89,17 @@ public class Location implements Comparable<Location> {
 	 * @return The sum of the x and y coordinates, as a new location object
 	 */
 	public Location add(Location o) {
-		return new Location(x + o.x, y + o.y);
+		return of(x + o.x, y + o.y);
+	}
+
+	/**
+	 * Offsets this location
+	 * @param dx The offset on the x axis
+	 * @param dy The offset on the y axis
+	 * @return The offset location
+	 */
+	public Location add(int dx, int dy) {
+		return of(x + dx, y + dy);
 	}
 	
 	/**
@@ -48,7 +108,7 @@ public class Location implements Comparable<Location> {
 	 * @return a new Location object holding the difference of the two locations
 	 */
 	public Location subtract(Location o) {
-		return new Location(x - o.x, y - o.y);
+		return of(x - o.x, y - o.y);
 	}
 	
 	/**
@@ -57,7 +117,20 @@ public class Location implements Comparable<Location> {
 	 * @return distance between locations
 	 */
 	public int distanceTo(Location o) {
-		return new Trace(this, o).distance();
+		return distance(x, y, o.x, o.y);
+	}
+
+	/**
+	 * Returns the number of moves between two cells, moving diagonally counting as
+	 * a single move (the largest of the x and y differences)
+	 * @param x1 the x coordinate of the first cell
+	 * @param y1 the y coordinate of the first cell
+	 * @param x2 the x coordinate of the second cell
+	 * @param y2 the y coordinate of the second cell
+	 * @return distance between the cells
+	 */
+	public static int distance(int x1, int y1, int x2, int y2) {
+		return Math.max(Math.abs(x1 - x2), Math.abs(y1 - y2));
 	}
 
 	// Object overrides
@@ -67,8 +140,8 @@ public class Location implements Comparable<Location> {
 
 	@Override
 	public int compareTo(Location o) {
-		if (getY() == o.getY() && getX() == o.getX()) return 0;
-		else if (getY() > o.getY() || (getY() == o.getY() && getX() > o.getX())) {
+		if (y == o.y && x == o.x) return 0;
+		else if (y > o.y || (y == o.y && x > o.x)) {
 			return -1;
 		}
 		else {
@@ -78,9 +151,16 @@ public class Location implements Comparable<Location> {
 	
 	@Override
 	public boolean equals(Object other) {
+		if (other == this) return true;
 		if (other instanceof Location) {
-			return compareTo((Location)other) == 0;
+			Location o = (Location) other;
+			return x == o.x && y == o.y;
 		}
 		return false;
 	}
+
+	@Override
+	public int hashCode() {
+		return 31 * x + y;
+	}
 }
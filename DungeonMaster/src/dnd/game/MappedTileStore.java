@@ -0,0 +1,178 @@
+package dnd.game;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the cells of a level in a memory mapped file, split into square chunks.
+ * Each chunk holds its cells row by row and the chunks are stored one after the
+ * other, so the cells around a location share a few pages of the file. The file is
+ * mapped in segments of many chunks, each segment the first time one of its cells
+ * is used, and the operating system pages chunks in and out as they are touched:
+ * the heap cost of a level does not depend on its size, and only the chunks near
+ * the cells being played take memory.
+ *
+ * Cells of a new file are empty. Writes go straight to the mapped file.
+ */
+class MappedTileStore extends TileStore {
+	/** The number of cells along each side of a chunk, as a power of two */
+	static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE;
+	/** The number of chunks mapped together, as a power of two */
+	private static final int SEGMENT_SHIFT = 10;
+	private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+	private RandomAccessFile file;
+	private FileChannel channel;
+	private int chunksX;
+	private long length;
+	private AtomicReferenceArray<MappedByteBuffer> segments;
+
+	/**
+	 * Opens or creates a file to hold the cells of a level. An existing file keeps
+	 * its tiles, so a level can be reopened with the same dimensions.
+	 *
+	 * @param file the file holding the cells
+	 * @param width the number of columns
+	 * @param height the number of rows
+	 * @throws IOException if the file cannot be opened or resized
+	 */
+	MappedTileStore(File file, int width, int height) throws IOException {
+		this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+		int chunks = chunksX * ((height + CHUNK_MASK) >> CHUNK_SHIFT);
+		this.length = (long) chunks * CHUNK_BYTES;
+		this.segments = new AtomicReferenceArray<MappedByteBuffer>((chunks + SEGMENT_MASK) >> SEGMENT_SHIFT);
+		this.file = new RandomAccessFile(file, "rw");
+		this.channel = this.file.getChannel();
+		if (this.file.length() < length) {
+			this.file.setLength(length);
+		}
+	}
+
+	/**
+	 * @return the number of segments of the file mapped so far
+	 */
+	int getMappedSegments() {
+		int count = 0;
+		for (int i = 0; i < segments.length(); i++) {
+			if (segments.get(i) != null) count++;
+		}
+		return count;
+	}
+
+	@Override
+	Tile get(int x, int y) {
+		int chunk = chunk(x, y);
+		return tile(segment(chunk).get(offset(chunk, x, y)));
+	}
+
+	@Override
+	void set(int x, int y, Tile tile) {
+		int chunk = chunk(x, y);
+		segment(chunk).put(offset(chunk, x, y), ordinal(tile));
+	}
+
+	@Override
+	void getRow(int y, int x, int length, Tile[] dest, int offset) {
+		int end = x + length;
+		while (x < end) {
+			int run = Math.min(end, (x | CHUNK_MASK) + 1) - x;
+			int chunk = chunk(x, y);
+			MappedByteBuffer buffer = segment(chunk);
+			int start = offset(chunk, x, y);
+			for (int i = 0; i < run; i++) {
+				dest[offset++] = tile(buffer.get(start + i));
+			}
+			x += run;
+		}
+	}
+
+	@Override
+	void setRow(int y, int x, int length, Tile[] src) {
+		int end = x + length;
+		int i = 0;
+		while (x < end) {
+			int run = Math.min(end, (x | CHUNK_MASK) + 1) - x;
+			int chunk = chunk(x, y);
+			MappedByteBuffer buffer = segment(chunk);
+			int start = offset(chunk, x, y);
+			for (int j = 0; j < run; j++) {
+				buffer.put(start + j, ordinal(src[i++]));
+			}
+			x += run;
+		}
+	}
+
+	@Override
+	void fillRow(int y, int x, int length, Tile tile) {
+		byte value = ordinal(tile);
+		int end = x + length;
+		while (x < end) {
+			int run = Math.min(end, (x | CHUNK_MASK) + 1) - x;
+			int chunk = chunk(x, y);
+			MappedByteBuffer buffer = segment(chunk);
+			int start = offset(chunk, x, y);
+			for (int j = 0; j < run; j++) {
+				buffer.put(start + j, value);
+			}
+			x += run;
+		}
+	}
+
+	/**
+	 * Flushes the mapped segments and closes the file. The mappings are released
+	 * once they are garbage collected.
+	 */
+	@Override
+	synchronized void close() throws IOException {
+		for (int i = 0; i < segments.length(); i++) {
+			MappedByteBuffer segment = segments.getAndSet(i, null);
+			if (segment != null) segment.force();
+		}
+		channel.close();
+		file.close();
+	}
+
+	private int chunk(int x, int y) {
+		return (x >> CHUNK_SHIFT) + (y >> CHUNK_SHIFT) * chunksX;
+	}
+
+	/**
+	 * @return the offset of a cell in its chunk's segment
+	 */
+	private static int offset(int chunk, int x, int y) {
+		return ((chunk & SEGMENT_MASK) * CHUNK_BYTES) + (x & CHUNK_MASK) + ((y & CHUNK_MASK) << CHUNK_SHIFT);
+	}
+
+	/**
+	 * @return the mapped segment holding a chunk, mapping it if needed
+	 */
+	private MappedByteBuffer segment(int chunk) {
+		int index = chunk >> SEGMENT_SHIFT;
+		MappedByteBuffer segment = segments.get(index);
+		return segment != null ? segment : map(index);
+	}
+
+	private synchronized MappedByteBuffer map(int index) {
+		MappedByteBuffer segment = segments.get(index);
+		if (segment == null) {
+			long start = (long) index * CHUNK_BYTES << SEGMENT_SHIFT;
+			long size = Math.min(length - start, (long) CHUNK_BYTES << SEGMENT_SHIFT);
+			try {
+				segment = channel.map(MapMode.READ_WRITE, start, size);
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Could not map level segment " + index, e);
+			}
+			segments.set(index, segment);
+		}
+		return segment;
+	}
+}
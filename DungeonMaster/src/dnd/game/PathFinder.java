@@ -0,0 +1,318 @@
+package dnd.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds paths on a {@link Level} for a kind of entity, using A* search over a cached
+ * passability grid. Entities move one cell in any of the eight directions per step,
+ * so every step costs the same and the Chebyshev distance is the search heuristic.
+ *
+ * The grid holds one bit per cell telling whether the entity's kind can stand on it,
+ * as answered by {@link Tile#acceptsEntity(World, Entity)}. It is built a chunk at a
+ * time when first used and the chunks are invalidated when the level's cells change
+ * (for instance when a door is toggled). Other entities are not part of the grid.
+ * Only the chunks around recent searches are kept, so the grid of a very large
+ * level costs no more memory than the grid of a small one.
+ *
+ * A search only looks at the cells within a fixed radius of the start, so its cost
+ * does not depend on the size of the level; targets further away are not found.
+ */
+public class PathFinder implements LevelObserver {
+	/** The default search radius, in cells */
+	public static final int DEFAULT_RADIUS = 32;
+
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+	private static final int MAX_CHUNKS = 256; // kept before the chunks of old searches are dropped
+	private static final int KEEP_SEARCHES = 1024; // how many searches a chunk is kept unused
+	private static final int[] DX = { 1, 0, -1, 0, 1, -1, -1, 1 };
+	private static final int[] DY = { 0, 1, 0, -1, 1, 1, -1, -1 };
+
+	private World world;
+	private Level level;
+	private Entity mover;
+	private boolean[] accepts; // by tile ordinal
+	private long[][] passable; // by chunk, null until the chunk is used
+	private boolean[] validChunks;
+	private int[] chunkUse; // the search that last used each chunk
+	private int[] allocated; // the chunks having a grid
+	private int allocatedCount;
+	private int chunkLimit = MAX_CHUNKS;
+	private int searches;
+	private int chunksX;
+	private int version;
+
+	// search state, reused between searches
+	private int radius;
+	private int size;
+	private int[] cost;
+	private int[] parent;
+	private int[] seen; // the search generation that last reached each cell
+	private boolean[] closed;
+	private int generation;
+	private int[] heap;
+	private long[] heapKey;
+	private int heapSize;
+
+	/**
+	 * Creates a path finder with the default search radius
+	 * @param world the world the level is played in
+	 * @param level the level to find paths on
+	 * @param mover an entity of the kind that will follow the paths
+	 */
+	public PathFinder(World world, Level level, Entity mover) {
+		this(world, level, mover, DEFAULT_RADIUS);
+	}
+
+	/**
+	 * Constructor
+	 * @param world the world the level is played in
+	 * @param level the level to find paths on
+	 * @param mover an entity of the kind that will follow the paths
+	 * @param radius the number of cells around the start a search looks at
+	 */
+	public PathFinder(World world, Level level, Entity mover, int radius) {
+		this.world = world;
+		this.level = level;
+		this.mover = mover;
+		this.radius = radius;
+		this.size = 2 * radius + 1;
+		this.chunksX = (level.getWidth() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		int chunksY = (level.getHeight() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		this.validChunks = new boolean[chunksX * chunksY];
+		this.passable = new long[chunksX * chunksY][];
+		this.chunkUse = new int[chunksX * chunksY];
+		this.allocated = new int[16];
+		this.cost = new int[size * size];
+		this.parent = new int[size * size];
+		this.seen = new int[size * size];
+		this.closed = new boolean[size * size];
+		this.heap = new int[size * size];
+		this.heapKey = new long[size * size];
+		level.addObserver(this);
+	}
+
+	/**
+	 * @return the level paths are found on
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * The version changes every time a cell of the level changes, so a path found
+	 * for an older version may no longer be valid.
+	 * @return the version of the passability grid
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Stops tracking the level's changes. The path finder cannot be used afterwards.
+	 */
+	public void dispose() {
+		level.removeObserver(this);
+	}
+
+	@Override
+	public void cellsChanged(Level level, int x, int y, int width, int height) {
+		int lastX = (x + width - 1) >> CHUNK_SHIFT;
+		int lastY = (y + height - 1) >> CHUNK_SHIFT;
+		for (int cy = y >> CHUNK_SHIFT; cy <= lastY; cy++) {
+			for (int cx = x >> CHUNK_SHIFT; cx <= lastX; cx++) {
+				validChunks[cx + cy * chunksX] = false;
+			}
+		}
+		version++;
+	}
+
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return whether the mover's kind can stand on a cell
+	 */
+	public boolean isPassable(int x, int y) {
+		if (!level.inBounds(x, y)) return false;
+		int chunk = (x >> CHUNK_SHIFT) + (y >> CHUNK_SHIFT) * chunksX;
+		if (!validChunks[chunk]) buildChunk(chunk);
+		chunkUse[chunk] = searches;
+		int cell = (x & CHUNK_MASK) + ((y & CHUNK_MASK) << CHUNK_SHIFT);
+		return (passable[chunk][cell >> 6] & (1L << cell)) != 0;
+	}
+
+	/**
+	 * Finds a shortest path between two locations. The end location is allowed to
+	 * be impassable (it is usually occupied by the entity being chased).
+	 *
+	 * @param start the location to start from
+	 * @param end the location to reach
+	 * @return the steps to the end, without the start and with the end, or null if
+	 *         the end cannot be reached within the search radius
+	 */
+	public List<Location> findPath(Location start, Location end) {
+		int originX = start.getX() - radius;
+		int originY = start.getY() - radius;
+		int endX = end.getX() - originX;
+		int endY = end.getY() - originY;
+		if (endX < 0 || endY < 0 || endX >= size || endY >= size) return null;
+		int goal = endX + endY * size;
+		int first = radius + radius * size;
+		if (goal == first) return new ArrayList<Location>();
+		searches++;
+		if (allocatedCount > chunkLimit) dropOldChunks();
+
+		if (++generation == 0) { // wrapped around, forget every cell
+			Arrays.fill(seen, 0);
+			generation = 1;
+		}
+		heapSize = 0;
+		reach(first, 0, -1, endX, endY);
+		while (heapSize > 0) {
+			int current = pop();
+			if (current == goal) return path(goal, originX, originY);
+			if (closed[current]) continue;
+			closed[current] = true;
+			int cx = current % size, cy = current / size;
+			for (int d = 0; d < DX.length; d++) {
+				int nx = cx + DX[d], ny = cy + DY[d];
+				if (nx < 0 || ny < 0 || nx >= size || ny >= size) continue;
+				int next = nx + ny * size;
+				if (next != goal && !isPassable(nx + originX, ny + originY)) continue;
+				int nextCost = cost[current] + 1;
+				if (seen[next] != generation || nextCost < cost[next]) {
+					reach(next, nextCost, current, endX, endY);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Records a better way to reach a cell and queues it
+	 */
+	private void reach(int cell, int cellCost, int from, int endX, int endY) {
+		if (seen[cell] != generation) {
+			seen[cell] = generation;
+			closed[cell] = false;
+		}
+		cost[cell] = cellCost;
+		parent[cell] = from;
+		int h = Math.max(Math.abs(cell % size - endX), Math.abs(cell / size - endY));
+		// order by estimated path length, then prefer cells closer to the end
+		push(cell, ((long) (cellCost + h) << 32) | h);
+	}
+
+	private List<Location> path(int goal, int originX, int originY) {
+		int length = cost[goal];
+		Location[] steps = new Location[length];
+		for (int cell = goal, i = length - 1; i >= 0; cell = parent[cell], i--) {
+			steps[i] = Location.of(cell % size + originX, cell / size + originY);
+		}
+		return new ArrayList<Location>(Arrays.asList(steps));
+	}
+
+	private void buildChunk(int chunk) {
+		int x = (chunk % chunksX) << CHUNK_SHIFT;
+		int y = (chunk / chunksX) << CHUNK_SHIFT;
+		int width = Math.min(CHUNK_SIZE, level.getWidth() - x);
+		int height = Math.min(CHUNK_SIZE, level.getHeight() - y);
+		if (accepts == null) {
+			// whether a tile accepts the mover only depends on the tile's kind
+			Tile[] tiles = Tile.values();
+			accepts = new boolean[tiles.length];
+			for (Tile tile : tiles) {
+				accepts[tile.ordinal()] = tile.acceptsEntity(world, mover);
+			}
+		}
+		long[] grid = passable[chunk];
+		if (grid == null) {
+			grid = passable[chunk] = new long[CHUNK_SIZE * CHUNK_SIZE / 64];
+			if (allocatedCount == allocated.length) allocated = Arrays.copyOf(allocated, allocatedCount * 2);
+			allocated[allocatedCount++] = chunk;
+		}
+		else {
+			Arrays.fill(grid, 0);
+		}
+		Tile[] row = new Tile[width];
+		for (int j = 0; j < height; j++) {
+			level.getRow(y + j, x, width, row);
+			int cell = j << CHUNK_SHIFT;
+			for (int i = 0; i < width; i++, cell++) {
+				if (row[i] != null && accepts[row[i].ordinal()]) {
+					grid[cell >> 6] |= 1L << cell;
+				}
+			}
+		}
+		validChunks[chunk] = true;
+	}
+
+	/**
+	 * Frees the grid of the chunks no recent search used. If most chunks are still
+	 * in use, more chunks are allowed before trying again.
+	 */
+	private void dropOldChunks() {
+		int kept = 0;
+		for (int i = 0; i < allocatedCount; i++) {
+			int chunk = allocated[i];
+			if (searches - chunkUse[chunk] <= KEEP_SEARCHES) {
+				allocated[kept++] = chunk;
+			}
+			else {
+				passable[chunk] = null;
+				validChunks[chunk] = false;
+			}
+		}
+		allocatedCount = kept;
+		chunkLimit = Math.max(MAX_CHUNKS, 2 * kept);
+	}
+
+	/**
+	 * @return the number of chunks of the level whose grid is in memory
+	 */
+	public int getChunkCount() {
+		return allocatedCount;
+	}
+
+	// a binary min heap of cells ordered by key, a cell is pushed again when a
+	// shorter way to it is found
+
+	private void push(int cell, long key) {
+		if (heapSize == heap.length) {
+			heap = Arrays.copyOf(heap, heapSize * 2);
+			heapKey = Arrays.copyOf(heapKey, heapSize * 2);
+		}
+		int i = heapSize++;
+		while (i > 0) {
+			int p = (i - 1) >> 1;
+			if (heapKey[p] <= key) break;
+			heap[i] = heap[p];
+			heapKey[i] = heapKey[p];
+			i = p;
+		}
+		heap[i] = cell;
+		heapKey[i] = key;
+	}
+
+	private int pop() {
+		int top = heap[0];
+		int cell = heap[--heapSize];
+		long key = heapKey[heapSize];
+		int i = 0;
+		while (true) {
+			int c = 2 * i + 1;
+			if (c >= heapSize) break;
+			if (c + 1 < heapSize && heapKey[c + 1] < heapKey[c]) c++;
+			if (heapKey[c] >= key) break;
+			heap[i] = heap[c];
+			heapKey[i] = heapKey[c];
+			i = c;
+		}
+		heap[i] = cell;
+		heapKey[i] = key;
+		return top;
+	}
+}
@@ -38,6 +38,8 @@ public class RandomLevelGenerator {
 		boolean createdSpawn = false;
 		boolean createdStairs = false;
 		Level level = new Level(width, height);
+		level.fillRegion(0, 0, width, height, Tile.Floor);
+		// the rolls are made column by column, changing this order changes seeded levels
 		for (int x = 0; x < width; x++) {
 			for (int y = 0; y < height; y++) {
 				int roll = dice.roll(1, 5);
@@ -53,9 +55,6 @@ public class RandomLevelGenerator {
 						level.setCell(x, y, Tile.StairsDown);
 						createdStairs = true;
 					}
-					else {
-						level.setCell(x, y, Tile.Floor);
-					}
 				}
 			}
 		}
@@ -0,0 +1,120 @@
+package dnd.game;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast random generator (the SplitMix64 algorithm): its state is a single
+ * counter, so generating a number costs an addition and a few multiplications,
+ * and it can be split into independent generators for other threads.
+ *
+ * Unlike {@link Random}, it is not thread safe: each thread or subsystem should
+ * use its own generator, obtained with {@link #split()} or seeded separately. It
+ * extends Random so it can be used wherever a Random is expected, and is
+ * serialized like one.
+ */
+public final class SplitMix64 extends Random {
+	private static final long serialVersionUID = -2316473985437212580L;
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+	private static final AtomicLong seeder = new AtomicLong(
+			mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	private long state;
+	private long gamma;
+
+	/**
+	 * Creates a generator with a unique seed
+	 */
+	public SplitMix64() {
+		this(randomSeed());
+	}
+
+	/**
+	 * Creates a generator, two generators with the same seed give the same numbers
+	 * @param seed the seed
+	 */
+	public SplitMix64(long seed) {
+		this(seed, GOLDEN_GAMMA);
+	}
+
+	private SplitMix64(long state, long gamma) {
+		super(0L);
+		this.state = state;
+		this.gamma = gamma;
+	}
+
+	/**
+	 * @return a seed different from the previous ones, for unseeded generators
+	 */
+	public static long randomSeed() {
+		return mix64(seeder.getAndAdd(GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Scrambles the bits of a value, so close values give unrelated results
+	 * @param z the value
+	 * @return the scrambled value
+	 */
+	public static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		z = (z ^ (z >>> 33)) | 1L; // odd, so every state is visited
+		return Long.bitCount(z ^ (z >>> 1)) < 24 ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+
+	/**
+	 * Creates a new generator from this one. The two generators then give
+	 * statistically independent numbers.
+	 * @return the new generator
+	 */
+	public SplitMix64 split() {
+		long seed = nextLong();
+		return new SplitMix64(seed, mixGamma(state += gamma));
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		this.state = seed;
+		this.gamma = GOLDEN_GAMMA;
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(state += gamma);
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return (int) (nextLong() >>> 32);
+	}
+
+	/**
+	 * Returns a number between 0 (inclusive) and a bound (exclusive), every number
+	 * being equally likely. Uses a multiplication instead of a division in most cases.
+	 */
+	@Override
+	public int nextInt(int bound) {
+		if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+		long product = (nextLong() >>> 32) * bound;
+		long low = product & 0xffffffffL;
+		if (low < bound) { // the few values that would favor some results are rolled again
+			long threshold = (0x100000000L - bound) % bound;
+			while (low < threshold) {
+				product = (nextLong() >>> 32) * bound;
+				low = product & 0xffffffffL;
+			}
+		}
+		return (int) (product >>> 32);
+	}
+}
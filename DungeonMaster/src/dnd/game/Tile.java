@@ -42,6 +42,17 @@ public enum Tile {
 		return name != null ? name : name();
 	}
 
+	/**
+	 * @return True if no entity can stand on the Tile (rock, walls, closed doors),
+	 *         which also makes it block the sight
+	 */
+	public boolean isCollidable() {
+		for (TileTrait trait : traits) {
+			if (trait instanceof CollidableTrait) return true;
+		}
+		return false;
+	}
+
 	/**
 	 * This is an alias for {@link #isCollidable()}
 	 * @param world the world to test this in
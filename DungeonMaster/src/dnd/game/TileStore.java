@@ -0,0 +1,69 @@
+package dnd.game;
+
+import java.io.IOException;
+
+/**
+ * The storage behind a {@link Level}'s cells. Each cell is one byte holding the
+ * ordinal of its tile plus one (0 is an empty cell). Coordinates are always checked
+ * by the level before they reach the store.
+ */
+abstract class TileStore {
+	private static final Tile[] TILES = Tile.values();
+
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @return the tile at the cell, null if the cell is empty
+	 */
+	abstract Tile get(int x, int y);
+
+	/**
+	 * @param x the x coordinate
+	 * @param y the y coordinate
+	 * @param tile the tile to set, can be null
+	 */
+	abstract void set(int x, int y, Tile tile);
+
+	/**
+	 * Copies a horizontal run of cells into an array
+	 * @param y the row to read
+	 * @param x the first column to read
+	 * @param length the number of cells to read
+	 * @param dest the array to copy to
+	 * @param offset the index in the array of the first cell
+	 */
+	abstract void getRow(int y, int x, int length, Tile[] dest, int offset);
+
+	/**
+	 * Sets a horizontal run of cells from an array
+	 * @param y the row to write
+	 * @param x the first column to write
+	 * @param length the number of cells to write
+	 * @param src the tiles to write, starting at index 0
+	 */
+	abstract void setRow(int y, int x, int length, Tile[] src);
+
+	/**
+	 * Sets a horizontal run of cells to the same tile
+	 * @param y the row to write
+	 * @param x the first column to write
+	 * @param length the number of cells to write
+	 * @param tile the tile to set, can be null
+	 */
+	abstract void fillRow(int y, int x, int length, Tile tile);
+
+	/**
+	 * Releases any resources held by the store. The store cannot be used afterwards.
+	 * @throws IOException if the store could not be closed
+	 */
+	void close() throws IOException {
+	}
+
+	static Tile tile(byte value) {
+		return value == 0 ? null : TILES[value - 1];
+	}
+
+	static byte ordinal(Tile tile) {
+		return tile == null ? 0 : (byte) (tile.ordinal() + 1);
+	}
+}
@@ -1,20 +1,36 @@
 package dnd.game;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * Trace class performs a trace on the world between two locations,
  * detecting and reporting all entities and tiles intersected by the trace.
+ *
+ * The lists of a trace are only built when they are asked for. Callers that
+ * stop at the first obstacle should {@link #walk(Location, Location, Visitor)}
+ * the line instead, which creates no objects.
  */
 public class Trace {
+	private World world;
 	private Location start;
 	private Location end;
 	private List<Entity> entities;
 	private List<Tile> cells;
 	private List<Location> locations;
-	
+
+	/**
+	 * Visits the cells of a line in order, from the start to the end location
+	 */
+	public interface Visitor {
+		/**
+		 * @param x the x coordinate of the cell
+		 * @param y the y coordinate of the cell
+		 * @return true to go on to the next cell, false to stop the trace
+		 */
+		boolean visit(int x, int y);
+	}
+
 	/**
 	 * Performs a trace between two locations in the world
 	 * @param world
@@ -22,12 +38,9 @@ public class Trace {
 	 * @param end
 	 */
 	public Trace(World world, Location start, Location end) {
+		this.world = world;
 		this.start = start;
 		this.end = end;
-		this.entities = new ArrayList<Entity>();
-		this.cells = new ArrayList<Tile>();
-		this.locations = new ArrayList<Location>();
-		performTrace(world);
 	}
 	
 	/**
@@ -60,6 +73,7 @@ public class Trace {
 	 * @return all entities intersected by the trace
 	 */
 	public List<Entity> getEntities() {
+		performTrace();
 		return entities;
 	}
 	
@@ -67,6 +81,7 @@ public class Trace {
 	 * @return all cells intersected by the trace
 	 */
 	public List<Tile> getCells() {
+		performTrace();
 		return cells;
 	}
 	
@@ -74,6 +89,7 @@ public class Trace {
 	 * @return all location points traversed in the trace
 	 */
 	public List<Location> getLocations() {
+		performTrace();
 		return locations;
 	}
 	
@@ -81,78 +97,64 @@ public class Trace {
 	 * @return the effective distance between the two locations
 	 */
 	public int distance() {
-		return locations.size() - 1;
+		return start.distanceTo(end);
 	}
 	
 	/**
-	 * Performs the trace on a world object between the {@link #start} and {@link #end}
-	 * locations. If world is null, no entities or cells are recorded.
-	 * 
-	 * @param world the world to trace, or null
+	 * Performs the trace on the world between the {@link #start} and {@link #end}
+	 * locations, the first time its lists are needed. If world is null, no entities
+	 * or cells are recorded.
 	 */
-	private void performTrace(World world) {
-		List<Entity> ents = new ArrayList<Entity>();
-		if (world != null) {
-			ents.addAll(world.getMonsters());
-			ents.addAll(world.getItems());
-		}
-		for (Location current : new TraceLineIterator(start, end)) {
-			locations.add(current);
-			
-			if (world != null) {
-				Tile tile = world.getLevel().getCell(current);
-				if (tile != null) cells.add(tile);
-				entities.addAll(world.getEntitiesAtLocation(current));
+	private void performTrace() {
+		if (locations != null) return;
+		locations = new ArrayList<Location>(distance() + 1);
+		entities = new ArrayList<Entity>();
+		cells = new ArrayList<Tile>();
+		walk(start, end, new Visitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				locations.add(Location.of(x, y));
+				if (world != null) {
+					Tile tile = world.getLevel().getCell(x, y);
+					if (tile != null) cells.add(tile);
+					entities.addAll(world.getEntitiesAtLocation(x, y));
+				}
+				return true;
 			}
-		}
+		});
 	}
-	
+
 	/**
-	 * A convenience iterator class to perform a straight line trace between two locations
-	 * using a grid system. The straight line prioritizes diagonal moves and then X over Y.
+	 * Walks the straight line between two locations on the grid, visiting the start
+	 * and end cells and every cell in between. The line prioritizes diagonal moves
+	 * and then X over Y.
+	 *
+	 * @param start starting location
+	 * @param end ending location
+	 * @param visitor the visitor of each cell
+	 * @return true if the whole line was visited, false if the visitor stopped it
 	 */
-	private class TraceLineIterator implements Iterable<Location>, Iterator<Location> {
-		private Location current;
-		private Location start;
-		private Location end;
-		
-		public TraceLineIterator(Location start, Location end) {
-			this.start = start;
-			this.end = end;
-		}
-		
-		@Override
-		public Iterator<Location> iterator() {
-			return this;
-		}
-
-		@Override
-		public boolean hasNext() {
-			if (current != null && current.equals(end)) {
-				return false;
-			}
-			return true;
-		}
-
-		@Override
-		public Location next() {
-			if (current == null) {
-				current = start;
-			}
-			else {
-				int x = current.getX();
-				int y = current.getY();
-				if (x < end.getX()) x++;
-				if (x > end.getX()) x--;
-				if (y < end.getY()) y++;
-				if (y > end.getY()) y--;
-				current = new Location(x, y);
-			}
-			return current;
+	public static boolean walk(Location start, Location end, Visitor visitor) {
+		int x = start.getX();
+		int y = start.getY();
+		int endX = end.getX();
+		int endY = end.getY();
+		while (visitor.visit(x, y)) {
+			if (x == endX && y == endY) return true;
+			x += Integer.signum(endX - x);
+			y += Integer.signum(endY - y);
 		}
+		return false;
+	}
 
-		@Override
-		public void remove() {
-		}
+	/**
+	 * @param start starting location
+	 * @param end ending location
+	 * @return the first location after the start on the line to the end, or the
+	 *         start if both are the same
+	 */
+	public static Location firstStep(Location start, Location end) {
+		return start.add(Integer.signum(end.getX() - start.getX()),
+				Integer.signum(end.getY() - start.getY()));
 	}
 }
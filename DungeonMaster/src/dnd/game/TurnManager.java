@@ -2,6 +2,7 @@ package dnd.game;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Stack;
 
 import dnd.game.entity.item.Item;
@@ -20,6 +21,8 @@ import dnd.game.event.NextTurnEvent;
  * entity makes all moves (each entity has 6 moves where attacks/equips cost all 6 moves),
  * the turn is advanced to the next via {@link #nextTurn()}.
  * 
+ * The turn manager never waits, so it can be driven at full speed (see
+ * {@link dnd.game.sim.SimulationRunner}); pacing AI moves for display is left to the UI.
  */
 public class TurnManager {
 	private World world;
@@ -49,6 +52,53 @@ public class TurnManager {
 		return current().numMoves;
 	}
 	
+	/**
+	 * Get the entities that still have to move in the current turn
+	 * @return the entities in reverse order of play, the active entity is last
+	 */
+	public List<LivingEntity> getTurnOrder() {
+		List<LivingEntity> order = new ArrayList<LivingEntity>();
+		if (entities == null) return order;
+		for (TurnState state : entities) {
+			order.add(state.entity);
+		}
+		return order;
+	}
+	
+	/**
+	 * Get the number of moves left for the entities in {@link #getTurnOrder()}
+	 * @return the moves left, in the same order as the turn order
+	 */
+	public int[] getTurnMoves() {
+		if (entities == null) return new int[0];
+		int[] moves = new int[entities.size()];
+		for (int i = 0; i < moves.length; i++) {
+			moves[i] = entities.get(i).numMoves;
+		}
+		return moves;
+	}
+	
+	/**
+	 * Restores the state of a turn in progress (used when loading a saved game),
+	 * no events are sent.
+	 * @param turnNumber the current turn number
+	 * @param order the entities left to move, as returned by {@link #getTurnOrder()}
+	 * @param moves the moves left for each entity, as returned by {@link #getTurnMoves()}
+	 */
+	public void restoreTurn(int turnNumber, List<LivingEntity> order, int[] moves) {
+		this.turnNumber = turnNumber;
+		if (order.isEmpty()) {
+			entities = null;
+			return;
+		}
+		entities = new Stack<TurnState>();
+		for (int i = 0; i < order.size(); i++) {
+			TurnState state = new TurnState(order.get(i));
+			state.numMoves = moves[i];
+			entities.push(state);
+		}
+	}
+	
 	/**
 	 * Increases the turn count and begins the next turn.
 	 * 
@@ -61,7 +111,9 @@ public class TurnManager {
 	 */
 	public void nextTurn() {
 		turnNumber++;
-		world.sendEvent(new NextTurnEvent(turnNumber));
+		if (world.isObserved(NextTurnEvent.class)) {
+			world.sendEvent(new NextTurnEvent(turnNumber));
+		}
 
 		entities = new Stack<TurnState>();
 		ArrayList<DicePair> rolls = new ArrayList<DicePair>();
@@ -98,11 +150,6 @@ public class TurnManager {
 				// cancel this entity's turn
 				waitTurn();
 			}
-			try {
-				Thread.sleep(50);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
 		}
 	}
 	
@@ -118,7 +165,16 @@ public class TurnManager {
 	 * @param delta the amount to move the entity
 	 */
 	public void moveEntity(Location delta) {
-		if (world.moveEntity(activeEntity(), delta)) {
+		moveEntity(delta.getX(), delta.getY());
+	}
+
+	/**
+	 * Moves the entity by a given offset, costs 1 move.
+	 * @param dx the offset on the x axis
+	 * @param dy the offset on the y axis
+	 */
+	public void moveEntity(int dx, int dy) {
+		if (world.moveEntity(activeEntity(), dx, dy)) {
 			current().numMoves--;
 		}
 	}
@@ -196,7 +252,9 @@ public class TurnManager {
 	 * Emits an activate entity event
 	 */
 	private void activateEntity() {
-		world.sendEvent(new ActivateEntityEvent(activeEntity()));
+		if (world.isObserved(ActivateEntityEvent.class)) {
+			world.sendEvent(new ActivateEntityEvent(activeEntity()));
+		}
 	}
 	
 	/**
@@ -0,0 +1,118 @@
+package dnd.game;
+
+/**
+ * The set of cells seen from somewhere, kept as one bit per cell of a rectangular
+ * window of the level. Cells outside the window are not visible.
+ *
+ * A visibility is not changed once it is returned by {@link FieldOfView}, so it can
+ * be handed to other threads.
+ */
+public final class Visibility {
+	private final int x;
+	private final int y;
+	private final int width;
+	private final int height;
+	private final long[] bits;
+
+	/**
+	 * Creates a window where no cell is visible yet
+	 * @param x the left column of the window
+	 * @param y the top row of the window
+	 * @param width the number of columns of the window
+	 * @param height the number of rows of the window
+	 */
+	Visibility(int x, int y, int width, int height) {
+		this.x = x;
+		this.y = y;
+		this.width = width;
+		this.height = height;
+		this.bits = new long[(width * height + 63) >> 6];
+	}
+
+	/**
+	 * @return the left column of the window
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @return the top row of the window
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * @return the number of columns of the window
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the number of rows of the window
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * @param cellX the x coordinate
+	 * @param cellY the y coordinate
+	 * @return whether the cell is seen
+	 */
+	public boolean isVisible(int cellX, int cellY) {
+		int i = cellX - x, j = cellY - y;
+		if (i < 0 || j < 0 || i >= width || j >= height) return false;
+		int cell = i + j * width;
+		return (bits[cell >> 6] & (1L << cell)) != 0;
+	}
+
+	/**
+	 * @param location a location
+	 * @return whether the cell at the location is seen
+	 */
+	public boolean isVisible(Location location) {
+		return isVisible(location.getX(), location.getY());
+	}
+
+	/**
+	 * @return the number of cells seen
+	 */
+	public int count() {
+		int count = 0;
+		for (long word : bits) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Marks a cell of the window as seen
+	 */
+	void set(int cellX, int cellY) {
+		int cell = cellX - x + (cellY - y) * width;
+		bits[cell >> 6] |= 1L << cell;
+	}
+
+	/**
+	 * Marks every cell seen in another visibility as seen, in the part of it
+	 * inside this window
+	 */
+	void add(Visibility other) {
+		for (int j = 0; j < other.height; j++) {
+			for (int i = 0; i < other.width; i++) {
+				if (other.isVisible(other.x + i, other.y + j)) set(other.x + i, other.y + j);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the window overlaps a region of cells
+	 */
+	boolean overlaps(int regionX, int regionY, int regionWidth, int regionHeight) {
+		return regionX < x + width && x < regionX + regionWidth
+				&& regionY < y + height && y < regionY + regionHeight;
+	}
+}
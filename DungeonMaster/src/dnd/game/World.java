@@ -1,9 +1,8 @@
 package dnd.game;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 
 import dnd.game.entity.item.EquippableItem;
 import dnd.game.entity.item.Item;
@@ -14,6 +13,7 @@ import dnd.game.event.DamageEvent;
 import dnd.game.event.DiceRollEvent;
 import dnd.game.event.DoorToggleEvent;
 import dnd.game.event.EquipEvent;
+import dnd.game.event.EventBus;
 import dnd.game.event.EventObserver;
 import dnd.game.event.GameEvent;
 import dnd.game.event.ItemUseEvent;
@@ -31,7 +31,7 @@ import dnd.game.event.TakeInventoryItemEvent;
  */
 public class World {
 
-	private transient Set<EventObserver> observers;
+	private transient EventBus events;
 	private Level level;
 	private int levelNumber;
 	private List<Item> items;
@@ -41,12 +41,19 @@ public class World {
 	private TurnManager turnManager;
 	private AttackManager attackManager;
 	private Dice dice;
+	private transient EntityIndex index;
+	private transient List<Item> itemList;
+	private transient List<Player> playerList;
+	private transient List<NPC> monsterList;
+	private transient PathFinder pathFinder;
+	private transient FieldOfView fieldOfView;
+	private transient int cellsPerMonster;
 
 	/**
 	 * Constructor
 	 */
 	public World() {
-		this.observers = new HashSet<EventObserver>();
+		this.events = new EventBus();
 		this.items = new ArrayList<Item>();
 		this.players = new ArrayList<Player>();
 		this.monsters = new ArrayList<NPC>();
@@ -120,27 +127,63 @@ public class World {
 	 */
 	public void setLevel(Level level) {
 		this.level = level;
+		if (index != null) index.resize(level);
+		if (pathFinder != null) {
+			pathFinder.dispose();
+			pathFinder = null;
+		}
+		if (fieldOfView != null) {
+			fieldOfView.dispose();
+			fieldOfView = null;
+		}
+	}
+
+	/**
+	 * Gets the path finder monsters use on the current level. It is created when
+	 * first asked for and kept until the level changes.
+	 * @return the path finder for monsters, null if there is no level
+	 */
+	public PathFinder getPathFinder() {
+		if (pathFinder == null && level != null) {
+			pathFinder = new PathFinder(this, level, new NPC());
+		}
+		return pathFinder;
+	}
+
+	/**
+	 * Gets what the entities see on the current level. It is created when first
+	 * asked for and kept until the level changes.
+	 * @return the field of view, null if there is no level
+	 */
+	public FieldOfView getFieldOfView() {
+		if (fieldOfView == null && level != null) {
+			fieldOfView = new FieldOfView(level);
+		}
+		return fieldOfView;
 	}
 
 	/**
 	 * @return All items on the current level
 	 */
 	public List<Item> getItems() {
-		return items;
+		if (itemList == null) itemList = new EntityList<Item>(items, index());
+		return itemList;
 	}
 
 	/**
 	 * @return All players on the current level
 	 */
 	public List<Player> getPlayers() {
-		return players;
+		if (playerList == null) playerList = new EntityList<Player>(players, index());
+		return playerList;
 	}
 
 	/**
 	 * @return All NPCs on the current level
 	 */
 	public List<NPC> getMonsters() {
-		return monsters;
+		if (monsterList == null) monsterList = new EntityList<NPC>(monsters, index());
+		return monsterList;
 	}
 	
 	/**
@@ -155,18 +198,34 @@ public class World {
 	
 	/**
 	 * @param loc the location to look for entities at
-	 * @return all entities (players, monsters, items) at a location
+	 * @return all entities (players, monsters, items) at a location. The list is read only.
 	 */
 	public List<Entity> getEntitiesAtLocation(Location loc) {
-		List<Entity> ents = new ArrayList<Entity>();
-		List<Entity> finalEnts = new ArrayList<Entity>();
-		ents.addAll(players);
-		ents.addAll(monsters);
-		ents.addAll(items);
-		for (Entity e : ents) {
-			if (e.getLocation().equals(loc)) finalEnts.add(e);
+		if (loc == null) return Collections.emptyList();
+		return getEntitiesAtLocation(loc.getX(), loc.getY());
+	}
+
+	/**
+	 * @param x the x coordinate to look for entities at
+	 * @param y the y coordinate to look for entities at
+	 * @return all entities (players, monsters, items) at a location. The list is read only.
+	 */
+	public List<Entity> getEntitiesAtLocation(int x, int y) {
+		return index().entitiesAt(x, y);
+	}
+
+	/**
+	 * @return the spatial index of all players, monsters and items, built on first use
+	 *         (worlds loaded from file do not have an index yet)
+	 */
+	private EntityIndex index() {
+		if (index == null) {
+			index = new EntityIndex(level);
+			for (Entity e : players) index.add(e);
+			for (Entity e : monsters) index.add(e);
+			for (Entity e : items) index.add(e);
 		}
-		return finalEnts;
+		return index;
 	}
 
 	/**
@@ -185,6 +244,15 @@ public class World {
 		turnManager.nextTurn();
 	}
 	
+	/**
+	 * Marks the game as started without building the level, used when a saved game
+	 * is loaded along with its turn state
+	 * @param started whether the game is started
+	 */
+	public void setStarted(boolean started) {
+		this.started = started;
+	}
+	
 	/**
 	 * Stops the game.
 	 */
@@ -207,7 +275,7 @@ public class World {
 	 *            the next level to set
 	 */
 	public void nextLevel(Level level) {
-		this.level = level;
+		setLevel(level);
 		this.levelNumber++;
 		for (Player player : players) levelUp(player);
 		sendEvent(new NextLevelEvent(this));
@@ -219,10 +287,6 @@ public class World {
 	 */
 	public void resetLevel() {
 		sendEvent(new ResetLevelEvent(this));
-		try {
-			Thread.sleep(1000);
-		} catch (InterruptedException e) {
-		}
 		restart();
 	}
 	
@@ -236,9 +300,13 @@ public class World {
 	public void damage(LivingEntity source, LivingEntity target, int amount) {
 		if (!target.isAlive()) return;
 		target.setHP(target.getHP() - amount);
-		sendEvent(new DamageEvent(source, target, amount));
+		if (isObserved(DamageEvent.class)) {
+			sendEvent(new DamageEvent(source, target, amount));
+		}
 		if (!target.isAlive()) {
-			sendEvent(new KilledEntityEvent(source, target));
+			if (isObserved(KilledEntityEvent.class)) {
+				sendEvent(new KilledEntityEvent(source, target));
+			}
 			
 			if (target instanceof Player) {
 				for (Player player : players) {
@@ -250,6 +318,30 @@ public class World {
 		}
 	}
 	
+	/**
+	 * @return the number of level cells per monster added when a level has no
+	 *         monsters of its own
+	 */
+	public int getCellsPerMonster() {
+		return cellsPerMonster > 0 ? cellsPerMonster : WorldBuilder.DEFAULT_CELLS_PER_MONSTER;
+	}
+
+	/**
+	 * Sets how crowded the levels without monsters of their own are. The setting
+	 * is not saved with the world.
+	 * @param cellsPerMonster the number of level cells per monster
+	 */
+	public void setCellsPerMonster(int cellsPerMonster) {
+		this.cellsPerMonster = cellsPerMonster;
+	}
+
+	/**
+	 * @return the manager of the attacks, also giving their odds
+	 */
+	public AttackManager getAttackManager() {
+		return attackManager;
+	}
+
 	/**
 	 * Attacks a target
 	 */
@@ -345,15 +437,28 @@ public class World {
 	 * @return true if the move is valid and the model updated, false otherwise
 	 */
 	public boolean moveEntity(Entity entity, Location delta) {
-		Location finalLocation = entity.getLocation().add(delta);
+		return moveEntity(entity, delta.getX(), delta.getY());
+	}
+
+	/**
+	 * Moves an entity in the map by an offset
+	 * 
+	 * @param entity the entity to move
+	 * @param dx the offset on the x axis
+	 * @param dy the offset on the y axis
+	 * @return true if the move is valid and the model updated, false otherwise
+	 */
+	public boolean moveEntity(Entity entity, int dx, int dy) {
+		int x = entity.getLocation().getX() + dx;
+		int y = entity.getLocation().getY() + dy;
 		
 		// check if tile accepts entity
-		if (!level.acceptsEntity(this, entity, finalLocation)) {
+		if (!level.acceptsEntity(this, entity, x, y)) {
 			return false;
 		}
 		
 		// check if any entities are on the tile
-		for (Entity e : getEntitiesAtLocation(finalLocation)) {
+		for (Entity e : getEntitiesAtLocation(x, y)) {
 			if (e instanceof LivingEntity && ((LivingEntity)e).isAlive()) {
 				return false;
 			}
@@ -361,9 +466,11 @@ public class World {
 		}
 
 		// tile is clear of entities
-		entity.setLocation(finalLocation);
-		sendEvent(new MovementEvent(entity, finalLocation));
-		level.getCell(finalLocation).touch(this, entity);
+		entity.setLocation(x, y);
+		if (isObserved(MovementEvent.class)) {
+			sendEvent(new MovementEvent(entity, entity.getLocation()));
+		}
+		level.getCell(x, y).touch(this, entity);
 		return true;
 	}
 
@@ -397,8 +504,10 @@ public class World {
 	 * @return the roll value
 	 */
 	public int roll(int numDice, int dieSize, Integer modifier, String modName, Entity source) {
-		int value = dice.roll(numDice, dieSize, modifier);
-		sendEvent(new DiceRollEvent(value, numDice, dieSize, modifier, modName, source));
+		int value = dice.combat().roll(numDice, dieSize, modifier);
+		if (isObserved(DiceRollEvent.class)) {
+			sendEvent(new DiceRollEvent(value, numDice, dieSize, modifier, modName, source));
+		}
 		return value;
 	}
 
@@ -410,8 +519,10 @@ public class World {
 	 * @return the roll value
 	 */
 	public int roll(int numDice, int dieSize, Entity source) {
-		int value = dice.roll(numDice, dieSize);
-		sendEvent(new DiceRollEvent(value, numDice, dieSize, null, null, source));
+		int value = dice.combat().roll(numDice, dieSize);
+		if (isObserved(DiceRollEvent.class)) {
+			sendEvent(new DiceRollEvent(value, numDice, dieSize, null, null, source));
+		}
 		return value;
 	}
 
@@ -447,7 +558,7 @@ public class World {
 	 * @return the roll value
 	 */
 	public int damageRoll(int numDice, int dieSize, Entity source, DamageType type) {
-		return roll(numDice, dieSize, source.damageModifiers().delta(type), type.toString(), source);
+		return roll(numDice, dieSize, source.damageDelta(type), type.toString(), source);
 	}
 	
 	/**
@@ -532,23 +643,49 @@ public class World {
 	}
 
 	/**
-	 * Add observers to model changes
+	 * Add observers to model changes. The observer receives every event.
 	 * 
 	 * @param observer
 	 *            An EventObserver object
 	 */
 	public void addObserver(EventObserver observer) {
-		if (observers == null)
-			observers = new HashSet<EventObserver>();
-		observers.add(observer);
+		addObserver(GameEvent.class, observer);
+	}
+
+	/**
+	 * Add an observer to a class of events and its subclasses
+	 * @param type the class of events to observe
+	 * @param observer the observer to add
+	 */
+	public void addObserver(Class<? extends GameEvent> type, EventObserver observer) {
+		getEventBus().subscribe(type, observer);
 	}
 	
 	/**
-	 * Removes an observer from the observers list
+	 * Removes an observer from all the events it observes
 	 * @param observer the observer to remove
 	 */
 	public void removeObserver(EventObserver observer) {
-		observers.remove(observer);
+		getEventBus().unsubscribe(observer);
+	}
+
+	/**
+	 * @return the bus events are sent through
+	 */
+	public EventBus getEventBus() {
+		if (events == null)
+			events = new EventBus();
+		return events;
+	}
+
+	/**
+	 * Tells whether an event would reach any observer, so that events nobody
+	 * listens to do not have to be built
+	 * @param type the class of the event
+	 * @return whether an observer receives events of the class
+	 */
+	public boolean isObserved(Class<? extends GameEvent> type) {
+		return getEventBus().hasObservers(type);
 	}
 
 	/**
@@ -558,7 +695,6 @@ public class World {
 	 *            the event to send
 	 */
 	public void sendEvent(GameEvent event) {
-		for (EventObserver e : observers)
-			e.eventFired(this, event);
+		getEventBus().publish(this, event);
 	}
 }
@@ -24,6 +24,9 @@ import dnd.util.Modifier;
  * equipment.
  */
 public class WorldBuilder {
+	/** The number of level cells per monster, unless the world says otherwise */
+	public static final int DEFAULT_CELLS_PER_MONSTER = 50;
+
 	/** The world object to build */
 	private World world;
 
@@ -69,11 +72,6 @@ public class WorldBuilder {
 				world.getMonsters().add((NPC) entity);
 			else if (entity instanceof Item)
 				world.getItems().add((Item) entity);
-			
-			// copy the location object (HACK, ideally we want to clone() the entire entity)
-			// so that it does not modify the location in initialEntities
-			Location loc = entity.getLocation();
-			entity.setLocation(new Location(loc.getX(), loc.getY()));
 		}
 	}
 	
@@ -87,10 +85,8 @@ public class WorldBuilder {
 		}
 		for (NPC monster : world.getMonsters()) {
 			// set random stats for level
-			PlayerFactory.getPlayer("npc " + randomBuild(), world.getLevelNumber(), monster, world.getDice());
-			
-			// register monster as observer for attack events
-			world.addObserver(monster);
+			PlayerFactory.getPlayer("npc " + randomBuild(), world.getLevelNumber(), monster, 
+					world.getDice().stream(Dice.CHARACTERS));
 			
 			// spawn monster
 			monster.spawn();
@@ -113,7 +109,8 @@ public class WorldBuilder {
 		for (Item item : world.getItems()) {
 			if (item instanceof Chest) {
 				Chest chest = (Chest)item;
-				ChestBuilder builder = new ChestBuilder(chest, world.getLevelNumber(), world.getDice());
+				ChestBuilder builder = new ChestBuilder(chest, world.getLevelNumber(), 
+						world.getDice().stream(Dice.LOOT));
 				builder.buildAll();
 			}
 		}
@@ -128,6 +125,7 @@ public class WorldBuilder {
 			world.teleportEntity(player, world.getLevel().getSpawnLocation());
 			
 			Inventory inv = player.getInventory();
+			Dice loot = world.getDice().stream(Dice.LOOT);
 			if (inv.getItemSlots().size() == 0 || player.getLevel() == 1) {
 				inv.clear();
 				inv.addGold(400);
@@ -136,13 +134,13 @@ public class WorldBuilder {
 				inv.addItem(new HealthPotion(3));
 				inv.addItem(new Potion(new Modifier<AbilityType>(AbilityType.DEX, 5)));
 				inv.addItem(new Potion(new Modifier<AbilityType>(AbilityType.STR, 5)));
-				inv.addItem(EquippableItemFactory.getArmor(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getBelt(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getBoots(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getBracers(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getHelmet(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getRing(world.getDice(), player.getLevel()));
-				inv.addItem(EquippableItemFactory.getShield(world.getDice(), player.getLevel()));
+				inv.addItem(EquippableItemFactory.getArmor(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getBelt(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getBoots(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getBracers(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getHelmet(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getRing(loot, player.getLevel()));
+				inv.addItem(EquippableItemFactory.getShield(loot, player.getLevel()));
 				inv.addItem(new Weapon("Bow", 0, 8));
 				inv.addItem(new Weapon("Sword", 8, 0));
 				inv.addItem(new BasicItem("A Mysterious Note"));
@@ -165,7 +163,7 @@ public class WorldBuilder {
 	 * @return a random build string for the {@link PlayerFactory}.
 	 */
 	private String randomBuild() {
-		switch (world.getDice().roll(1, 3)) {
+		switch (world.getDice().stream(Dice.CHARACTERS).roll(1, 3)) {
 			case 1: return "tank";
 			case 2: return "nimble";
 			case 3: return "bully";
@@ -178,7 +176,7 @@ public class WorldBuilder {
 	 * @return a random build monster NPC object: Orc, Troll or Goblin.
 	 */
 	private NPC randomNPC() {
-		switch (world.getDice().roll(1, 3)) {
+		switch (world.getDice().stream(Dice.LEVELS).roll(1, 3)) {
 			case 1: return new Orc();
 			case 2: return new Troll();
 			case 3: return new Goblin();
@@ -190,9 +188,9 @@ public class WorldBuilder {
 	 * Adds monsters to the world if there are none
 	 */
 	private void addMonsters() {
-		// add monsters proportional to dungeon size + level*0.2
+		// add monsters proportional to dungeon size
 		Level level = world.getLevel();
-		int numMonsters = (level.getWidth() * level.getHeight()) / 50; 
+		int numMonsters = (level.getWidth() * level.getHeight()) / world.getCellsPerMonster();
 		
 		for (int i = 0; i < numMonsters; i++) {
 			NPC npc = randomNPC();
@@ -244,9 +242,9 @@ public class WorldBuilder {
 	 */
 	private Location randomLevelLocation() {
 		Level level = world.getLevel();
-		Dice dice = world.getDice();
+		Dice dice = world.getDice().stream(Dice.LEVELS);
 		int x = dice.roll(1, level.getWidth()) - 1;
 		int y = dice.roll(1, level.getHeight()) - 1;
-		return new Location(x, y);
+		return Location.of(x, y);
 	}
 }
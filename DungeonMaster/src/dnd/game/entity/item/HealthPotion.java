@@ -28,6 +28,13 @@ public class HealthPotion extends Potion {
 		setName(mod + "Potion of Healing");
 	}
 
+	/**
+	 * @return the amount of HP the potion restores
+	 */
+	public int getAmount() {
+		return amount;
+	}
+
 	@Override
 	public boolean use(World world, LivingEntity entity) {
 		entity.setHP(entity.getHP() + amount);
@@ -37,6 +37,27 @@ public class Potion extends ConsumableItem implements EventObserver {
 		setName();
 	}
 
+	/**
+	 * @return the modifier given by the potion, can be null
+	 */
+	public Modifier<AbilityType> getModifier() {
+		return modifier;
+	}
+
+	/**
+	 * @return the number of turns the potion's effect lasts
+	 */
+	public int getNumTurns() {
+		return numTurns;
+	}
+
+	/**
+	 * @param numTurns the number of turns the potion's effect lasts
+	 */
+	public void setNumTurns(int numTurns) {
+		this.numTurns = numTurns;
+	}
+
 	/**
 	 * set the name for the potion based on the potion type
 	 */
@@ -66,7 +87,7 @@ public class Potion extends ConsumableItem implements EventObserver {
 	public boolean use(World world, LivingEntity entity) {
 		if (modifier != null) {
 			entity.getBaseAbilityModifiers().add(modifier);
-			world.addObserver(this); // track the next turn events for 3 turns
+			world.addObserver(NextTurnEvent.class, this); // track the next turn events for 3 turns
 		}
 		return super.use(world, entity); // consume this entity
 	}
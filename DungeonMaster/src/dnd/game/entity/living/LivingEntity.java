@@ -5,6 +5,7 @@ import dnd.game.DamageType;
 import dnd.game.Entity;
 import dnd.game.Inventory;
 import dnd.game.InventoryInterface;
+import dnd.game.World;
 import dnd.game.entity.item.EquippableItem;
 import dnd.util.Modifier;
 import dnd.util.ModifierSet;
@@ -22,6 +23,7 @@ public abstract class LivingEntity extends Entity implements InventoryInterface
 	private ModifierSet<AbilityType> rawAbilityScores = new ModifierSet<AbilityType>();
 	private int actualHP;
 	private int level;
+	private transient StatBlock stats;
 
 	public LivingEntity() {
 		setName(getClass().getSimpleName());
@@ -40,12 +42,7 @@ public abstract class LivingEntity extends Entity implements InventoryInterface
 	 * @return the modifier value for the given ability type
 	 */
 	public int getAbilityModifier(AbilityType abilityType) {
-		ModifierSet<AbilityType> tmp = abilityModifiers();
-		int baseValue = rawAbilityScores.delta(abilityType);
-		int modifier = tmp.delta(abilityType);
-		// The modifier value is: the floor of half the ability value minus 5.
-		// This value cannot be less than -5.
-		return Math.max(-5, ((baseValue + modifier) / 2) - 5);
+		return stats().abilityModifier[abilityType.ordinal()];
 	}
 
 	/**
@@ -81,7 +78,7 @@ public abstract class LivingEntity extends Entity implements InventoryInterface
 	 * @return The max number of hit points this LivingEntity can have
 	 */
 	public int getTotalHP() {
-		return abilityModifiers().delta(AbilityType.HP);
+		return abilityDelta(AbilityType.HP);
 	}
 	
 	/**
@@ -126,13 +123,72 @@ public abstract class LivingEntity extends Entity implements InventoryInterface
 		resetHP();
 	}
 
+	/**
+	 * Called when another entity makes an attack check against this one
+	 * @param world the world the attack happens in
+	 * @param source the attacking entity
+	 */
+	public void attackedBy(World world, LivingEntity source) {
+	}
+
 	/**
 	 * @return the armor class given the modifiers and equipped items
 	 */
 	public int armorClass() {
-		return 10 + abilityModifiers().delta(AbilityType.DEX) + 
-				damageModifiers().delta(DamageType.ARMOR) +
-				damageModifiers().delta(DamageType.SHIELD);
+		StatBlock stats = stats();
+		return 10 + stats.ability[AbilityType.DEX.ordinal()] + 
+				stats.damage[DamageType.ARMOR.ordinal()] +
+				stats.damage[DamageType.SHIELD.ordinal()];
+	}
+	
+	@Override
+	public int abilityDelta(AbilityType type) {
+		return stats().ability[type.ordinal()];
+	}
+	
+	@Override
+	public int damageDelta(DamageType type) {
+		return stats().damage[type.ordinal()];
+	}
+	
+	/**
+	 * Returns the cached modifier totals, recomputing them if any modifier set that
+	 * contributes to them changed (equipping, unequipping, potions, level ups, ...)
+	 * @return the up to date stat block
+	 */
+	private StatBlock stats() {
+		int equipmentVersion = inventory.getEquipmentVersion();
+		int modifierVersion = getRawAbilityScores().getVersion() +
+				getBaseAbilityModifiers().getVersion() +
+				getBaseDamageModifiers().getVersion() + 
+				inventory.getEquippedModifierVersion();
+		if (stats == null || !stats.isValid(equipmentVersion, modifierVersion)) {
+			stats = computeStats();
+			stats.stamp(equipmentVersion, modifierVersion);
+		}
+		return stats;
+	}
+	
+	/**
+	 * Computes the modifier totals from the modifier sets
+	 * @return a new stat block
+	 */
+	private StatBlock computeStats() {
+		StatBlock block = new StatBlock();
+		ModifierSet<AbilityType> abilities = abilityModifiers();
+		for (AbilityType type : AbilityType.values()) {
+			int i = type.ordinal();
+			block.ability[i] = abilities.delta(type);
+			block.raw[i] = rawAbilityScores.delta(type);
+			// The modifier value is: the floor of half the ability value minus 5.
+			// This value cannot be less than -5.
+			block.abilityModifier[i] = Math.max(-5, ((block.raw[i] + block.ability[i]) / 2) - 5);
+		}
+		ModifierSet<DamageType> damages = damageModifiers();
+		for (DamageType type : DamageType.values()) {
+			block.damage[type.ordinal()] = damages.delta(type);
+		}
+		return block;
 	}
 	
 	@Override
@@ -166,12 +222,12 @@ public abstract class LivingEntity extends Entity implements InventoryInterface
 		String hp = "HP: " + getHP() + "/" + getTotalHP();
 		if (getHP() <= 0) hp += " (Dead)";
 
-		ModifierSet<AbilityType> modifiers = abilityModifiers();
+		StatBlock stats = stats();
 		
 		StringBuilder builder = new StringBuilder();
 		for (AbilityType t : AbilityType.values()) {
 			if (t == AbilityType.HP) continue;
-			int value = rawAbilityScores.delta(t) + modifiers.delta(t);
+			int value = stats.raw[t.ordinal()] + stats.ability[t.ordinal()];
 			int modifier = getAbilityModifier(t);
 			builder.append(t + ": " + value + " (" + (modifier >= 0 ? "+" : "") + modifier + ")\n");
 		}
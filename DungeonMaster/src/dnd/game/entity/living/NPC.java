@@ -1,13 +1,14 @@
 package dnd.game.entity.living;
 
+import java.util.List;
+
 import dnd.game.Dice;
 import dnd.game.Entity;
+import dnd.game.FieldOfView;
 import dnd.game.Location;
+import dnd.game.PathFinder;
 import dnd.game.Trace;
 import dnd.game.World;
-import dnd.game.event.AttackCheckEvent;
-import dnd.game.event.EventObserver;
-import dnd.game.event.GameEvent;
 
 /**
  * A container class for non player characters (i.e. Monsters, shopkeepers)
@@ -16,8 +17,24 @@ import dnd.game.event.GameEvent;
  * @see Entity
  * 
  */
-public class NPC extends LivingEntity implements EventObserver {
+public class NPC extends LivingEntity {
 	private LivingEntity attacker;
+	private transient List<Location> path; // the way to the attacker, kept between turns
+	private transient int pathVersion;
+	
+	/**
+	 * @return the entity this NPC is fighting back against, can be null
+	 */
+	public LivingEntity getAttacker() {
+		return attacker;
+	}
+	
+	/**
+	 * @param attacker the entity this NPC should fight back against, can be null
+	 */
+	public void setAttacker(LivingEntity attacker) {
+		this.attacker = attacker;
+	}
 	
 	/**
 	 * Perform one move decision
@@ -27,13 +44,18 @@ public class NPC extends LivingEntity implements EventObserver {
 		if (!isAlive()) return; // no moving when dead
 		if (world.getTurnManager().activeEntity() != this) return; // not our turn
 		
-		Dice dice = world.getDice();
+		Dice dice = world.getDice().stream(Dice.AI);
 		
+		if (attacker == null) { // go after the first player we see
+			attacker = playerInSight(world);
+		}
 		if (attacker != null) { // someone was attacking us, attack back
-			Trace trace = new Trace(getLocation(), attacker.getLocation());
-			if (trace.distance() > 1) { // far away, move towards them
-				Location diff = trace.getLocations().get(1).subtract(getLocation());
-				world.getTurnManager().moveEntity(diff);
+			if (getLocation().distanceTo(attacker.getLocation()) > 1) { // far away, move towards them
+				Location next = nextStep(world, attacker.getLocation());
+				if (next == null) { // no way around, head straight for them
+					next = Trace.firstStep(getLocation(), attacker.getLocation());
+				}
+				world.getTurnManager().moveEntity(next.subtract(getLocation()));
 			}
 		}
 
@@ -56,7 +78,7 @@ public class NPC extends LivingEntity implements EventObserver {
 			else {
 				int x = dice.roll(1, 3) - 2;
 				int y = dice.roll(1, 3) - 2;
-				world.getTurnManager().moveEntity(new Location(x, y));
+				world.getTurnManager().moveEntity(x, y);
 			}
 		}
 		else {
@@ -64,19 +86,70 @@ public class NPC extends LivingEntity implements EventObserver {
 		}
 	}
 	
+	/**
+	 * @param world the world to look at
+	 * @return a living player this NPC can see, null if there is none
+	 */
+	private Player playerInSight(World world) {
+		FieldOfView view = world.getFieldOfView();
+		for (Player player : world.getPlayers()) {
+			if (player.isAlive() && player.getLocation() != null && view.canSee(this, player.getLocation())) {
+				return player;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the next step of a path to a target. The path is kept between turns and
+	 * only searched again when the level changed, the target moved away from its end
+	 * or this NPC left it.
+	 *
+	 * @param world the world to move in
+	 * @param target the location to reach
+	 * @return the next location to move to, null if the target cannot be reached
+	 */
+	private Location nextStep(World world, Location target) {
+		PathFinder finder = world.getPathFinder();
+		if (path != null && (pathVersion != finder.getVersion() || path.isEmpty())) {
+			path = null;
+		}
+		if (path != null) {
+			Location end = path.get(path.size() - 1);
+			if (!end.equals(target)) {
+				if (end.distanceTo(target) == 1 && finder.isPassable(target.getX(), target.getY())) {
+					path.add(target); // the target took one step, follow it
+				}
+				else {
+					path = null;
+				}
+			}
+		}
+		if (path != null) {
+			while (!path.isEmpty() && path.get(0).equals(getLocation())) {
+				path.remove(0); // steps already taken
+			}
+			if (path.isEmpty() || path.get(0).distanceTo(getLocation()) != 1) {
+				path = null; // moved off the path
+			}
+		}
+		if (path == null) {
+			path = finder.findPath(getLocation(), target);
+			pathVersion = finder.getVersion();
+			if (path == null || path.isEmpty()) return null;
+		}
+		return path.get(0);
+	}
+
 	@Override
 	public void spawn() {
 		super.spawn();
 		attacker = null; // forget attacker
+		path = null;
 	}
 
 	@Override
-	public void eventFired(World world, GameEvent event) {
-		if (event instanceof AttackCheckEvent) {
-			AttackCheckEvent aEvent = (AttackCheckEvent)event;
-			if (aEvent.getTarget() == this) { // attacking me, attack back!
-				attacker = aEvent.getSource();
-			}
-		}
+	public void attackedBy(World world, LivingEntity source) {
+		attacker = source; // attacking me, attack back!
 	}
 }
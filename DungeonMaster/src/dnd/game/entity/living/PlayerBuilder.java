@@ -113,7 +113,7 @@ public abstract class PlayerBuilder {
 	 * To build HP for a target level, use {@link #buildLevel()} instead.
 	 */
 	public void buildHP() {
-		int modifier = entity.abilityModifiers().delta(AbilityType.CONS);
+		int modifier = entity.abilityDelta(AbilityType.CONS);
 		int dieRoll = dice.roll(1, 10);
 		entity.getRawAbilityScores().add(AbilityType.HP, (dieRoll + modifier));
 	}
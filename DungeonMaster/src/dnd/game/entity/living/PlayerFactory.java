@@ -8,7 +8,8 @@ import dnd.game.Dice;
 public class PlayerFactory {
 	
 	/**
-	 * Factory static method for making players/NPCs (uses local instance of Dice)
+	 * Factory static method for making players/NPCs (uses local instance of Dice).
+	 * Worlds that need reproducible rolls should pass their own dice instead.
 	 * @param buildInfo Details about the character to create
 	 * @param level The level of character to generate
 	 * @param entity The entity, in the event it already exists
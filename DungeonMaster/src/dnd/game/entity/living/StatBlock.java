@@ -0,0 +1,39 @@
+package dnd.game.entity.living;
+
+import dnd.game.AbilityType;
+import dnd.game.DamageType;
+
+/**
+ * The cached modifier totals of a {@link LivingEntity}, indexed by the ordinal of the
+ * ability or damage type. The block remembers the modification counts of every
+ * modifier set it was computed from, so the entity can cheaply check whether it is
+ * still valid before reading from it.
+ */
+class StatBlock {
+	final int[] ability = new int[AbilityType.values().length];
+	final int[] raw = new int[AbilityType.values().length];
+	final int[] abilityModifier = new int[AbilityType.values().length];
+	final int[] damage = new int[DamageType.values().length];
+
+	private int equipmentVersion;
+	private int modifierVersion;
+
+	/**
+	 * @param equipmentVersion the equipment modification count of the inventory
+	 * @param modifierVersion the summed modification counts of all modifier sets
+	 * @return whether the totals were computed from the same modifiers
+	 */
+	boolean isValid(int equipmentVersion, int modifierVersion) {
+		return this.equipmentVersion == equipmentVersion && this.modifierVersion == modifierVersion;
+	}
+
+	/**
+	 * Records the modification counts the totals were computed from
+	 * @param equipmentVersion the equipment modification count of the inventory
+	 * @param modifierVersion the summed modification counts of all modifier sets
+	 */
+	void stamp(int equipmentVersion, int modifierVersion) {
+		this.equipmentVersion = equipmentVersion;
+		this.modifierVersion = modifierVersion;
+	}
+}
@@ -8,6 +8,7 @@ public class AttackCheckEvent extends GameEvent {
 	private int attackNumber;
 	private LivingEntity target;
 	private LivingEntity source;
+	private int armorClass; // the target's armor class at the time of the check
 
 	public AttackCheckEvent(LivingEntity source, LivingEntity target, int attackNum, int roll, int bonus) {
 		this.source = source;
@@ -15,6 +16,7 @@ public class AttackCheckEvent extends GameEvent {
 		this.attackNumber = attackNum;
 		this.roll = roll;
 		this.bonus = bonus;
+		this.armorClass = target.armorClass();
 	}
 
 	public int getBonus() {
@@ -36,15 +38,18 @@ public class AttackCheckEvent extends GameEvent {
 	public LivingEntity getSource() {
 		return source;
 	}
+
+	public int getArmorClass() {
+		return armorClass;
+	}
 	
 	@Override
 	public String toString() {
 		String info = "Attack check #" + attackNumber + 
 			" rolled " + roll + " + " + bonus + " (bonus) for total of " + (roll+bonus) + " and ";
-		int ac = target.armorClass();
-		if (roll + bonus >= ac) info += "succeeded";
+		if (roll + bonus >= armorClass) info += "succeeded";
 		else info += "failed";
-		info += " (AC: " + ac + ")";
+		info += " (AC: " + armorClass + ")";
 		return info;
 	}
 }
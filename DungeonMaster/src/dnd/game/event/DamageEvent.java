@@ -6,11 +6,15 @@ public class DamageEvent extends GameEvent {
 	private int amount;
 	private LivingEntity target;
 	private LivingEntity source;
+	private int hp; // the target's hit points after the damage
+	private int totalHP;
 
 	public DamageEvent(LivingEntity source, LivingEntity target, int amount) {
 		this.source = source;
 		this.target = target;
 		this.amount = amount;
+		this.hp = target.getHP();
+		this.totalHP = target.getTotalHP();
 	}
 
 	public LivingEntity getSource() {
@@ -28,6 +32,6 @@ public class DamageEvent extends GameEvent {
 	@Override
 	public String toString() {
 		return source + " damaged " + target + " for " + amount + 
-				" HP (now " + target.getHP() + "/" + target.getTotalHP() + ")";
+				" HP (now " + hp + "/" + totalHP + ")";
 	}
 }
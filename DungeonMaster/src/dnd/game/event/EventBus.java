@@ -0,0 +1,120 @@
+package dnd.game.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import dnd.game.World;
+
+/**
+ * Delivers events to the observers subscribed to their class. An observer
+ * subscribed to a class receives the events of that class and of its subclasses, so
+ * subscribing to {@link GameEvent} receives every event.
+ *
+ * The observers of each event class are resolved once into an array which is kept
+ * until the subscriptions change, so sending an event costs one lookup plus a call
+ * for each observer that listens to it. Subscriptions are copy on write: observers
+ * may subscribe or unsubscribe while an event is being delivered, and the change
+ * applies from the next event on.
+ */
+public class EventBus {
+	private static final EventObserver[] NONE = new EventObserver[0];
+
+	private Map<Class<?>, EventObserver[]> subscriptions;
+	private volatile Map<Class<?>, EventObserver[]> dispatch;
+
+	/**
+	 * Constructor
+	 */
+	public EventBus() {
+		this.subscriptions = new HashMap<Class<?>, EventObserver[]>();
+		this.dispatch = new HashMap<Class<?>, EventObserver[]>();
+	}
+
+	/**
+	 * Subscribes an observer to a class of events. Subscribing twice has no effect.
+	 * @param type the class of events to receive
+	 * @param observer the observer to subscribe
+	 */
+	public synchronized void subscribe(Class<? extends GameEvent> type, EventObserver observer) {
+		EventObserver[] observers = subscriptions.get(type);
+		if (observers == null) observers = NONE;
+		if (Arrays.asList(observers).contains(observer)) return;
+		observers = Arrays.copyOf(observers, observers.length + 1);
+		observers[observers.length - 1] = observer;
+		subscriptions.put(type, observers);
+		dispatch = new HashMap<Class<?>, EventObserver[]>();
+	}
+
+	/**
+	 * Removes an observer's subscription to a class of events
+	 * @param type the class of events
+	 * @param observer the observer to unsubscribe
+	 */
+	public synchronized void unsubscribe(Class<? extends GameEvent> type, EventObserver observer) {
+		EventObserver[] observers = subscriptions.get(type);
+		if (observers == null) return;
+		List<EventObserver> list = new ArrayList<EventObserver>(Arrays.asList(observers));
+		if (!list.remove(observer)) return;
+		if (list.isEmpty()) subscriptions.remove(type);
+		else subscriptions.put(type, list.toArray(NONE));
+		dispatch = new HashMap<Class<?>, EventObserver[]>();
+	}
+
+	/**
+	 * Removes all the subscriptions of an observer
+	 * @param observer the observer to unsubscribe
+	 */
+	public synchronized void unsubscribe(EventObserver observer) {
+		for (Class<?> type : new ArrayList<Class<?>>(subscriptions.keySet())) {
+			unsubscribe(type.asSubclass(GameEvent.class), observer);
+		}
+	}
+
+	/**
+	 * @param type a class of events
+	 * @return whether any observer would receive events of the class
+	 */
+	public boolean hasObservers(Class<? extends GameEvent> type) {
+		return observers(type).length > 0;
+	}
+
+	/**
+	 * Sends an event to the observers subscribed to its class
+	 * @param world the world the event fired from
+	 * @param event the event to send
+	 */
+	public void publish(World world, GameEvent event) {
+		EventObserver[] observers = observers(event.getClass());
+		for (int i = 0; i < observers.length; i++) {
+			observers[i].eventFired(world, event);
+		}
+	}
+
+	private EventObserver[] observers(Class<?> type) {
+		EventObserver[] observers = dispatch.get(type);
+		return observers != null ? observers : resolve(type);
+	}
+
+	/**
+	 * Collects the observers of a class of events and its superclasses into the
+	 * dispatch table
+	 */
+	private synchronized EventObserver[] resolve(Class<?> type) {
+		List<EventObserver> list = new ArrayList<EventObserver>();
+		for (Class<?> c = type; c != null && GameEvent.class.isAssignableFrom(c); c = c.getSuperclass()) {
+			EventObserver[] observers = subscriptions.get(c);
+			if (observers == null) continue;
+			for (EventObserver observer : observers) {
+				if (!list.contains(observer)) list.add(observer);
+			}
+		}
+		EventObserver[] observers = list.isEmpty() ? NONE : list.toArray(NONE);
+		Map<Class<?>, EventObserver[]> table = new HashMap<Class<?>, EventObserver[]>(dispatch);
+		table.put(type, observers);
+		dispatch = table;
+		return observers;
+	}
+}
@@ -0,0 +1,290 @@
+package dnd.game.event;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import dnd.game.World;
+
+/**
+ * Hands a world's events over to slow observers (such as the views) that run on
+ * their own threads, so that the thread playing the game does not wait for them.
+ *
+ * Events go into a bounded ring buffer written by the thread sending the events
+ * and read by every consumer at its own pace. Each consumer has a thread and a
+ * {@link Backpressure} policy telling what happens when it falls a full ring
+ * behind. Only one thread may send events to the pipeline at a time.
+ */
+public class EventPipeline implements EventObserver {
+	/**
+	 * What a consumer does when it cannot keep up with the events
+	 */
+	public enum Backpressure {
+		/** Skip the oldest events it did not read in time */
+		DROP,
+		/** Only receive the latest event of each class among the pending events */
+		COALESCE,
+		/** Make the sender wait until there is room, no event is lost */
+		BLOCK
+	}
+
+	/** The default number of events held by the ring */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private static final Consumer[] NONE = new Consumer[0];
+
+	private World world;
+	private int capacity;
+	private int mask;
+	private AtomicReferenceArray<GameEvent> events;
+	private AtomicLongArray stamps; // the sequence of the event in each slot, -1 while it is written
+	private AtomicLong cursor; // the sequence of the next event
+	private volatile Consumer[] consumers;
+	private boolean started;
+
+	/**
+	 * Constructor
+	 * @param world the world whose events are delivered
+	 * @param capacity the number of events held, rounded up to a power of two
+	 */
+	public EventPipeline(World world, int capacity) {
+		this.world = world;
+		this.capacity = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+		this.mask = this.capacity - 1;
+		this.events = new AtomicReferenceArray<GameEvent>(this.capacity);
+		this.stamps = new AtomicLongArray(this.capacity);
+		for (int i = 0; i < this.capacity; i++) {
+			stamps.set(i, -1);
+		}
+		this.cursor = new AtomicLong();
+		this.consumers = NONE;
+	}
+
+	/**
+	 * @return the number of events held by the ring
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Adds a consumer of the events. It receives the events sent from then on,
+	 * once the pipeline is started.
+	 *
+	 * @param name the name of the consumer's thread
+	 * @param policy what to do when the consumer falls behind
+	 * @param observer the observer receiving the events on the consumer's thread
+	 * @return the consumer
+	 */
+	public synchronized Consumer addConsumer(String name, Backpressure policy, EventObserver observer) {
+		Consumer consumer = new Consumer(name, policy, observer);
+		Consumer[] list = Arrays.copyOf(consumers, consumers.length + 1);
+		list[list.length - 1] = consumer;
+		consumers = list;
+		if (started) consumer.start();
+		return consumer;
+	}
+
+	/**
+	 * Starts the consumers' threads and the delivery of the world's events
+	 */
+	public synchronized void start() {
+		if (started) return;
+		started = true;
+		for (Consumer consumer : consumers) {
+			consumer.start();
+		}
+		world.addObserver(this);
+	}
+
+	/**
+	 * Stops the delivery of events. The consumers' threads end after the event
+	 * they are delivering.
+	 */
+	public synchronized void stop() {
+		if (!started) return;
+		started = false;
+		world.removeObserver(this);
+		for (Consumer consumer : consumers) {
+			consumer.stop();
+		}
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		publish(event);
+	}
+
+	/**
+	 * Puts an event in the ring and wakes the consumers up
+	 * @param event the event
+	 */
+	public void publish(GameEvent event) {
+		long sequence = cursor.get();
+		Consumer[] list = consumers;
+		for (Consumer consumer : list) {
+			if (consumer.policy == Backpressure.BLOCK) consumer.awaitRead(sequence - capacity);
+		}
+		int slot = (int) sequence & mask;
+		stamps.set(slot, -1);
+		events.set(slot, event);
+		stamps.set(slot, sequence);
+		cursor.set(sequence + 1);
+		for (Consumer consumer : list) {
+			consumer.wake();
+		}
+	}
+
+	/**
+	 * Reads an event, checking that the sender did not overwrite it meanwhile
+	 * @return the event, or null if it was overwritten
+	 */
+	private GameEvent read(long sequence) {
+		int slot = (int) sequence & mask;
+		if (stamps.get(slot) != sequence) return null;
+		GameEvent event = events.get(slot);
+		return stamps.get(slot) == sequence ? event : null;
+	}
+
+	/**
+	 * A reader of the ring delivering the events to an observer on its own thread
+	 */
+	public class Consumer implements Runnable {
+		private String name;
+		private Backpressure policy;
+		private EventObserver observer;
+		private AtomicLong sequence; // the sequence of the next event to read
+		private AtomicLong skipped;
+		private volatile Thread thread;
+		private volatile boolean waiting;
+		private volatile boolean running;
+
+		private Consumer(String name, Backpressure policy, EventObserver observer) {
+			this.name = name;
+			this.policy = policy;
+			this.observer = observer;
+			this.sequence = new AtomicLong();
+			this.skipped = new AtomicLong();
+		}
+
+		/**
+		 * @return the backpressure policy
+		 */
+		public Backpressure getPolicy() {
+			return policy;
+		}
+
+		/**
+		 * @return the number of events dropped or coalesced instead of delivered
+		 */
+		public long getSkipped() {
+			return skipped.get();
+		}
+
+		/**
+		 * @return the number of events sent that were not read yet
+		 */
+		public long getPending() {
+			return cursor.get() - sequence.get();
+		}
+
+		private void start() {
+			sequence.set(cursor.get());
+			running = true;
+			thread = new Thread(this, name);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		private void stop() {
+			running = false;
+			Thread t = thread;
+			if (t != null) t.interrupt();
+		}
+
+		private void wake() {
+			if (waiting) LockSupport.unpark(thread);
+		}
+
+		/**
+		 * Waits until an event was read, used by the sender for blocking consumers
+		 */
+		private void awaitRead(long read) {
+			while (running && sequence.get() <= read) {
+				LockSupport.parkNanos(100000);
+			}
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				long next = sequence.get();
+				long available = cursor.get();
+				if (next == available) {
+					waiting = true;
+					if (cursor.get() == next && running) LockSupport.park(this);
+					waiting = false;
+					continue;
+				}
+				if (policy == Backpressure.COALESCE) {
+					deliverLatest(next, available);
+				}
+				else {
+					deliver(next, available);
+				}
+			}
+		}
+
+		private void deliver(long next, long available) {
+			for (long s = next; s < available && running; s++) {
+				GameEvent event = read(s);
+				if (event == null) { // lapped by the sender, skip to the oldest event left
+					skipToOldest(s);
+					return;
+				}
+				fire(event);
+				sequence.set(s + 1);
+			}
+		}
+
+		private void deliverLatest(long next, long available) {
+			Map<Class<?>, GameEvent> latest = new LinkedHashMap<Class<?>, GameEvent>();
+			for (long s = next; s < available; s++) {
+				GameEvent event = read(s);
+				if (event == null) {
+					skipToOldest(s);
+					return;
+				}
+				latest.remove(event.getClass()); // keep the order of the latest events
+				latest.put(event.getClass(), event);
+			}
+			sequence.set(available);
+			skipped.addAndGet(available - next - latest.size());
+			for (GameEvent event : latest.values()) {
+				if (!running) return;
+				fire(event);
+			}
+		}
+
+		private void skipToOldest(long from) {
+			long oldest = cursor.get() - capacity + 1; // the sender may be writing the slot before
+			if (oldest > from) {
+				skipped.addAndGet(oldest - from);
+				sequence.set(oldest);
+			}
+		}
+
+		private void fire(GameEvent event) {
+			try {
+				observer.eventFired(world, event);
+			}
+			catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
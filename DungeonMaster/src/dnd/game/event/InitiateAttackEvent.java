@@ -6,11 +6,13 @@ public class InitiateAttackEvent extends GameEvent {
 	private LivingEntity source;
 	private LivingEntity target;
 	private int attackNumber;
+	private int armorClass;
 
 	public InitiateAttackEvent(LivingEntity source, LivingEntity target, int attackNumber) {
 		this.source = source;
 		this.target = target;
 		this.attackNumber = attackNumber;
+		this.armorClass = target.armorClass();
 	}
 
 	public LivingEntity getSource() {
@@ -28,6 +30,6 @@ public class InitiateAttackEvent extends GameEvent {
 	@Override
 	public String toString() {
 		return source + " initiating attack #" + attackNumber + " on " + 
-				target + " (AC: " + target.armorClass() + ")";
+				target + " (AC: " + armorClass + ")";
 	}
 }
@@ -0,0 +1,41 @@
+package dnd.game.event;
+
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.sim.Intent;
+
+/**
+ * IntentEvent is sent when an order of a player is about to be carried out, before
+ * any of its effects. It is not written to the log, the events following it are.
+ * 
+ * @see GameEvent
+ * 
+ */
+public class IntentEvent extends GameEvent {
+
+	private LivingEntity entity;
+	private Intent intent;
+
+	/**
+	 * Constructor - Initialize the event with the given parameters
+	 * @param entity The entity giving the order
+	 * @param intent The order
+	 */
+	public IntentEvent(LivingEntity entity, Intent intent) {
+		this.entity = entity;
+		this.intent = intent;
+	}
+
+	/**
+	 * @return The entity giving the order
+	 */
+	public LivingEntity getEntity() {
+		return entity;
+	}
+
+	/**
+	 * @return The order
+	 */
+	public Intent getIntent() {
+		return intent;
+	}
+}
@@ -12,6 +12,14 @@ public class ItemUseEvent extends GameEvent {
 		this.entity = entity;
 		this.item = item;
 	}
+
+	public LivingEntity getEntity() {
+		return entity;
+	}
+
+	public Item getItem() {
+		return item;
+	}
 	
 	@Override
 	public String toString() {
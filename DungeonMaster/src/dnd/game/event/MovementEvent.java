@@ -13,6 +13,7 @@ import dnd.game.Location;
 public class MovementEvent extends GameEvent {
 	private Entity entity;
 	private Location delta;
+	private Location location; // where the entity was moved, it may have moved again since
 	
 	/**
 	 * Constructor - Initialize the event with the given parameters
@@ -22,6 +23,7 @@ public class MovementEvent extends GameEvent {
 	public MovementEvent(Entity entity, Location delta) {
 		this.entity = entity;
 		this.delta = delta;
+		this.location = entity.getLocation();
 	}
 	
 	/**
@@ -37,10 +39,17 @@ public class MovementEvent extends GameEvent {
 	public Location getDelta() {
 		return delta;
 	}
+
+	/**
+	 * @return The location the entity was moved to
+	 */
+	public Location getLocation() {
+		return location;
+	}
 	
 	@Override
 	public String toString() {
 		return entity.getClass().getSimpleName() + " " + entity.getName() + 
-				" moved to location " + entity.getLocation();
+				" moved to location " + location;
 	}
 }
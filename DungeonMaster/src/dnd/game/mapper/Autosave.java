@@ -0,0 +1,468 @@
+package dnd.game.mapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import dnd.game.Entity;
+import dnd.game.Location;
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.event.ActivateEntityEvent;
+import dnd.game.event.AttackCheckEvent;
+import dnd.game.event.DamageEvent;
+import dnd.game.event.DoorToggleEvent;
+import dnd.game.event.EquipEvent;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.ItemUseEvent;
+import dnd.game.event.KilledEntityEvent;
+import dnd.game.event.MovementEvent;
+import dnd.game.event.NextLevelEvent;
+import dnd.game.event.NextTurnEvent;
+import dnd.game.event.ResetLevelEvent;
+import dnd.game.event.SpawnPlayerEvent;
+import dnd.game.event.TakeInventoryItemEvent;
+import dnd.util.BinaryInput;
+import dnd.util.BinaryOutput;
+
+/**
+ * Saves a running game incrementally. The autosave watches the world's events to
+ * learn which entities and cells changed, and at the start of every turn appends a
+ * small record of those changes to a journal file. Every few turns, and whenever the
+ * level changes, the journal is compacted into a full binary save of the world (the
+ * snapshot). The records are encoded on the game thread, which only takes the time
+ * to encode a few entities; the files are written and synced on a background thread.
+ *
+ * The snapshot is a normal binary world save which the {@link WorldMapper} can load.
+ * {@link #recover(File)} loads it and replays the journal, so a crash loses at most
+ * the turn in progress. Journal records are checksummed; a torn record at the end of
+ * the journal is ignored.
+ *
+ * Active potion effects are not saved, the same as with the other save formats.
+ */
+public class Autosave implements EventObserver {
+	/** The suffix added to a saved game's name for its autosave */
+	public static final String AUTOSAVE_SUFFIX = ".autosave";
+	/** The suffix added to the snapshot's name for its journal */
+	public static final String JOURNAL_SUFFIX = ".journal";
+	/** The default number of turns journaled between two snapshots */
+	public static final int DEFAULT_COMPACT_INTERVAL = 100;
+
+	private static final byte[] JOURNAL_MAGIC = { 'D', 'N', 'D', 'J' };
+	private static final int JOURNAL_VERSION = 1;
+	private static final int MAX_RECORD = 1 << 24;
+	// the events that change the saved state or end a turn
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends GameEvent>[] OBSERVED = (Class<? extends GameEvent>[]) new Class<?>[] {
+		MovementEvent.class, DamageEvent.class, AttackCheckEvent.class, KilledEntityEvent.class,
+		EquipEvent.class, ItemUseEvent.class, TakeInventoryItemEvent.class, DoorToggleEvent.class,
+		NextLevelEvent.class, ResetLevelEvent.class, SpawnPlayerEvent.class, NextTurnEvent.class,
+		ActivateEntityEvent.class };
+
+	private World world;
+	private File file;
+	private File journalFile;
+	private int compactInterval;
+	private BinaryMapper<World> mapper;
+	private BinaryCodec.Writer writer;
+	private Set<Entity> dirty;
+	private List<Location> cells;
+	private Map<Entity, Integer> modifierVersions;
+	private boolean turnStarted;
+	private boolean snapshotNeeded;
+	private int records;
+	private ExecutorService executor;
+	private volatile IOException error;
+	private RandomAccessFile journal; // only used by the executor
+
+	/**
+	 * Creates an autosave compacting the journal every {@link #DEFAULT_COMPACT_INTERVAL} turns
+	 * @param world the world to save
+	 * @param file the snapshot file, the journal is kept next to it
+	 */
+	public Autosave(World world, File file) {
+		this(world, file, DEFAULT_COMPACT_INTERVAL);
+	}
+
+	/**
+	 * Constructor
+	 * @param world the world to save
+	 * @param file the snapshot file, the journal is kept next to it
+	 * @param compactInterval the number of turns journaled between two snapshots
+	 */
+	public Autosave(World world, File file, int compactInterval) {
+		this.world = world;
+		this.file = file;
+		this.journalFile = new File(file.getPath() + JOURNAL_SUFFIX);
+		this.compactInterval = compactInterval;
+		this.mapper = new BinaryMapper<World>(World.class);
+		this.dirty = Collections.newSetFromMap(new IdentityHashMap<Entity, Boolean>());
+		this.cells = new ArrayList<Location>();
+		this.modifierVersions = new IdentityHashMap<Entity, Integer>();
+	}
+
+	/**
+	 * @param saveFile a saved game
+	 * @return the autosave file kept for the saved game
+	 */
+	public static File autosaveFor(File saveFile) {
+		return new File(saveFile.getPath() + AUTOSAVE_SUFFIX);
+	}
+
+	/**
+	 * @param autosave an autosave file
+	 * @param saveFile the saved game it was kept for
+	 * @return whether the autosave holds a more recent state than the saved game
+	 */
+	public static boolean isNewer(File autosave, File saveFile) {
+		if (!autosave.exists()) return false;
+		File journal = new File(autosave.getPath() + JOURNAL_SUFFIX);
+		long modified = Math.max(autosave.lastModified(), journal.lastModified());
+		return modified > saveFile.lastModified();
+	}
+
+	/**
+	 * Writes a snapshot of the world and starts watching it for changes
+	 */
+	public void start() {
+		if (executor != null) return;
+		executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "autosave");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		for (Class<? extends GameEvent> type : OBSERVED) {
+			world.addObserver(type, this);
+		}
+		snapshot();
+	}
+
+	/**
+	 * Stops watching the world and waits for the pending writes
+	 * @throws IOException if a write failed
+	 */
+	public void stop() throws IOException {
+		if (executor == null) return;
+		world.removeObserver(this);
+		executor.submit(new Runnable() {
+			public void run() {
+				closeJournal();
+			}
+		});
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		executor = null;
+		checkError();
+	}
+
+	/**
+	 * Waits for the pending writes
+	 * @throws IOException if a write failed
+	 */
+	public void flush() throws IOException {
+		if (executor == null) return;
+		try {
+			executor.submit(new Runnable() {
+				public void run() {
+				}
+			}).get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e) {
+			throw new IOException("Autosave failed", e.getCause());
+		}
+		checkError();
+	}
+
+	/**
+	 * @return the number of records in the journal since the last snapshot
+	 */
+	public int getRecordCount() {
+		return records;
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (event instanceof MovementEvent) {
+			dirty.add(((MovementEvent) event).getEntity());
+		}
+		else if (event instanceof DamageEvent) {
+			dirty.add(((DamageEvent) event).getTarget());
+		}
+		else if (event instanceof AttackCheckEvent) {
+			dirty.add(((AttackCheckEvent) event).getTarget()); // NPCs remember their attacker
+		}
+		else if (event instanceof KilledEntityEvent) {
+			dirty.add(((KilledEntityEvent) event).getTarget());
+		}
+		else if (event instanceof EquipEvent) {
+			dirty.add(((EquipEvent) event).getEntity());
+		}
+		else if (event instanceof ItemUseEvent) {
+			dirty.add(((ItemUseEvent) event).getEntity());
+			dirty.add(((ItemUseEvent) event).getItem());
+		}
+		else if (event instanceof TakeInventoryItemEvent) {
+			dirty.add(((TakeInventoryItemEvent) event).getEntity());
+			dirty.add(((TakeInventoryItemEvent) event).getInventoryEntity());
+		}
+		else if (event instanceof DoorToggleEvent) {
+			Location location = ((DoorToggleEvent) event).getLocation();
+			if (!cells.contains(location)) cells.add(location);
+		}
+		else if (event instanceof NextLevelEvent || event instanceof ResetLevelEvent ||
+				event instanceof SpawnPlayerEvent) {
+			snapshotNeeded = true;
+		}
+		else if (event instanceof NextTurnEvent) {
+			turnStarted = true;
+		}
+		else if (event instanceof ActivateEntityEvent && turnStarted) {
+			// the turn order is set up, the world is in a consistent state
+			turnStarted = false;
+			commit();
+		}
+	}
+
+	/**
+	 * Journals the changes since the last record, or writes a snapshot
+	 */
+	private void commit() {
+		// modifiers can also change without an event (potion effects wearing off)
+		for (LivingEntity entity : world.getLivingEntities()) {
+			Integer version = modifierVersions.get(entity);
+			if (version == null || version != entity.getBaseAbilityModifiers().getVersion()) {
+				dirty.add(entity);
+			}
+		}
+		if (snapshotNeeded || records >= compactInterval) {
+			snapshot();
+			return;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryOutput out = new BinaryOutput(Channels.newChannel(bytes));
+		try {
+			writer.setOutput(out);
+			if (!writer.writeDelta(world, dirty, cells)) { // new entities, save them all
+				snapshot();
+				return;
+			}
+			out.flush();
+		}
+		catch (IOException e) {
+			error = e;
+			return;
+		}
+		records++;
+		clearChanges();
+		final byte[] record = bytes.toByteArray();
+		executor.submit(new Runnable() {
+			public void run() {
+				appendRecord(record);
+			}
+		});
+	}
+
+	/**
+	 * Encodes a snapshot of the world and writes it in the background
+	 */
+	private void snapshot() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BinaryOutput out = new BinaryOutput(Channels.newChannel(bytes));
+		try {
+			writer = new BinaryCodec.Writer(out);
+			mapper.write(world, writer, out);
+		}
+		catch (IOException e) {
+			error = e;
+			return;
+		}
+		records = 0;
+		snapshotNeeded = false;
+		clearChanges();
+		final byte[] snapshot = bytes.toByteArray();
+		executor.submit(new Runnable() {
+			public void run() {
+				writeSnapshot(snapshot);
+			}
+		});
+	}
+
+	private void clearChanges() {
+		dirty.clear();
+		cells.clear();
+		modifierVersions.clear();
+		for (LivingEntity entity : world.getLivingEntities()) {
+			modifierVersions.put(entity, entity.getBaseAbilityModifiers().getVersion());
+		}
+	}
+
+	private void checkError() throws IOException {
+		IOException e = error;
+		if (e != null) {
+			error = null;
+			throw e;
+		}
+	}
+
+	/**
+	 * Replaces the snapshot file and starts a new journal for it. The journal names
+	 * the checksum of its snapshot, so if the process stops between the two steps,
+	 * the old journal is ignored.
+	 */
+	private void writeSnapshot(byte[] snapshot) {
+		try {
+			File tmp = new File(file.getPath() + ".tmp");
+			FileOutputStream out = new FileOutputStream(tmp);
+			try {
+				out.write(snapshot);
+				out.getFD().sync();
+			}
+			finally {
+				out.close();
+			}
+			if (!tmp.renameTo(file)) {
+				file.delete();
+				if (!tmp.renameTo(file)) throw new IOException("Could not replace " + file);
+			}
+
+			if (journal == null) journal = new RandomAccessFile(journalFile, "rw");
+			journal.setLength(0);
+			ByteArrayOutputStream header = new ByteArrayOutputStream();
+			BinaryOutput headerOut = new BinaryOutput(Channels.newChannel(header));
+			headerOut.writeBytes(JOURNAL_MAGIC);
+			headerOut.writeVarInt(JOURNAL_VERSION);
+			headerOut.writeVarInt(checksum(snapshot));
+			headerOut.flush();
+			journal.write(header.toByteArray());
+			journal.getFD().sync();
+		}
+		catch (IOException e) {
+			error = e;
+		}
+	}
+
+	/**
+	 * Appends a record to the journal: its length, checksum and contents
+	 */
+	private void appendRecord(byte[] record) {
+		if (journal == null) return; // the snapshot could not be written
+		try {
+			ByteArrayOutputStream frame = new ByteArrayOutputStream(record.length + 10);
+			BinaryOutput out = new BinaryOutput(Channels.newChannel(frame));
+			out.writeVarInt(record.length);
+			out.writeVarInt(checksum(record));
+			out.writeBytes(record);
+			out.flush();
+			journal.seek(journal.length());
+			journal.write(frame.toByteArray());
+			journal.getChannel().force(false);
+		}
+		catch (IOException e) {
+			error = e;
+		}
+	}
+
+	private void closeJournal() {
+		try {
+			if (journal != null) journal.close();
+		}
+		catch (IOException e) {
+			error = e;
+		}
+		journal = null;
+	}
+
+	private static int checksum(byte[] bytes) {
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		return (int) crc.getValue();
+	}
+
+	private static byte[] readFile(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			if (in.length() > Integer.MAX_VALUE) throw new IOException(file + " is too large");
+			byte[] bytes = new byte[(int) in.length()];
+			in.readFully(bytes);
+			return bytes;
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	private static BinaryInput input(byte[] bytes) {
+		return new BinaryInput(Channels.newChannel(new ByteArrayInputStream(bytes)));
+	}
+
+	/**
+	 * Loads the world saved by an autosave: its snapshot with the journaled turns
+	 * replayed on top of it
+	 *
+	 * @param file the snapshot file
+	 * @return the world as of the last journaled turn
+	 * @throws IOException if the snapshot cannot be read or the journal is corrupt
+	 */
+	public static World recover(File file) throws IOException {
+		byte[] snapshot = readFile(file);
+		BinaryInput in = input(snapshot);
+		BinaryCodec.Reader reader = new BinaryCodec.Reader(in);
+		World world = new BinaryMapper<World>(World.class).read(reader, in);
+
+		File journalFile = new File(file.getPath() + JOURNAL_SUFFIX);
+		if (!journalFile.exists()) return world;
+		in = input(readFile(journalFile));
+		try {
+			byte[] magic = in.readBytes(JOURNAL_MAGIC.length);
+			for (int i = 0; i < magic.length; i++) {
+				if (magic[i] != JOURNAL_MAGIC[i]) throw new IOException("Not an autosave journal");
+			}
+			if (in.readVarInt() != JOURNAL_VERSION) throw new IOException("Unsupported journal version");
+			if (in.readVarInt() != checksum(snapshot)) {
+				return world; // the journal of an older snapshot
+			}
+			while (true) {
+				int length = in.readVarInt();
+				int checksum = in.readVarInt();
+				if (length < 0 || length > MAX_RECORD) break; // a damaged record
+				byte[] record = in.readBytes(length);
+				if (checksum(record) != checksum) break;
+				reader.setInput(input(record));
+				reader.readDelta(world);
+			}
+		}
+		catch (EOFException e) {
+			// the end of the journal, possibly in the middle of a record
+		}
+		return world;
+	}
+}
@@ -0,0 +1,697 @@
+package dnd.game.mapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dnd.game.AbilityType;
+import dnd.game.DamageType;
+import dnd.game.Entity;
+import dnd.game.EquipmentSlot;
+import dnd.game.Inventory;
+import dnd.game.InventoryInterface;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.PlayerClass;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Armor;
+import dnd.game.entity.item.BasicItem;
+import dnd.game.entity.item.Belt;
+import dnd.game.entity.item.Boots;
+import dnd.game.entity.item.Bracers;
+import dnd.game.entity.item.Chest;
+import dnd.game.entity.item.ConsumableItem;
+import dnd.game.entity.item.EquippableItem;
+import dnd.game.entity.item.HealthPotion;
+import dnd.game.entity.item.Helmet;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.item.Potion;
+import dnd.game.entity.item.Ring;
+import dnd.game.entity.item.Shield;
+import dnd.game.entity.item.Weapon;
+import dnd.game.entity.living.Goblin;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Orc;
+import dnd.game.entity.living.Player;
+import dnd.game.entity.living.Troll;
+import dnd.util.BinaryInput;
+import dnd.util.BinaryOutput;
+import dnd.util.Modifier;
+import dnd.util.ModifierSet;
+
+/**
+ * Encodes the game objects for the {@link BinaryMapper}.
+ *
+ * Every entity reachable from the saved object is written once, as a typed record in
+ * an entity table; everything else refers to entities by their index in the table.
+ * The table is written in two passes (all record types and constructor values first,
+ * then all record bodies) so the reader can create every entity before resolving
+ * references between them.
+ *
+ * Once a world has been written, the same writer can write deltas of it: the state
+ * of the entities that changed, referring to entities by the ids of the full save.
+ * A reader which read the full save applies them to the world it read.
+ */
+class BinaryCodec {
+	/**
+	 * The entity record types. The ordinals are part of the file format: only add new
+	 * types at the end.
+	 */
+	enum Record {
+		PLAYER, NPC, GOBLIN, ORC, TROLL,
+		WEAPON, ARMOR, SHIELD, BELT, BOOTS, BRACERS, HELMET, RING,
+		CONSUMABLE, POTION, HEALTH_POTION, CHEST, BASIC_ITEM
+	}
+
+	private static final Map<Class<?>, Record> RECORDS = new HashMap<Class<?>, Record>();
+	static {
+		RECORDS.put(Player.class, Record.PLAYER);
+		RECORDS.put(NPC.class, Record.NPC);
+		RECORDS.put(Goblin.class, Record.GOBLIN);
+		RECORDS.put(Orc.class, Record.ORC);
+		RECORDS.put(Troll.class, Record.TROLL);
+		RECORDS.put(Weapon.class, Record.WEAPON);
+		RECORDS.put(Armor.class, Record.ARMOR);
+		RECORDS.put(Shield.class, Record.SHIELD);
+		RECORDS.put(Belt.class, Record.BELT);
+		RECORDS.put(Boots.class, Record.BOOTS);
+		RECORDS.put(Bracers.class, Record.BRACERS);
+		RECORDS.put(Helmet.class, Record.HELMET);
+		RECORDS.put(Ring.class, Record.RING);
+		RECORDS.put(ConsumableItem.class, Record.CONSUMABLE);
+		RECORDS.put(Potion.class, Record.POTION);
+		RECORDS.put(HealthPotion.class, Record.HEALTH_POTION);
+		RECORDS.put(Chest.class, Record.CHEST);
+		RECORDS.put(BasicItem.class, Record.BASIC_ITEM);
+	}
+
+	private static final Tile[] TILES = Tile.values();
+	private static final AbilityType[] ABILITIES = AbilityType.values();
+	private static final DamageType[] DAMAGES = DamageType.values();
+	private static final EquipmentSlot[] SLOTS = EquipmentSlot.values();
+	private static final PlayerClass[] CLASSES = PlayerClass.values();
+	private static final int MAX_DICE_STATE = 4096;
+
+	/**
+	 * Writes objects and the entities they refer to
+	 */
+	static class Writer {
+		private BinaryOutput out;
+		private Map<Entity, Integer> ids = new IdentityHashMap<Entity, Integer>();
+		private List<Entity> entities = new ArrayList<Entity>();
+
+		Writer(BinaryOutput out) {
+			this.out = out;
+		}
+
+		/**
+		 * @param out the output for the next objects written, the entity ids are kept
+		 */
+		void setOutput(BinaryOutput out) {
+			this.out = out;
+		}
+
+		/**
+		 * Writes the changes to a world written before by this writer: the turn
+		 * state, the changed entities and the changed cells. Nothing is written if
+		 * the world refers to entities which were not in the full save.
+		 *
+		 * @param world the world written before
+		 * @param dirty the entities which changed
+		 * @param cells the cells which changed
+		 * @return whether the delta was written
+		 * @throws IOException if the output cannot be written
+		 */
+		boolean writeDelta(World world, Collection<? extends Entity> dirty,
+				Collection<Location> cells) throws IOException {
+			List<LivingEntity> order = world.getTurnManager().getTurnOrder();
+			if (!knowsAll(world.getItems()) || !knowsAll(world.getPlayers()) ||
+					!knowsAll(world.getMonsters()) || !knowsAll(order) || !knowsAll(dirty)) {
+				return false;
+			}
+
+			out.writeVarInt(world.getTurnNumber());
+			out.writeBoolean(world.isStarted());
+			writeRefs(world.getItems());
+			writeRefs(world.getPlayers());
+			writeRefs(world.getMonsters());
+			writeRefs(order);
+			for (int moves : world.getTurnManager().getTurnMoves()) {
+				out.writeSignedVarInt(moves);
+			}
+			out.writeBlock(world.getDice().getState());
+
+			out.writeVarInt(dirty.size());
+			for (Entity entity : dirty) {
+				writeRef(entity);
+				writeBody(entity);
+			}
+			out.writeVarInt(cells.size());
+			for (Location cell : cells) {
+				writeLocation(cell);
+				Tile tile = world.getLevel().getCell(cell);
+				out.writeVarInt(tile == null ? 0 : tile.ordinal() + 1);
+			}
+			return true;
+		}
+
+		/**
+		 * @return whether the entities and every entity they refer to have ids
+		 */
+		private boolean knowsAll(Collection<? extends Entity> list) {
+			for (Entity entity : list) {
+				if (!knows(entity)) return false;
+			}
+			return true;
+		}
+
+		private boolean knows(Entity entity) {
+			if (entity == null) return true;
+			if (!ids.containsKey(entity)) return false;
+			if (entity instanceof InventoryInterface) {
+				Inventory inventory = ((InventoryInterface) entity).getInventory();
+				if (!knowsAll(inventory.getItemSlots()) || !knowsAll(inventory.getEquippedItems())) {
+					return false;
+				}
+			}
+			if (entity instanceof NPC) {
+				LivingEntity attacker = ((NPC) entity).getAttacker();
+				return attacker == null || ids.containsKey(attacker);
+			}
+			return true;
+		}
+
+		void writeWorld(World world) throws IOException {
+			if (world.getLevel() != null) collectAll(world.getLevel().getInitialEntities());
+			collectAll(world.getItems());
+			collectAll(world.getPlayers());
+			collectAll(world.getMonsters());
+			List<LivingEntity> order = world.getTurnManager().getTurnOrder();
+			collectAll(order);
+			writeEntityTable();
+
+			out.writeBoolean(world.getLevel() != null);
+			if (world.getLevel() != null) writeLevelBody(world.getLevel());
+			out.writeVarInt(world.getLevelNumber());
+			writeRefs(world.getItems());
+			writeRefs(world.getPlayers());
+			writeRefs(world.getMonsters());
+			out.writeBoolean(world.isStarted());
+			out.writeVarInt(world.getTurnNumber());
+			writeRefs(order);
+			for (int moves : world.getTurnManager().getTurnMoves()) {
+				out.writeSignedVarInt(moves);
+			}
+			out.writeBlock(world.getDice().getState());
+		}
+
+		void writeLevel(Level level) throws IOException {
+			collectAll(level.getInitialEntities());
+			writeEntityTable();
+			writeLevelBody(level);
+		}
+
+		void writeEntity(Entity entity) throws IOException {
+			collect(entity);
+			writeEntityTable();
+			writeRef(entity);
+		}
+
+		private void writeLevelBody(Level level) throws IOException {
+			int width = level.getWidth();
+			int height = level.getHeight();
+			out.writeVarInt(width);
+			out.writeVarInt(height);
+			Location spawn = level.getSpawnLocation();
+			out.writeBoolean(spawn != null);
+			if (spawn != null) writeLocation(spawn);
+
+			// run length encoded tiles, row by row
+			Tile[] row = new Tile[width];
+			Tile current = null;
+			int run = 0;
+			for (int y = 0; y < height; y++) {
+				level.getRow(y, 0, width, row);
+				for (int x = 0; x < width; x++) {
+					if (row[x] != current && run > 0) {
+						writeRun(current, run);
+						run = 0;
+					}
+					current = row[x];
+					run++;
+				}
+			}
+			if (run > 0) writeRun(current, run);
+
+			writeRefs(level.getInitialEntities());
+		}
+
+		private void writeRun(Tile tile, int run) throws IOException {
+			out.writeVarInt(tile == null ? 0 : tile.ordinal() + 1);
+			out.writeVarInt(run);
+		}
+
+		private void collectAll(List<? extends Entity> list) throws IOException {
+			for (Entity entity : list) {
+				collect(entity);
+			}
+		}
+
+		/**
+		 * Assigns ids to an entity and every entity it refers to
+		 */
+		private void collect(Entity entity) throws IOException {
+			if (entity == null || ids.containsKey(entity)) return;
+			if (!RECORDS.containsKey(entity.getClass())) {
+				throw new IOException("Cannot save entities of type " + entity.getClass().getName());
+			}
+			ids.put(entity, entities.size());
+			entities.add(entity);
+
+			if (entity instanceof InventoryInterface) {
+				Inventory inventory = ((InventoryInterface) entity).getInventory();
+				for (Item item : inventory.getItemSlots()) {
+					collect(item);
+				}
+				for (EquippableItem item : inventory.getEquippedItems()) {
+					collect(item);
+				}
+			}
+			if (entity instanceof NPC) {
+				collect(((NPC) entity).getAttacker());
+			}
+		}
+
+		private void writeEntityTable() throws IOException {
+			out.writeVarInt(entities.size());
+			for (Entity entity : entities) {
+				Record record = RECORDS.get(entity.getClass());
+				out.writeVarInt(record.ordinal());
+				// values which can only be given to the constructor
+				if (record == Record.POTION) {
+					Modifier<AbilityType> modifier = ((Potion) entity).getModifier();
+					out.writeBoolean(modifier != null);
+					if (modifier != null) writeModifier(modifier, ABILITIES);
+				}
+				else if (record == Record.HEALTH_POTION) {
+					out.writeSignedVarInt(((HealthPotion) entity).getAmount());
+				}
+			}
+			for (Entity entity : entities) {
+				writeBody(entity);
+			}
+		}
+
+		private void writeBody(Entity entity) throws IOException {
+			out.writeString(entity.getName());
+			writeLocation(entity.getLocation());
+			Modifier<AbilityType> own = entity instanceof Potion ? ((Potion) entity).getModifier() : null;
+			writeModifierSet(entity.getBaseAbilityModifiers(), ABILITIES, own);
+			writeModifierSet(entity.getBaseDamageModifiers(), DAMAGES, null);
+
+			if (entity instanceof LivingEntity) {
+				LivingEntity living = (LivingEntity) entity;
+				writeModifierSet(living.getRawAbilityScores(), ABILITIES, null);
+				out.writeVarInt(living.getLevel());
+				out.writeSignedVarInt(living.getHP());
+			}
+			if (entity instanceof InventoryInterface) {
+				writeInventory(((InventoryInterface) entity).getInventory());
+			}
+			if (entity instanceof Player) {
+				PlayerClass playerClass = ((Player) entity).getPlayerClass();
+				out.writeVarInt(playerClass == null ? 0 : playerClass.ordinal() + 1);
+			}
+			if (entity instanceof NPC) {
+				writeRef(((NPC) entity).getAttacker());
+			}
+			if (entity instanceof Potion) {
+				out.writeSignedVarInt(((Potion) entity).getNumTurns());
+			}
+		}
+
+		private void writeInventory(Inventory inventory) throws IOException {
+			out.writeSignedVarInt(inventory.getGold());
+			out.writeVarInt(inventory.getMaxItemSlots());
+			List<Item> items = new ArrayList<Item>(inventory.getItemSlots());
+			writeRefs(items);
+			int equipped = 0;
+			for (EquipmentSlot slot : SLOTS) {
+				if (inventory.isEquipped(slot)) equipped++;
+			}
+			out.writeVarInt(equipped);
+			for (EquipmentSlot slot : SLOTS) {
+				if (!inventory.isEquipped(slot)) continue;
+				out.writeVarInt(slot.ordinal());
+				writeRef(inventory.equipmentInSlot(slot));
+			}
+		}
+
+		/**
+		 * Writes a modifier set. A modifier which is the potion's own modifier is
+		 * written as a marker so the reader can keep sharing the same object.
+		 */
+		private <T extends Enum<T>> void writeModifierSet(ModifierSet<T> set, T[] types,
+				Modifier<T> own) throws IOException {
+			int count = 0;
+			for (Modifier<T> mod : set) {
+				if (mod != null) count++;
+			}
+			out.writeVarInt(count);
+			for (Modifier<T> mod : set) {
+				if (mod == null) continue;
+				if (mod == own) {
+					out.writeVarInt(0);
+				}
+				else {
+					writeModifier(mod, types);
+				}
+			}
+		}
+
+		/**
+		 * Writes the number of values plus one, then each type ordinal and value
+		 */
+		private <T extends Enum<T>> void writeModifier(Modifier<T> mod, T[] types) throws IOException {
+			int count = 0;
+			for (T type : types) {
+				if (mod.delta(type) != 0) count++;
+			}
+			out.writeVarInt(count + 1);
+			for (T type : types) {
+				int value = mod.delta(type);
+				if (value == 0) continue;
+				out.writeVarInt(type.ordinal());
+				out.writeSignedVarInt(value);
+			}
+		}
+
+		private void writeLocation(Location location) throws IOException {
+			out.writeSignedVarInt(location.getX());
+			out.writeSignedVarInt(location.getY());
+		}
+
+		private void writeRefs(List<? extends Entity> list) throws IOException {
+			out.writeVarInt(list.size());
+			for (Entity entity : list) {
+				writeRef(entity);
+			}
+		}
+
+		private void writeRef(Entity entity) throws IOException {
+			out.writeVarInt(entity == null ? 0 : ids.get(entity) + 1);
+		}
+	}
+
+	/**
+	 * Reads objects written by the {@link Writer}
+	 */
+	static class Reader {
+		private BinaryInput in;
+		private Entity[] entities;
+
+		Reader(BinaryInput in) {
+			this.in = in;
+		}
+
+		/**
+		 * @param in the input for the next objects read, the entity ids are kept
+		 */
+		void setInput(BinaryInput in) {
+			this.in = in;
+		}
+
+		/**
+		 * Applies a delta written by {@link Writer#writeDelta(World, Collection, Collection)}
+		 * to the world read by this reader
+		 * @param world the world read before
+		 * @throws IOException if the input cannot be read or is not a valid delta
+		 */
+		void readDelta(World world) throws IOException {
+			int turnNumber = in.readVarInt();
+			world.setStarted(in.readBoolean());
+			List<Item> items = readRefs(Item.class);
+			List<Player> players = readRefs(Player.class);
+			List<NPC> monsters = readRefs(NPC.class);
+			List<LivingEntity> order = readRefs(LivingEntity.class);
+			int[] moves = new int[order.size()];
+			for (int i = 0; i < moves.length; i++) {
+				moves[i] = in.readSignedVarInt();
+			}
+			byte[] dice = in.readBlock(MAX_DICE_STATE);
+
+			int dirty = in.readVarInt();
+			for (int i = 0; i < dirty; i++) {
+				Entity entity = readRef(Entity.class);
+				if (entity == null) throw new IOException("Malformed entity change");
+				readBody(entity);
+			}
+			int cells = in.readVarInt();
+			for (int i = 0; i < cells; i++) {
+				Location cell = readLocation();
+				int value = in.readVarInt();
+				if (value > TILES.length || world.getLevel() == null || !world.getLevel().locationInBounds(cell)) {
+					throw new IOException("Malformed cell change");
+				}
+				world.getLevel().setCell(cell.getX(), cell.getY(), value == 0 ? null : TILES[value - 1]);
+			}
+
+			// the world lists are replaced after the bodies so the entity index sees final locations
+			world.getItems().clear();
+			world.getItems().addAll(items);
+			world.getPlayers().clear();
+			world.getPlayers().addAll(players);
+			world.getMonsters().clear();
+			world.getMonsters().addAll(monsters);
+			world.getTurnManager().restoreTurn(turnNumber, order, moves);
+			world.getDice().setState(dice);
+		}
+
+		World readWorld() throws IOException {
+			readEntityTable();
+			World world = new World();
+			if (in.readBoolean()) {
+				world.setLevel(readLevelBody());
+			}
+			world.setLevelNumber(in.readVarInt());
+			for (Item item : readRefs(Item.class)) {
+				world.getItems().add(item);
+			}
+			for (Player player : readRefs(Player.class)) {
+				world.getPlayers().add(player);
+			}
+			for (NPC monster : readRefs(NPC.class)) {
+				world.getMonsters().add(monster);
+			}
+			world.setStarted(in.readBoolean());
+			int turnNumber = in.readVarInt();
+			List<LivingEntity> order = readRefs(LivingEntity.class);
+			int[] moves = new int[order.size()];
+			for (int i = 0; i < moves.length; i++) {
+				moves[i] = in.readSignedVarInt();
+			}
+			world.getTurnManager().restoreTurn(turnNumber, order, moves);
+			world.getDice().setState(in.readBlock(MAX_DICE_STATE));
+			return world;
+		}
+
+		Level readLevel() throws IOException {
+			readEntityTable();
+			return readLevelBody();
+		}
+
+		<T extends Entity> T readEntity(Class<T> type) throws IOException {
+			readEntityTable();
+			return readRef(type);
+		}
+
+		private Level readLevelBody() throws IOException {
+			int width = in.readVarInt();
+			int height = in.readVarInt();
+			if ((long) width * height > Integer.MAX_VALUE) throw new IOException("Level too large");
+			Level level = new Level(width, height);
+			if (in.readBoolean()) {
+				level.setSpawnLocation(readLocation());
+			}
+
+			int cells = width * height;
+			int position = 0;
+			while (position < cells) {
+				int value = in.readVarInt();
+				int run = in.readVarInt();
+				if (value > TILES.length || run <= 0 || run > cells - position) {
+					throw new IOException("Malformed tile run");
+				}
+				Tile tile = value == 0 ? null : TILES[value - 1];
+				// a run can span several rows
+				while (run > 0) {
+					int x = position % width;
+					int y = position / width;
+					int length = Math.min(run, width - x);
+					level.fillRegion(x, y, length, 1, tile);
+					position += length;
+					run -= length;
+				}
+			}
+
+			for (Entity entity : readRefs(Entity.class)) {
+				level.getInitialEntities().add(entity);
+			}
+			return level;
+		}
+
+		private void readEntityTable() throws IOException {
+			int count = in.readVarInt();
+			entities = new Entity[count];
+			Record[] records = Record.values();
+			for (int i = 0; i < count; i++) {
+				int record = in.readVarInt();
+				if (record >= records.length) throw new IOException("Unknown entity record " + record);
+				entities[i] = create(records[record]);
+			}
+			for (Entity entity : entities) {
+				readBody(entity);
+			}
+		}
+
+		private Entity create(Record record) throws IOException {
+			switch (record) {
+				case PLAYER: return new Player();
+				case NPC: return new NPC();
+				case GOBLIN: return new Goblin();
+				case ORC: return new Orc();
+				case TROLL: return new Troll();
+				case WEAPON: return new Weapon(null, 0, 0);
+				case ARMOR: return new Armor(0);
+				case SHIELD: return new Shield(0);
+				case BELT: return new Belt();
+				case BOOTS: return new Boots();
+				case BRACERS: return new Bracers();
+				case HELMET: return new Helmet();
+				case RING: return new Ring();
+				case CONSUMABLE: return new ConsumableItem();
+				case POTION: return new Potion(in.readBoolean() ? readModifier(ABILITIES) : null);
+				case HEALTH_POTION: return new HealthPotion(in.readSignedVarInt());
+				case CHEST: return new Chest();
+				case BASIC_ITEM: return new BasicItem(null);
+				default: throw new IOException("Unknown entity record " + record);
+			}
+		}
+
+		private void readBody(Entity entity) throws IOException {
+			entity.setName(in.readString());
+			entity.setLocation(readLocation());
+			Modifier<AbilityType> own = entity instanceof Potion ? ((Potion) entity).getModifier() : null;
+			readModifierSet(entity.getBaseAbilityModifiers(), ABILITIES, own);
+			readModifierSet(entity.getBaseDamageModifiers(), DAMAGES, null);
+
+			int level = 0, hp = 0;
+			if (entity instanceof LivingEntity) {
+				LivingEntity living = (LivingEntity) entity;
+				readModifierSet(living.getRawAbilityScores(), ABILITIES, null);
+				level = in.readVarInt();
+				hp = in.readSignedVarInt();
+			}
+			if (entity instanceof InventoryInterface) {
+				readInventory(((InventoryInterface) entity).getInventory());
+			}
+			if (entity instanceof LivingEntity) {
+				// HP is capped by the modifiers, so it is set once the equipment is back
+				LivingEntity living = (LivingEntity) entity;
+				living.setLevel(level);
+				living.setHP(hp);
+			}
+			if (entity instanceof Player) {
+				int playerClass = in.readVarInt();
+				if (playerClass > CLASSES.length) throw new IOException("Unknown player class " + playerClass);
+				((Player) entity).setPlayerClass(playerClass == 0 ? null : CLASSES[playerClass - 1]);
+			}
+			if (entity instanceof NPC) {
+				((NPC) entity).setAttacker(readRef(LivingEntity.class));
+			}
+			if (entity instanceof Potion) {
+				((Potion) entity).setNumTurns(in.readSignedVarInt());
+			}
+		}
+
+		private void readInventory(Inventory inventory) throws IOException {
+			inventory.clear();
+			inventory.setGold(in.readSignedVarInt());
+			int maxItemSlots = in.readVarInt();
+			inventory.setMaxItemSlots(Integer.MAX_VALUE);
+			List<Item> items = readRefs(Item.class);
+			int equipped = in.readVarInt();
+			for (int i = 0; i < equipped; i++) {
+				int slot = in.readVarInt();
+				if (slot >= SLOTS.length) throw new IOException("Unknown equipment slot " + slot);
+				EquippableItem item = readRef(EquippableItem.class);
+				if (item == null) continue;
+				inventory.addItem(item);
+				if (!inventory.equipSlot(SLOTS[slot], item)) {
+					throw new IOException(item.getName() + " does not fit in slot " + SLOTS[slot]);
+				}
+			}
+			for (Item item : items) {
+				inventory.addItem(item);
+			}
+			inventory.setMaxItemSlots(maxItemSlots);
+		}
+
+		private <T extends Enum<T>> void readModifierSet(ModifierSet<T> set, T[] types,
+				Modifier<T> own) throws IOException {
+			set.clear();
+			int count = in.readVarInt();
+			for (int i = 0; i < count; i++) {
+				Modifier<T> mod = readModifier(types);
+				set.add(mod == null ? own : mod);
+			}
+		}
+
+		/**
+		 * @return the modifier, or null for the marker of the potion's own modifier
+		 */
+		private <T extends Enum<T>> Modifier<T> readModifier(T[] types) throws IOException {
+			int count = in.readVarInt();
+			if (count == 0) return null;
+			Modifier<T> mod = new Modifier<T>();
+			for (int i = 0; i < count - 1; i++) {
+				int type = in.readVarInt();
+				if (type >= types.length) throw new IOException("Unknown modifier type " + type);
+				mod.setDelta(types[type], in.readSignedVarInt());
+			}
+			return mod;
+		}
+
+		private Location readLocation() throws IOException {
+			int x = in.readSignedVarInt();
+			int y = in.readSignedVarInt();
+			return Location.of(x, y);
+		}
+
+		private <T extends Entity> List<T> readRefs(Class<T> type) throws IOException {
+			int count = in.readVarInt();
+			List<T> list = new ArrayList<T>(Math.min(count, entities.length));
+			for (int i = 0; i < count; i++) {
+				list.add(readRef(type));
+			}
+			return list;
+		}
+
+		private <T extends Entity> T readRef(Class<T> type) throws IOException {
+			int id = in.readVarInt();
+			if (id == 0) return null;
+			if (id > entities.length) throw new IOException("Unknown entity " + (id - 1));
+			Entity entity = entities[id - 1];
+			if (!type.isInstance(entity)) {
+				throw new IOException("Entity " + (id - 1) + " is not a " + type.getSimpleName());
+			}
+			return type.cast(entity);
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package dnd.game.mapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import dnd.game.Level;
+import dnd.game.World;
+import dnd.game.entity.living.Player;
+import dnd.util.BinaryInput;
+import dnd.util.BinaryOutput;
+import dnd.util.IMapper;
+
+/**
+ * Maps worlds, levels and players to a compact binary format. Files start with a
+ * magic number, a format version and the kind of object saved, followed by the
+ * object itself as written by the {@link BinaryCodec}.
+ *
+ * @param <T> One of World, Level or Player
+ * @see GameMapper
+ */
+public class BinaryMapper<T> implements IMapper<T> {
+	/** The first bytes of every binary save */
+	public static final byte[] MAGIC = { 'D', 'N', 'D', 'B' };
+	/** The current version of the format */
+	public static final int VERSION = 1;
+
+	private static final byte WORLD = 'W';
+	private static final byte LEVEL = 'L';
+	private static final byte PLAYER = 'P';
+
+	private Class<T> type;
+	private byte kind;
+
+	/**
+	 * Constructor
+	 * @param type the type of object mapped, one of World, Level or Player
+	 */
+	public BinaryMapper(Class<T> type) {
+		this.type = type;
+		if (type == World.class) kind = WORLD;
+		else if (type == Level.class) kind = LEVEL;
+		else if (type == Player.class) kind = PLAYER;
+		else throw new IllegalArgumentException("Cannot map " + type.getName() + " to binary");
+	}
+
+	/**
+	 * @param header the first bytes of a file
+	 * @return whether the header starts with the binary format's magic number
+	 */
+	public static boolean isBinary(byte[] header) {
+		if (header.length < MAGIC.length) return false;
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (header[i] != MAGIC[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads an object from a channel
+	 * @param channel the channel to read from
+	 * @return the object read
+	 * @throws IOException if the channel cannot be read or does not hold a saved object of this type
+	 */
+	public T read(ReadableByteChannel channel) throws IOException {
+		BinaryInput in = new BinaryInput(channel);
+		return read(new BinaryCodec.Reader(in), in);
+	}
+
+	/**
+	 * Reads an object with a given reader, which keeps the ids of the entities read
+	 */
+	T read(BinaryCodec.Reader reader, BinaryInput in) throws IOException {
+		if (!isBinary(in.readBytes(MAGIC.length))) throw new IOException("Not a binary save");
+		int version = in.readVarInt();
+		if (version != VERSION) throw new IOException("Unsupported save version " + version);
+		if (in.readByte() != kind) throw new IOException("Not a saved " + type.getSimpleName());
+
+		Object object;
+		if (kind == WORLD) object = reader.readWorld();
+		else if (kind == LEVEL) object = reader.readLevel();
+		else object = reader.readEntity(Player.class);
+		return type.cast(object);
+	}
+
+	/**
+	 * Writes an object to a channel
+	 * @param object the object to write
+	 * @param channel the channel to write to
+	 * @throws IOException if the channel cannot be written or the object holds unknown entities
+	 */
+	public void write(T object, WritableByteChannel channel) throws IOException {
+		BinaryOutput out = new BinaryOutput(channel);
+		write(object, new BinaryCodec.Writer(out), out);
+	}
+
+	/**
+	 * Writes an object with a given writer, which keeps the ids of the entities written
+	 */
+	void write(T object, BinaryCodec.Writer writer, BinaryOutput out) throws IOException {
+		out.writeBytes(MAGIC);
+		out.writeVarInt(VERSION);
+		out.writeByte(kind);
+
+		if (kind == WORLD) writer.writeWorld((World) object);
+		else if (kind == LEVEL) writer.writeLevel((Level) object);
+		else writer.writeEntity((Player) object);
+		out.flush();
+	}
+
+	/**
+	 * Loads an object from an InputStream
+	 *
+	 * @return the object, or null if the stream does not hold a valid save
+	 */
+	public T load(InputStream input) {
+		try {
+			return read(Channels.newChannel(input));
+		}
+		catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Saves an object to an OutputStream
+	 */
+	public void save(T object, OutputStream output) {
+		try {
+			write(object, Channels.newChannel(output));
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not save " + type.getSimpleName(), e);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package dnd.game.mapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import dnd.util.IMapper;
+import dnd.util.XmlMapper;
+
+/**
+ * Maps a game object to either of the save formats. Loading looks at the first bytes
+ * of the stream to tell a binary save from an XML one, so both kinds of files can be
+ * opened; saving uses the configured format, XML by default.
+ *
+ * @param <T> One of World, Level or Player
+ * @see XmlMapper
+ * @see BinaryMapper
+ */
+public class GameMapper<T> implements IMapper<T> {
+	/**
+	 * The formats objects can be saved in
+	 */
+	public enum Format {
+		XML, BINARY
+	}
+
+	private XmlMapper<T> xml;
+	private BinaryMapper<T> binary;
+	private Format format;
+
+	/**
+	 * Constructor
+	 * @param type the type of object mapped
+	 */
+	public GameMapper(Class<T> type) {
+		this.xml = new XmlMapper<T>();
+		this.binary = new BinaryMapper<T>(type);
+		this.format = Format.XML;
+	}
+
+	/**
+	 * @return the format used when saving
+	 */
+	public Format getFormat() {
+		return format;
+	}
+
+	/**
+	 * @param format the format to use when saving
+	 */
+	public void setFormat(Format format) {
+		this.format = format;
+	}
+
+	/**
+	 * Loads an object saved in either format
+	 *
+	 * @return the object, or null if the stream does not hold a valid save
+	 */
+	public T load(InputStream input) {
+		InputStream buffered = new BufferedInputStream(input);
+		byte[] header = new byte[BinaryMapper.MAGIC.length];
+		try {
+			buffered.mark(header.length);
+			int read = 0;
+			while (read < header.length) {
+				int n = buffered.read(header, read, header.length - read);
+				if (n < 0) break;
+				read += n;
+			}
+			buffered.reset();
+		}
+		catch (IOException e) {
+			return null;
+		}
+		if (BinaryMapper.isBinary(header)) {
+			return binary.load(buffered);
+		}
+		return xml.load(buffered);
+	}
+
+	/**
+	 * Saves an object in the configured format
+	 */
+	public void save(T object, OutputStream output) {
+		if (format == Format.BINARY) {
+			binary.save(object, output);
+		}
+		else {
+			xml.save(object, output);
+		}
+	}
+}
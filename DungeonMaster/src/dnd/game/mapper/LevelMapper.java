@@ -1,14 +1,18 @@
 package dnd.game.mapper;
 
 import dnd.game.Level;
-import dnd.util.XmlMapper;
 
 /**
- * A subclass used for mapping application objects to XML. In this case, the
- * Level object
- * 
- * @see XmlMapper
+ * Maps the Level object to and from a save file, in either the XML or the
+ * binary format
  *
+ * @see GameMapper
  */
-public class LevelMapper extends XmlMapper<Level> {
+public class LevelMapper extends GameMapper<Level> {
+	/**
+	 * Constructor
+	 */
+	public LevelMapper() {
+		super(Level.class);
+	}
 }
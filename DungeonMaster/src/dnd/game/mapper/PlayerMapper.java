@@ -1,14 +1,18 @@
 package dnd.game.mapper;
 
 import dnd.game.entity.living.Player;
-import dnd.util.XmlMapper;
 
 /**
- * A subclass used for mapping application objects to XML. In this case, the
- * Player object
- * 
- * @see XmlMapper
+ * Maps the Player object to and from a save file, in either the XML or the
+ * binary format
  *
+ * @see GameMapper
  */
-public class PlayerMapper extends XmlMapper<Player> {
+public class PlayerMapper extends GameMapper<Player> {
+	/**
+	 * Constructor
+	 */
+	public PlayerMapper() {
+		super(Player.class);
+	}
 }
@@ -1,14 +1,18 @@
 package dnd.game.mapper;
 
 import dnd.game.World;
-import dnd.util.XmlMapper;
 
 /**
- * A subclass used for mapping application objects to XML. In this case, the
- * World object
+ * Maps the World object to and from a save file, in either the XML or the
+ * binary format
  *
- * @see XmlMapper
- * 
+ * @see GameMapper
  */
-public class WorldMapper extends XmlMapper<World> {
+public class WorldMapper extends GameMapper<World> {
+	/**
+	 * Constructor
+	 */
+	public WorldMapper() {
+		super(World.class);
+	}
 }
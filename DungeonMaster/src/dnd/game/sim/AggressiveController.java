@@ -0,0 +1,38 @@
+package dnd.game.sim;
+
+import dnd.game.Location;
+import dnd.game.Trace;
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+
+/**
+ * A simple scripted player: attacks any adjacent monster, otherwise walks
+ * towards the closest living monster.
+ */
+public class AggressiveController implements EntityController {
+
+	@Override
+	public void think(World world, LivingEntity entity) {
+		NPC closest = null;
+		int closestDistance = Integer.MAX_VALUE;
+		for (NPC monster : world.getMonsters()) {
+			if (!monster.isAlive()) continue;
+			int distance = entity.getLocation().distanceTo(monster.getLocation());
+			if (distance < closestDistance) {
+				closest = monster;
+				closestDistance = distance;
+			}
+		}
+		if (closest == null) return; // nothing left to fight
+
+		if (closestDistance <= 1) {
+			Intent.attack(world, closest).execute(world);
+		}
+		else {
+			Location next = Trace.firstStep(entity.getLocation(), closest.getLocation());
+			Location diff = next.subtract(entity.getLocation());
+			Intent.move(diff).execute(world);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package dnd.game.sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dnd.game.sim.SimulationResult.Outcome;
+
+/**
+ * The aggregated results of a batch of simulated worlds.
+ * 
+ * @see BatchSimulator
+ */
+public class BatchResult {
+	private List<SimulationResult> results;
+	private Map<String, Long> damage;
+	private int cleared;
+	private long turnsToClear;
+
+	/**
+	 * Constructor
+	 * @param builds the build of each player in the simulated worlds
+	 */
+	public BatchResult(String... builds) {
+		this.results = new ArrayList<SimulationResult>();
+		this.damage = new LinkedHashMap<String, Long>();
+		for (String build : builds) {
+			damage.put(build, 0L);
+		}
+	}
+
+	/**
+	 * Adds the result of one world
+	 * @param result the outcome of the world
+	 * @param worldDamage the damage dealt in the world by each build
+	 */
+	public void add(SimulationResult result, Map<String, Long> worldDamage) {
+		results.add(result);
+		if (result.getOutcome() == Outcome.CLEARED) {
+			cleared++;
+			turnsToClear += result.getTurns();
+		}
+		for (Map.Entry<String, Long> entry : worldDamage.entrySet()) {
+			Long total = damage.get(entry.getKey());
+			damage.put(entry.getKey(), (total == null ? 0 : total) + entry.getValue());
+		}
+	}
+
+	/**
+	 * @return the result of every world, in seed order
+	 */
+	public List<SimulationResult> getResults() {
+		return Collections.unmodifiableList(results);
+	}
+
+	/**
+	 * @return the number of worlds run
+	 */
+	public int getRuns() {
+		return results.size();
+	}
+
+	/**
+	 * @return the fraction of worlds that were cleared
+	 */
+	public double getWinRate() {
+		if (results.isEmpty()) return 0;
+		return (double) cleared / results.size();
+	}
+
+	/**
+	 * @return the average number of turns of the cleared worlds
+	 */
+	public double getMeanTurnsToClear() {
+		if (cleared == 0) return 0;
+		return (double) turnsToClear / cleared;
+	}
+
+	/**
+	 * @return the total damage dealt by each build over all worlds
+	 */
+	public Map<String, Long> getDamageByBuild() {
+		return Collections.unmodifiableMap(damage);
+	}
+
+	/**
+	 * @param build a player build
+	 * @return the average damage dealt by the build per world
+	 */
+	public double getMeanDamage(String build) {
+		Long total = damage.get(build);
+		if (total == null || results.isEmpty()) return 0;
+		return (double) total / results.size();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(getRuns()).append(" worlds, win rate ").append(String.format("%.1f%%", getWinRate() * 100));
+		sb.append(", mean turns to clear ").append(String.format("%.1f", getMeanTurnsToClear()));
+		for (String build : damage.keySet()) {
+			sb.append(", ").append(build).append(" damage/world ").append(String.format("%.1f", getMeanDamage(build)));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,198 @@
+package dnd.game.sim;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.event.DamageEvent;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+
+/**
+ * Runs many independently seeded worlds in parallel and aggregates their results.
+ * 
+ * Every world is created, played and discarded inside a single pool task, so a
+ * world (its dice, level, party and observers) is only ever touched by one thread.
+ * The per world results are merged on the calling thread in seed order, which
+ * makes a batch reproducible no matter how many threads are used.
+ * 
+ * @see SimulationRunner#createWorld(int, int, int, String...)
+ */
+public class BatchSimulator {
+	private int width;
+	private int height;
+	private int maxTurns;
+	private String[] builds;
+	private int threads;
+
+	/**
+	 * Constructor, uses one thread per available processor
+	 * @param width the level width of every world
+	 * @param height the level height of every world
+	 * @param maxTurns the turn limit of every run
+	 * @param builds the {@link dnd.game.entity.living.PlayerFactory} build of each player
+	 */
+	public BatchSimulator(int width, int height, int maxTurns, String... builds) {
+		this.width = width;
+		this.height = height;
+		this.maxTurns = maxTurns;
+		this.builds = builds.clone();
+		this.threads = Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * @return the number of worlds run at the same time
+	 */
+	public int getThreads() {
+		return threads;
+	}
+
+	/**
+	 * Sets the number of worlds run at the same time
+	 * @param threads the number of pool threads, at least 1
+	 */
+	public void setThreads(int threads) {
+		if (threads < 1) throw new IllegalArgumentException("At least one thread is needed");
+		this.threads = threads;
+	}
+
+	/**
+	 * Runs a batch of worlds seeded firstSeed, firstSeed + 1, ... and waits for all of them
+	 * @param firstSeed the seed of the first world
+	 * @param count the number of worlds to run
+	 * @return the aggregated results
+	 * @throws InterruptedException if the calling thread is interrupted while waiting
+	 */
+	public BatchResult run(int firstSeed, int count) throws InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, count)));
+		try {
+			List<Future<WorldResult>> futures = new ArrayList<Future<WorldResult>>(count);
+			for (int i = 0; i < count; i++) {
+				futures.add(pool.submit(new WorldTask(firstSeed + i)));
+			}
+			BatchResult result = new BatchResult(builds);
+			for (Future<WorldResult> future : futures) {
+				WorldResult world = get(future);
+				result.add(world.result, world.damage);
+			}
+			return result;
+		}
+		finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays a single seeded world on the current thread
+	 * @param seed the world seed
+	 * @return the outcome of the world and the damage dealt by each build
+	 */
+	WorldResult runWorld(int seed) {
+		World world = SimulationRunner.createWorld(seed, width, height, builds);
+		DamageTally tally = new DamageTally(world, builds);
+		world.addObserver(DamageEvent.class, tally);
+		SimulationResult result = new SimulationRunner(world).run(maxTurns);
+		return new WorldResult(result, tally.damage);
+	}
+
+	private static WorldResult get(Future<WorldResult> future) throws InterruptedException {
+		try {
+			return future.get();
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IllegalStateException("Simulation failed", e.getCause());
+		}
+	}
+
+	/**
+	 * The pool task for one world
+	 */
+	private class WorldTask implements Callable<WorldResult> {
+		private int seed;
+
+		public WorldTask(int seed) {
+			this.seed = seed;
+		}
+
+		@Override
+		public WorldResult call() {
+			return runWorld(seed);
+		}
+	}
+
+	/**
+	 * The result of one world: its simulation result and damage dealt per build
+	 */
+	static class WorldResult {
+		final SimulationResult result;
+		final Map<String, Long> damage;
+
+		WorldResult(SimulationResult result, Map<String, Long> damage) {
+			this.result = result;
+			this.damage = damage;
+		}
+	}
+
+	/**
+	 * Sums up the damage dealt by each player of a world, keyed by the player's build
+	 */
+	private static class DamageTally implements EventObserver {
+		private Map<LivingEntity, String> buildOf = new IdentityHashMap<LivingEntity, String>();
+		private Map<String, Long> damage = new LinkedHashMap<String, Long>();
+
+		public DamageTally(World world, String[] builds) {
+			// createWorld adds one player per build, in order
+			for (int i = 0; i < builds.length; i++) {
+				buildOf.put(world.getPlayers().get(i), builds[i]);
+				damage.put(builds[i], 0L);
+			}
+		}
+
+		@Override
+		public void eventFired(World world, GameEvent event) {
+			if (!(event instanceof DamageEvent)) return;
+			DamageEvent damageEvent = (DamageEvent) event;
+			String build = buildOf.get(damageEvent.getSource());
+			if (build != null) {
+				damage.put(build, damage.get(build) + damageEvent.getAmount());
+			}
+		}
+	}
+
+	/**
+	 * Runs a batch of headless games and prints the aggregated result.
+	 * Arguments: [worlds] [firstSeed] [width] [height] [maxTurns] [build...]
+	 * @param args the command line arguments
+	 * @throws InterruptedException if interrupted while waiting for the batch
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int firstSeed = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int width = args.length > 2 ? Integer.parseInt(args[2]) : 40;
+		int height = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+		int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+		String[] builds = new String[] { "tank" };
+		if (args.length > 5) {
+			builds = new String[args.length - 5];
+			System.arraycopy(args, 5, builds, 0, builds.length);
+		}
+
+		BatchSimulator batch = new BatchSimulator(width, height, maxTurns, builds);
+		long start = System.nanoTime();
+		BatchResult result = batch.run(firstSeed, count);
+		System.out.println(result);
+		System.out.println("Ran " + count + " worlds on " + batch.getThreads() + " threads in " + 
+				(System.nanoTime() - start) / 1000000 + " ms");
+	}
+}
@@ -0,0 +1,18 @@
+package dnd.game.sim;
+
+import dnd.game.World;
+
+/**
+ * An action on a world requested by the user interface. Commands are queued and
+ * executed on the thread that owns the world.
+ *
+ * @see SimulationThread#submit(Command)
+ * @see Commands
+ */
+public interface Command {
+	/**
+	 * Performs the action
+	 * @param world the world to act on
+	 */
+	public void execute(World world);
+}
@@ -0,0 +1,189 @@
+package dnd.game.sim;
+
+import dnd.game.Entity;
+import dnd.game.EquipmentSlot;
+import dnd.game.Location;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+
+/**
+ * The commands a player can give during the game. Every command acts on behalf of
+ * the player whose turn it is, and does nothing during the other entities' turns.
+ * The commands are carried out as {@link Intent}s, so that they can be recorded.
+ */
+public final class Commands {
+
+	/**
+	 * Private constructor - don't permit external instantiation
+	 */
+	private Commands() { }
+
+	/**
+	 * @param world the world
+	 * @return the player whose turn it is, or null if it is not a player's turn
+	 */
+	public static Player activePlayer(World world) {
+		if (!world.isStarted()) return null;
+		LivingEntity active = world.getTurnManager().activeEntity();
+		return active instanceof Player ? (Player) active : null;
+	}
+
+	/**
+	 * @param x the x offset, -1 to 1
+	 * @param y the y offset, -1 to 1
+	 * @return a command moving the player by an offset, or ending the player's turn
+	 *         if the offset is 0
+	 */
+	public static Command move(int x, int y) {
+		return new Move(x, y);
+	}
+
+	/**
+	 * @param location the location clicked
+	 * @return a command performing the click action on a location: attacking a
+	 *         living monster, opening a dead one's inventory, using an item or
+	 *         toggling a door
+	 */
+	public static Command interact(Location location) {
+		return new Interact(location);
+	}
+
+	/**
+	 * @param item an item in the player's inventory
+	 * @return a command using or equipping the item
+	 */
+	public static Command useItem(Item item) {
+		return new UseItem(item);
+	}
+
+	/**
+	 * @param slot an equipment slot
+	 * @return a command unequipping the player's item in the slot
+	 */
+	public static Command unequipSlot(EquipmentSlot slot) {
+		return new UnequipSlot(slot);
+	}
+
+	/**
+	 * @param source the entity holding the item
+	 * @param item the item
+	 * @return a command taking an item from another entity's inventory
+	 */
+	public static Command takeItem(Entity source, Item item) {
+		return new TakeItem(source, item, null);
+	}
+
+	/**
+	 * @param source the entity holding the item
+	 * @param slot the slot the item is equipped in
+	 * @return a command taking an item equipped by another entity
+	 */
+	public static Command takeEquipped(LivingEntity source, EquipmentSlot slot) {
+		return new TakeItem(source, null, slot);
+	}
+
+	private static class Move implements Command {
+		private int x;
+		private int y;
+
+		public Move(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public void execute(World world) {
+			if (activePlayer(world) == null) return;
+			if (x == 0 && y == 0) Intent.waitTurn().execute(world);
+			else Intent.move(Location.of(x, y)).execute(world);
+		}
+	}
+
+	private static class Interact implements Command {
+		private Location location;
+
+		public Interact(Location location) {
+			this.location = location;
+		}
+
+		@Override
+		public void execute(World world) {
+			Player player = activePlayer(world);
+			if (player == null || world.getLevel().getCell(location) == null) return;
+			for (Entity e : world.getEntitiesAtLocation(location)) {
+				if (e instanceof NPC) {
+					if (((NPC) e).isAlive()) {
+						Intent.attack(world, (NPC) e).execute(world);
+					}
+					else { // take items if dead
+						Intent.openInventory(world, e).execute(world);
+					}
+					break;
+				}
+				else if (e instanceof Item) {
+					Intent.useItem(world, player, (Item) e).execute(world);
+				}
+			}
+
+			Tile cell = world.getLevel().getCell(location);
+			if (cell == Tile.DoorClosed || cell == Tile.DoorOpen) {
+				Intent.toggleDoor(location).execute(world);
+			}
+		}
+	}
+
+	private static class UseItem implements Command {
+		private Item item;
+
+		public UseItem(Item item) {
+			this.item = item;
+		}
+
+		@Override
+		public void execute(World world) {
+			Player player = activePlayer(world);
+			if (player != null) Intent.useItem(world, player, item).execute(world);
+		}
+	}
+
+	private static class UnequipSlot implements Command {
+		private EquipmentSlot slot;
+
+		public UnequipSlot(EquipmentSlot slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		public void execute(World world) {
+			if (activePlayer(world) != null) Intent.unequip(slot).execute(world);
+		}
+	}
+
+	private static class TakeItem implements Command {
+		private Entity source;
+		private Item item;
+		private EquipmentSlot slot;
+
+		public TakeItem(Entity source, Item item, EquipmentSlot slot) {
+			this.source = source;
+			this.item = item;
+			this.slot = slot;
+		}
+
+		@Override
+		public void execute(World world) {
+			Player player = activePlayer(world);
+			if (player == null) return;
+			Item taken = item;
+			if (slot != null) {
+				if (!(source instanceof LivingEntity)) return;
+				taken = ((LivingEntity) source).getInventory().equipmentInSlot(slot);
+			}
+			if (taken != null) Intent.takeItem(world, source, taken).execute(world);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package dnd.game.sim;
+
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+
+/**
+ * An interface for anything that can make turn decisions for an entity that has
+ * no AI of its own (typically a player when the game runs without a UI).
+ * 
+ * @see SimulationRunner
+ */
+public interface EntityController {
+	/**
+	 * Perform one move decision for the active entity through the world's
+	 * {@link dnd.game.TurnManager}. Making no move ends the entity's turn.
+	 * 
+	 * @param world the world to think about
+	 * @param entity the entity whose turn it is
+	 */
+	public void think(World world, LivingEntity entity);
+}
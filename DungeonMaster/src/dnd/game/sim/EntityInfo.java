@@ -0,0 +1,118 @@
+package dnd.game.sim;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import dnd.game.Entity;
+import dnd.game.EquipmentSlot;
+import dnd.game.Inventory;
+import dnd.game.InventoryInterface;
+import dnd.game.entity.item.EquippableItem;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.living.LivingEntity;
+
+/**
+ * What the entity panels show about an entity, captured at one point of the game
+ * so it can be read from another thread while the game goes on.
+ *
+ * @see RenderSnapshot#getEntityInfo(Entity)
+ */
+public final class EntityInfo {
+	private final Entity entity;
+	private final String title;
+	private final String attributes;
+	private final boolean inventory;
+	private final String[] equipment;
+	private final List<Item> items;
+	private final int gold;
+
+	/**
+	 * Captures the information of an entity. Must be called by the thread owning
+	 * the entity's world.
+	 * @param entity the entity
+	 */
+	public EntityInfo(Entity entity) {
+		this.entity = entity;
+		this.title = entity + " " + entity.getLocation();
+		this.attributes = entity instanceof LivingEntity ? entity.formatModifiers() : null;
+		this.inventory = entity instanceof InventoryInterface;
+		if (inventory) {
+			Inventory inv = ((InventoryInterface) entity).getInventory();
+			this.items = Collections.unmodifiableList(Arrays.asList(inv.getItemSlots().toArray(new Item[0])));
+			this.gold = inv.getGold();
+			if (entity instanceof LivingEntity) {
+				this.equipment = new String[EquipmentSlot.values().length];
+				for (EquipmentSlot slot : EquipmentSlot.values()) {
+					EquippableItem item = inv.equipmentInSlot(slot);
+					equipment[slot.ordinal()] = item == null ? null : item.getName();
+				}
+			}
+			else {
+				this.equipment = null;
+			}
+		}
+		else {
+			this.items = Collections.emptyList();
+			this.gold = 0;
+			this.equipment = null;
+		}
+	}
+
+	/**
+	 * @return the entity
+	 */
+	public Entity getEntity() {
+		return entity;
+	}
+
+	/**
+	 * @return the entity's name and location
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * @return the formatted modifiers of a living entity, null for other entities
+	 */
+	public String getAttributes() {
+		return attributes;
+	}
+
+	/**
+	 * @return whether the entity has an inventory
+	 */
+	public boolean hasInventory() {
+		return inventory;
+	}
+
+	/**
+	 * @return whether the entity has equipment slots
+	 */
+	public boolean hasEquipment() {
+		return equipment != null;
+	}
+
+	/**
+	 * @param slot an equipment slot
+	 * @return the name of the item equipped in the slot, or null
+	 */
+	public String getEquipment(EquipmentSlot slot) {
+		return equipment == null ? null : equipment[slot.ordinal()];
+	}
+
+	/**
+	 * @return the items in the inventory, not counting the equipped items
+	 */
+	public List<Item> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the gold in the inventory
+	 */
+	public int getGold() {
+		return gold;
+	}
+}
@@ -0,0 +1,170 @@
+package dnd.game.sim;
+
+import java.util.List;
+
+import dnd.game.Entity;
+import dnd.game.Level;
+import dnd.game.LevelObserver;
+import dnd.game.Location;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.living.NPC;
+import dnd.game.event.DamageEvent;
+import dnd.game.event.EquipEvent;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.ItemUseEvent;
+import dnd.game.event.KilledEntityEvent;
+import dnd.game.event.MovementEvent;
+import dnd.game.event.NextLevelEvent;
+import dnd.game.event.ResetLevelEvent;
+import dnd.game.event.TakeInventoryItemEvent;
+
+/**
+ * Describes a cell of the map and what clicking on it does, for the information
+ * shown while the mouse hovers the cell.
+ *
+ * The description of the hovered cell is kept until the mouse moves to another
+ * cell or something changes in the cell: its tile, or one of its entities being
+ * damaged, killed, moved, equipped or traded with. Asking for the same cell again
+ * costs nothing otherwise. The description must be asked for on the thread
+ * changing the world.
+ */
+public final class HoverInfo implements EventObserver, LevelObserver {
+	@SuppressWarnings("unchecked")
+	private static final Class<? extends GameEvent>[] OBSERVED = (Class<? extends GameEvent>[]) new Class<?>[] {
+		MovementEvent.class, DamageEvent.class, KilledEntityEvent.class, EquipEvent.class,
+		ItemUseEvent.class, TakeInventoryItemEvent.class, NextLevelEvent.class, ResetLevelEvent.class };
+
+	private World world;
+	private Level level;
+	private volatile Location location;
+	private volatile boolean stale = true;
+	private String text;
+	private Entity[] shown = new Entity[0];
+
+	/**
+	 * Constructor - the description follows the changes of the world
+	 * @param world the world
+	 */
+	public HoverInfo(World world) {
+		this.world = world;
+		for (Class<? extends GameEvent> type : OBSERVED) {
+			world.addObserver(type, this);
+		}
+	}
+
+	/**
+	 * Stops following the changes of the world
+	 */
+	public void dispose() {
+		world.removeObserver(this);
+		observe(null);
+	}
+
+	/**
+	 * @param location the hovered location, can be null
+	 * @return the description of the cell, or null if it is outside the level
+	 */
+	public String get(Location location) {
+		if (world.getLevel() != level) {
+			observe(world.getLevel());
+		}
+		if (location == null || level == null) {
+			this.location = null;
+			return null;
+		}
+		if (!stale && location.equals(this.location)) {
+			return text;
+		}
+		this.location = location;
+		stale = false; // before reading, so a change during the description is not lost
+		Tile cell = level.getCell(location);
+		List<Entity> entities = world.getEntitiesAtLocation(location);
+		shown = entities.toArray(new Entity[entities.size()]);
+		text = cell == null ? null : describe(cell, shown);
+		return text;
+	}
+
+	private static String describe(Tile cell, Entity[] entities) {
+		StringBuilder info = new StringBuilder();
+		info.append("Tile: ").append(cell.getName()).append('\n');
+		for (Entity e : entities) {
+			info.append("Entity: ").append(e).append('\n');
+			info.append(e.formatModifiers());
+			if (e instanceof NPC) {
+				if (((NPC) e).isAlive()) {
+					info.append("Click Action: Attack\n");
+				}
+				else {
+					info.append("Click Action: Take Inventory\n");
+				}
+			}
+			else if (e instanceof Item) {
+				info.append("Click Action: Use\n");
+			}
+		}
+		if (cell == Tile.DoorClosed || cell == Tile.DoorOpen) {
+			info.append("Click Action: Toggle Open\n");
+		}
+		return info.toString();
+	}
+
+	private void observe(Level level) {
+		if (this.level != null) this.level.removeObserver(this);
+		this.level = level;
+		if (level != null) level.addObserver(this);
+		stale = true;
+	}
+
+	/**
+	 * @return whether an entity is in the description
+	 */
+	private boolean shows(Entity entity) {
+		for (Entity e : shown) {
+			if (e == entity) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (stale) return;
+		boolean touched;
+		if (event instanceof MovementEvent) {
+			MovementEvent movement = (MovementEvent) event;
+			touched = shows(movement.getEntity()) || movement.getLocation().equals(location);
+		}
+		else if (event instanceof DamageEvent) {
+			touched = shows(((DamageEvent) event).getTarget());
+		}
+		else if (event instanceof KilledEntityEvent) {
+			touched = shows(((KilledEntityEvent) event).getTarget());
+		}
+		else if (event instanceof EquipEvent) {
+			touched = shows(((EquipEvent) event).getEntity());
+		}
+		else if (event instanceof ItemUseEvent) {
+			ItemUseEvent use = (ItemUseEvent) event;
+			touched = shows(use.getEntity()) || shows(use.getItem());
+		}
+		else if (event instanceof TakeInventoryItemEvent) {
+			TakeInventoryItemEvent take = (TakeInventoryItemEvent) event;
+			touched = shows(take.getEntity()) || shows(take.getInventoryEntity());
+		}
+		else { // the level was reset or changed
+			touched = true;
+		}
+		if (touched) stale = true;
+	}
+
+	@Override
+	public void cellsChanged(Level level, int x, int y, int width, int height) {
+		Location hovered = location;
+		if (hovered != null && hovered.getX() >= x && hovered.getX() < x + width
+				&& hovered.getY() >= y && hovered.getY() < y + height) {
+			stale = true;
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package dnd.game.sim;
+
+import java.util.List;
+
+import dnd.game.Entity;
+import dnd.game.EquipmentSlot;
+import dnd.game.InventoryInterface;
+import dnd.game.Location;
+import dnd.game.World;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.event.IntentEvent;
+
+/**
+ * One order of the active player to the {@link dnd.game.TurnManager} or the
+ * {@link World}: moving, waiting, attacking, toggling a door, equipping,
+ * unequipping, using an item, opening or taking from an inventory.
+ *
+ * An intent refers to entities and items by their place in the world (the n-th
+ * monster, the n-th item of the player's inventory...) rather than by identity,
+ * so it can be written down and executed again on a copy of the world. Every
+ * executed intent is announced by an {@link IntentEvent}, which is how sessions
+ * are recorded.
+ *
+ * @see Recording
+ */
+public final class Intent implements Command {
+
+	/** The kind of order */
+	public enum Kind {
+		MOVE, WAIT, ATTACK, TOGGLE_DOOR, EQUIP, UNEQUIP, USE_ITEM, OPEN_INVENTORY, TAKE_ITEM
+	}
+
+	/** Where an entity or item is found */
+	public enum Place {
+		/** a player of the world, by index */
+		PLAYER,
+		/** a monster of the world, by index */
+		MONSTER,
+		/** an item lying in the level, by index */
+		GROUND,
+		/** an item in an inventory, by index */
+		INVENTORY,
+		/** an equipped item, by slot */
+		EQUIPMENT
+	}
+
+	private final Kind kind;
+	private final int x;
+	private final int y;
+	private final Place targetPlace;
+	private final int target;
+	private final Place itemPlace;
+	private final int item;
+
+	private Intent(Kind kind, int x, int y, Place targetPlace, int target, Place itemPlace, int item) {
+		this.kind = kind;
+		this.x = x;
+		this.y = y;
+		this.targetPlace = targetPlace;
+		this.target = target;
+		this.itemPlace = itemPlace;
+		this.item = item;
+	}
+
+	/**
+	 * @param delta the offset to move the player by
+	 * @return the intent
+	 */
+	public static Intent move(Location delta) {
+		return new Intent(Kind.MOVE, delta.getX(), delta.getY(), null, 0, null, 0);
+	}
+
+	/**
+	 * @return an intent ending the player's turn
+	 */
+	public static Intent waitTurn() {
+		return new Intent(Kind.WAIT, 0, 0, null, 0, null, 0);
+	}
+
+	/**
+	 * @param location the location of the door
+	 * @return the intent
+	 */
+	public static Intent toggleDoor(Location location) {
+		return new Intent(Kind.TOGGLE_DOOR, location.getX(), location.getY(), null, 0, null, 0);
+	}
+
+	/**
+	 * @param world the world
+	 * @param target a monster or a player of the world
+	 * @return the intent
+	 */
+	public static Intent attack(World world, LivingEntity target) {
+		Place place = placeOf(world, target);
+		return new Intent(Kind.ATTACK, 0, 0, place, indexOf(world, place, target), null, 0);
+	}
+
+	/**
+	 * @param slot the slot to unequip
+	 * @return the intent
+	 */
+	public static Intent unequip(EquipmentSlot slot) {
+		return new Intent(Kind.UNEQUIP, 0, 0, null, 0, Place.EQUIPMENT, slot.ordinal());
+	}
+
+	/**
+	 * @param world the world
+	 * @param player the player whose inventory holds the item
+	 * @param item the item to equip
+	 * @return the intent
+	 */
+	public static Intent equip(World world, LivingEntity player, Item item) {
+		int index = inventoryIndex(player, item);
+		return new Intent(Kind.EQUIP, 0, 0, null, 0, Place.INVENTORY, index);
+	}
+
+	/**
+	 * @param world the world
+	 * @param player the player using the item
+	 * @param item an item of the player's inventory or lying in the level
+	 * @return the intent
+	 */
+	public static Intent useItem(World world, LivingEntity player, Item item) {
+		int index = world.getItems().indexOf(item);
+		if (index >= 0) {
+			return new Intent(Kind.USE_ITEM, 0, 0, null, 0, Place.GROUND, index);
+		}
+		EquipmentSlot slot = slotOf(player, item);
+		if (slot != null) {
+			return new Intent(Kind.USE_ITEM, 0, 0, null, 0, Place.EQUIPMENT, slot.ordinal());
+		}
+		return new Intent(Kind.USE_ITEM, 0, 0, null, 0, Place.INVENTORY, inventoryIndex(player, item));
+	}
+
+	/**
+	 * @param world the world
+	 * @param source a monster, player or item of the world holding an inventory
+	 * @return the intent
+	 */
+	public static Intent openInventory(World world, Entity source) {
+		Place place = placeOf(world, source);
+		return new Intent(Kind.OPEN_INVENTORY, 0, 0, place, indexOf(world, place, source), null, 0);
+	}
+
+	/**
+	 * @param world the world
+	 * @param source a monster, player or item of the world holding an inventory
+	 * @param item an item of the source's inventory, equipped or not
+	 * @return the intent
+	 */
+	public static Intent takeItem(World world, Entity source, Item item) {
+		Place place = placeOf(world, source);
+		int index = indexOf(world, place, source);
+		EquipmentSlot slot = source instanceof LivingEntity ? slotOf((LivingEntity) source, item) : null;
+		if (slot != null) {
+			return new Intent(Kind.TAKE_ITEM, 0, 0, place, index, Place.EQUIPMENT, slot.ordinal());
+		}
+		return new Intent(Kind.TAKE_ITEM, 0, 0, place, index, Place.INVENTORY, inventoryIndex(source, item));
+	}
+
+	/**
+	 * @return the kind of order
+	 */
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * Carries out the order for the active entity. Does nothing if an entity or item
+	 * the intent refers to is missing.
+	 * @param world the world
+	 */
+	@Override
+	public void execute(World world) {
+		LivingEntity active = world.getTurnManager().activeEntity();
+		if (world.isObserved(IntentEvent.class)) {
+			world.sendEvent(new IntentEvent(active, this));
+		}
+		switch (kind) {
+			case MOVE:
+				world.getTurnManager().moveEntity(x, y);
+				break;
+			case WAIT:
+				world.getTurnManager().waitTurn();
+				break;
+			case TOGGLE_DOOR:
+				world.getTurnManager().toggleDoor(Location.of(x, y));
+				break;
+			case ATTACK:
+				Entity attacked = entity(world, targetPlace, target);
+				if (attacked instanceof LivingEntity) {
+					world.getTurnManager().attackEntity((LivingEntity) attacked);
+				}
+				break;
+			case UNEQUIP:
+				world.getTurnManager().unequipSlot(EquipmentSlot.values()[item]);
+				break;
+			case EQUIP:
+				Item equipped = item(active);
+				if (equipped != null) world.getTurnManager().equipItem(equipped);
+				break;
+			case USE_ITEM:
+				Item used = itemPlace == Place.GROUND ? (Item) entity(world, Place.GROUND, item) : item(active);
+				if (used != null) world.useItem(active, used);
+				break;
+			case OPEN_INVENTORY:
+				Entity opened = entity(world, targetPlace, target);
+				if (opened != null) world.openInventory(active, opened);
+				break;
+			case TAKE_ITEM:
+				Entity source = entity(world, targetPlace, target);
+				Item taken = item(source);
+				if (taken != null) world.takeInventoryItem(active, source, taken);
+				break;
+		}
+	}
+
+	/**
+	 * Resolves the item of the intent in the inventory of an entity
+	 */
+	private Item item(Entity holder) {
+		if (!(holder instanceof InventoryInterface)) return null;
+		if (itemPlace == Place.EQUIPMENT) {
+			return ((InventoryInterface) holder).getInventory().equipmentInSlot(EquipmentSlot.values()[item]);
+		}
+		int i = 0;
+		for (Item candidate : ((InventoryInterface) holder).getInventory().getItemSlots()) {
+			if (i++ == item) return candidate;
+		}
+		return null;
+	}
+
+	private static Entity entity(World world, Place place, int index) {
+		List<? extends Entity> list = place == Place.PLAYER ? world.getPlayers()
+				: place == Place.MONSTER ? world.getMonsters() : world.getItems();
+		return index >= 0 && index < list.size() ? list.get(index) : null;
+	}
+
+	private static Place placeOf(World world, Entity entity) {
+		if (world.getPlayers().contains(entity)) return Place.PLAYER;
+		if (world.getMonsters().contains(entity)) return Place.MONSTER;
+		return Place.GROUND;
+	}
+
+	private static int indexOf(World world, Place place, Entity entity) {
+		List<? extends Entity> list = place == Place.PLAYER ? world.getPlayers()
+				: place == Place.MONSTER ? world.getMonsters() : world.getItems();
+		return list.indexOf(entity);
+	}
+
+	private static int inventoryIndex(Entity holder, Item item) {
+		if (!(holder instanceof InventoryInterface)) return -1;
+		int i = 0;
+		for (Item candidate : ((InventoryInterface) holder).getInventory().getItemSlots()) {
+			if (candidate == item) return i;
+			i++;
+		}
+		return -1;
+	}
+
+	private static EquipmentSlot slotOf(LivingEntity holder, Item item) {
+		for (EquipmentSlot slot : EquipmentSlot.values()) {
+			if (holder.getInventory().equipmentInSlot(slot) == item) return slot;
+		}
+		return null;
+	}
+
+	/**
+	 * Reads an intent written by {@link #toString()}
+	 * @param text the text of the intent
+	 * @return the intent
+	 * @throws IllegalArgumentException if the text is not an intent
+	 */
+	public static Intent parse(String text) {
+		String[] words = text.trim().split("\\s+");
+		try {
+			Kind kind = Kind.valueOf(words[0]);
+			int x = 0, y = 0, target = 0, item = 0;
+			Place targetPlace = null, itemPlace = null;
+			int i = 1;
+			if (kind == Kind.MOVE || kind == Kind.TOGGLE_DOOR) {
+				x = Integer.parseInt(words[i++]);
+				y = Integer.parseInt(words[i++]);
+			}
+			if (kind == Kind.ATTACK || kind == Kind.OPEN_INVENTORY || kind == Kind.TAKE_ITEM) {
+				targetPlace = Place.valueOf(words[i++]);
+				target = Integer.parseInt(words[i++]);
+			}
+			if (kind == Kind.EQUIP || kind == Kind.UNEQUIP || kind == Kind.USE_ITEM || kind == Kind.TAKE_ITEM) {
+				itemPlace = Place.valueOf(words[i++]);
+				item = itemPlace == Place.EQUIPMENT ? EquipmentSlot.valueOf(words[i++]).ordinal()
+						: Integer.parseInt(words[i++]);
+			}
+			if (i != words.length) throw new IllegalArgumentException("Extra words in intent: " + text);
+			return new Intent(kind, x, y, targetPlace, target, itemPlace, item);
+		}
+		catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Incomplete intent: " + text);
+		}
+	}
+
+	/**
+	 * @return the intent as a line of text, for instance "MOVE 1 0" or
+	 *         "TAKE_ITEM MONSTER 2 EQUIPMENT HELMET"
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(kind.name());
+		if (kind == Kind.MOVE || kind == Kind.TOGGLE_DOOR) {
+			text.append(' ').append(x).append(' ').append(y);
+		}
+		if (targetPlace != null) {
+			text.append(' ').append(targetPlace).append(' ').append(target);
+		}
+		if (itemPlace != null) {
+			text.append(' ').append(itemPlace).append(' ');
+			if (itemPlace == Place.EQUIPMENT) text.append(EquipmentSlot.values()[item].name());
+			else text.append(item);
+		}
+		return text.toString();
+	}
+}
@@ -0,0 +1,277 @@
+package dnd.game.sim;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import dnd.game.World;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.NextTurnEvent;
+import dnd.game.mapper.GameMapper.Format;
+import dnd.game.mapper.WorldMapper;
+
+/**
+ * Measures whole games rather than single operations: a random dungeon of a given
+ * size and monster density is generated, played headlessly to the end by the
+ * {@link AggressiveController}, then saved and loaded in both save formats.
+ *
+ * The report holds the turns per second, the median and 99th percentile time of
+ * a turn, the peak heap per entity, the number of events of each type and the
+ * save and load times and sizes. It is written as JSON so that the reports of two
+ * builds can be compared by a script. Counting the events makes every event be
+ * built, as it is when the game is shown with its log.
+ */
+public class MacroBenchmark implements EventObserver {
+	private int seed;
+	private int width;
+	private int height;
+	private int cellsPerMonster;
+	private int maxTurns;
+	private String[] builds;
+
+	private Map<String, Integer> events;
+	private long[] turnNanos;
+	private int turns;
+	private long lastTurn;
+	private long peakHeap;
+
+	/**
+	 * Constructor
+	 * @param seed the seed of the world
+	 * @param width the level width
+	 * @param height the level height
+	 * @param cellsPerMonster the number of level cells per monster
+	 * @param maxTurns the maximum number of turns to play
+	 * @param builds the build of each player
+	 */
+	public MacroBenchmark(int seed, int width, int height, int cellsPerMonster, int maxTurns, String... builds) {
+		this.seed = seed;
+		this.width = width;
+		this.height = height;
+		this.cellsPerMonster = cellsPerMonster;
+		this.maxTurns = maxTurns;
+		this.builds = builds.clone();
+	}
+
+	/**
+	 * Plays the scenario, then saves and loads the world
+	 * @return the report, a tree of maps, lists, strings and numbers
+	 * @throws IOException if the world cannot be saved or loaded
+	 */
+	public Map<String, Object> run() throws IOException {
+		events = new TreeMap<String, Integer>();
+		turnNanos = new long[64];
+		turns = 0;
+		Runtime runtime = Runtime.getRuntime();
+		System.gc();
+		long baseHeap = runtime.totalMemory() - runtime.freeMemory();
+		peakHeap = baseHeap;
+
+		World world = SimulationRunner.createWorld(seed, width, height, builds);
+		world.setCellsPerMonster(cellsPerMonster);
+		world.addObserver(this);
+		lastTurn = System.nanoTime();
+		SimulationResult result = new SimulationRunner(world).run(maxTurns);
+		world.removeObserver(this);
+		int entities = world.getPlayers().size() + world.getMonsters().size() + world.getItems().size();
+
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+		Map<String, Object> scenario = new LinkedHashMap<String, Object>();
+		scenario.put("seed", seed);
+		scenario.put("width", width);
+		scenario.put("height", height);
+		scenario.put("cellsPerMonster", cellsPerMonster);
+		scenario.put("maxTurns", maxTurns);
+		scenario.put("builds", Arrays.asList(builds));
+		report.put("scenario", scenario);
+		report.put("java", System.getProperty("java.version"));
+
+		Map<String, Object> population = new LinkedHashMap<String, Object>();
+		population.put("players", world.getPlayers().size());
+		population.put("monsters", world.getMonsters().size());
+		population.put("items", world.getItems().size());
+		report.put("entities", population);
+
+		report.put("outcome", result.getOutcome().name());
+		report.put("turns", result.getTurns());
+		report.put("steps", result.getSteps());
+		report.put("elapsedMillis", result.getElapsedNanos() / 1e6);
+		report.put("turnsPerSecond", result.getElapsedNanos() == 0 ? 0
+				: result.getTurns() * 1e9 / result.getElapsedNanos());
+
+		long[] sorted = Arrays.copyOf(turnNanos, turns);
+		Arrays.sort(sorted);
+		Map<String, Object> latency = new LinkedHashMap<String, Object>();
+		latency.put("p50", percentile(sorted, 50) / 1e3);
+		latency.put("p99", percentile(sorted, 99) / 1e3);
+		latency.put("max", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e3);
+		report.put("turnMicros", latency);
+
+		report.put("peakHeapBytesPerEntity", entities == 0 ? 0 : (peakHeap - baseHeap) / entities);
+		report.put("events", events);
+
+		Map<String, Object> saves = new LinkedHashMap<String, Object>();
+		saves.put("xml", saveAndLoad(world, Format.XML));
+		saves.put("binary", saveAndLoad(world, Format.BINARY));
+		report.put("saves", saves);
+		return report;
+	}
+
+	/**
+	 * Times the save and the load of a world in a temporary file
+	 */
+	private static Map<String, Object> saveAndLoad(World world, Format format) throws IOException {
+		WorldMapper mapper = new WorldMapper();
+		mapper.setFormat(format);
+		File file = File.createTempFile("benchmark", ".world");
+		try {
+			long start = System.nanoTime();
+			OutputStream output = new FileOutputStream(file);
+			try {
+				mapper.save(world, output);
+			}
+			finally {
+				output.close();
+			}
+			long saved = System.nanoTime();
+			InputStream input = new FileInputStream(file);
+			World loaded;
+			try {
+				loaded = mapper.load(input);
+			}
+			finally {
+				input.close();
+			}
+			long end = System.nanoTime();
+			if (loaded == null) throw new IOException("The " + format + " save could not be loaded");
+
+			Map<String, Object> times = new LinkedHashMap<String, Object>();
+			times.put("bytes", file.length());
+			times.put("saveMillis", (saved - start) / 1e6);
+			times.put("loadMillis", (end - saved) / 1e6);
+			return times;
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * @param sorted values in increasing order
+	 * @param percent the percentile, 0 to 100
+	 * @return the smallest value greater than or equal to the given percent of the values
+	 */
+	static long percentile(long[] sorted, int percent) {
+		if (sorted.length == 0) return 0;
+		int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		String type = event.getClass().getSimpleName();
+		Integer count = events.get(type);
+		events.put(type, count == null ? 1 : count + 1);
+
+		if (event instanceof NextTurnEvent) {
+			long now = System.nanoTime();
+			if (turns == turnNanos.length) turnNanos = Arrays.copyOf(turnNanos, turns * 2);
+			turnNanos[turns++] = now - lastTurn;
+			lastTurn = now;
+			Runtime runtime = Runtime.getRuntime();
+			peakHeap = Math.max(peakHeap, runtime.totalMemory() - runtime.freeMemory());
+		}
+	}
+
+	/**
+	 * Writes a report as JSON
+	 * @param value a map, list, string, number or boolean
+	 * @param json the text to append to
+	 */
+	public static void toJson(Object value, StringBuilder json) {
+		if (value instanceof Map) {
+			json.append('{');
+			boolean first = true;
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				if (!first) json.append(", ");
+				first = false;
+				toJson(String.valueOf(entry.getKey()), json);
+				json.append(": ");
+				toJson(entry.getValue(), json);
+			}
+			json.append('}');
+		}
+		else if (value instanceof List) {
+			json.append('[');
+			boolean first = true;
+			for (Object element : (List<?>) value) {
+				if (!first) json.append(", ");
+				first = false;
+				toJson(element, json);
+			}
+			json.append(']');
+		}
+		else if (value instanceof Number || value instanceof Boolean) {
+			json.append(value);
+		}
+		else if (value == null) {
+			json.append("null");
+		}
+		else {
+			json.append('"');
+			String text = value.toString();
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '"' || c == '\\') json.append('\\').append(c);
+				else if (c < ' ') json.append(String.format("\\u%04x", (int) c));
+				else json.append(c);
+			}
+			json.append('"');
+		}
+	}
+
+	/**
+	 * Runs a scenario and writes its report.
+	 * Arguments: output [seed] [width] [height] [cellsPerMonster] [maxTurns] [builds...]
+	 * @param args the command line arguments
+	 * @throws IOException if the report cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: MacroBenchmark output.json [seed] [width] [height] "
+					+ "[cellsPerMonster] [maxTurns] [builds...]");
+			return;
+		}
+		int seed = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int width = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+		int height = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+		int cellsPerMonster = args.length > 4 ? Integer.parseInt(args[4]) : 50;
+		int maxTurns = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+		String[] builds = args.length > 6 ? Arrays.copyOfRange(args, 6, args.length)
+				: new String[] { "tank", "bully", "nimble" };
+
+		Map<String, Object> report = new MacroBenchmark(seed, width, height, cellsPerMonster,
+				maxTurns, builds).run();
+		StringBuilder json = new StringBuilder();
+		toJson(report, json);
+		FileWriter writer = new FileWriter(args[0]);
+		try {
+			writer.write(json.toString());
+			writer.write('\n');
+		}
+		finally {
+			writer.close();
+		}
+		System.out.println(json);
+	}
+}
@@ -0,0 +1,355 @@
+package dnd.game.sim;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import dnd.game.World;
+import dnd.game.mapper.BinaryMapper;
+
+/**
+ * A recorded game: the world as it was when the recording started and the ordered
+ * list of the players' {@link Intent}s, along with the {@link StateHash} of the
+ * world at the start of every turn. The world is kept as a {@link BinaryMapper}
+ * snapshot along with the state of its dice, so the monsters play as they did and
+ * the intents are enough to play the game again.
+ *
+ * Intents and the end of the recording are placed in the game by the turn number,
+ * the number of entities left to move in the turn and the moves left to the
+ * active entity. A recording is saved as text, one step per line, the snapshot
+ * and the dice state in hexadecimal:
+ * <pre>
+ * world 444e4442015701...
+ * dice aced0005737200...
+ * turn 1 8f0c53a1d29e4b77
+ * intent 1 4 2 MOVE 1 0
+ * intent 1 4 1 ATTACK MONSTER 2
+ * end 1 2 3 3c5a0e8b9d6f1a24
+ * </pre>
+ *
+ * @see SessionRecorder
+ * @see Replay
+ */
+public class Recording {
+	/** The suffix added to a saved game's name for its recording */
+	public static final String RECORDING_SUFFIX = ".rec";
+
+	/**
+	 * What a step of a recording is
+	 */
+	public enum StepType {
+		/** an intent executed during a turn, with the number of moves left */
+		INTENT,
+		/** the hash of the world at the start of a turn */
+		TURN,
+		/** the hash of the world when the recording stopped */
+		END
+	}
+
+	/**
+	 * One line of a recording
+	 */
+	public static final class Step {
+		private final StepType type;
+		private final int turn;
+		private final int left;
+		private final int moves;
+		private final Intent intent;
+		private final long hash;
+
+		private Step(StepType type, int turn, int left, int moves, Intent intent, long hash) {
+			this.type = type;
+			this.turn = turn;
+			this.left = left;
+			this.moves = moves;
+			this.intent = intent;
+			this.hash = hash;
+		}
+
+		/**
+		 * @return what the step is
+		 */
+		public StepType getType() {
+			return type;
+		}
+
+		/**
+		 * @return the turn number of the step
+		 */
+		public int getTurn() {
+			return turn;
+		}
+
+		/**
+		 * @return the number of entities left to move in the turn, the active one
+		 *         included, 0 for a turn step
+		 */
+		public int getLeft() {
+			return left;
+		}
+
+		/**
+		 * @return the moves left to the active entity, 0 for a turn step
+		 */
+		public int getMoves() {
+			return moves;
+		}
+
+		/**
+		 * @return the intent, null for a turn or end step
+		 */
+		public Intent getIntent() {
+			return intent;
+		}
+
+		/**
+		 * @return the hash of the world, 0 for an intent step
+		 */
+		public long getHash() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			switch (type) {
+				case INTENT:
+					return "intent " + turn + " " + left + " " + moves + " " + intent;
+				case TURN:
+					return "turn " + turn + " " + Long.toHexString(hash);
+				default:
+					return "end " + turn + " " + left + " " + moves + " " + Long.toHexString(hash);
+			}
+		}
+	}
+
+	private byte[] world;
+	private byte[] dice;
+	private List<Step> steps = new ArrayList<Step>();
+
+	/**
+	 * Constructor - an empty recording starting from the world as it is now. Must
+	 * be called by the thread that owns the world.
+	 * @param world the world
+	 * @throws IllegalStateException if the world cannot be saved
+	 */
+	public Recording(World world) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new BinaryMapper<World>(World.class).save(world, bytes);
+		this.world = bytes.toByteArray();
+		try {
+			this.dice = world.getDice().getState();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not save the dice", e);
+		}
+	}
+
+	private Recording(byte[] world, byte[] dice) {
+		this.world = world;
+		this.dice = dice;
+	}
+
+	/**
+	 * @return a new world, as it was when the recording started
+	 * @throws IllegalStateException if the snapshot of the world cannot be read
+	 */
+	public World createWorld() {
+		try {
+			World created = new BinaryMapper<World>(World.class).read(
+					Channels.newChannel(new ByteArrayInputStream(world)));
+			created.getDice().setState(dice);
+			return created;
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not read the recorded world", e);
+		}
+	}
+
+	/**
+	 * @param saveFile a saved game
+	 * @return the recording file kept for the saved game
+	 */
+	public static File recordingFor(File saveFile) {
+		return new File(saveFile.getPath() + RECORDING_SUFFIX);
+	}
+
+	/**
+	 * @return a copy of the recording, which the steps added later are not added to
+	 */
+	public Recording copy() {
+		Recording copy = new Recording(world, dice);
+		copy.steps.addAll(steps);
+		return copy;
+	}
+
+	/**
+	 * @return the steps, in the order they happened
+	 */
+	public List<Step> getSteps() {
+		return Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * @return the number of intents recorded
+	 */
+	public int getIntentCount() {
+		int count = 0;
+		for (Step step : steps) {
+			if (step.type == StepType.INTENT) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * @param turn the turn number
+	 * @param left the number of entities left to move in the turn
+	 * @param moves the moves left to the player
+	 * @param intent the intent executed
+	 */
+	public void addIntent(int turn, int left, int moves, Intent intent) {
+		steps.add(new Step(StepType.INTENT, turn, left, moves, intent, 0));
+	}
+
+	/**
+	 * @param turn the turn starting
+	 * @param hash the hash of the world
+	 */
+	public void addTurn(int turn, long hash) {
+		steps.add(new Step(StepType.TURN, turn, 0, 0, null, hash));
+	}
+
+	/**
+	 * @param turn the turn the recording stopped in
+	 * @param left the number of entities left to move in the turn
+	 * @param moves the moves left to the active entity
+	 * @param hash the hash of the world
+	 */
+	public void addEnd(int turn, int left, int moves, long hash) {
+		steps.add(new Step(StepType.END, turn, left, moves, null, hash));
+	}
+
+	/**
+	 * Writes the recording as text
+	 * @param writer the writer, left open
+	 */
+	public void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+		out.println("world " + toHex(world));
+		out.println("dice " + toHex(dice));
+		for (Step step : steps) {
+			out.println(step);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads a recording written by {@link #write(Writer)}
+	 * @param reader the reader, left open
+	 * @return the recording
+	 * @throws IOException if the text cannot be read or is not a recording
+	 */
+	public static Recording read(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		try {
+			byte[] world = fromHex(words(in.readLine(), "world")[1]);
+			byte[] dice = fromHex(words(in.readLine(), "dice")[1]);
+			Recording recording = new Recording(world, dice);
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.trim().length() == 0) continue;
+				String[] step = line.trim().split("\\s+", 5);
+				int turn = Integer.parseInt(step[1]);
+				if (step[0].equals("intent")) {
+					recording.addIntent(turn, Integer.parseInt(step[2]), Integer.parseInt(step[3]),
+							Intent.parse(step[4]));
+				}
+				else if (step[0].equals("turn")) {
+					recording.addTurn(turn, parseHash(step[2]));
+				}
+				else if (step[0].equals("end")) {
+					recording.addEnd(turn, Integer.parseInt(step[2]), Integer.parseInt(step[3]),
+							parseHash(step[4]));
+				}
+				else {
+					throw new IOException("Unknown step: " + line);
+				}
+			}
+			return recording;
+		}
+		catch (RuntimeException e) { // bad numbers, missing words or unknown intents
+			throw new IOException("Not a recording: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @param file the file to save the recording to
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(File file) throws IOException {
+		FileWriter writer = new FileWriter(file);
+		try {
+			write(writer);
+		}
+		finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * @param file the file to load
+	 * @return the recording saved in the file
+	 * @throws IOException if the file cannot be read or is not a recording
+	 */
+	public static Recording load(File file) throws IOException {
+		FileReader reader = new FileReader(file);
+		try {
+			return read(reader);
+		}
+		finally {
+			reader.close();
+		}
+	}
+
+	private static String[] words(String line, String key) throws IOException {
+		if (line == null) throw new IOException("Missing " + key);
+		String[] words = line.trim().split("\\s+");
+		if (!words[0].equals(key)) throw new IOException("Expected " + key + ": " + line);
+		return words;
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder text = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			text.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return text.toString();
+	}
+
+	private static byte[] fromHex(String text) throws IOException {
+		if (text.length() % 2 != 0) throw new IOException("Odd number of hexadecimal digits");
+		byte[] bytes = new byte[text.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			int high = Character.digit(text.charAt(2 * i), 16);
+			int low = Character.digit(text.charAt(2 * i + 1), 16);
+			if (high < 0 || low < 0) throw new IOException("Not a hexadecimal number at " + 2 * i);
+			bytes[i] = (byte) (high << 4 | low);
+		}
+		return bytes;
+	}
+
+	private static long parseHash(String text) {
+		return new BigInteger(text, 16).longValue();
+	}
+}
@@ -0,0 +1,203 @@
+package dnd.game.sim;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dnd.game.Entity;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.Visibility;
+import dnd.game.World;
+import dnd.game.entity.living.Player;
+
+/**
+ * The state of a world needed to draw it, captured by the thread owning the world
+ * so that the renderer and the views can read it from their own threads without
+ * locks. A snapshot never changes once captured.
+ *
+ * The level's cells are not copied: they are read from the level, which tells its
+ * observers when they change.
+ *
+ * @see SimulationThread#getSnapshot()
+ */
+public final class RenderSnapshot {
+	private final long version;
+	private final boolean started;
+	private final int turnNumber;
+	private final Level level;
+	private final Location focus;
+	private final boolean playerTurn;
+	private final Class<?>[] spriteTypes;
+	private final int[] spriteX;
+	private final int[] spriteY;
+	private final int spriteCount;
+	private final Map<Entity, EntityInfo> entities;
+	private final Location hoverLocation;
+	private final String hoverInfo;
+	private final Visibility visibility;
+
+	private RenderSnapshot(World world, long version, Collection<? extends Entity> watched,
+			Location hoverLocation, String hoverInfo) {
+		this.version = version;
+		this.started = world.isStarted();
+		this.turnNumber = world.getTurnNumber();
+		this.level = world.getLevel();
+		List<Player> players = world.getPlayers();
+		this.focus = players.size() > 0 ? players.get(0).getLocation() : null;
+		this.playerTurn = Commands.activePlayer(world) != null;
+
+		// in drawing order
+		int count = world.getItems().size() + players.size() + world.getMonsters().size();
+		this.spriteTypes = new Class<?>[count];
+		this.spriteX = new int[count];
+		this.spriteY = new int[count];
+		int i = addSprites(world.getItems(), 0);
+		i = addSprites(players, i);
+		this.spriteCount = addSprites(world.getMonsters(), i);
+
+		Map<Entity, EntityInfo> infos = new IdentityHashMap<Entity, EntityInfo>();
+		for (Player player : players) {
+			infos.put(player, new EntityInfo(player));
+		}
+		for (Entity entity : watched) {
+			if (!infos.containsKey(entity)) infos.put(entity, new EntityInfo(entity));
+		}
+		this.entities = Collections.unmodifiableMap(infos);
+		this.hoverLocation = hoverLocation;
+		this.hoverInfo = hoverInfo;
+		this.visibility = started && level != null ? world.getFieldOfView().getVisibility(players) : null;
+	}
+
+	private int addSprites(Collection<? extends Entity> collection, int i) {
+		for (Entity e : collection) {
+			Location location = e.getLocation();
+			if (location == null) continue;
+			spriteTypes[i] = e.getClass();
+			spriteX[i] = location.getX();
+			spriteY[i] = location.getY();
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Captures the state of a world. Must be called by the thread owning the world.
+	 *
+	 * @param world the world
+	 * @param version the number of the snapshot
+	 * @param watched entities to capture the {@link EntityInfo} of, besides the players
+	 * @param hoverLocation the location hovered by the mouse, can be null
+	 * @param hoverInfo the description of the hovered cell, see {@link HoverInfo}
+	 * @return the snapshot
+	 */
+	public static RenderSnapshot capture(World world, long version, Collection<? extends Entity> watched,
+			Location hoverLocation, String hoverInfo) {
+		return new RenderSnapshot(world, version, watched, hoverLocation, hoverInfo);
+	}
+
+	/**
+	 * @return the number of the snapshot, increasing with every capture
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return whether the world was started
+	 */
+	public boolean isStarted() {
+		return started;
+	}
+
+	/**
+	 * @return the turn number
+	 */
+	public int getTurnNumber() {
+		return turnNumber;
+	}
+
+	/**
+	 * @return the level being played
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return the location of the first player, which the camera follows, or null
+	 */
+	public Location getFocus() {
+		return focus;
+	}
+
+	/**
+	 * @return whether the game waits for a player's command
+	 */
+	public boolean isPlayerTurn() {
+		return playerTurn;
+	}
+
+	/**
+	 * @return the number of entities to draw
+	 */
+	public int getSpriteCount() {
+		return spriteCount;
+	}
+
+	/**
+	 * @param index the index of an entity to draw, in drawing order
+	 * @return the class of the entity
+	 */
+	public Class<?> getSpriteType(int index) {
+		return spriteTypes[index];
+	}
+
+	/**
+	 * @param index the index of an entity to draw
+	 * @return the x coordinate of the entity
+	 */
+	public int getSpriteX(int index) {
+		return spriteX[index];
+	}
+
+	/**
+	 * @param index the index of an entity to draw
+	 * @return the y coordinate of the entity
+	 */
+	public int getSpriteY(int index) {
+		return spriteY[index];
+	}
+
+	/**
+	 * @param entity a player or a watched entity
+	 * @return the entity's information, or null if it was not captured
+	 */
+	public EntityInfo getEntityInfo(Entity entity) {
+		return entities.get(entity);
+	}
+
+	/**
+	 * @return the location the hover information is about, can be null
+	 */
+	public Location getHoverLocation() {
+		return hoverLocation;
+	}
+
+	/**
+	 * @return the description of the hovered cell, can be null
+	 */
+	public String getHoverInfo() {
+		return hoverInfo;
+	}
+
+	/**
+	 * @return the cells seen by the players, or null if the whole level is shown
+	 *         (the world is not being played)
+	 */
+	public Visibility getVisibility() {
+		return visibility;
+	}
+}
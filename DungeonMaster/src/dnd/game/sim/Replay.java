@@ -0,0 +1,218 @@
+package dnd.game.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import dnd.game.TurnManager;
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.NextTurnEvent;
+import dnd.game.sim.Recording.Step;
+import dnd.game.sim.Recording.StepType;
+
+/**
+ * Plays a {@link Recording} again without rendering, as fast as the turn manager
+ * goes: the world is rebuilt from the recorded snapshot, the monsters play on their
+ * own and the players execute the recorded intents at the recorded places in the
+ * game. The hash of the world is checked at the start of every turn and at the
+ * end, so the first step where the game differs from the recording is found.
+ *
+ * A replay only matches its recording if the game is deterministic: the same
+ * world and dice must give the same levels and monster decisions.
+ */
+public class Replay implements EventObserver {
+	private Recording recording;
+	private World world;
+	private StateHash stateHash;
+	private List<Step> steps;
+	private int next;
+	private int intents;
+	private int checkpoints;
+	private String mismatch;
+	private long elapsedNanos;
+
+	/**
+	 * Constructor
+	 * @param recording the recording to play
+	 */
+	public Replay(Recording recording) {
+		this.recording = recording;
+	}
+
+	/**
+	 * Plays the recording in a new world, stops at the first difference
+	 * @return whether the game matched the recording up to its end
+	 */
+	public boolean run() {
+		world = recording.createWorld();
+		stateHash = new StateHash(world);
+		steps = recording.getSteps();
+		next = 0;
+		intents = 0;
+		checkpoints = 0;
+		mismatch = null;
+		world.addObserver(NextTurnEvent.class, this);
+		long start = System.nanoTime();
+		try {
+			world.start();
+			while (mismatch == null && next < steps.size()) {
+				step();
+			}
+		}
+		finally {
+			elapsedNanos = System.nanoTime() - start;
+			world.removeObserver(this);
+			stateHash.dispose();
+		}
+		return mismatch == null;
+	}
+
+	/**
+	 * Executes the next intent if the game got to its place, otherwise runs the turn
+	 */
+	private void step() {
+		Step step = steps.get(next);
+		TurnManager turns = world.getTurnManager();
+		LivingEntity active = turns.activeEntity();
+		boolean deciding = !(active instanceof NPC) && turns.getNumMoves() > 0;
+		if (step.getType() != StepType.TURN && at(step)) {
+			next++;
+			if (step.getType() == StepType.INTENT) {
+				intents++;
+				step.getIntent().execute(world);
+			}
+			else {
+				check(step, "at the end");
+			}
+		}
+		else if (deciding) {
+			mismatch = "Turn " + world.getTurnNumber() + ": " + active + " has " + turns.getNumMoves()
+					+ " moves left but the recording expects " + step;
+		}
+		else {
+			turns.runTurn();
+		}
+	}
+
+	/**
+	 * @return whether the game is at the place of an intent or end step
+	 */
+	private boolean at(Step step) {
+		TurnManager turns = world.getTurnManager();
+		return world.getTurnNumber() == step.getTurn() && turns.getNumMoves() == step.getMoves()
+				&& turns.getTurnMoves().length == step.getLeft();
+	}
+
+	private void check(Step step, String where) {
+		checkpoints++;
+		long hash = stateHash.hash();
+		if (hash != step.getHash()) {
+			mismatch = "Turn " + world.getTurnNumber() + ": the state differs " + where + ", expected "
+					+ Long.toHexString(step.getHash()) + " but got " + Long.toHexString(hash);
+		}
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (mismatch != null || next >= steps.size()) return;
+		Step step = steps.get(next);
+		int turn = ((NextTurnEvent) event).getTurnNumber();
+		if (step.getType() != StepType.TURN || step.getTurn() != turn) {
+			mismatch = "Turn " + turn + " started but the recording expects " + step;
+			return;
+		}
+		next++;
+		check(step, "at the start of the turn");
+	}
+
+	/**
+	 * @return the world of the last run
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * @return the number of intents executed in the last run
+	 */
+	public int getIntents() {
+		return intents;
+	}
+
+	/**
+	 * @return the number of hashes checked in the last run
+	 */
+	public int getCheckpoints() {
+		return checkpoints;
+	}
+
+	/**
+	 * @return the first difference with the recording, null if there was none
+	 */
+	public String getMismatch() {
+		return mismatch;
+	}
+
+	/**
+	 * @return the wall time of the last run, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * Records a headless game with the {@link AggressiveController}
+	 * @param seed the seed of the world
+	 * @param width the level width
+	 * @param height the level height
+	 * @param maxTurns the maximum number of turns to play
+	 * @param builds the build of each player
+	 * @return the recording of the game
+	 */
+	public static Recording record(int seed, int width, int height, int maxTurns, String... builds) {
+		World world = SimulationRunner.createWorld(seed, width, height, builds);
+		SessionRecorder recorder = new SessionRecorder(world);
+		new SimulationRunner(world).run(maxTurns);
+		recorder.stop();
+		return recorder.getRecording();
+	}
+
+	/**
+	 * Replays a recording file a number of times and prints the timings. When the
+	 * file does not exist, a headless game is recorded into it first.
+	 * Arguments: file [runs] [seed] [width] [height] [maxTurns] [builds...]
+	 * @param args the command line arguments
+	 * @throws IOException if the recording cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: Replay file [runs] [seed] [width] [height] [maxTurns] [builds...]");
+			return;
+		}
+		File file = new File(args[0]);
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		if (!file.exists()) {
+			int seed = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+			int width = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+			int height = args.length > 4 ? Integer.parseInt(args[4]) : 40;
+			int maxTurns = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+			String[] builds = args.length > 6 ? new String[args.length - 6] : new String[] { "tank" };
+			if (args.length > 6) System.arraycopy(args, 6, builds, 0, builds.length);
+			record(seed, width, height, maxTurns, builds).save(file);
+		}
+
+		Recording recording = Recording.load(file);
+		Replay replay = new Replay(recording);
+		for (int i = 0; i < runs; i++) {
+			boolean matched = replay.run();
+			System.out.printf("run %d: %d intents, %d checkpoints in %.2f ms%s%n", i + 1,
+					replay.getIntents(), replay.getCheckpoints(), replay.getElapsedNanos() / 1e6,
+					matched ? "" : ", " + replay.getMismatch());
+			if (!matched) return;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package dnd.game.sim;
+
+import java.io.File;
+import java.io.IOException;
+
+import dnd.game.TurnManager;
+import dnd.game.World;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.IntentEvent;
+import dnd.game.event.NextTurnEvent;
+
+/**
+ * Records the {@link Intent}s executed in a world and the hash of the world at the
+ * start of every turn. The recording starts from a snapshot of the world taken
+ * when the recorder is created, which may be before the world is started or in
+ * the middle of a loaded game. The hashes of the level cells are kept between
+ * turns, so recording costs the same on small and huge levels.
+ *
+ * @see Replay
+ */
+public class SessionRecorder implements EventObserver {
+	private World world;
+	private Recording recording;
+	private StateHash hash;
+
+	/**
+	 * Constructor - starts recording from the world as it is now. Must be called by
+	 * the thread that owns the world.
+	 * @param world the world
+	 */
+	public SessionRecorder(World world) {
+		this(world, new Recording(world));
+	}
+
+	/**
+	 * Constructor - starts recording
+	 * @param world the world, as it is at the start of the recording
+	 * @param recording the recording to add the steps to
+	 */
+	public SessionRecorder(World world, Recording recording) {
+		this.world = world;
+		this.recording = recording;
+		this.hash = new StateHash(world);
+		world.addObserver(IntentEvent.class, this);
+		world.addObserver(NextTurnEvent.class, this);
+	}
+
+	/**
+	 * @return the recording
+	 */
+	public Recording getRecording() {
+		return recording;
+	}
+
+	/**
+	 * Stops recording, and adds the hash of the world as it is now
+	 */
+	public void stop() {
+		world.removeObserver(this);
+		addEnd(recording);
+		hash.dispose();
+	}
+
+	/**
+	 * Saves the recording so far, ended with the hash of the world as it is now,
+	 * and keeps recording. Must be called by the thread that owns the world.
+	 * @param file the file to save the recording to
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(File file) throws IOException {
+		Recording ended = recording.copy();
+		addEnd(ended);
+		ended.save(file);
+	}
+
+	private void addEnd(Recording recording) {
+		TurnManager turns = world.getTurnManager();
+		int left = turns.getTurnMoves().length;
+		recording.addEnd(world.getTurnNumber(), left, left == 0 ? 0 : turns.getNumMoves(),
+				hash.hash());
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (event instanceof IntentEvent) {
+			TurnManager turns = world.getTurnManager();
+			recording.addIntent(world.getTurnNumber(), turns.getTurnMoves().length, turns.getNumMoves(),
+					((IntentEvent) event).getIntent());
+		}
+		else {
+			recording.addTurn(((NextTurnEvent) event).getTurnNumber(), hash.hash());
+		}
+	}
+}
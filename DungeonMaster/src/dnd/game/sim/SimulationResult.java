@@ -0,0 +1,81 @@
+package dnd.game.sim;
+
+/**
+ * The outcome and timing of one headless run of a world.
+ * 
+ * @see SimulationRunner
+ */
+public class SimulationResult {
+	/**
+	 * How a simulation ended
+	 */
+	public enum Outcome {
+		/** all monsters were killed or the players took the stairs down */
+		CLEARED,
+		/** a player died and the level was reset */
+		DEFEATED,
+		/** the turn limit was reached */
+		TIMEOUT
+	}
+
+	private Outcome outcome;
+	private int turns;
+	private long steps;
+	private long elapsedNanos;
+
+	/**
+	 * Constructor
+	 * @param outcome how the run ended
+	 * @param turns the number of full turns played
+	 * @param steps the number of turn manager steps executed
+	 * @param elapsedNanos the wall time of the run, in nanoseconds
+	 */
+	public SimulationResult(Outcome outcome, int turns, long steps, long elapsedNanos) {
+		this.outcome = outcome;
+		this.turns = turns;
+		this.steps = steps;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return how the run ended
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * @return the number of full turns played
+	 */
+	public int getTurns() {
+		return turns;
+	}
+
+	/**
+	 * @return the number of turn manager steps (single moves, attacks or waits)
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * @return the wall time of the run, in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @return the number of turns played per second of wall time
+	 */
+	public double getTurnsPerSecond() {
+		if (elapsedNanos == 0) return 0;
+		return turns * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return outcome + " after " + turns + " turns (" + steps + " steps) in " + 
+				(elapsedNanos / 1000000) + " ms, " + String.format("%.1f", getTurnsPerSecond()) + " turns/s";
+	}
+}
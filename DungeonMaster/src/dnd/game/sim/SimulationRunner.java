@@ -0,0 +1,185 @@
+package dnd.game.sim;
+
+import dnd.game.Dice;
+import dnd.game.RandomLevelGenerator;
+import dnd.game.TurnManager;
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+import dnd.game.entity.living.PlayerFactory;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.KilledEntityEvent;
+import dnd.game.event.NextLevelEvent;
+import dnd.game.event.ResetLevelEvent;
+import dnd.game.sim.SimulationResult.Outcome;
+
+/**
+ * Drives a {@link World} through its {@link TurnManager} at full speed without any
+ * rendering. NPCs make their own decisions; every other entity (the players) is
+ * handed to an {@link EntityController}. A run ends when the level is cleared, a
+ * player dies, or the turn limit is reached.
+ */
+public class SimulationRunner implements EventObserver {
+	private World world;
+	private EntityController playerController;
+	private Outcome outcome;
+	private boolean checkMonsters;
+
+	/**
+	 * Runs a world with the default {@link AggressiveController} for the players
+	 * @param world the world to run, its level and players should be set
+	 */
+	public SimulationRunner(World world) {
+		this(world, new AggressiveController());
+	}
+
+	/**
+	 * Runs a world with a given controller for the players
+	 * @param world the world to run, its level and players should be set
+	 * @param playerController the controller making player decisions
+	 */
+	public SimulationRunner(World world, EntityController playerController) {
+		this.world = world;
+		this.playerController = playerController;
+	}
+
+	/**
+	 * @return the world being simulated
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Starts the world if needed and plays it until it is cleared, a player dies or
+	 * the given number of turns have been played.
+	 *
+	 * @param maxTurns the maximum number of turns to play
+	 * @return the outcome and timing of the run
+	 */
+	public SimulationResult run(int maxTurns) {
+		world.addObserver(ResetLevelEvent.class, this);
+		world.addObserver(NextLevelEvent.class, this);
+		world.addObserver(KilledEntityEvent.class, this);
+		try {
+			world.start();
+			if (!world.isStarted()) {
+				throw new IllegalStateException("The world has no level to simulate");
+			}
+
+			outcome = null;
+			checkMonsters = true;
+			int firstTurn = world.getTurnNumber();
+			int checkedTurn = firstTurn;
+			long steps = 0;
+			long start = System.nanoTime();
+			while (outcome == null) {
+				if (world.getTurnNumber() != checkedTurn) {
+					checkedTurn = world.getTurnNumber();
+					checkMonsters = true;
+				}
+				if (checkMonsters && !monstersAlive()) {
+					outcome = Outcome.CLEARED;
+				}
+				else if (world.getTurnNumber() - firstTurn >= maxTurns) {
+					outcome = Outcome.TIMEOUT;
+				}
+				else {
+					step();
+					steps++;
+				}
+			}
+			return new SimulationResult(outcome, world.getTurnNumber() - firstTurn,
+					steps, System.nanoTime() - start);
+		}
+		finally {
+			world.removeObserver(this);
+		}
+	}
+
+	/**
+	 * Executes a single turn manager step: one player decision (if a player is
+	 * active) followed by {@link TurnManager#runTurn()}.
+	 */
+	public void step() {
+		TurnManager turns = world.getTurnManager();
+		LivingEntity active = turns.activeEntity();
+		if (!(active instanceof NPC) && turns.getNumMoves() > 0) {
+			int moves = turns.getNumMoves();
+			if (active.isAlive()) {
+				playerController.think(world, active);
+			}
+			if (outcome != null) return;
+			if (turns.activeEntity() == active && turns.getNumMoves() == moves) {
+				Intent.waitTurn().execute(world); // no decision was made, end the turn
+			}
+		}
+		turns.runTurn();
+	}
+
+	/**
+	 * @return whether any monster on the level is alive
+	 */
+	private boolean monstersAlive() {
+		checkMonsters = false;
+		for (NPC monster : world.getMonsters()) {
+			if (monster.isAlive()) return true;
+		}
+		return false;
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (event instanceof ResetLevelEvent) {
+			outcome = Outcome.DEFEATED;
+		}
+		else if (event instanceof NextLevelEvent) {
+			outcome = Outcome.CLEARED;
+		}
+		else if (event instanceof KilledEntityEvent) {
+			checkMonsters = true;
+		}
+	}
+
+	/**
+	 * Creates a fully seeded world: the dice, the random level and the party all
+	 * derive from the given seed, so two worlds created with the same arguments
+	 * play out identically.
+	 *
+	 * @param seed the seed for the world's dice and level
+	 * @param width the level width
+	 * @param height the level height
+	 * @param builds the {@link PlayerFactory} build of each player (one player per build)
+	 * @return a new world ready to be started
+	 */
+	public static World createWorld(int seed, int width, int height, String... builds) {
+		World world = new World();
+		world.setDice(new Dice(seed));
+		world.setLevel(new RandomLevelGenerator(seed).randomLevel(width, height));
+		for (int i = 0; i < builds.length; i++) {
+			Player player = new Player();
+			player.setName("Player " + (i + 1));
+			PlayerFactory.getPlayer(builds[i], 1, player, world.getDice().stream(Dice.CHARACTERS));
+			world.getPlayers().add(player);
+		}
+		return world;
+	}
+
+	/**
+	 * Runs a single headless game and prints the result.
+	 * Arguments: [width] [height] [seed] [maxTurns] [build]
+	 * @param args the command line arguments
+	 */
+	public static void main(String[] args) {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+		int height = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		int seed = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		int maxTurns = args.length > 3 ? Integer.parseInt(args[3]) : 1000;
+		String build = args.length > 4 ? args[4] : "tank";
+
+		World world = createWorld(seed, width, height, build);
+		System.out.println(new SimulationRunner(world).run(maxTurns));
+	}
+}
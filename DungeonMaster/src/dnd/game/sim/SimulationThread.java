@@ -0,0 +1,248 @@
+package dnd.game.sim;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import dnd.game.Entity;
+import dnd.game.Location;
+import dnd.game.TurnManager;
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+import dnd.game.event.ResetLevelEvent;
+
+/**
+ * Plays a game on its own thread, which owns the world: once started, only this
+ * thread changes the world. The user interface submits {@link Command}s, which are
+ * executed between two turn steps, and reads the world through the immutable
+ * {@link RenderSnapshot}s published after it changes.
+ *
+ * NPC turns run as fast as the {@link TurnPacer} allows, whatever the frame rate;
+ * the thread sleeps while it waits for a player's command.
+ */
+public class SimulationThread implements Runnable {
+	private static final long PUBLISH_INTERVAL = 10000000L; // nanoseconds between snapshots while NPCs play
+	private static final long IDLE_WAIT = 50000000L; // nanoseconds
+	private static final long PACED_WAIT = 1000000L;
+
+	private World world;
+	private volatile TurnPacer pacer;
+	private ConcurrentLinkedQueue<Command> commands;
+	private Set<Entity> watched;
+	private List<Runnable> listeners;
+	private volatile Location hoverLocation;
+	private HoverInfo hoverInfo;
+	private volatile RenderSnapshot snapshot;
+	private volatile boolean snapshotRequested;
+	private volatile boolean running;
+	private volatile Thread thread;
+	private long version;
+
+	/**
+	 * Constructor
+	 * @param world the world to play, owned by the simulation thread once started
+	 */
+	public SimulationThread(World world) {
+		this.world = world;
+		this.commands = new ConcurrentLinkedQueue<Command>();
+		this.watched = Collections.newSetFromMap(new ConcurrentHashMap<Entity, Boolean>());
+		this.listeners = new CopyOnWriteArrayList<Runnable>();
+		this.hoverInfo = new HoverInfo(world);
+	}
+
+	/**
+	 * @return the world being played
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+	/**
+	 * Sets the delay policy for NPC turns
+	 * @param pacer the pacer to use, or null to run NPC turns without delay
+	 */
+	public void setTurnPacer(TurnPacer pacer) {
+		if (this.pacer != null) world.removeObserver(this.pacer);
+		this.pacer = pacer;
+		if (pacer != null) world.addObserver(ResetLevelEvent.class, pacer);
+	}
+
+	/**
+	 * Starts the thread
+	 */
+	public synchronized void start() {
+		if (running) return;
+		running = true;
+		thread = new Thread(this, "simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the thread after the current command or turn step and waits for it
+	 */
+	public void stop() {
+		running = false;
+		Thread t = thread;
+		if (t == null) return;
+		LockSupport.unpark(t);
+		if (t == Thread.currentThread()) return;
+		try {
+			t.join();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return whether the thread is running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Queues a command, to be executed on the simulation thread. This method can be
+	 * called from any thread.
+	 * @param command the command
+	 */
+	public void submit(Command command) {
+		commands.add(command);
+		LockSupport.unpark(thread);
+	}
+
+	/**
+	 * @return the latest snapshot of the world, null until the thread has started
+	 */
+	public RenderSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Adds a listener called on the simulation thread after each new snapshot. It
+	 * should only hand the snapshot over to another thread.
+	 * @param listener the listener
+	 */
+	public void addSnapshotListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Includes an entity's {@link EntityInfo} in the snapshots (the players are
+	 * always included)
+	 * @param entity the entity
+	 */
+	public void watch(Entity entity) {
+		if (entity != null && watched.add(entity)) requestSnapshot();
+	}
+
+	/**
+	 * Stops including an entity's information in the snapshots
+	 * @param entity the entity
+	 */
+	public void unwatch(Entity entity) {
+		if (entity != null) watched.remove(entity);
+	}
+
+	/**
+	 * Sets the cell to describe in the snapshots
+	 * @param location the location hovered by the mouse, can be null
+	 */
+	public void setHoverLocation(Location location) {
+		Location previous = hoverLocation;
+		if (location == null ? previous == null : location.equals(previous)) return;
+		hoverLocation = location;
+		requestSnapshot();
+	}
+
+	private void requestSnapshot() {
+		snapshotRequested = true;
+		LockSupport.unpark(thread);
+	}
+
+	@Override
+	public void run() {
+		long last = System.nanoTime();
+		long lastPublish = last;
+		boolean changed = false;
+		publish();
+		while (running) {
+			for (Command command = commands.poll(); command != null; command = commands.poll()) {
+				try {
+					command.execute(world);
+				}
+				catch (RuntimeException e) {
+					e.printStackTrace();
+				}
+				changed = true;
+			}
+
+			long now = System.nanoTime();
+			int elapsed = (int) ((now - last) / 1000000);
+			last += elapsed * 1000000L;
+			TurnPacer p = pacer;
+			boolean ready = p == null || p.ready(elapsed);
+			boolean canStep = canStep();
+			if (canStep && ready) {
+				step(p);
+				changed = true;
+			}
+
+			boolean idle = !canStep || !ready;
+			if (snapshotRequested || (changed && (idle || now - lastPublish >= PUBLISH_INTERVAL))) {
+				publish();
+				lastPublish = now;
+				changed = false;
+			}
+			if (idle && commands.isEmpty() && !snapshotRequested) {
+				LockSupport.parkNanos(this, canStep ? PACED_WAIT : IDLE_WAIT);
+			}
+		}
+	}
+
+	/**
+	 * @return whether the turn manager can run without waiting for a player
+	 */
+	private boolean canStep() {
+		if (!world.isStarted()) return false;
+		TurnManager turns = world.getTurnManager();
+		return !(turns.activeEntity() instanceof Player && turns.getNumMoves() > 0);
+	}
+
+	private void step(TurnPacer p) {
+		TurnManager turns = world.getTurnManager();
+		LivingEntity active = turns.activeEntity();
+		boolean deciding = turns.getNumMoves() > 0;
+		try {
+			turns.runTurn();
+		}
+		catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+		if (p != null && deciding && active instanceof NPC) {
+			p.npcMoved();
+		}
+	}
+
+	private void publish() {
+		snapshotRequested = false;
+		try {
+			Location hover = hoverLocation;
+			snapshot = RenderSnapshot.capture(world, ++version, watched, hover, hoverInfo.get(hover));
+		}
+		catch (RuntimeException e) {
+			e.printStackTrace();
+			return;
+		}
+		for (Runnable listener : listeners) {
+			listener.run();
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package dnd.game.sim;
+
+import java.util.Arrays;
+
+import dnd.game.Entity;
+import dnd.game.EquipmentSlot;
+import dnd.game.Inventory;
+import dnd.game.InventoryInterface;
+import dnd.game.Level;
+import dnd.game.LevelObserver;
+import dnd.game.SplitMix64;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Item;
+import dnd.game.entity.living.LivingEntity;
+
+/**
+ * Sums up the state of a world in a single number, to check that a replayed game
+ * is still the game that was recorded. Two worlds with the same turn, level cells,
+ * entities, locations, hit points and inventories have the same hash; any
+ * difference almost surely changes it.
+ *
+ * The cells of the level are hashed by chunks of 64x64 cells. The hash of a chunk
+ * is kept until one of its cells changes, so hashing the world every turn only
+ * reads the entities and the chunks that changed, however large the level is. The
+ * hash must be taken on the thread changing the world.
+ */
+public final class StateHash implements LevelObserver {
+	private static final int CHUNK_SHIFT = 6;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+	private World world;
+	private Level level;
+	private int chunksX;
+	private long[] chunks;
+	private boolean[] stale;
+	private boolean changed;
+	private Tile[] row = new Tile[CHUNK_SIZE];
+
+	/**
+	 * Constructor - follows the changes of the world's level from now on
+	 * @param world the world
+	 */
+	public StateHash(World world) {
+		this.world = world;
+	}
+
+	/**
+	 * Hashes the whole world once, without keeping the hashes of the cells
+	 * @param world the world
+	 * @return the hash of the world's state
+	 */
+	public static long of(World world) {
+		StateHash hash = new StateHash(world);
+		try {
+			return hash.hash();
+		}
+		finally {
+			hash.dispose();
+		}
+	}
+
+	/**
+	 * @return the hash of the world's state as it is now
+	 */
+	public long hash() {
+		long hash = mix(0, world.getTurnNumber());
+		hash = mix(hash, world.getLevelNumber());
+		if (world.getLevel() != level) track(world.getLevel());
+		if (level != null) {
+			hash = mix(hash, level.getWidth());
+			hash = mix(hash, level.getHeight());
+			for (int i = 0; i < chunks.length; i++) {
+				if (changed && stale[i]) {
+					chunks[i] = chunk((i % chunksX) << CHUNK_SHIFT, (i / chunksX) << CHUNK_SHIFT);
+					stale[i] = false;
+				}
+				hash = SplitMix64.mix64(hash * 31 + chunks[i]);
+			}
+			changed = false;
+		}
+		for (LivingEntity entity : world.getLivingEntities()) {
+			hash = entity(hash, entity);
+			hash = mix(hash, entity.getHP());
+			hash = mix(hash, entity.isAlive() ? 1 : 0);
+		}
+		for (Item item : world.getItems()) {
+			hash = entity(hash, item);
+		}
+		return hash;
+	}
+
+	/**
+	 * Stops following the changes of the level
+	 */
+	public void dispose() {
+		track(null);
+	}
+
+	@Override
+	public void cellsChanged(Level level, int x, int y, int width, int height) {
+		if (level != this.level || width <= 0 || height <= 0) return;
+		int firstX = Math.max(0, x) >> CHUNK_SHIFT;
+		int firstY = Math.max(0, y) >> CHUNK_SHIFT;
+		int lastX = Math.min(level.getWidth() - 1, x + width - 1) >> CHUNK_SHIFT;
+		int lastY = Math.min(level.getHeight() - 1, y + height - 1) >> CHUNK_SHIFT;
+		for (int cy = firstY; cy <= lastY; cy++) {
+			for (int cx = firstX; cx <= lastX; cx++) {
+				stale[cy * chunksX + cx] = true;
+				changed = true;
+			}
+		}
+	}
+
+	/**
+	 * Follows another level, all of its chunks are hashed at the next hash
+	 */
+	private void track(Level level) {
+		if (this.level != null) this.level.removeObserver(this);
+		this.level = level;
+		chunks = null;
+		stale = null;
+		if (level == null) return;
+		chunksX = (level.getWidth() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		int chunksY = (level.getHeight() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		chunks = new long[chunksX * chunksY];
+		stale = new boolean[chunks.length];
+		Arrays.fill(stale, true);
+		changed = true;
+		level.addObserver(this);
+	}
+
+	/**
+	 * @return the hash of the cells of the chunk starting at a cell
+	 */
+	private long chunk(int x, int y) {
+		int width = Math.min(CHUNK_SIZE, level.getWidth() - x);
+		int height = Math.min(CHUNK_SIZE, level.getHeight() - y);
+		long hash = 0;
+		for (int j = 0; j < height; j++) {
+			level.getRow(y + j, x, width, row);
+			for (int i = 0; i < width; i++) {
+				hash = mix(hash, row[i] == null ? -1 : row[i].ordinal());
+			}
+		}
+		return hash;
+	}
+
+	private static long entity(long hash, Entity entity) {
+		hash = mix(hash, entity.getClass().getName().hashCode());
+		if (entity.getLocation() != null) {
+			hash = mix(hash, entity.getLocation().getX());
+			hash = mix(hash, entity.getLocation().getY());
+		}
+		if (entity instanceof InventoryInterface) {
+			Inventory inventory = ((InventoryInterface) entity).getInventory();
+			hash = mix(hash, inventory.getGold());
+			hash = mix(hash, inventory.itemCount());
+			for (EquipmentSlot slot : EquipmentSlot.values()) {
+				hash = mix(hash, inventory.isEquipped(slot) ? 1 : 0);
+			}
+		}
+		return hash;
+	}
+
+	private static long mix(long hash, int value) {
+		return SplitMix64.mix64(hash * 31 + value);
+	}
+}
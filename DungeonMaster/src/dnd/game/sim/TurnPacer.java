@@ -0,0 +1,51 @@
+package dnd.game.sim;
+
+import dnd.game.World;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.ResetLevelEvent;
+
+/**
+ * Paces AI turns for display. The game engine runs turns as fast as it is asked to;
+ * this delay policy holds the turn loop back after every NPC decision and after a
+ * level reset so the player can follow what happens on screen.
+ */
+public class TurnPacer implements EventObserver {
+	private int npcDelay;
+	private int resetDelay;
+	private int remaining;
+
+	/**
+	 * Constructor
+	 * @param npcDelay milliseconds to wait after each NPC decision
+	 * @param resetDelay milliseconds to wait after the level is reset
+	 */
+	public TurnPacer(int npcDelay, int resetDelay) {
+		this.npcDelay = npcDelay;
+		this.resetDelay = resetDelay;
+	}
+
+	/**
+	 * Advances the pacer clock
+	 * @param delta the number of milliseconds since the last update
+	 * @return whether the next turn step may run
+	 */
+	public boolean ready(int delta) {
+		if (remaining > 0) remaining -= delta;
+		return remaining <= 0;
+	}
+
+	/**
+	 * Signal that an NPC just made a decision
+	 */
+	public void npcMoved() {
+		remaining = Math.max(remaining, npcDelay);
+	}
+
+	@Override
+	public void eventFired(World world, GameEvent event) {
+		if (event instanceof ResetLevelEvent) {
+			remaining = Math.max(remaining, resetDelay);
+		}
+	}
+}
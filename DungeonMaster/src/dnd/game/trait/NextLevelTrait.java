@@ -1,5 +1,6 @@
 package dnd.game.trait;
 
+import dnd.game.Dice;
 import dnd.game.Entity;
 import dnd.game.Level;
 import dnd.game.RandomLevelGenerator;
@@ -28,7 +29,9 @@ public class NextLevelTrait extends TileTrait {
 		// If the player goes down the stairs, generate a new level
 		if (entity instanceof Player) {
 			Level level = world.getLevel();
-			Level randomLevel = new RandomLevelGenerator().randomLevel(level.getWidth(), level.getHeight());
+			// seed the new level from the world's dice so seeded worlds stay reproducible
+			int seed = world.getDice().stream(Dice.LEVELS).roll(1, Integer.MAX_VALUE);
+			Level randomLevel = new RandomLevelGenerator(seed).randomLevel(level.getWidth(), level.getHeight());
 			world.nextLevel(randomLevel);
 		}
 	}
@@ -12,13 +12,19 @@ import javax.swing.border.CompoundBorder;
 
 import dnd.game.Entity;
 import dnd.game.InventoryInterface;
-import dnd.game.entity.living.LivingEntity;
+import dnd.game.sim.EntityInfo;
+import dnd.game.sim.RenderSnapshot;
 
+/**
+ * Shows an entity's attributes and inventory, as captured by the latest snapshot
+ * of the game
+ */
 public class EntityView extends JPanel implements PropertyChangeListener {
 	private static final long serialVersionUID = 350446592665155494L;
 	private Entity entity;
 	private JLabel entityInfoLabel;
 	private InventoryView inventoryView;
+	private EntityInfo info;
 
 	public EntityView(Entity entity) {
 		Border border = new CompoundBorder(BorderFactory.createTitledBorder("Attributes"), 
@@ -40,33 +46,45 @@ public class EntityView extends JPanel implements PropertyChangeListener {
 		return entity;
 	}
 
+	/**
+	 * Sets the entity to show, which is shown once a snapshot includes it
+	 * @param entity the entity, or null to hide the view
+	 */
 	public void setEntity(Entity entity) {
+		if (entity != this.entity) info = null;
 		this.entity = entity;
 		if (entity instanceof InventoryInterface) {
 			inventoryView.setEntity((InventoryInterface)entity);
 		}
-		update();
+		if (entity == null) setVisible(false);
 	}
 
-	public void update() {
+	/**
+	 * Shows the entity as captured by a snapshot. Must be called on the Swing thread.
+	 * @param snapshot the latest snapshot of the game, can be null
+	 */
+	public void update(RenderSnapshot snapshot) {
 		if (entity == null) {
 			setVisible(false);
 			return;
 		}
+		EntityInfo latest = snapshot == null ? null : snapshot.getEntityInfo(entity);
+		if (latest == null || latest == info) return; // not captured yet, or unchanged
+		info = latest;
 		setVisible(true);
-		setBorder(BorderFactory.createTitledBorder("Viewing: " + entity + " " + entity.getLocation()));
-		if (entity instanceof InventoryInterface) {
+		setBorder(BorderFactory.createTitledBorder("Viewing: " + info.getTitle()));
+		if (info.hasInventory()) {
 			inventoryView.setVisible(true);
-			inventoryView.update();
+			inventoryView.update(info);
 		}
 		else {
 			inventoryView.setVisible(false);
 		}
 		
-		if (entity instanceof LivingEntity) {
+		if (info.getAttributes() != null) {
 			entityInfoLabel.setVisible(true);
 			entityInfoLabel.setText("<html>" + 
-					entity.formatModifiers().replace("\n", "<br>") + "</html>");
+					info.getAttributes().replace("\n", "<br>") + "</html>");
 		}
 		else {
 			entityInfoLabel.setVisible(false);
@@ -11,6 +11,7 @@ import org.newdawn.slick.GameCanvasContainer;
 import org.newdawn.slick.SlickException;
 
 import dnd.game.World;
+import dnd.game.sim.SimulationThread;
 import dnd.ui.canvas.GameCanvas;
 
 /**
@@ -30,12 +31,13 @@ public class GameView extends JPanel {
 	/**
 	 * Constructor - Build and show the game UI
 	 * @param world A reference to a World object
+	 * @param simulation the thread playing the world
 	 */
-	public GameView(World world) {
+	public GameView(World world, SimulationThread simulation) {
 		setPreferredSize(new Dimension(1280, 800));
 
 		try {
-			mapView = new GameCanvasContainer(new GameCanvas(world));
+			mapView = new GameCanvasContainer(new GameCanvas(world, simulation));
 			mapView.start();
 			mapView.setPreferredSize(new Dimension(600, 300));
 			mapView.setMinimumSize(new Dimension(640, 480));
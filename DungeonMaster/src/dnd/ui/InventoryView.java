@@ -7,6 +7,7 @@ import java.awt.SystemColor;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -22,9 +23,8 @@ import javax.swing.border.CompoundBorder;
 
 import dnd.game.EquipmentSlot;
 import dnd.game.InventoryInterface;
-import dnd.game.entity.item.EquippableItem;
 import dnd.game.entity.item.Item;
-import dnd.game.entity.living.LivingEntity;
+import dnd.game.sim.EntityInfo;
 
 /**
  * The inventory UI panel
@@ -113,7 +113,6 @@ public class InventoryView extends JPanel {
 		setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
 		add(equipPanel);
 		add(itemsPanel);
-		update();
 	}
 	
 	public InventoryInterface getEntity() {
@@ -130,35 +129,37 @@ public class InventoryView extends JPanel {
 	 * @author Team 6
 	 *
 	 */
-	private class ItemListModel extends AbstractListModel {
+	private static class ItemListModel extends AbstractListModel {
 		private static final long serialVersionUID = 3516938324344743490L;
+		private List<Item> items;
+
+		public ItemListModel(List<Item> items) {
+			this.items = items;
+		}
 
 		@Override
 		public Object getElementAt(int index) {
-			return getEntity().getInventory().getItemSlots().toArray()[index];
+			return items.get(index);
 		}
 
 		@Override
 		public int getSize() {
-			return getEntity().getInventory().getItemSlots().size();
+			return items.size();
 		}
 	}
 
 	/**
-	 * Update the inventory pane based on Player data.
+	 * Update the inventory pane based on the entity's captured data.
+	 * @param info the entity's information from the latest snapshot
 	 */
-	public void update() {
-		if (entity == null) return;
-		if (entity instanceof LivingEntity) {
+	public void update(EntityInfo info) {
+		if (entity == null || info == null) return;
+		if (info.hasEquipment()) {
 			equipPanel.setVisible(true);
 			for (Entry<EquipmentSlot, JLabel> item : equipButtons.entrySet()) {
-				String text;
-				EquippableItem eitem = entity.getInventory().equipmentInSlot(
-						item.getKey());
-				if (eitem == null)
+				String text = info.getEquipment(item.getKey());
+				if (text == null)
 					text = "<empty>";
-				else
-					text = eitem.getName();
 				item.getValue().setText(text);
 			}
 		}
@@ -166,8 +167,8 @@ public class InventoryView extends JPanel {
 			equipPanel.setVisible(false);
 		}
 		
-		itemsList.setModel(new ItemListModel());
+		itemsList.setModel(new ItemListModel(info.getItems()));
 		itemsPanel.setBorder(BorderFactory.createTitledBorder(
-				"Items (Gold: " + entity.getInventory().getGold() + ")"));
+				"Items (Gold: " + info.getGold() + ")"));
 	}
 }
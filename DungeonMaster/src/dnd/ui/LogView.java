@@ -1,35 +1,80 @@
 package dnd.ui;
 
+import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.swing.AbstractListModel;
+import javax.swing.JList;
 import javax.swing.JPanel;
-import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
 import javax.swing.ScrollPaneConstants;
+import javax.swing.Timer;
 
 /**
  * This is a logging panel for the UI. It records various events throughout the
  * application. - Should be used for debugging or showing the prof what's going
  * on in the app -
- * 
+ *
+ * The log keeps a fixed number of lines, the oldest lines are forgotten. Messages
+ * can be logged from any thread; they are added to the list in batches, at most
+ * once per frame, and only the visible lines are drawn. The rows have a fixed
+ * height and are as wide as the longest line logged, so the lines are laid out
+ * without measuring all of them.
  */
 public class LogView extends JPanel {
 
+	/** The default maximum number of lines kept */
+	public static final int DEFAULT_MAX_LINES = 1000;
+
 	private static final long serialVersionUID = -2598815322167002189L;
-	private JTextArea textArea;
+	private static final int FRAME_DELAY = 16; // milliseconds
+
+	private LogModel model;
+	private JList list;
 	private JScrollPane scrollPane;
+	private ConcurrentLinkedQueue<String> pending;
+	private AtomicInteger pendingCount;
+	private AtomicBoolean scheduled;
+	private Timer timer;
+	private int longest;
 
 	/**
 	 * Constructor - Build and show this panel
 	 */
 	public LogView() {
-		this.textArea = new JTextArea();
-		this.scrollPane = new JScrollPane(textArea);
-		textArea.setEditable(false);
+		this(DEFAULT_MAX_LINES);
+	}
+
+	/**
+	 * Constructor - Build and show this panel
+	 * @param maxLines the maximum number of lines kept
+	 */
+	public LogView(int maxLines) {
+		this.model = new LogModel(maxLines);
+		this.list = new JList(model);
+		this.scrollPane = new JScrollPane(list);
+		this.pending = new ConcurrentLinkedQueue<String>();
+		this.pendingCount = new AtomicInteger();
+		this.scheduled = new AtomicBoolean();
+		this.timer = new Timer(FRAME_DELAY, new ActionListener() {
+			public void actionPerformed(ActionEvent e) {
+				flush();
+			}
+		});
+		timer.setRepeats(false);
+		list.setFixedCellHeight(cellSize("X").height); // rows are laid out without measuring them
+		list.setFixedCellWidth(cellSize("").width);
+		list.setFocusable(true);
 		scrollPane.setFocusable(true);
 		scrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_ALWAYS);
-		textArea.setFocusable(true);
 		setLayout(new GridLayout(1,1));
 		add(scrollPane);
 	}
@@ -43,19 +88,128 @@ public class LogView extends JPanel {
 	}
 
 	/**
-	 * Append a string to the log. Keep the scroll bar to the bottom of the text area 
-	 * and don't keep more than a specified maximum number of lines
+	 * Append a string to the log. The message is shown at the next frame, with the
+	 * scroll bar kept to the bottom of the log. This method can be called from any thread.
 	 * @param msg The message to display in the log text area
 	 */
 	public void log(String msg) {
-		try {
-			textArea.append(msg + "\n");
-
-			// Keep the scroll bar at the bottom
-			JScrollBar sb = scrollPane.getVerticalScrollBar();
-			sb.setValue(sb.getMaximum());
-		} catch (Exception e) {
-			e.printStackTrace();
+		pending.add(msg);
+		if (pendingCount.incrementAndGet() > model.lines.length && pending.poll() != null) {
+			pendingCount.decrementAndGet(); // would be forgotten anyway
+		}
+		if (scheduled.compareAndSet(false, true)) {
+			timer.restart();
+		}
+	}
+
+	/**
+	 * @return the maximum number of lines kept
+	 */
+	public int getMaxLines() {
+		return model.lines.length;
+	}
+
+	/**
+	 * @return the number of lines in the log, not counting the pending messages
+	 */
+	public int getLineCount() {
+		return model.getSize();
+	}
+
+	/**
+	 * @param index the index of the line, 0 being the oldest line kept
+	 * @return the line
+	 */
+	public String getLine(int index) {
+		return (String) model.getElementAt(index);
+	}
+
+	/**
+	 * Adds the pending messages to the log. Must be called on the Swing thread.
+	 */
+	public void flush() {
+		scheduled.set(false);
+		List<String> batch = new ArrayList<String>();
+		for (String msg = pending.poll(); msg != null; msg = pending.poll()) {
+			pendingCount.decrementAndGet();
+			batch.add(msg);
+		}
+		if (batch.isEmpty()) return;
+		widen(batch);
+		model.addAll(batch);
+		list.ensureIndexIsVisible(model.getSize() - 1);
+	}
+
+	/**
+	 * Widens the rows to the longest line of a batch, so that the log scrolls to
+	 * the end of long lines. The rows keep the width of the longest line ever
+	 * logged.
+	 * @param batch the lines added to the log
+	 */
+	private void widen(List<String> batch) {
+		FontMetrics metrics = list.getFontMetrics(list.getFont());
+		String widest = null;
+		for (String line : batch) {
+			int width = line == null ? 0 : metrics.stringWidth(line);
+			if (width > longest) {
+				longest = width;
+				widest = line;
+			}
+		}
+		if (widest != null) {
+			list.setFixedCellWidth(Math.max(list.getFixedCellWidth(), cellSize(widest).width));
+		}
+	}
+
+	/**
+	 * @param line a line of the log
+	 * @return the size of the row showing the line
+	 */
+	private Dimension cellSize(String line) {
+		return list.getCellRenderer().getListCellRendererComponent(list, line, 0, false, false)
+				.getPreferredSize();
+	}
+
+	/**
+	 * The lines of the log, kept in a ring
+	 */
+	private static class LogModel extends AbstractListModel {
+		private static final long serialVersionUID = 1L;
+		private String[] lines;
+		private int first;
+		private int size;
+
+		public LogModel(int maxLines) {
+			this.lines = new String[Math.max(1, maxLines)];
+		}
+
+		@Override
+		public int getSize() {
+			return size;
+		}
+
+		@Override
+		public Object getElementAt(int index) {
+			return lines[(first + index) % lines.length];
+		}
+
+		/**
+		 * Adds lines, forgetting the oldest ones, and notifies the list once
+		 */
+		public void addAll(List<String> batch) {
+			int skip = Math.max(0, batch.size() - lines.length); // would be forgotten right away
+			int removed = Math.max(0, size + batch.size() - skip - lines.length);
+			if (removed > 0) {
+				first = (first + removed) % lines.length;
+				size -= removed;
+				fireIntervalRemoved(this, 0, removed - 1);
+			}
+			int start = size;
+			for (int i = skip; i < batch.size(); i++) {
+				lines[(first + size) % lines.length] = batch.get(i);
+				size++;
+			}
+			fireIntervalAdded(this, start, size - 1);
 		}
 	}
 }
@@ -1,11 +1,11 @@
 package dnd.ui.canvas;
 
-import java.util.Collection;
-import java.util.List;
+import java.util.Collections;
 
 import org.newdawn.slick.Color;
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
 import org.newdawn.slick.Input;
 import org.newdawn.slick.SlickException;
 import org.newdawn.slick.SpriteSheet;
@@ -13,12 +13,13 @@ import org.newdawn.slick.state.BasicGameState;
 import org.newdawn.slick.state.StateBasedGame;
 
 import dnd.game.Entity;
+import dnd.game.Level;
 import dnd.game.Location;
 import dnd.game.Tile;
+import dnd.game.Visibility;
 import dnd.game.World;
-import dnd.game.entity.item.Item;
-import dnd.game.entity.living.NPC;
-import dnd.game.entity.living.Player;
+import dnd.game.sim.HoverInfo;
+import dnd.game.sim.RenderSnapshot;
 
 public abstract class AbstractState extends BasicGameState {
 	private StateBasedGame game;
@@ -28,6 +29,11 @@ public abstract class AbstractState extends BasicGameState {
 	protected SpriteSheet sprites;
 	protected int cameraX;
 	protected int cameraY;
+	private int viewWidth;
+	private int viewHeight;
+	private TileLayerCache tileLayers;
+	private HoverInfo hoverInfo;
+	private Tile[] row; // reused row buffer for drawTiles
 
 	public AbstractState(World world) {
 		this.world = world;
@@ -43,6 +49,8 @@ public abstract class AbstractState extends BasicGameState {
 		GameCanvas.initialize();
 		sprites = new SpriteSheet(GameCanvas.spriteFilename, 
 				GameCanvas.spriteSize, GameCanvas.spriteSize, 0);
+		if (tileLayers != null) tileLayers.dispose();
+		tileLayers = new TileLayerCache(sprites);
 	}
 
 	@Override
@@ -52,9 +60,11 @@ public abstract class AbstractState extends BasicGameState {
 			firstDraw = false;
 		}
 		
-		drawCamera(game, g);
-		drawWorld();
-		drawMouseLocationInfo(game, g);
+		RenderSnapshot snapshot = snapshot();
+		if (snapshot == null || snapshot.getLevel() == null) return;
+		drawCamera(game, g, snapshot);
+		drawWorld(g, snapshot);
+		drawMouseLocationInfo(game, g, snapshot);
 	}
 	
 	@Override
@@ -65,8 +75,19 @@ public abstract class AbstractState extends BasicGameState {
 		return game;
 	}
 
-	protected void drawMouseLocationInfo(GameContainer game, Graphics g) {
-		if (mouseLocation != null && world.getLevel().getCell(mouseLocation) != null) {
+	/**
+	 * Gets the state of the world to draw. By default the world is captured at
+	 * every frame, which suits a world that is not being played.
+	 * @return the snapshot to draw, or null to draw nothing
+	 */
+	protected RenderSnapshot snapshot() {
+		if (hoverInfo == null) hoverInfo = new HoverInfo(world);
+		Location hover = mouseLocation;
+		return RenderSnapshot.capture(world, 0, Collections.<Entity>emptyList(), hover, hoverInfo.get(hover));
+	}
+
+	protected void drawMouseLocationInfo(GameContainer game, Graphics g, RenderSnapshot snapshot) {
+		if (mouseLocation != null && snapshot.getLevel().getCell(mouseLocation) != null) {
 			// draw cell border around active cell (mouse cursor)
 			g.setLineWidth(2);
 			if (game.getInput().isMouseButtonDown(Input.MOUSE_LEFT_BUTTON)) {
@@ -83,32 +104,35 @@ public abstract class AbstractState extends BasicGameState {
 			g.resetTransform();
 			g.setFont(GameCanvas.font);
 			g.setColor(Color.white);
-			g.drawString(cellInformation(), 10, 10);
+			if (snapshot.getHoverInfo() != null) g.drawString(snapshot.getHoverInfo(), 10, 10);
 		}
 	}
 
-	protected void drawWorld() {
+	protected void drawWorld(Graphics g, RenderSnapshot snapshot) {
+		drawTiles(g, snapshot.getLevel(), snapshot.getVisibility());
 		sprites.startUse();
-		drawTiles();
-		drawEntities(world.getItems());
-		drawEntities(world.getPlayers());
-		drawEntities(world.getMonsters());
+		drawEntities(snapshot);
 		sprites.endUse();
 	}
 
-	protected void drawCamera(GameContainer game, Graphics g) {
-		Entity entity = world.getPlayers().size() > 0 ? world.getPlayers().get(0) : null;
-		if (entity instanceof Player) {
-			cameraX = entity.getLocation().getX() * GameCanvas.spriteSize - game.getWidth() / 2;
-			cameraY = entity.getLocation().getY() * GameCanvas.spriteSize - game.getHeight() / 2;
+	protected void drawCamera(GameContainer game, Graphics g, RenderSnapshot snapshot) {
+		Location focus = snapshot.getFocus();
+		if (focus != null) {
+			cameraX = focus.getX() * GameCanvas.spriteSize - game.getWidth() / 2;
+			cameraY = focus.getY() * GameCanvas.spriteSize - game.getHeight() / 2;
 		}
+		viewWidth = game.getWidth();
+		viewHeight = game.getHeight();
 		g.translate(-cameraX, -cameraY);
 	}
 	
 	@Override
 	public void mouseMoved(int oldx, int oldy, int newx, int newy) {
-		mouseLocation = new Location((newx + cameraX) / GameCanvas.spriteSize, 
-									 (newy + cameraY) / GameCanvas.spriteSize);
+		int x = (newx + cameraX) / GameCanvas.spriteSize;
+		int y = (newy + cameraY) / GameCanvas.spriteSize;
+		if (mouseLocation == null || mouseLocation.getX() != x || mouseLocation.getY() != y) {
+			mouseLocation = Location.of(x, y); // only when the mouse enters another cell
+		}
 	}
 
 	@Override
@@ -117,33 +141,86 @@ public abstract class AbstractState extends BasicGameState {
 	}
 	
 	/**
-	 * Draw the Tile map on the canvas
+	 * Draw the Tile map on the canvas, only the cells seen by the camera are drawn
+	 * @param g the graphics to draw with
+	 * @param level the level to draw
+	 * @param visibility the cells to draw, the others are left dark; null to draw them all
+	 */
+	protected void drawTiles(Graphics g, Level level, Visibility visibility) {
+		int x = Math.max(0, floorDiv(cameraX, GameCanvas.spriteSize));
+		int y = Math.max(0, floorDiv(cameraY, GameCanvas.spriteSize));
+		int right = Math.min(level.getWidth(), floorDiv(cameraX + viewWidth - 1, GameCanvas.spriteSize) + 1);
+		int bottom = Math.min(level.getHeight(), floorDiv(cameraY + viewHeight - 1, GameCanvas.spriteSize) + 1);
+		if (visibility != null) { // nothing outside the players' sight is drawn
+			x = Math.max(x, visibility.getX());
+			y = Math.max(y, visibility.getY());
+			right = Math.min(right, visibility.getX() + visibility.getWidth());
+			bottom = Math.min(bottom, visibility.getY() + visibility.getHeight());
+		}
+		int width = right - x;
+		int height = bottom - y;
+		if (width <= 0 || height <= 0) return;
+		if (tileLayers.draw(g, level, x, y, width, height)) { // only the region is drawn, fog its hidden cells
+			if (visibility != null) drawFog(g, visibility, x, y, width, height);
+			return;
+		}
+
+		// no offscreen images, draw the cells one by one
+		if (row == null || row.length < width) {
+			row = new Tile[width];
+		}
+		sprites.startUse();
+		for (int j = y; j < y + height; j++) {
+			level.getRow(j, x, width, row);
+			for (int i = 0; i < width; i++) {
+				if (row[i] == null) continue;
+				if (visibility != null && !visibility.isVisible(x + i, j)) continue;
+				Image sprite = tileLayers.getSprite(row[i]);
+				if (sprite != null) sprite.drawEmbedded((x + i) * GameCanvas.spriteSize, j * GameCanvas.spriteSize, 
+						GameCanvas.spriteSize, GameCanvas.spriteSize);
+			}
+		}
+		sprites.endUse();
+	}
+
+	/**
+	 * Darken the cells of a region that are not visible, over tiles drawn a whole
+	 * layer at a time
 	 */
-	protected void drawTiles() {
-		for (int y = 0; y < world.getLevel().getHeight(); y++) {
-			for (int x = 0; x < world.getLevel().getWidth(); x++) {
-				Tile tile = world.getLevel().getCell(x, y);
-				if (tile == null) continue;
-				if (GameCanvas.tileMap.containsKey(tile)) {
-					renderSprite(x, y, 0, 0, GameCanvas.tileMap.get(tile));
+	private void drawFog(Graphics g, Visibility visibility, int x, int y, int width, int height) {
+		g.setColor(Color.black);
+		for (int j = y; j < y + height; j++) {
+			for (int i = x; i < x + width; i++) {
+				if (!visibility.isVisible(i, j)) {
+					g.fillRect(i * GameCanvas.spriteSize, j * GameCanvas.spriteSize, 
+							GameCanvas.spriteSize, GameCanvas.spriteSize);
 				}
 			}
 		}
 	}
 	
 	/**
-	 * Draw the level's entities on the canvas
-	 * @param collection The collection of entities on the current level
+	 * Draw the level's entities on the canvas, skipping the ones the camera or the players do not see
+	 * @param snapshot The snapshot holding the entities on the current level
 	 */
-	protected void drawEntities(Collection<? extends Entity> collection) {
-		for (Entity e : collection) {
-			if (GameCanvas.entityMap.containsKey(e.getClass())) {
-				Location loc = e.getLocation();
-				renderSprite(loc.getX(), loc.getY(), 0, 0, GameCanvas.entityMap.get(e.getClass()));
-			}
+	protected void drawEntities(RenderSnapshot snapshot) {
+		int size = GameCanvas.spriteSize;
+		Visibility visibility = snapshot.getVisibility();
+		for (int i = 0; i < snapshot.getSpriteCount(); i++) {
+			if (visibility != null && !visibility.isVisible(snapshot.getSpriteX(i), snapshot.getSpriteY(i))) continue;
+			int[] index = GameCanvas.entityMap.get(snapshot.getSpriteType(i));
+			if (index == null) continue;
+			int x = snapshot.getSpriteX(i) * size - cameraX;
+			int y = snapshot.getSpriteY(i) * size - cameraY;
+			if (x + size <= 0 || y + size <= 0 || x >= viewWidth || y >= viewHeight) continue;
+			renderSprite(snapshot.getSpriteX(i), snapshot.getSpriteY(i), 0, 0, index);
 		}
 	}
 	
+	private static int floorDiv(int a, int b) {
+		return a >= 0 ? a / b : -((-a + b - 1) / b);
+	}
+
 	/**
 	 * Render a sprite from the spritesheet at the given location
 	 * @param x The x coordinate to start painting
@@ -155,43 +232,4 @@ public abstract class AbstractState extends BasicGameState {
 	private void renderSprite(int x, int y, int offsetX, int offsetY, int[] index) {
 		sprites.renderInUse(x * GameCanvas.spriteSize + offsetX, y * GameCanvas.spriteSize + offsetY, index[0], index[1]);
 	}
-
-	/**
-	 * Send a signal to move the player by given offset
-	 * @param x The x-axis offset
-	 * @param y The y-axis offset
-	 */
-	protected void movePlayer(int x, int y) {
-		if (!world.isStarted()) return;
-		if (world.getTurnManager().activeEntity() instanceof Player) {
-			if (x == 0 && y == 0) world.getTurnManager().waitTurn();
-			else world.getTurnManager().moveEntity(new Location(x, y));
-		}
-	}
-
-	protected String cellInformation() {
-		String info = "";
-		Tile cell = world.getLevel().getCell(mouseLocation);
-		info += "Tile: " + cell.getName() + "\n";
-		List<Entity> entities = world.getEntitiesAtLocation(mouseLocation);
-		for (Entity e : entities) {
-			info += "Entity: " + e + "\n";
-			info += e.formatModifiers();
-			if (e instanceof NPC) {
-				if (((NPC) e).isAlive()) {
-					info += "Click Action: Attack\n";
-				}
-				else {
-					info += "Click Action: Take Inventory\n";
-				}
-			}
-			else if (e instanceof Item) {
-				info += "Click Action: Use\n";
-			}
-		}
-		if (cell == Tile.DoorClosed || cell == Tile.DoorOpen) {
-			info += "Click Action: Toggle Open\n";
-		}
-		return info;
-	}
 }
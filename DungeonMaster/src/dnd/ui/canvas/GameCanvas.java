@@ -1,7 +1,9 @@
 package dnd.ui.canvas;
 
 import java.awt.Font;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.SlickException;
@@ -17,6 +19,7 @@ import dnd.game.entity.living.Goblin;
 import dnd.game.entity.living.Orc;
 import dnd.game.entity.living.Player;
 import dnd.game.entity.living.Troll;
+import dnd.game.sim.SimulationThread;
 
 /**
  * This class implements the Slick Game interface. It manages painting to the
@@ -33,39 +36,46 @@ public class GameCanvas extends StateBasedGame {
 	public static final int spriteSize = 32;
 	
 	private World world;
+	private SimulationThread simulation;
 
-	// tile and entity map
-	public static HashMap<Tile, int[]> tileMap;
-	public static HashMap<Class<? extends Entity>, int[]> entityMap;
+	// tile and entity map, read only so they can be shared by any number of worlds
+	public static final Map<Tile, int[]> tileMap = createTileMap();
+	public static final Map<Class<? extends Entity>, int[]> entityMap = createEntityMap();
 	
 	// font
 	public static UnicodeFont font;
-	
-	static {
-		initializeEntityMap();
-		initializeTileMap();
-	}
 
 	/**
-	 * Constructor
+	 * Constructor - the states must be added by the caller
 	 * @param world A reference to the {@link World}
 	 */
 	public GameCanvas(World world) {
+		this(world, null);
+	}
+	
+	/**
+	 * Constructor
+	 * @param world A reference to the {@link World}
+	 * @param simulation the thread playing the world, the canvas then starts
+	 *        with the {@link MainState}
+	 */
+	public GameCanvas(World world, SimulationThread simulation) {
 		super(null);
 		this.world = world;
+		this.simulation = simulation;
 	}
 	
 	@Override
 	public void initStatesList(GameContainer container) throws SlickException {
-		addState(new MainState(world));
+		if (simulation != null) addState(new MainState(world, simulation));
 	}
 
 	/**
 	 * Creates the mapping from Tile objects to their mapping in the sprite sheet.
+	 * @return the read only tile map
 	 */
-	static void initializeTileMap() {
-		if (tileMap != null) return;
-		tileMap = new HashMap<Tile, int[]>();
+	private static Map<Tile, int[]> createTileMap() {
+		Map<Tile, int[]> tileMap = new HashMap<Tile, int[]>();
 		tileMap.put(Tile.Rock, new int[]{ 23, 20 });
 		tileMap.put(Tile.Floor, new int[] { 8, 21 });
 		tileMap.put(Tile.StairsDown, new int[] { 12, 21 });
@@ -76,21 +86,23 @@ public class GameCanvas extends StateBasedGame {
 		tileMap.put(Tile.WallBC, new int[] { 34, 20 });
 		tileMap.put(Tile.DoorOpen, new int[] { 3, 21 });
 		tileMap.put(Tile.DoorClosed, new int[] { 4, 21 });
+		return Collections.unmodifiableMap(tileMap);
 	}
 	
 	/**
 	 * Creates the mapping from the Player classes to their mapping in the sprite sheet
 	 * TODO there should be a "getSpriteForEntity" method since players don't necessarily
 	 *      choose a sprite based on the Java class alone.
+	 * @return the read only entity map
 	 */
-	static void initializeEntityMap() {
-		if (entityMap != null) return;
-		entityMap = new HashMap<Class<? extends Entity>, int[]>();
+	private static Map<Class<? extends Entity>, int[]> createEntityMap() {
+		Map<Class<? extends Entity>, int[]> entityMap = new HashMap<Class<? extends Entity>, int[]>();
 		entityMap.put(Player.class, new int[] {16, 8});
 		entityMap.put(Goblin.class, new int[] { 31, 1 });
 		entityMap.put(Troll.class, new int[] { 21, 5 });
 		entityMap.put(Orc.class, new int[] { 33, 1 });
 		entityMap.put(Chest.class, new int[] { 26, 14 });
+		return Collections.unmodifiableMap(entityMap);
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -107,8 +119,6 @@ public class GameCanvas extends StateBasedGame {
 	}
 	
 	static void initialize() {
-		initializeTileMap();
-		initializeEntityMap();
 		initializeFonts();
 	}
 }
@@ -1,20 +1,27 @@
 package dnd.ui.canvas;
 
-import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Input;
-import org.newdawn.slick.SlickException;
-import org.newdawn.slick.state.StateBasedGame;
 
-import dnd.game.Entity;
-import dnd.game.Tile;
 import dnd.game.World;
-import dnd.game.entity.item.Item;
-import dnd.game.entity.living.NPC;
+import dnd.game.sim.Commands;
+import dnd.game.sim.RenderSnapshot;
+import dnd.game.sim.SimulationThread;
 
+/**
+ * The state playing a game. The game runs on a {@link SimulationThread}: this
+ * state draws its snapshots and turns the player's input into commands.
+ */
 public class MainState extends AbstractState {
+	private SimulationThread simulation;
 
-	public MainState(World world) {
+	/**
+	 * Constructor
+	 * @param world A reference to the {@link World}
+	 * @param simulation the thread playing the world
+	 */
+	public MainState(World world, SimulationThread simulation) {
 		super(world);
+		this.simulation = simulation;
 	}
 	
 	@Override
@@ -23,35 +30,29 @@ public class MainState extends AbstractState {
 	}
 	
 	@Override
-	public void update(GameContainer game, StateBasedGame state, int frame) throws SlickException {
-		// finalize turn
-		if (world.isStarted()) {
-			world.getTurnManager().runTurn();
-		}
+	protected RenderSnapshot snapshot() {
+		return simulation.getSnapshot();
+	}
+	
+	@Override
+	public void mouseMoved(int oldx, int oldy, int newx, int newy) {
+		super.mouseMoved(oldx, oldy, newx, newy);
+		simulation.setHoverLocation(mouseLocation);
 	}
 	
 	@Override
 	public void mouseClicked(int button, int x, int y, int clickCount) {
-		if (button != Input.MOUSE_LEFT_BUTTON) return;
-		for (Entity e : world.getEntitiesAtLocation(mouseLocation)) {
-			if (e instanceof NPC) {
-				if (((NPC) e).isAlive()) {
-					world.getTurnManager().attackEntity((NPC)e);
-				}
-				else { // take items if dead
-					world.openInventory(world.getTurnManager().activeEntity(), e);
-				}
-				break;
-			}
-			else if (e instanceof Item) {
-				world.useItem(world.getTurnManager().activeEntity(), (Item)e);
-			}
-		}
-		
-		Tile cell = world.getLevel().getCell(mouseLocation);
-		if (cell == Tile.DoorClosed || cell == Tile.DoorOpen) {
-			world.getTurnManager().toggleDoor(mouseLocation);
-		}
+		if (button != Input.MOUSE_LEFT_BUTTON || mouseLocation == null) return;
+		simulation.submit(Commands.interact(mouseLocation));
+	}
+	
+	/**
+	 * Send a signal to move the player by given offset
+	 * @param x The x-axis offset
+	 * @param y The y-axis offset
+	 */
+	protected void movePlayer(int x, int y) {
+		simulation.submit(Commands.move(x, y));
 	}
 	
 	@Override
@@ -85,4 +86,4 @@ public class MainState extends AbstractState {
 				cameraY++; break;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,202 @@
+package dnd.ui.canvas;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.SpriteSheet;
+import org.newdawn.slick.opengl.pbuffer.GraphicsFactory;
+
+import dnd.game.Level;
+import dnd.game.LevelObserver;
+import dnd.game.Tile;
+
+/**
+ * Keeps the tiles of a level pre-drawn into images of a chunk of cells each, so a
+ * frame draws a few images instead of every visible cell. Only the chunks near the
+ * camera are kept, and a chunk is drawn again when one of its cells changes (for
+ * instance when a door is toggled).
+ *
+ * The images must be drawn and destroyed on the rendering thread, while the cells
+ * may change on any thread, so changes are queued until the next frame.
+ */
+class TileLayerCache implements LevelObserver {
+	static final int CHUNK_SHIFT = 4;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int MAX_CHUNKS = 64;
+
+	private Image[] tileSprites; // by tile ordinal
+	private Level level;
+	private Map<Long, Image> chunks;
+	private Set<Long> stale;
+	private ConcurrentLinkedQueue<Long> changes;
+	private boolean supported = true;
+
+	/**
+	 * Constructor
+	 * @param sprites the sprite sheet holding the tiles
+	 */
+	public TileLayerCache(SpriteSheet sprites) {
+		this.tileSprites = new Image[Tile.values().length];
+		for (Map.Entry<Tile, int[]> entry : GameCanvas.tileMap.entrySet()) {
+			int[] index = entry.getValue();
+			tileSprites[entry.getKey().ordinal()] = sprites.getSprite(index[0], index[1]);
+		}
+		this.chunks = new LinkedHashMap<Long, Image>(MAX_CHUNKS, 0.75f, true); // least recently drawn first
+		this.stale = new HashSet<Long>();
+		this.changes = new ConcurrentLinkedQueue<Long>();
+	}
+
+	/**
+	 * @param tile a tile
+	 * @return the tile's sprite, or null if it has none
+	 */
+	Image getSprite(Tile tile) {
+		return tileSprites[tile.ordinal()];
+	}
+
+	/**
+	 * Draws the chunks covering a region of cells of a level. Only the part of each
+	 * chunk inside the region is drawn, so the cells around a region clipped to the
+	 * players' sight stay dark even when they share a chunk with visible cells.
+	 *
+	 * @param g the graphics to draw with
+	 * @param level the level to draw
+	 * @param x the left column of the region
+	 * @param y the top row of the region
+	 * @param width the number of columns
+	 * @param height the number of rows
+	 * @return false if images cannot be drawn offscreen, the region must then be
+	 *         drawn cell by cell
+	 */
+	public boolean draw(Graphics g, Level level, int x, int y, int width, int height) {
+		if (!supported) return false;
+		if (level != this.level) setLevel(level);
+		applyChanges();
+		int size = GameCanvas.spriteSize;
+		int lastX = (x + width - 1) >> CHUNK_SHIFT;
+		int lastY = (y + height - 1) >> CHUNK_SHIFT;
+		for (int cy = y >> CHUNK_SHIFT; cy <= lastY; cy++) {
+			for (int cx = x >> CHUNK_SHIFT; cx <= lastX; cx++) {
+				Image image = chunk(cx, cy);
+				if (image == null) return false;
+				// the cells of the chunk inside the region
+				int left = Math.max(x, cx << CHUNK_SHIFT);
+				int top = Math.max(y, cy << CHUNK_SHIFT);
+				int right = Math.min(x + width, (cx + 1) << CHUNK_SHIFT);
+				int bottom = Math.min(y + height, (cy + 1) << CHUNK_SHIFT);
+				int srcX = (left - (cx << CHUNK_SHIFT)) * size;
+				int srcY = (top - (cy << CHUNK_SHIFT)) * size;
+				g.drawImage(image, left * size, top * size, right * size, bottom * size,
+						srcX, srcY, srcX + (right - left) * size, srcY + (bottom - top) * size);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Destroys the images and stops tracking the level
+	 */
+	public void dispose() {
+		setLevel(null);
+	}
+
+	@Override
+	public void cellsChanged(Level level, int x, int y, int width, int height) {
+		int lastX = (x + width - 1) >> CHUNK_SHIFT;
+		int lastY = (y + height - 1) >> CHUNK_SHIFT;
+		for (int cy = y >> CHUNK_SHIFT; cy <= lastY; cy++) {
+			for (int cx = x >> CHUNK_SHIFT; cx <= lastX; cx++) {
+				changes.add(key(cx, cy));
+			}
+		}
+	}
+
+	private void setLevel(Level level) {
+		if (this.level != null) this.level.removeObserver(this);
+		for (Image image : chunks.values()) {
+			destroy(image);
+		}
+		chunks.clear();
+		stale.clear();
+		changes.clear();
+		this.level = level;
+		if (level != null) level.addObserver(this);
+	}
+
+	private void applyChanges() {
+		for (Long key = changes.poll(); key != null; key = changes.poll()) {
+			if (chunks.containsKey(key)) stale.add(key);
+		}
+	}
+
+	private static Long key(int cx, int cy) {
+		return Long.valueOf(((long) cy << 32) | (cx & 0xffffffffL));
+	}
+
+	/**
+	 * Gets a chunk's image, drawing it if needed
+	 * @return the image, or null if images cannot be drawn offscreen
+	 */
+	private Image chunk(int cx, int cy) {
+		Long key = key(cx, cy);
+		Image image = chunks.get(key);
+		if (image != null && !stale.remove(key)) return image;
+		try {
+			if (image == null) {
+				if (chunks.size() >= MAX_CHUNKS) evict();
+				int size = CHUNK_SIZE * GameCanvas.spriteSize;
+				image = new Image(size, size);
+				chunks.put(key, image);
+			}
+			paint(image, cx << CHUNK_SHIFT, cy << CHUNK_SHIFT);
+			return image;
+		}
+		catch (SlickException e) {
+			e.printStackTrace();
+			supported = false;
+			setLevel(null);
+			return null;
+		}
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<Long, Image>> it = chunks.entrySet().iterator();
+		Map.Entry<Long, Image> eldest = it.next();
+		stale.remove(eldest.getKey());
+		destroy(eldest.getValue());
+		it.remove();
+	}
+
+	private void paint(Image image, int x, int y) throws SlickException {
+		Graphics g = image.getGraphics();
+		g.clear();
+		int width = Math.min(CHUNK_SIZE, level.getWidth() - x);
+		int height = Math.min(CHUNK_SIZE, level.getHeight() - y);
+		Tile[] row = new Tile[CHUNK_SIZE];
+		for (int j = 0; j < height; j++) {
+			level.getRow(y + j, x, width, row);
+			for (int i = 0; i < width; i++) {
+				if (row[i] == null || tileSprites[row[i].ordinal()] == null) continue;
+				g.drawImage(tileSprites[row[i].ordinal()], i * GameCanvas.spriteSize, j * GameCanvas.spriteSize);
+			}
+		}
+		g.flush();
+	}
+
+	private static void destroy(Image image) {
+		try {
+			GraphicsFactory.releaseGraphicsForImage(image);
+			image.destroy();
+		}
+		catch (SlickException e) {
+			e.printStackTrace();
+		}
+	}
+}
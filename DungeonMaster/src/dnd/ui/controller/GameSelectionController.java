@@ -4,8 +4,10 @@ import java.awt.event.ActionEvent;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 
 import dnd.game.World;
+import dnd.game.mapper.Autosave;
 import dnd.game.mapper.WorldMapper;
 
 /**
@@ -52,7 +54,20 @@ public class GameSelectionController extends SelectionItemController {
 	
 	@Override
 	protected void fileLoaded(File file) throws FileNotFoundException {
-		wizard.setState(new WorldMapper().load(new FileInputStream(file)));
+		World world = null;
+		File autosave = Autosave.autosaveFor(file);
+		if (Autosave.isNewer(autosave, file)) { // the game was played on after it was saved
+			try {
+				world = Autosave.recover(autosave);
+			}
+			catch (IOException e) {
+				world = null;
+			}
+		}
+		if (world == null) {
+			world = new WorldMapper().load(new FileInputStream(file));
+		}
+		wizard.setState(world);
 		wizard.nextController();
 	}
 
@@ -9,8 +9,12 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
@@ -18,6 +22,8 @@ import javax.swing.SwingUtilities;
 
 import org.lwjgl.opengl.Display;
 
+import dnd.game.Dice;
+import dnd.game.Entity;
 import dnd.game.EquipmentSlot;
 import dnd.game.RandomLevelGenerator;
 import dnd.game.World;
@@ -26,14 +32,25 @@ import dnd.game.entity.living.LivingEntity;
 import dnd.game.entity.living.Player;
 import dnd.game.entity.living.PlayerFactory;
 import dnd.game.event.EventObserver;
+import dnd.game.event.EventPipeline;
+import dnd.game.event.EventPipeline.Backpressure;
 import dnd.game.event.GameEvent;
 import dnd.game.event.KilledEntityEvent;
 import dnd.game.event.MovementEvent;
 import dnd.game.event.NextLevelEvent;
 import dnd.game.event.OpenInventoryEvent;
+import dnd.game.mapper.Autosave;
 import dnd.game.mapper.LevelMapper;
 import dnd.game.mapper.PlayerMapper;
 import dnd.game.mapper.WorldMapper;
+import dnd.game.sim.Command;
+import dnd.game.sim.Commands;
+import dnd.game.sim.Recording;
+import dnd.game.sim.RenderSnapshot;
+import dnd.game.sim.SessionRecorder;
+import dnd.game.sim.SimulationThread;
+import dnd.game.sim.TurnPacer;
+import dnd.ui.EntityView;
 import dnd.ui.GameView;
 import dnd.util.FileSaver;
 
@@ -50,9 +67,20 @@ public class GameViewController extends ViewController<GameView> implements Even
 				World world = new World();
 				Player player = new Player();
 				player.setName("Mat");
-				PlayerFactory.getPlayer("tank", 1, player, world.getDice());
+				PlayerFactory.getPlayer("tank", 1, player, world.getDice().stream(Dice.CHARACTERS));
 				world.setLevel(new RandomLevelGenerator().randomLevel(20, 20));
 				world.getPlayers().add(player);
+
+				// save all world elements to temporarily generate load data, before the game
+				// thread owns the world
+				try {
+					new WorldMapper().save(world, new FileOutputStream("world1.world"));
+					new LevelMapper().save(world.getLevel(), new FileOutputStream("level1.lvl"));
+					new PlayerMapper().save(world.getPlayers().get(0), new FileOutputStream("player1.char"));
+				} catch (FileNotFoundException e) {
+					e.printStackTrace();
+				}
+
 				GameViewController ctl = new GameViewController(world);
 				JFrame frame = new JFrame("Dungeon master");
 				frame.addWindowListener(new WindowAdapter() {
@@ -65,15 +93,6 @@ public class GameViewController extends ViewController<GameView> implements Even
 				frame.getContentPane().add(ctl.view);
 				frame.pack();
 				frame.setVisible(true);
-
-				// save all world elements to temporarily generate load data
-				try {
-					new WorldMapper().save(world, new FileOutputStream("world1.world"));
-					new LevelMapper().save(world.getLevel(), new FileOutputStream("level1.lvl"));
-					new PlayerMapper().save(world.getPlayers().get(0), new FileOutputStream("player1.char"));
-				} catch (FileNotFoundException e) {
-					e.printStackTrace();
-				}
 			}
 		});
 	}
@@ -81,18 +100,39 @@ public class GameViewController extends ViewController<GameView> implements Even
 	private MenuBar menuBar;
 	private World world;
 	private String saveFilename;
+	private Autosave autosave;
+	private SessionRecorder recorder;
+	private EventPipeline events;
+	private SimulationThread simulation;
+	private AtomicBoolean refreshQueued;
 
 	/**
-	 * Constructor
+	 * Constructor - the game is played on its own thread from now on
 	 * @param world A reference to a {@link World}
 	 */
 	public GameViewController(World world) {
 		this.world = world;
-		this.view = new GameView(world);
+		this.simulation = new SimulationThread(world);
+		this.refreshQueued = new AtomicBoolean();
+		simulation.setTurnPacer(new TurnPacer(50, 1000));
+		this.view = new GameView(world, simulation);
 		createMenuBar();
 		registerEventHandlers();
-		world.addObserver(this);
+		world.addObserver(NextLevelEvent.class, this);
+		world.addObserver(KilledEntityEvent.class, this);
+		startEventPipeline();
+		simulation.addSnapshotListener(new Runnable() {
+			public void run() {
+				if (refreshQueued.compareAndSet(false, true)) { // at most one refresh waiting on Swing
+					SwingUtilities.invokeLater(new Runnable() {
+						public void run() { refreshEntityViews(); }
+					});
+				}
+			}
+		});
+		recorder = new SessionRecorder(world); // before the simulation thread owns the world
 		world.start();
+		simulation.start();
 	}
 	
 	/**
@@ -104,22 +144,86 @@ public class GameViewController extends ViewController<GameView> implements Even
 	}
 	
 	/**
-	 * Save the game
+	 * Save the game, asking for a file the first time. Must be called on the Swing
+	 * thread; the game is saved by the simulation thread, between two turn steps.
 	 */
 	public void saveGame() {
 		if (saveFilename == null) {
-			saveFilename = FileSaver.saveWorld(world);
+			File file = FileSaver.chooseSaveFile("Saved Games", "world");
+			if (file == null) return;
+			saveFilename = file.getAbsolutePath();
+		}
+		final String filename = saveFilename;
+		simulation.submit(new Command() {
+			public void execute(World world) { save(world, filename); }
+		});
+	}
+	
+	/**
+	 * Saves the world to a file. Called on the simulation thread.
+	 * @param world the world
+	 * @param filename the file to save to
+	 */
+	private void save(World world, String filename) {
+		try {
+			new WorldMapper().save(world, new FileOutputStream(filename));
+		} catch (FileNotFoundException e) {
+			log("Could not save file " + filename);
+			return;
 		}
-		else {
-			try {
-				new WorldMapper().save(world, new FileOutputStream(saveFilename));
-			} catch (FileNotFoundException e) {}
+		log("Saved game");
+		try { // the session from the start of the game, to play it again
+			recorder.save(Recording.recordingFor(new File(filename)));
+		} catch (IOException e) {
+			log("Could not save the recording of the game");
 		}
-		if (saveFilename != null) {
-			log("Saved game");
+		if (autosave == null) { // keep the game saved every turn from now on
+			autosave = new Autosave(world, Autosave.autosaveFor(new File(filename)));
+			autosave.start();
 		}
 	}
 	
+	/**
+	 * Delivers the events to the views on their own threads, so that the game never
+	 * waits for Swing. The log drops the events it has no time for and the entity
+	 * views only catch up with the latest ones. The log view batches the messages
+	 * onto the Swing thread itself.
+	 */
+	private void startEventPipeline() {
+		events = new EventPipeline(world, EventPipeline.DEFAULT_CAPACITY);
+		events.addConsumer("log events", Backpressure.DROP, new EventObserver() {
+			public void eventFired(World world, GameEvent event) {
+				String message = event.toString();
+				log(message);
+			}
+		});
+		events.addConsumer("entity view events", Backpressure.COALESCE, new EventObserver() {
+			public void eventFired(World world, final GameEvent event) {
+				runOnSwing(new Runnable() {
+					public void run() { updateEntityViews(event); }
+				});
+			}
+		});
+		events.start();
+	}
+
+	/**
+	 * Runs a task on the Swing thread and waits for it, so that the consumer
+	 * delivering the events falls behind when Swing does
+	 * @param task the task to run
+	 */
+	private void runOnSwing(Runnable task) {
+		try {
+			SwingUtilities.invokeAndWait(task);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (InvocationTargetException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Log a message to the log view
 	 * @param message The message to display
@@ -157,28 +261,21 @@ public class GameViewController extends ViewController<GameView> implements Even
 
 	private void mainEntityViewChanged(PropertyChangeEvent evt) {
 		if (evt.getPropertyName().equals("use")) { // use item
-			if (!(world.getTurnManager().activeEntity() instanceof Player)) return;
-			world.useItem(world.getPlayers().get(0), (Item)evt.getNewValue());
+			simulation.submit(Commands.useItem((Item)evt.getNewValue()));
 		}
 		else if (evt.getPropertyName().equals("unequip")) { // unequip event, slot in newValue
-			if (!(world.getTurnManager().activeEntity() instanceof Player)) return;
-			world.getTurnManager().unequipSlot((EquipmentSlot)evt.getNewValue());
+			simulation.submit(Commands.unequipSlot((EquipmentSlot)evt.getNewValue()));
 		}
 	}
 
 	private void altEntityViewChanged(PropertyChangeEvent evt) {
 		String prop = evt.getPropertyName();
+		Entity entity = view.getAltEntityView().getEntity();
 		if (prop.equals("use")) { // take item
-			if (!(world.getTurnManager().activeEntity() instanceof Player)) return;
-			world.takeInventoryItem(world.getPlayers().get(0), 
-					view.getAltEntityView().getEntity(), (Item)evt.getNewValue());
+			simulation.submit(Commands.takeItem(entity, (Item)evt.getNewValue()));
 		}
-		else if (prop.equals("unequip")) { // take item in equipped slot
-			if (!(world.getTurnManager().activeEntity() instanceof Player)) return;
-			LivingEntity entity = (LivingEntity)view.getAltEntityView().getEntity();
-			Item item = entity.getInventory().equipmentInSlot((EquipmentSlot)evt.getNewValue());
-			world.takeInventoryItem(world.getPlayers().get(0), entity, item);
-
+		else if (prop.equals("unequip") && entity instanceof LivingEntity) { // take item in equipped slot
+			simulation.submit(Commands.takeEquipped((LivingEntity)entity, (EquipmentSlot)evt.getNewValue()));
 		}
 	}
 
@@ -199,20 +296,45 @@ public class GameViewController extends ViewController<GameView> implements Even
 				
 			}
 		}
-		
+	}
+
+	/**
+	 * Updates the entity views after an event
+	 * @param event the latest event
+	 */
+	private void updateEntityViews(GameEvent event) {
 		if (event instanceof OpenInventoryEvent) { // show inventory view for inventory entity
-			view.getAltEntityView().setEntity(((OpenInventoryEvent) event).getInventoryEntity());
+			showAltEntity(((OpenInventoryEvent) event).getInventoryEntity());
 		}
 		else if (event instanceof MovementEvent) {
 			if (((MovementEvent) event).getEntity() == view.getEntityView().getEntity()) {
-				view.getAltEntityView().setEntity(null); // close inv if movement occurs
+				showAltEntity(null); // close inv if movement occurs
 			}
 		}
 
-		log(event.toString());
-		
 		// always update the entity view
-		view.getEntityView().update();
-		view.getAltEntityView().update();
+		refreshEntityViews();
+	}
+
+	/**
+	 * Shows an entity in the inventory view, and has the simulation capture it
+	 * @param entity the entity, or null to close the view
+	 */
+	private void showAltEntity(Entity entity) {
+		EntityView altView = view.getAltEntityView();
+		if (altView.getEntity() == entity) return;
+		simulation.unwatch(altView.getEntity());
+		altView.setEntity(entity);
+		simulation.watch(entity);
+	}
+
+	/**
+	 * Shows the latest snapshot in the entity views
+	 */
+	private void refreshEntityViews() {
+		refreshQueued.set(false);
+		RenderSnapshot snapshot = simulation.getSnapshot();
+		view.getEntityView().update(snapshot);
+		view.getAltEntityView().update(snapshot);
 	}
 }
@@ -137,11 +137,7 @@ public class LevelEditorController extends ViewController<LevelEditorView> imple
 		Level level = new Level(mapDims.width, mapDims.height);
 
 		// fill level with floor tiles
-		for (int x = 0; x < level.getWidth(); x++) {
-			for (int y = 0; y < level.getHeight(); y++) {
-				level.setCell(x, y, Tile.Floor);
-			}
-		}
+		level.fillRegion(0, 0, level.getWidth(), level.getHeight(), Tile.Floor);
 		
 		return level;
 	}
@@ -0,0 +1,119 @@
+package dnd.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * A buffered reader of the compact binary values written by {@link BinaryOutput}.
+ */
+public class BinaryInput {
+	private ReadableByteChannel channel;
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor
+	 * @param channel the channel to read from
+	 */
+	public BinaryInput(ReadableByteChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(8192);
+		this.buffer.limit(0);
+	}
+
+	/**
+	 * Reads a single byte
+	 * @return the byte, from 0 to 255
+	 * @throws IOException if the channel cannot be read or has ended
+	 */
+	public int readByte() throws IOException {
+		if (!buffer.hasRemaining()) fill();
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * Reads an exact number of bytes
+	 * @param length the number of bytes to read
+	 * @return the bytes
+	 * @throws IOException if the channel cannot be read or has ended
+	 */
+	public byte[] readBytes(int length) throws IOException {
+		byte[] bytes = new byte[length];
+		int offset = 0;
+		while (offset < length) {
+			if (!buffer.hasRemaining()) fill();
+			int count = Math.min(buffer.remaining(), length - offset);
+			buffer.get(bytes, offset, count);
+			offset += count;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Reads a variable length quantity written by {@link BinaryOutput#writeVarInt(int)}
+	 * @return the value
+	 * @throws IOException if the channel cannot be read or the value is malformed
+	 */
+	public int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) return value;
+		}
+		throw new IOException("Malformed variable length integer");
+	}
+
+	/**
+	 * Reads a zig-zag encoded integer written by {@link BinaryOutput#writeSignedVarInt(int)}
+	 * @return the value
+	 * @throws IOException if the channel cannot be read or the value is malformed
+	 */
+	public int readSignedVarInt() throws IOException {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @return the boolean value of the next byte
+	 * @throws IOException if the channel cannot be read or has ended
+	 */
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	/**
+	 * Reads a length prefixed block of bytes
+	 * @param maxLength the largest block length accepted
+	 * @return the bytes
+	 * @throws IOException if the channel cannot be read or the block is too long
+	 */
+	public byte[] readBlock(int maxLength) throws IOException {
+		int length = readVarInt();
+		if (length < 0 || length > maxLength) throw new IOException("Block too long: " + length);
+		return readBytes(length);
+	}
+
+	/**
+	 * Reads a string written by {@link BinaryOutput#writeString(String)}
+	 * @return the string, can be null
+	 * @throws IOException if the channel cannot be read or has ended
+	 */
+	public String readString() throws IOException {
+		int length = readVarInt();
+		if (length == 0) return null;
+		if (length < 0) throw new IOException("Malformed string length");
+		return new String(readBytes(length - 1), BinaryOutput.UTF8);
+	}
+
+	private void fill() throws IOException {
+		buffer.clear();
+		int read = 0;
+		while (read == 0) {
+			read = channel.read(buffer);
+		}
+		buffer.flip();
+		if (read < 0) throw new EOFException();
+	}
+}
@@ -0,0 +1,121 @@
+package dnd.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A buffered writer of compact binary values to an NIO channel. Integers are written
+ * as variable length quantities (7 bits per byte), so small values take a single byte.
+ * 
+ * @see BinaryInput
+ */
+public class BinaryOutput {
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private WritableByteChannel channel;
+	private ByteBuffer buffer;
+
+	/**
+	 * Constructor
+	 * @param channel the channel to write to
+	 */
+	public BinaryOutput(WritableByteChannel channel) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(8192);
+	}
+
+	/**
+	 * Writes a single byte
+	 * @param value the byte to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeByte(int value) throws IOException {
+		if (!buffer.hasRemaining()) flush();
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Writes an array of bytes as is
+	 * @param bytes the bytes to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeBytes(byte[] bytes) throws IOException {
+		int offset = 0;
+		while (offset < bytes.length) {
+			if (!buffer.hasRemaining()) flush();
+			int length = Math.min(buffer.remaining(), bytes.length - offset);
+			buffer.put(bytes, offset, length);
+			offset += length;
+		}
+	}
+
+	/**
+	 * Writes a non negative integer as a variable length quantity
+	 * @param value the value to write, treated as unsigned
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeVarInt(int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		writeByte(value);
+	}
+
+	/**
+	 * Writes a signed integer, zig-zag encoded so small negative values stay small
+	 * @param value the value to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeSignedVarInt(int value) throws IOException {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Writes a boolean as a single byte
+	 * @param value the value to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeBoolean(boolean value) throws IOException {
+		writeByte(value ? 1 : 0);
+	}
+
+	/**
+	 * Writes a length prefixed block of bytes
+	 * @param bytes the bytes to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeBlock(byte[] bytes) throws IOException {
+		writeVarInt(bytes.length);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Writes a UTF-8 string which can be null
+	 * @param value the string to write
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void writeString(String value) throws IOException {
+		if (value == null) {
+			writeVarInt(0);
+			return;
+		}
+		byte[] bytes = value.getBytes(UTF8);
+		writeVarInt(bytes.length + 1);
+		writeBytes(bytes);
+	}
+
+	/**
+	 * Writes all buffered bytes to the channel
+	 * @throws IOException if the channel cannot be written
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -1,5 +1,6 @@
 package dnd.util;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 
@@ -37,21 +38,37 @@ public final class FileSaver {
 	 * @return True if the operation was successful, false otherwise
 	 */
 	public static <T> String saveFileDialog(T object, String description, String extension) {
-		JFileChooser chooser = new JFileChooser(System.getProperty("user.dir") + "/data");
-	    FileNameExtensionFilter filter = new FileNameExtensionFilter(description, extension);
-	    chooser.setFileFilter(filter);
-	    if (chooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
+		File file = chooseSaveFile(description, extension);
+	    if (file != null) {
 	    	try {
-	    		new XmlMapper<T>().save(object, new FileOutputStream(chooser.getSelectedFile()));
-	    		return chooser.getSelectedFile().getAbsolutePath();
+	    		new XmlMapper<T>().save(object, new FileOutputStream(file));
+	    		return file.getAbsolutePath();
 			} catch (FileNotFoundException e) {
 				JOptionPane.showMessageDialog(null, 
-						"Could not save file " + chooser.getSelectedFile().getAbsolutePath());
+						"Could not save file " + file.getAbsolutePath());
 			}
 	    }
 	    return null;
 	}
 	
+	/**
+	 * Creates a dialog asking the user for a file to save to, for an object that
+	 * is saved later on
+	 * 
+	 * @param description A description of the object
+	 * @param extension the file extension related to this object
+	 * @return the file chosen, or null if the user cancelled
+	 */
+	public static File chooseSaveFile(String description, String extension) {
+		JFileChooser chooser = new JFileChooser(System.getProperty("user.dir") + "/data");
+	    FileNameExtensionFilter filter = new FileNameExtensionFilter(description, extension);
+	    chooser.setFileFilter(filter);
+	    if (chooser.showOpenDialog(null) == JFileChooser.APPROVE_OPTION) {
+	    	return chooser.getSelectedFile();
+	    }
+	    return null;
+	}
+	
 	/**
 	 * The "Player" save to file dialog
 	 * 
@@ -1,22 +1,27 @@
 package dnd.util;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
-
 /**
- * Modifier<T> is a HashMap of modifier types to modifier values, with specific
- * additional functionality
-
+ * Modifier<T> maps modifier types to modifier values, with specific additional
+ * functionality. The values are kept in a primitive array indexed by the ordinal
+ * of the modifier type, so reading a delta never boxes or hashes.
+ * 
+ * Once a modifier has been added to a {@link ModifierSet} it should be treated as
+ * a value: the set keeps running totals and does not see later calls to
+ * {@link #setDelta(Enum, int)}.
+ * 
  * @param <T> A modifier type (currently one of AbilityType, DamageType)
  * @see AbilityType
  * @see DamageType
+ * @see ModifierConverter
  * 
  */
-public class Modifier<T> {
+public class Modifier<T extends Enum<T>> {
+	private static final int[] NO_VALUES = new int[0];
+	private static final Enum<?>[] NO_TYPES = new Enum<?>[0];
 
-	private Map<T, Integer> modifications = new HashMap<T, Integer>();
+	// types[i] is the type with ordinal i, or null if this modifier does not set it
+	private Enum<?>[] types = NO_TYPES;
+	private int[] values = NO_VALUES;
 	
 	public Modifier() {
 	}
@@ -39,15 +44,14 @@ public class Modifier<T> {
 	
 
 	/**
-	 * Get the value of a specific modifier in the HashMap
+	 * Get the value of a specific modifier
 	 * 
 	 * @param e The key (modifier type) of the modifier to retrieve
 	 * @return The modifier which corresponds to the key provided
 	 */
 	public int delta(T e) {
-		if (!modifications.containsKey(e))
-			return 0;
-		return modifications.get(e);
+		int i = e.ordinal();
+		return i < values.length ? values[i] : 0;
 	}
 
 	/**
@@ -57,22 +61,55 @@ public class Modifier<T> {
 	 * @param value The value of the modifier to be set
 	 */
 	public void setDelta(T e, int value) {
-		modifications.put(e, value);
+		int i = e.ordinal();
+		if (i >= values.length) {
+			// size for every constant of the enum so this happens at most once
+			int length = Math.max(i + 1, e.getDeclaringClass().getEnumConstants().length);
+			Enum<?>[] newTypes = new Enum<?>[length];
+			int[] newValues = new int[length];
+			System.arraycopy(types, 0, newTypes, 0, types.length);
+			System.arraycopy(values, 0, newValues, 0, values.length);
+			types = newTypes;
+			values = newValues;
+		}
+		types[i] = e;
+		values[i] = value;
+	}
+
+	/**
+	 * @return the length of the ordinal indexed arrays (one more than the largest ordinal set)
+	 */
+	int length() {
+		return values.length;
+	}
+
+	/**
+	 * @param ordinal a modifier type ordinal
+	 * @return the modifier type with the ordinal, or null if it is not set
+	 */
+	@SuppressWarnings("unchecked")
+	T typeAt(int ordinal) {
+		return (T)types[ordinal];
+	}
+
+	/**
+	 * @param ordinal a modifier type ordinal
+	 * @return the value of the modifier type with the ordinal (0 if it is not set)
+	 */
+	int valueAt(int ordinal) {
+		return values[ordinal];
 	}
 
 	@Override
 	public String toString() {
-		String str = "";
-	    Iterator<Entry<T, Integer>> it = modifications.entrySet().iterator();
-	    int i = 0;
-	    while (it.hasNext()) {
-	    	if (i++ > 0) {
-	    		str += ", ";
-	    	}
-	        @SuppressWarnings("rawtypes")
-			Map.Entry pairs = (Map.Entry)it.next();
-	        str += pairs.getKey() + ":" + pairs.getValue();
-	    }
-		return  str;
+		StringBuilder str = new StringBuilder();
+		for (int i = 0; i < types.length; i++) {
+			if (types[i] == null) continue;
+			if (str.length() > 0) {
+				str.append(", ");
+			}
+			str.append(types[i]).append(":").append(values[i]);
+		}
+		return str.toString();
 	}
 }
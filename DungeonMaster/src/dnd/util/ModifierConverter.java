@@ -0,0 +1,81 @@
+package dnd.util;
+
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.mapper.Mapper;
+
+/**
+ * Converts {@link Modifier} objects to and from the XML format they had when they
+ * were backed by a HashMap, so files saved by older versions still load and files
+ * saved now can be read by them:
+ * 
+ * <pre>
+ * &lt;dnd.util.Modifier&gt;
+ *   &lt;modifications&gt;
+ *     &lt;entry&gt;&lt;dnd.game.AbilityType&gt;HP&lt;/dnd.game.AbilityType&gt;&lt;int&gt;-7&lt;/int&gt;&lt;/entry&gt;
+ *   &lt;/modifications&gt;
+ * &lt;/dnd.util.Modifier&gt;
+ * </pre>
+ */
+public class ModifierConverter implements Converter {
+	private Mapper mapper;
+
+	/**
+	 * Constructor
+	 * @param mapper the xStream mapper used to name the modifier type classes
+	 */
+	public ModifierConverter(Mapper mapper) {
+		this.mapper = mapper;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public boolean canConvert(Class type) {
+		return type == Modifier.class;
+	}
+
+	@Override
+	public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
+		Modifier<?> mod = (Modifier<?>) source;
+		writer.startNode("modifications");
+		for (int i = 0; i < mod.length(); i++) {
+			Enum<?> type = mod.typeAt(i);
+			if (type == null) continue;
+			writer.startNode("entry");
+			writer.startNode(mapper.serializedClass(type.getDeclaringClass()));
+			writer.setValue(type.name());
+			writer.endNode();
+			writer.startNode("int");
+			writer.setValue(Integer.toString(mod.valueAt(i)));
+			writer.endNode();
+			writer.endNode();
+		}
+		writer.endNode();
+	}
+
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
+		Modifier mod = new Modifier();
+		while (reader.hasMoreChildren()) {
+			reader.moveDown(); // modifications
+			while (reader.hasMoreChildren()) {
+				reader.moveDown(); // entry
+				reader.moveDown();
+				Class<? extends Enum> typeClass = mapper.realClass(reader.getNodeName());
+				Enum type = Enum.valueOf(typeClass, reader.getValue());
+				reader.moveUp();
+				reader.moveDown();
+				int value = Integer.parseInt(reader.getValue());
+				reader.moveUp();
+				mod.setDelta(type, value);
+				reader.moveUp();
+			}
+			reader.moveUp();
+		}
+		return mod;
+	}
+}
@@ -1,24 +1,28 @@
 package dnd.util;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
 /**
- * ModifierSet<T> is a List of Modifier<T> which is itself essentially a HashMap
+ * ModifierSet<T> is a List of Modifier<T> which is itself essentially a map
  * of modifier types to modifier values.
  * 
- * Note that this classe's implementation assumes the Modifier<T> has only one
- * item in its HashMap, but this isn't always guaranteed
+ * The set keeps a running total per modifier type ordinal which is updated as
+ * modifiers are added and removed, so {@link #delta(Enum)} is a single array read.
+ * The totals are not saved; they are rebuilt from the modifiers after loading.
  * 
  * @param <T> A modifier type (currently one of AbilityType, DamageType)
  * @see AbilityType
  * @see DamageType
  * 
  */
-public class ModifierSet<T> implements Iterable<Modifier<T>> {
+public class ModifierSet<T extends Enum<T>> implements Iterable<Modifier<T>> {
 	
 	private List<Modifier<T>> modifiers = new ArrayList<Modifier<T>>();
+	private transient int version;
+	private transient int[] totals;
 	
 	/**
 	 * Convenience method to add a list of modifier values without creating an intermediate
@@ -40,6 +44,8 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	public void add(Modifier<T> mod) {
 		if (mod == null) return;
 		modifiers.add(mod);
+		accumulate(mod, 1);
+		version++;
 	}
 	
 	/**
@@ -49,8 +55,11 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	 */
 	public void add(ModifierSet<T> set) {
 		for (Modifier<T> mod : set) {
+			if (mod == null) continue;
 			modifiers.add(mod);
+			accumulate(mod, 1);
 		}
+		version++;
 	}
 	
 	/**
@@ -59,7 +68,10 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	 * @param mod
 	 */
 	public void remove(Modifier<T> mod) {
-		modifiers.remove(mod);
+		if (modifiers.remove(mod)) {
+			accumulate(mod, -1);
+			version++;
+		}
 	}
 	
 	/**
@@ -69,8 +81,11 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	 */
 	public void remove(ModifierSet<T> set) {
 		for (Modifier<T> mod : set) {
-			modifiers.remove(mod);
+			if (modifiers.remove(mod)) {
+				accumulate(mod, -1);
+			}
 		}
+		version++;
 	}
 	
 	/**
@@ -78,6 +93,8 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	 */
 	public void clear() {
 		modifiers.clear();
+		totals = null;
+		version++;
 	}
 	
 	/**
@@ -89,11 +106,53 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 	 * @return The sum of the modifiers
 	 */
 	public int delta(T type) {
-		int total = 0;
-		for (Modifier<T> mod : modifiers) {
-			total += mod.delta(type);
+		int[] sums = totals();
+		int i = type.ordinal();
+		return i < sums.length ? sums[i] : 0;
+	}
+	
+	/**
+	 * Returns the running totals, rebuilding them if they are not known yet (after
+	 * the set was cleared or loaded)
+	 * @return the totals indexed by modifier type ordinal
+	 */
+	private int[] totals() {
+		if (totals == null) {
+			totals = new int[0];
+			for (Modifier<T> mod : modifiers) {
+				if (mod != null) accumulate(mod, 1);
+			}
+		}
+		return totals;
+	}
+	
+	/**
+	 * Adds or subtracts a modifier's values to or from the running totals
+	 * @param mod the modifier
+	 * @param sign 1 to add the modifier, -1 to subtract it
+	 */
+	private void accumulate(Modifier<T> mod, int sign) {
+		if (totals == null) return; // rebuilt on the next read
+		if (mod.length() > totals.length) {
+			int[] grown = new int[mod.length()];
+			System.arraycopy(totals, 0, grown, 0, totals.length);
+			totals = grown;
 		}
-		return total;
+		for (int i = 0; i < mod.length(); i++) {
+			totals[i] += sign * mod.valueAt(i);
+		}
+	}
+	
+	/**
+	 * Get the modification count of this set. The count goes up every time a modifier
+	 * is added or removed, so caches of {@link #delta(Enum)} totals can check whether
+	 * they are still valid. Modifiers are treated as values: changing a modifier after
+	 * it was added to a set does not change the count.
+	 * 
+	 * @return the modification count
+	 */
+	public int getVersion() {
+		return version;
 	}
 	
 	/**
@@ -116,7 +175,7 @@ public class ModifierSet<T> implements Iterable<Modifier<T>> {
 
 	@Override
 	public Iterator<Modifier<T>> iterator() {
-		return modifiers.iterator();
+		return Collections.unmodifiableList(modifiers).iterator();
 	}
 	
 	@Override
@@ -26,6 +26,7 @@ public class XmlMapper<T> implements IMapper<T> {
 	 */
 	public XmlMapper() {
 		this.xstream = new XStream(new StaxDriver());
+		this.xstream.registerConverter(new ModifierConverter(xstream.getMapper()));
 	}
 
 	/**
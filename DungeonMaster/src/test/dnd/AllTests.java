@@ -5,16 +5,30 @@ import org.junit.runners.Suite;
 
 import test.dnd.game.TestBaseAttackBonus;
 import test.dnd.game.TestDice;
+import test.dnd.game.TestDiceDistribution;
 import test.dnd.game.TestInventory;
 import test.dnd.game.TestLevel;
 import test.dnd.game.TestLivingEntity;
 import test.dnd.game.TestLocation;
 import test.dnd.game.TestNextLevelTrait;
+import test.dnd.game.TestPathFinder;
+import test.dnd.game.TestFieldOfView;
 import test.dnd.game.TestPlayerBuilder;
 import test.dnd.game.TestPlayerFactory;
 import test.dnd.game.TestTile;
 import test.dnd.game.TestTrace;
 import test.dnd.game.TestWorld;
+import test.dnd.game.event.TestEventBus;
+import test.dnd.game.event.TestEventPipeline;
+import test.dnd.game.mapper.TestAutosave;
+import test.dnd.game.mapper.TestBinaryMapper;
+import test.dnd.game.sim.TestBatchSimulator;
+import test.dnd.game.sim.TestHoverInfo;
+import test.dnd.game.sim.TestMacroBenchmark;
+import test.dnd.game.sim.TestReplay;
+import test.dnd.game.sim.TestSimulationRunner;
+import test.dnd.game.sim.TestSimulationThread;
+import test.dnd.ui.TestLogView;
 import test.dnd.ui.controller.TestWizardController;
 import test.dnd.util.TestModifierSet;
 import test.dnd.util.TestXmlMapper;
@@ -24,7 +38,12 @@ import test.dnd.util.TestXmlMapper;
 @Suite.SuiteClasses({TestInventory.class, TestLevel.class, TestTile.class,
 	TestNextLevelTrait.class, TestWorld.class, TestLivingEntity.class, TestPlayerBuilder.class,
 	TestTrace.class, TestLocation.class, TestPlayerFactory.class, TestBaseAttackBonus.class,
-	TestModifierSet.class, TestXmlMapper.class, TestWizardController.class, TestDice.class})
+	TestModifierSet.class, TestXmlMapper.class, TestWizardController.class, TestDice.class, TestDiceDistribution.class,
+	TestSimulationRunner.class,
+	TestBatchSimulator.class, TestBinaryMapper.class,
+	TestAutosave.class, TestPathFinder.class, TestFieldOfView.class, TestEventBus.class,
+	TestEventPipeline.class, TestLogView.class, TestSimulationThread.class,
+	TestHoverInfo.class, TestReplay.class, TestMacroBenchmark.class})
 
 public class AllTests {
 }
\ No newline at end of file
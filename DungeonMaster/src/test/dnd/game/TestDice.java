@@ -2,6 +2,7 @@ package test.dnd.game;
 
 import static org.junit.Assert.*;
 
+import java.io.IOException;
 import java.util.Random;
 
 import org.junit.Test;
@@ -37,4 +38,59 @@ public class TestDice {
 	@Test public void statRollRolls4Dice() {
 		assertEquals(18, dice.abilityRoll());
 	}
+	
+	@Test public void bulkRollMatchesSingleRolls() {
+		Dice first = new Dice(42);
+		Dice second = new Dice(42);
+		int[] rolls = new int[100];
+		first.roll(2, 6, 1, rolls);
+		for (int roll : rolls) {
+			assertEquals(second.roll(2, 6, 1), roll);
+			assertTrue(roll >= 3 && roll <= 13);
+		}
+	}
+	
+	@Test public void streamsDoNotDependOnOtherRolls() {
+		Dice first = new Dice(7);
+		Dice second = new Dice(7);
+		first.roll(1, 20);
+		first.stream(Dice.AI).roll(3, 6);
+		for (int i = 0; i < 20; i++) {
+			assertEquals(second.stream(Dice.LOOT).roll(1, 100), first.stream(Dice.LOOT).roll(1, 100));
+		}
+		assertSame(first.stream(Dice.LOOT), first.stream(Dice.LOOT));
+	}
+	
+	@Test public void stateRestoresStreams() throws IOException {
+		Dice dice = new Dice(3);
+		dice.stream(Dice.COMBAT).roll(5, 20);
+		byte[] state = dice.getState();
+		int expected = dice.stream(Dice.COMBAT).roll(1, 1000);
+		Dice restored = new Dice();
+		restored.setState(state);
+		assertEquals(expected, restored.stream(Dice.COMBAT).roll(1, 1000));
+	}
+	
+	@Test public void combatIsTheCombatStream() throws IOException {
+		Dice dice = new Dice(3);
+		assertSame(dice.stream(Dice.COMBAT), dice.combat());
+		dice.combat().roll(5, 20);
+		byte[] state = dice.getState();
+		int expected = dice.combat().roll(1, 1000);
+		Dice restored = new Dice();
+		restored.combat().roll(1, 20);
+		restored.setState(state);
+		assertSame(restored.stream(Dice.COMBAT), restored.combat());
+		assertEquals(expected, restored.combat().roll(1, 1000));
+	}
+	
+	@Test public void splitDiceRollIndependently() {
+		Dice dice = new Dice(11);
+		Dice split = dice.split();
+		int same = 0;
+		for (int i = 0; i < 100; i++) {
+			if (dice.roll(1, 1000) == split.roll(1, 1000)) same++;
+		}
+		assertTrue(same < 5);
+	}
 }
@@ -0,0 +1,75 @@
+package test.dnd.game;
+
+import static dnd.game.AbilityType.STR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import dnd.game.DiceDistribution;
+import dnd.game.World;
+import dnd.game.entity.item.Weapon;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+
+public class TestDiceDistribution {
+	private static final double EPSILON = 1e-9;
+
+	@Test public void twoDiceSumsAreExact() {
+		DiceDistribution roll = DiceDistribution.of(2, 6, 0);
+		assertEquals(2, roll.min());
+		assertEquals(12, roll.max());
+		assertEquals(6.0 / 36, roll.probability(7), EPSILON);
+		assertEquals(1.0 / 36, roll.probability(12), EPSILON);
+		assertEquals(0, roll.probability(13), EPSILON);
+		assertEquals(7, roll.mean(), EPSILON);
+	}
+
+	@Test public void probabilitiesAddUpToOne() {
+		DiceDistribution roll = DiceDistribution.of(7, 8, -3);
+		double sum = 0;
+		for (int value = roll.min(); value <= roll.max(); value++) {
+			sum += roll.probability(value);
+		}
+		assertEquals(1, sum, EPSILON);
+		assertEquals(7 * 4.5 - 3, roll.mean(), EPSILON);
+	}
+
+	@Test public void modifierShiftsTheRoll() {
+		DiceDistribution roll = DiceDistribution.of(1, 20, 5);
+		assertEquals(6, roll.min());
+		assertEquals(25, roll.max());
+		assertEquals(0.5, roll.atLeast(16), EPSILON);
+		assertEquals(0.25, roll.atMost(10), EPSILON);
+		assertEquals(1, roll.atLeast(-4), EPSILON);
+	}
+
+	@Test public void rollsAreCached() {
+		assertSame(DiceDistribution.of(3, 6, 0), DiceDistribution.of(3, 6, 0));
+	}
+
+	@Test public void abilityRollDropsTheLowestDie() {
+		DiceDistribution roll = DiceDistribution.abilityRoll();
+		assertEquals(3, roll.min());
+		assertEquals(18, roll.max());
+		assertEquals(1.0 / 1296, roll.probability(3), EPSILON);
+		assertEquals(21.0 / 1296, roll.probability(18), EPSILON);
+		assertEquals(15869.0 / 1296, roll.mean(), EPSILON);
+	}
+
+	@Test public void attackOddsFollowTheAttackRules() {
+		World world = new World();
+		Player player = new Player();
+		player.setLevel(1);
+		player.getBaseAbilityModifiers().add(STR, 14);
+		Weapon sword = new Weapon("Sword", 8, 0);
+		player.getInventory().addItem(sword);
+		player.getInventory().equipItem(sword);
+		NPC monster = new NPC();
+
+		// 1d20 + 1 base + 2 for a strength of 14, against armor class 10
+		assertEquals(0.7, world.getAttackManager().hitChance(player, monster, 1), EPSILON);
+		assertEquals(6.5, world.getAttackManager().damageDistribution(player).mean(), EPSILON);
+		assertEquals(0.7 * 6.5, world.getAttackManager().expectedDamage(player, monster), EPSILON);
+	}
+}
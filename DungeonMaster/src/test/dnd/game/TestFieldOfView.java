@@ -0,0 +1,81 @@
+package test.dnd.game;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dnd.game.FieldOfView;
+import dnd.game.Level;
+import dnd.game.Tile;
+import dnd.game.Visibility;
+import dnd.game.World;
+import dnd.game.entity.living.Orc;
+import dnd.game.entity.living.Player;
+
+public class TestFieldOfView {
+	private World world = new World();
+	private Level level = new Level(7, 5);
+	private FieldOfView view;
+	private Player player = new Player();
+
+	@Before public void start() {
+		// a wall down the middle with a closed door at the bottom
+		level.fillRegion(0, 0, 7, 5, Tile.Floor);
+		level.fillRegion(3, 0, 1, 4, Tile.WallV);
+		level.setCell(3, 4, Tile.DoorClosed);
+		world.setLevel(level);
+		view = world.getFieldOfView();
+		player.setLocation(1, 2);
+	}
+
+	@Test public void wallBlocksSight() {
+		assertTrue(view.canSee(player, 0, 0));
+		assertTrue(view.canSee(player, 2, 4));
+		assertTrue(view.canSee(player, 3, 2)); // the wall itself is seen
+		assertFalse(view.canSee(player, 5, 2));
+		assertFalse(view.canSee(player, 4, 4));
+		assertEquals(3 * 5 + 5, view.getVisibility(player).count());
+	}
+
+	@Test public void openedDoorRevealsCells() {
+		Visibility before = view.getVisibility(player);
+		level.setCell(3, 4, Tile.DoorOpen);
+		assertNotSame(before, view.getVisibility(player));
+		assertTrue(view.canSee(player, 4, 4));
+		assertFalse(before.isVisible(4, 4)); // visibilities already handed out do not change
+	}
+
+	@Test public void unrelatedChangeKeepsView() {
+		FieldOfView far = new FieldOfView(level, 1);
+		Visibility before = far.getVisibility(player);
+		level.setCell(6, 0, Tile.Rock);
+		assertSame(before, far.getVisibility(player));
+		far.dispose();
+	}
+
+	@Test public void movingUpdatesView() {
+		assertFalse(view.canSee(player, 6, 0));
+		player.setLocation(5, 2);
+		assertTrue(view.canSee(player, 6, 0));
+		assertFalse(view.canSee(player, 1, 2));
+	}
+
+	@Test public void sightIsLimitedByRadius() {
+		FieldOfView near = new FieldOfView(level, 1);
+		assertTrue(near.canSee(player, 2, 3));
+		assertFalse(near.canSee(player, 0, 0));
+		near.dispose();
+	}
+
+	@Test public void viewsAreJoined() {
+		Orc orc = new Orc();
+		orc.setLocation(5, 2);
+		Visibility both = view.getVisibility(Arrays.asList(player, orc));
+		assertTrue(both.isVisible(0, 0));
+		assertTrue(both.isVisible(6, 4));
+		assertEquals(level.getWidth() * level.getHeight(), both.count());
+	}
+}
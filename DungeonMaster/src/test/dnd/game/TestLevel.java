@@ -2,13 +2,22 @@ package test.dnd.game;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import dnd.game.Level;
+import dnd.game.LevelObserver;
 import dnd.game.Location;
 import dnd.game.Tile;
 import dnd.game.World;
+import dnd.game.mapper.LevelMapper;
 import dnd.game.entity.living.Player;
 
 public class TestLevel {
@@ -48,4 +57,102 @@ public class TestLevel {
 	@Test public void locationInBoundsTrueWhenInBounds() {
 		assertTrue(level.locationInBounds(new Location(1, 0)));
 	}
+	
+	@Test public void getCellOutsideLevelIsNull() {
+		assertNull(level.getCell(2, 0));
+		assertNull(level.getCell(-1, 1));
+		assertNull(level.getCell(new Location(0, 5)));
+		assertEquals(Tile.WallV, level.getCell(0, 1));
+	}
+	
+	@Test public void regionAccessorsMatchCells() {
+		Level big = new Level(4, 3);
+		big.fillRegion(0, 0, 4, 3, Tile.Floor);
+		big.fillRegion(1, 1, 2, 2, Tile.Rock);
+		Tile[] row = new Tile[4];
+		big.getRow(1, 0, 4, row);
+		assertArrayEquals(new Tile[] { Tile.Floor, Tile.Rock, Tile.Rock, Tile.Floor }, row);
+		
+		big.setRow(0, 2, 2, new Tile[] { Tile.WallH, Tile.DoorOpen });
+		Tile[] region = new Tile[4];
+		big.getRegion(2, 0, 2, 2, region);
+		assertArrayEquals(new Tile[] { Tile.WallH, Tile.DoorOpen, Tile.Rock, Tile.Floor }, region);
+		assertEquals(Tile.DoorOpen, big.getCell(3, 0));
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void regionOutsideLevelThrows() {
+		level.getRow(1, 1, 2, new Tile[2]);
+	}
+	
+	@Test public void savedLevelKeepsTiles() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new LevelMapper().save(level, out);
+		assertTrue(new String(out.toByteArray()).contains("<tiles><dnd.game.Tile-array>"));
+		Level loaded = new LevelMapper().load(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(Tile.Floor, loaded.getCell(0, 0));
+		assertEquals(Tile.WallV, loaded.getCell(0, 1));
+		assertEquals(Tile.DoorOpen, loaded.getCell(1, 0));
+		assertEquals(Tile.StairsDown, loaded.getCell(1, 1));
+	}
+	
+	@Test public void fileBackedLevelKeepsTilesWhenReopened() throws IOException {
+		File file = File.createTempFile("level", ".cells");
+		file.deleteOnExit();
+		Level big = new Level(3000, 2000, file);
+		assertNull(big.getCell(2999, 1999));
+		big.setCell(2999, 1999, Tile.StairsDown);
+		big.fillRegion(60, 10, 10, 1, Tile.Floor);
+		big.close();
+		
+		Level reopened = new Level(3000, 2000, file);
+		assertEquals(Tile.StairsDown, reopened.getCell(2999, 1999));
+		Tile[] row = new Tile[12];
+		reopened.getRow(10, 59, 12, row);
+		assertNull(row[0]);
+		assertEquals(Tile.Floor, row[1]);
+		assertEquals(Tile.Floor, row[10]);
+		assertNull(row[11]);
+		reopened.close();
+		file.delete();
+	}
+
+	@Test public void observersAddedFromSeveralThreadsAreAllKept() throws InterruptedException {
+		final Level shared = new Level(4, 4);
+		final AtomicInteger notified = new AtomicInteger();
+		final CountDownLatch go = new CountDownLatch(1);
+		Thread[] threads = new Thread[8];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						go.await();
+					}
+					catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < 100; i++) {
+						shared.addObserver(new LevelObserver() {
+							@Override
+							public void cellsChanged(Level level, int x, int y, int width, int height) {
+								notified.incrementAndGet();
+							}
+						});
+					}
+				}
+			};
+			threads[t].start();
+		}
+		go.countDown();
+		for (int i = 0; i < 1000; i++) {
+			shared.setCell(i % 4, 0, Tile.Floor); // notifies while the list grows
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		notified.set(0);
+		shared.setCell(0, 0, Tile.Rock);
+		assertEquals(800, notified.get());
+	}
 }
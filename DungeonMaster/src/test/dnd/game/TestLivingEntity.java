@@ -13,10 +13,12 @@ import static org.junit.Assert.assertEquals;
 
 import org.junit.Test;
 
+import dnd.game.AbilityType;
 import dnd.game.entity.item.Armor;
 import dnd.game.entity.item.EquippableItem;
 import dnd.game.entity.item.Shield;
 import dnd.game.entity.living.Player;
+import dnd.util.Modifier;
 
 public class TestLivingEntity {
 	@Test public void abilityModifierAdjustmentsOnBaseline() {
@@ -45,6 +47,26 @@ public class TestLivingEntity {
 		assertEquals(11, player.armorClass()); // 10 + 4armor + 1shield - 4dex
 	}
 	
+	@Test public void cachedStatsFollowEquipmentAndModifiers() {
+		EquippableItem armor = new Armor(4);
+		Player player = new Player();
+		player.getInventory().addItem(armor);
+		assertEquals(10, player.armorClass());
+		player.getInventory().equipItem(armor);
+		assertEquals(14, player.armorClass());
+		assertEquals(4, player.damageDelta(ARMOR));
+		
+		Modifier<AbilityType> potion = new Modifier<AbilityType>(DEX, 2);
+		player.getBaseAbilityModifiers().add(potion);
+		assertEquals(16, player.armorClass());
+		player.getBaseAbilityModifiers().remove(potion);
+		assertEquals(14, player.armorClass());
+		
+		player.getInventory().unequipItem(armor);
+		assertEquals(10, player.armorClass());
+		assertEquals(0, player.damageDelta(ARMOR));
+	}
+	
 	@Test public void totalHPBasedOnStats() {
 		Player player = new Player();
 		player.getBaseAbilityModifiers().add(HP, 10);
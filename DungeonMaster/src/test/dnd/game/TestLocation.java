@@ -2,6 +2,9 @@ package test.dnd.game;
 
 import static org.junit.Assert.*;
 
+import java.util.HashSet;
+import java.util.Set;
+
 import org.junit.Test;
 
 import dnd.game.Location;
@@ -27,9 +30,38 @@ public class TestLocation {
 		assertEquals(0, loc1.distanceTo(loc2));
 	}
 	
+	@Test public void distanceCountsDiagonalMovesOnce() {
+		assertEquals(5, Location.distance(1, 1, 6, 3));
+		assertEquals(5, Location.distance(6, 3, 1, 1));
+		assertEquals(4, new Location(-2, 0).distanceTo(new Location(2, -1)));
+	}
+
 	@Test public void addLocations() {
 		Location loc1 = new Location(1, 4);
 		Location loc2 = new Location(2, 3);
 		assertEquals(new Location(3, 7), loc1.add(loc2));
 	}
+
+	@Test public void equalLocationsHaveEqualHashCodes() {
+		Location loc1 = new Location(3, -7);
+		Location loc2 = new Location(3, -7);
+		assertEquals(loc1, loc2);
+		assertEquals(loc1.hashCode(), loc2.hashCode());
+		Set<Location> cells = new HashSet<Location>();
+		cells.add(loc1);
+		assertTrue(cells.contains(loc2));
+		assertFalse(cells.contains(new Location(-7, 3)));
+	}
+
+	@Test public void smallLocationsAreShared() {
+		assertSame(Location.of(4, 5), Location.of(4, 5));
+		assertSame(Location.of(1, 1), new Location(0, 1).add(1, 0));
+		assertEquals(new Location(100000, 2), Location.of(100000, 2));
+	}
+
+	@Test public void packedLocationsUnpack() {
+		Location loc = new Location(-5, 123456);
+		assertEquals(loc, Location.unpack(loc.pack()));
+		assertTrue(new Location(1, 2).pack() != new Location(2, 1).pack());
+	}
 }
@@ -0,0 +1,92 @@
+package test.dnd.game;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.PathFinder;
+import dnd.game.Tile;
+import dnd.game.World;
+
+public class TestPathFinder {
+	private World world = new World();
+	private Level level = new Level(7, 5);
+	private PathFinder finder;
+
+	@Before public void start() {
+		// a wall down the middle with a closed door at the bottom
+		level.fillRegion(0, 0, 7, 5, Tile.Floor);
+		level.fillRegion(3, 0, 1, 4, Tile.WallV);
+		level.setCell(3, 4, Tile.DoorClosed);
+		world.setLevel(level);
+		finder = world.getPathFinder();
+	}
+
+	@Test public void closedDoorBlocksPath() {
+		assertFalse(finder.isPassable(3, 4));
+		assertNull(finder.findPath(new Location(1, 2), new Location(5, 2)));
+	}
+
+	@Test public void openedDoorInvalidatesGrid() {
+		int version = finder.getVersion();
+		level.setCell(3, 4, Tile.DoorOpen);
+		assertTrue(finder.getVersion() != version);
+		assertTrue(finder.isPassable(3, 4));
+
+		List<Location> path = finder.findPath(new Location(1, 2), new Location(5, 2));
+		assertNotNull(path);
+		assertEquals(new Location(5, 2), path.get(path.size() - 1));
+		assertTrue(path.contains(new Location(3, 4)));
+		Location previous = new Location(1, 2);
+		for (Location step : path) {
+			assertEquals(1, previous.distanceTo(step));
+			assertTrue(finder.isPassable(step.getX(), step.getY()));
+			previous = step;
+		}
+	}
+
+	@Test public void pathIsShortest() {
+		List<Location> path = finder.findPath(new Location(0, 0), new Location(2, 4));
+		assertEquals(4, path.size());
+	}
+
+	@Test public void endMayBeImpassable() {
+		List<Location> path = finder.findPath(new Location(1, 1), new Location(3, 1));
+		assertEquals(2, path.size());
+		assertEquals(new Location(3, 1), path.get(1));
+	}
+
+	@Test public void searchIsLimitedToRadius() {
+		Level wide = new Level(50, 1);
+		wide.fillRegion(0, 0, 50, 1, Tile.Floor);
+		PathFinder near = new PathFinder(world, wide, null, 10);
+		assertNotNull(near.findPath(new Location(0, 0), new Location(10, 0)));
+		assertNull(near.findPath(new Location(0, 0), new Location(11, 0)));
+	}
+
+	@Test public void newLevelGetsNewPathFinder() {
+		world.setLevel(new Level(2, 2));
+		assertNotSame(finder, world.getPathFinder());
+	}
+
+	@Test public void onlyChunksOfRecentSearchesAreKept() {
+		Level large = new Level(4096, 4096);
+		large.fillRegion(0, 0, 4096, 4096, Tile.Floor);
+		PathFinder far = new PathFinder(world, large, null, 8);
+		for (int cy = 0; cy < 64; cy++) {
+			for (int cx = 0; cx < 64; cx++) { // one search in each of the 4096 chunks
+				Location start = new Location(cx * 64 + 20, cy * 64 + 20);
+				assertNotNull(far.findPath(start, start.add(3, 3)));
+			}
+		}
+		assertTrue(far.getChunkCount() < 2048);
+		List<Location> path = far.findPath(new Location(20, 20), new Location(23, 23)); // dropped and rebuilt
+		assertEquals(3, path.size());
+		assertEquals(new Location(23, 23), path.get(2));
+	}
+}
@@ -13,9 +13,9 @@ import dnd.game.entity.living.Troll;
 
 public class TestPlayerFactory {
 	@Test public void factoryCreatesNPCs() {
-		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(1)) instanceof Troll);
-		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(2)) instanceof Orc);
-		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(3)) instanceof Goblin);
+		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(3)) instanceof Troll);
+		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(1)) instanceof Orc);
+		assertTrue(PlayerFactory.getPlayer("npc tank", 1, null, new Dice(6)) instanceof Goblin);
 	}
 	
 	@Test public void factoryShouldSetProperLevel() {
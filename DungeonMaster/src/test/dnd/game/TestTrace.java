@@ -2,6 +2,9 @@ package test.dnd.game;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Test;
 
 import dnd.game.Level;
@@ -58,4 +61,25 @@ public class TestTrace {
 		assertEquals(new Location(2, 2), trace.getLocations().get(2));
 		assertEquals(3, trace.getLocations().size());
 	}
+
+	@Test public void walkStopsWhenVisitorDoes() {
+		final List<Location> visited = new ArrayList<Location>();
+		boolean complete = Trace.walk(new Location(0, 0), new Location(2, 2), new Trace.Visitor() {
+			@Override
+			public boolean visit(int x, int y) {
+				visited.add(new Location(x, y));
+				return world.getLevel().getCell(x, y) != Tile.Rock;
+			}
+		});
+		assertFalse(complete);
+		assertEquals(2, visited.size());
+		assertEquals(new Location(1, 1), visited.get(1));
+	}
+
+	@Test public void firstStepFollowsTheTrace() {
+		Location start = new Location(0, 1);
+		Location end = new Location(5, 2);
+		assertEquals(new Trace(start, end).getLocations().get(1), Trace.firstStep(start, end));
+		assertEquals(start, Trace.firstStep(start, start));
+	}
 }
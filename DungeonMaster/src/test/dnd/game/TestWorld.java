@@ -6,6 +6,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -66,13 +68,25 @@ public class TestWorld {
 		world.getPlayers().add(player);
 		world.getLevel().getInitialEntities().add(basicItem1);
 		world.getLevel().getInitialEntities().add(mockMonster);
-		world.setDice(new Dice(222));
+		world.setDice(new Dice(6));
 	}
 	
 	@Test public void canStartEmptyWorld() {
 		new World().start();
 	}
 	
+	@Test public void levelWithoutMonstersIsFilledByDensity() {
+		World crowded = new World();
+		crowded.setLevel(new Level(20, 20));
+		crowded.getLevel().fillRegion(0, 0, 20, 20, Tile.Floor);
+		crowded.getLevel().setSpawnLocation(new Location(0, 0));
+		crowded.getPlayers().add(player);
+		crowded.setDice(new Dice(6));
+		crowded.setCellsPerMonster(10);
+		crowded.start();
+		assertEquals(40, crowded.getMonsters().size()); // every random cell is free floor, bar collisions
+	}
+	
 	@Test public void startCopiesInitialEntitiesFromLevel() {
 		world.start();
 		assertTrue(world.getItems().contains(basicItem1));
@@ -187,4 +201,59 @@ public class TestWorld {
 		world.sendEvent(new NextTurnEvent(1));
 		assertEquals(1, fired[0]);
 	}
+	
+	@Test public void eventsAreOnlyObservedWhenSubscribed() {
+		world.removeObserver(gameHandler);
+		assertFalse(world.isObserved(MovementEvent.class));
+		world.addObserver(MovementEvent.class, gameHandler);
+		assertTrue(world.isObserved(MovementEvent.class));
+		assertFalse(world.isObserved(NextTurnEvent.class));
+	}
+	
+	@Test public void monsterRemembersAttackerWithoutObservers() {
+		world.removeObserver(gameHandler);
+		mockMonster.attackedBy(world, player);
+		assertEquals(player, mockMonster.getAttacker());
+	}
+	
+	@Test public void entitiesAtLocationFollowMovement() {
+		world.setLevel(new Level(2, 2));
+		world.getLevel().setSpawnLocation(new Location(0, 0));
+		world.getLevel().setCell(0, 0, Tile.Floor);
+		world.getLevel().setCell(1, 1, Tile.Floor);
+		world.start();
+		assertTrue(world.getEntitiesAtLocation(new Location(0, 0)).contains(player));
+		assertTrue(world.moveEntity(player, new Location(1, 1)));
+		assertFalse(world.getEntitiesAtLocation(new Location(0, 0)).contains(player));
+		assertTrue(world.getEntitiesAtLocation(new Location(1, 1)).contains(player));
+	}
+	
+	@Test public void entitiesAtLocationTrackListChanges() {
+		basicItem1.setLocation(1, 1);
+		world.getItems().add(basicItem1);
+		assertTrue(world.getEntitiesAtLocation(1, 1).contains(basicItem1));
+		world.getItems().remove(basicItem1);
+		assertTrue(world.getEntitiesAtLocation(1, 1).isEmpty());
+		basicItem1.setLocation(2, 2);
+		assertTrue(world.getEntitiesAtLocation(2, 2).isEmpty());
+	}
+
+	@Test public void entitiesSharingACellKeepTheirOrder() {
+		BasicItem second = new BasicItem("Bar");
+		BasicItem third = new BasicItem("Baz");
+		basicItem1.setLocation(1, 1);
+		second.setLocation(1, 1);
+		third.setLocation(1, 1);
+		world.getItems().add(basicItem1);
+		world.getItems().add(second);
+		world.getItems().add(third);
+		assertEquals(Arrays.asList(basicItem1, second, third), world.getEntitiesAtLocation(1, 1));
+		second.setLocation(0, 1);
+		assertEquals(Arrays.asList(basicItem1, third), world.getEntitiesAtLocation(1, 1));
+		basicItem1.setLocation(0, 1);
+		assertEquals(Arrays.asList(third), world.getEntitiesAtLocation(1, 1));
+		assertEquals(Arrays.asList(second, basicItem1), world.getEntitiesAtLocation(0, 1));
+		third.setLocation(0, 0);
+		assertTrue(world.getEntitiesAtLocation(1, 1).isEmpty());
+	}
 }
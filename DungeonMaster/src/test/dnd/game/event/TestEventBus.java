@@ -0,0 +1,73 @@
+package test.dnd.game.event;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import dnd.game.World;
+import dnd.game.entity.living.NPC;
+import dnd.game.event.DamageEvent;
+import dnd.game.event.EventBus;
+import dnd.game.event.EventObserver;
+import dnd.game.event.GameEvent;
+import dnd.game.event.NextTurnEvent;
+
+public class TestEventBus {
+	private World world = new World();
+	private EventBus bus = new EventBus();
+
+	private static class Recorder implements EventObserver {
+		List<GameEvent> events = new ArrayList<GameEvent>();
+
+		public void eventFired(World world, GameEvent event) {
+			events.add(event);
+		}
+	}
+
+	@Test public void observerOnlyReceivesItsClass() {
+		Recorder recorder = new Recorder();
+		bus.subscribe(DamageEvent.class, recorder);
+		bus.publish(world, new NextTurnEvent(1));
+		bus.publish(world, new DamageEvent(null, new NPC(), 3));
+		assertEquals(1, recorder.events.size());
+		assertTrue(recorder.events.get(0) instanceof DamageEvent);
+		assertFalse(bus.hasObservers(NextTurnEvent.class));
+	}
+
+	@Test public void superclassObserverReceivesEverythingOnce() {
+		Recorder recorder = new Recorder();
+		bus.subscribe(GameEvent.class, recorder);
+		bus.subscribe(DamageEvent.class, recorder);
+		bus.subscribe(DamageEvent.class, recorder);
+		bus.publish(world, new NextTurnEvent(1));
+		bus.publish(world, new DamageEvent(null, new NPC(), 3));
+		assertEquals(2, recorder.events.size());
+	}
+
+	@Test public void unsubscribeDuringDispatchAppliesToNextEvent() {
+		final Recorder recorder = new Recorder();
+		EventObserver remover = new EventObserver() {
+			public void eventFired(World world, GameEvent event) {
+				bus.unsubscribe(recorder);
+			}
+		};
+		bus.subscribe(NextTurnEvent.class, remover);
+		bus.subscribe(NextTurnEvent.class, recorder);
+		bus.publish(world, new NextTurnEvent(1));
+		bus.publish(world, new NextTurnEvent(2));
+		assertEquals(1, recorder.events.size());
+	}
+
+	@Test public void worldRemovesAllSubscriptions() {
+		Recorder recorder = new Recorder();
+		world.addObserver(DamageEvent.class, recorder);
+		world.addObserver(NextTurnEvent.class, recorder);
+		world.removeObserver(recorder);
+		world.sendEvent(new NextTurnEvent(1));
+		world.sendEvent(new DamageEvent(null, new NPC(), 3));
+		assertTrue(recorder.events.isEmpty());
+	}
+}
@@ -0,0 +1,115 @@
+package test.dnd.game.event;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+import dnd.game.World;
+import dnd.game.event.EventObserver;
+import dnd.game.event.EventPipeline;
+import dnd.game.event.EventPipeline.Backpressure;
+import dnd.game.event.EventPipeline.Consumer;
+import dnd.game.event.GameEvent;
+import dnd.game.event.NextTurnEvent;
+import dnd.game.event.SpeakEvent;
+
+public class TestEventPipeline {
+	private World world = new World();
+	private EventPipeline pipeline = new EventPipeline(world, 8);
+
+	/**
+	 * Records the turn numbers it receives, after the gate is opened
+	 */
+	private static class Recorder implements EventObserver {
+		List<Integer> turns = Collections.synchronizedList(new ArrayList<Integer>());
+		List<GameEvent> events = Collections.synchronizedList(new ArrayList<GameEvent>());
+		CountDownLatch gate = new CountDownLatch(0);
+		CountDownLatch entered = new CountDownLatch(1); // the first event reached the gate
+
+		public void eventFired(World world, GameEvent event) {
+			entered.countDown();
+			try {
+				gate.await();
+			}
+			catch (InterruptedException e) {
+				return;
+			}
+			events.add(event);
+			if (event instanceof NextTurnEvent) turns.add(((NextTurnEvent) event).getTurnNumber());
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+
+		/**
+		 * Waits until every event sent was either delivered or skipped by the consumer
+		 */
+		synchronized void awaitAccounted(Consumer consumer, int sent) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 10000; // only reached if the pipeline is broken
+			while (events.size() + consumer.getSkipped() < sent) {
+				long left = deadline - System.currentTimeMillis();
+				if (left <= 0) fail("Only " + events.size() + " delivered and " + consumer.getSkipped() 
+						+ " skipped of " + sent + " events");
+				wait(Math.min(left, 10)); // skipped events are counted without notifying
+			}
+		}
+	}
+
+	@After public void stop() {
+		pipeline.stop();
+	}
+
+	@Test public void capacityIsPowerOfTwo() {
+		assertEquals(8, pipeline.getCapacity());
+		assertEquals(16, new EventPipeline(world, 9).getCapacity());
+	}
+
+	@Test public void blockingConsumerReceivesEverythingInOrder() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		Consumer consumer = pipeline.addConsumer("test", Backpressure.BLOCK, recorder);
+		pipeline.start();
+		for (int i = 0; i < 1000; i++) world.sendEvent(new NextTurnEvent(i));
+		recorder.awaitAccounted(consumer, 1000);
+		assertEquals(1000, recorder.turns.size());
+		for (int i = 0; i < 1000; i++) assertEquals(i, recorder.turns.get(i).intValue());
+		assertEquals(0, consumer.getSkipped());
+	}
+
+	@Test public void droppingConsumerDoesNotBlockSender() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		recorder.gate = new CountDownLatch(1);
+		Consumer consumer = pipeline.addConsumer("test", Backpressure.DROP, recorder);
+		pipeline.start();
+		for (int i = 0; i < 100; i++) world.sendEvent(new NextTurnEvent(i));
+		recorder.gate.countDown();
+		recorder.awaitAccounted(consumer, 100);
+		assertTrue(consumer.getSkipped() > 0);
+		assertTrue(recorder.turns.size() <= pipeline.getCapacity() + 1);
+		assertEquals(99, recorder.turns.get(recorder.turns.size() - 1).intValue());
+		assertEquals(100, recorder.turns.size() + consumer.getSkipped());
+	}
+
+	@Test public void coalescingConsumerReceivesLatestOfEachClass() throws InterruptedException {
+		Recorder recorder = new Recorder();
+		recorder.gate = new CountDownLatch(1);
+		Consumer consumer = pipeline.addConsumer("test", Backpressure.COALESCE, recorder);
+		pipeline.start();
+		world.sendEvent(new SpeakEvent("blocked")); // held by the gate
+		recorder.entered.await();
+		world.sendEvent(new NextTurnEvent(1));
+		world.sendEvent(new SpeakEvent("hello"));
+		world.sendEvent(new NextTurnEvent(2));
+		recorder.gate.countDown();
+		recorder.awaitAccounted(consumer, 4);
+		assertEquals(3, recorder.events.size());
+		assertEquals("hello", recorder.events.get(1).toString());
+		assertEquals(2, ((NextTurnEvent) recorder.events.get(2)).getTurnNumber());
+		assertEquals(1, consumer.getSkipped());
+	}
+}
@@ -0,0 +1,88 @@
+package test.dnd.game.mapper;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dnd.game.World;
+import dnd.game.mapper.Autosave;
+import dnd.game.sim.SimulationResult;
+import dnd.game.sim.SimulationResult.Outcome;
+import dnd.game.sim.SimulationRunner;
+
+public class TestAutosave {
+	private File file;
+
+	@Before public void createFile() throws IOException {
+		file = File.createTempFile("test", Autosave.AUTOSAVE_SUFFIX);
+	}
+
+	@After public void deleteFiles() {
+		new File(file.getPath() + Autosave.JOURNAL_SUFFIX).delete();
+		file.delete();
+	}
+
+	@Test public void recoveredWorldPlaysOnIdentically() throws IOException {
+		World world = SimulationRunner.createWorld(5, 20, 20, "tank", "nimble");
+		Autosave autosave = new Autosave(world, file, 1000);
+		autosave.start();
+		assertEquals(Outcome.TIMEOUT, new SimulationRunner(world).run(20).getOutcome());
+		autosave.stop();
+		assertTrue(autosave.getRecordCount() > 0);
+
+		World recovered = Autosave.recover(file);
+		assertEquals(world.getTurnNumber(), recovered.getTurnNumber());
+		for (int i = 0; i < world.getPlayers().size(); i++) {
+			assertEquals(world.getPlayers().get(i).getHP(), recovered.getPlayers().get(i).getHP());
+			assertEquals(world.getPlayers().get(i).getLocation(), recovered.getPlayers().get(i).getLocation());
+		}
+
+		SimulationResult first = new SimulationRunner(world).run(300);
+		SimulationResult second = new SimulationRunner(recovered).run(300);
+		assertEquals(first.getOutcome(), second.getOutcome());
+		assertEquals(first.getTurns(), second.getTurns());
+		assertEquals(first.getSteps(), second.getSteps());
+	}
+
+	@Test public void journalIsCompactedIntoSnapshot() throws IOException {
+		World world = SimulationRunner.createWorld(5, 20, 20, "tank", "nimble");
+		Autosave autosave = new Autosave(world, file, 4);
+		autosave.start();
+		new SimulationRunner(world).run(18);
+		autosave.stop();
+		assertTrue(autosave.getRecordCount() <= 4);
+		assertEquals(world.getTurnNumber(), Autosave.recover(file).getTurnNumber());
+	}
+
+	@Test public void tornRecordIsIgnored() throws IOException {
+		World world = SimulationRunner.createWorld(5, 20, 20, "tank");
+		Autosave autosave = new Autosave(world, file, 1000);
+		autosave.start();
+		new SimulationRunner(world).run(5);
+		autosave.stop();
+
+		FileOutputStream out = new FileOutputStream(file.getPath() + Autosave.JOURNAL_SUFFIX, true);
+		out.write(new byte[] { 40, 1, 2, 3 });
+		out.close();
+		assertEquals(world.getTurnNumber(), Autosave.recover(file).getTurnNumber());
+	}
+
+	@Test public void negativeRecordLengthIsIgnored() throws IOException {
+		World world = SimulationRunner.createWorld(5, 20, 20, "tank");
+		Autosave autosave = new Autosave(world, file, 1000);
+		autosave.start();
+		new SimulationRunner(world).run(5);
+		autosave.stop();
+
+		FileOutputStream out = new FileOutputStream(file.getPath() + Autosave.JOURNAL_SUFFIX, true);
+		out.write(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F, 1, 2, 3 }); // length -1
+		out.close();
+		assertEquals(world.getTurnNumber(), Autosave.recover(file).getTurnNumber());
+	}
+}
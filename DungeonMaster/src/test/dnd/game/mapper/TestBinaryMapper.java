@@ -0,0 +1,120 @@
+package test.dnd.game.mapper;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import dnd.game.AbilityType;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.item.Potion;
+import dnd.game.entity.item.Weapon;
+import dnd.game.entity.living.Player;
+import dnd.game.mapper.BinaryMapper;
+import dnd.game.mapper.GameMapper.Format;
+import dnd.game.mapper.LevelMapper;
+import dnd.game.mapper.PlayerMapper;
+import dnd.game.mapper.WorldMapper;
+import dnd.game.sim.SimulationResult;
+import dnd.game.sim.SimulationRunner;
+import dnd.util.Modifier;
+
+public class TestBinaryMapper {
+
+	private static byte[] save(WorldMapper mapper, World world) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mapper.save(world, out);
+		return out.toByteArray();
+	}
+
+	@Test public void loadedWorldPlaysOnIdentically() {
+		World world = SimulationRunner.createWorld(5, 20, 20, "tank", "nimble");
+		new SimulationRunner(world).run(3);
+
+		WorldMapper mapper = new WorldMapper();
+		mapper.setFormat(Format.BINARY);
+		World loaded = mapper.load(new ByteArrayInputStream(save(mapper, world)));
+		assertNotNull(loaded);
+		assertEquals(world.getTurnNumber(), loaded.getTurnNumber());
+		assertEquals(world.getMonsters().size(), loaded.getMonsters().size());
+		assertEquals(world.getPlayers().get(0).getHP(), loaded.getPlayers().get(0).getHP());
+
+		SimulationResult first = new SimulationRunner(world).run(300);
+		SimulationResult second = new SimulationRunner(loaded).run(300);
+		assertEquals(first.getOutcome(), second.getOutcome());
+		assertEquals(first.getTurns(), second.getTurns());
+		assertEquals(first.getSteps(), second.getSteps());
+		assertEquals(world.getPlayers().get(1).getHP(), loaded.getPlayers().get(1).getHP());
+	}
+
+	@Test public void binaryWorldIsSmallerThanXml() {
+		World world = SimulationRunner.createWorld(5, 40, 40, "tank");
+		world.start();
+		WorldMapper mapper = new WorldMapper();
+		int xml = save(mapper, world).length;
+		mapper.setFormat(Format.BINARY);
+		int binary = save(mapper, world).length;
+		assertTrue(binary * 10 < xml);
+	}
+
+	@Test public void mapperLoadsBothFormats() {
+		Level level = new Level(3, 2);
+		level.setSpawnLocation(new Location(1, 1));
+		level.fillRegion(0, 0, 3, 2, Tile.Floor);
+		level.setCell(2, 1, Tile.StairsDown);
+
+		LevelMapper mapper = new LevelMapper();
+		for (Format format : Format.values()) {
+			mapper.setFormat(format);
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			mapper.save(level, out);
+			Level loaded = mapper.load(new ByteArrayInputStream(out.toByteArray()));
+			assertEquals(format.toString(), Tile.StairsDown, loaded.getCell(2, 1));
+			assertEquals(format.toString(), Tile.Floor, loaded.getCell(0, 0));
+			assertEquals(format.toString(), 1, loaded.getSpawnLocation().getX());
+		}
+		assertTrue(BinaryMapper.isBinary(new byte[] { 'D', 'N', 'D', 'B', 1 }));
+		assertFalse(BinaryMapper.isBinary("<?xml".getBytes()));
+	}
+
+	@Test public void playerKeepsInventoryAndEquipment() {
+		Player player = new Player();
+		player.setName("Hero");
+		Weapon sword = new Weapon("Sword", 1, 8);
+		Modifier<AbilityType> strength = new Modifier<AbilityType>();
+		strength.setDelta(AbilityType.STR, 2);
+		Potion potion = new Potion(strength, 3);
+		player.getInventory().addItem(sword);
+		player.getInventory().equipItem(sword);
+		player.getInventory().addItem(potion);
+		player.getInventory().setGold(42);
+
+		PlayerMapper mapper = new PlayerMapper();
+		mapper.setFormat(Format.BINARY);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		mapper.save(player, out);
+		Player loaded = mapper.load(new ByteArrayInputStream(out.toByteArray()));
+
+		assertEquals("Hero", loaded.getName());
+		assertEquals(42, loaded.getInventory().getGold());
+		assertEquals(1, loaded.getInventory().itemCount());
+		assertEquals(1, loaded.getInventory().getEquippedItems().size());
+		assertEquals("Sword", loaded.getInventory().getEquippedItems().get(0).getName());
+		assertEquals(player.getTotalHP(), loaded.getTotalHP());
+	}
+
+	@Test public void truncatedSaveLoadsAsNull() {
+		WorldMapper mapper = new WorldMapper();
+		mapper.setFormat(Format.BINARY);
+		World world = SimulationRunner.createWorld(5, 10, 10, "tank");
+		byte[] bytes = save(mapper, world);
+		byte[] truncated = new byte[bytes.length / 2];
+		System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+		assertNull(mapper.load(new ByteArrayInputStream(truncated)));
+	}
+}
@@ -0,0 +1,39 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import dnd.game.sim.BatchResult;
+import dnd.game.sim.BatchSimulator;
+import dnd.game.sim.SimulationResult;
+
+public class TestBatchSimulator {
+	
+	@Test public void parallelBatchMatchesSequentialBatch() throws InterruptedException {
+		BatchSimulator batch = new BatchSimulator(15, 15, 300, "tank", "nimble");
+		batch.setThreads(1);
+		BatchResult sequential = batch.run(1, 8);
+		batch.setThreads(4);
+		BatchResult parallel = batch.run(1, 8);
+		
+		List<SimulationResult> expected = sequential.getResults();
+		List<SimulationResult> actual = parallel.getResults();
+		assertEquals(8, actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getOutcome(), actual.get(i).getOutcome());
+			assertEquals(expected.get(i).getTurns(), actual.get(i).getTurns());
+			assertEquals(expected.get(i).getSteps(), actual.get(i).getSteps());
+		}
+		assertEquals(sequential.getDamageByBuild(), parallel.getDamageByBuild());
+		assertEquals(sequential.getWinRate(), parallel.getWinRate(), 0);
+	}
+	
+	@Test public void damageIsTalliedPerBuild() throws InterruptedException {
+		BatchResult result = new BatchSimulator(15, 15, 300, "bully", "tank").run(5, 4);
+		assertEquals(2, result.getDamageByBuild().size());
+		assertEquals(4, result.getRuns());
+	}
+}
@@ -0,0 +1,85 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dnd.game.AbilityType;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.PlayerClass;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.entity.living.NPC;
+import dnd.game.entity.living.Player;
+import dnd.game.sim.HoverInfo;
+
+public class TestHoverInfo {
+	private World world;
+	private Player player;
+	private NPC monster;
+	private HoverInfo hoverInfo;
+	private Location monsterLocation = new Location(2, 2);
+
+	@Before public void setup() {
+		world = new World();
+		world.setLevel(new Level(3, 3));
+		for (int y = 0; y < 3; y++) {
+			for (int x = 0; x < 3; x++) {
+				world.getLevel().setCell(x, y, Tile.Floor);
+			}
+		}
+		world.getLevel().setSpawnLocation(new Location(0, 0));
+		player = new Player();
+		player.getBaseAbilityModifiers().add(AbilityType.HP, 10);
+		player.setPlayerClass(PlayerClass.FIGHTER);
+		world.getPlayers().add(player);
+		monster = new NPC();
+		monster.getBaseAbilityModifiers().add(AbilityType.HP, 10);
+		monster.setLocation(2, 2);
+		world.getLevel().getInitialEntities().add(monster);
+		world.start();
+		hoverInfo = new HoverInfo(world);
+	}
+
+	@Test public void sameCellIsDescribedOnce() {
+		String text = hoverInfo.get(monsterLocation);
+		assertTrue(text.contains("Click Action: Attack"));
+		assertSame(text, hoverInfo.get(new Location(2, 2)));
+	}
+
+	@Test public void cellOutsideLevelHasNoDescription() {
+		assertNull(hoverInfo.get(new Location(5, 5)));
+		assertNull(hoverInfo.get(null));
+	}
+
+	@Test public void damageInTheCellDescribesItAgain() {
+		String text = hoverInfo.get(monsterLocation);
+		world.damage(player, monster, 1);
+		assertNotSame(text, hoverInfo.get(monsterLocation));
+	}
+
+	@Test public void changesElsewhereKeepTheDescription() {
+		String text = hoverInfo.get(monsterLocation);
+		world.damage(monster, player, 1);
+		world.getLevel().setCell(1, 1, Tile.DoorClosed);
+		assertSame(text, hoverInfo.get(monsterLocation));
+	}
+
+	@Test public void tileChangeDescribesTheCellAgain() {
+		hoverInfo.get(new Location(1, 0));
+		world.getLevel().setCell(1, 0, Tile.DoorClosed);
+		assertTrue(hoverInfo.get(new Location(1, 0)).contains("Click Action: Toggle Open"));
+	}
+
+	@Test public void movementIntoTheCellDescribesItAgain() {
+		Location location = new Location(1, 1);
+		String text = hoverInfo.get(location);
+		world.moveEntity(player, location);
+		assertNotSame(text, hoverInfo.get(location));
+	}
+}
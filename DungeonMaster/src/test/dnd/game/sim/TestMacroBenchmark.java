@@ -0,0 +1,41 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import dnd.game.sim.MacroBenchmark;
+
+public class TestMacroBenchmark {
+
+	@SuppressWarnings("unchecked")
+	@Test public void reportCoversTheWholeGame() throws IOException {
+		Map<String, Object> report = new MacroBenchmark(3, 20, 20, 25, 50, "tank").run();
+		assertTrue((Integer) report.get("turns") > 0);
+		assertTrue((Double) report.get("turnsPerSecond") > 0);
+		Map<String, Object> latency = (Map<String, Object>) report.get("turnMicros");
+		assertTrue((Double) latency.get("p50") <= (Double) latency.get("p99"));
+		Map<String, Integer> events = (Map<String, Integer>) report.get("events");
+		assertTrue(events.get("NextTurnEvent") > 0);
+		Map<String, Object> saves = (Map<String, Object>) report.get("saves");
+		Map<String, Object> xml = (Map<String, Object>) saves.get("xml");
+		assertTrue((Long) xml.get("bytes") > 0);
+	}
+
+	@Test public void reportIsWrittenAsJson() {
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+		report.put("name", "a \"quoted\"\nline");
+		report.put("turns", 12);
+		report.put("builds", Arrays.asList("tank", "bully"));
+		StringBuilder json = new StringBuilder();
+		MacroBenchmark.toJson(report, json);
+		assertEquals("{\"name\": \"a \\\"quoted\\\"\\u000aline\", \"turns\": 12, \"builds\": [\"tank\", \"bully\"]}",
+				json.toString());
+	}
+}
@@ -0,0 +1,157 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import dnd.game.EquipmentSlot;
+import dnd.game.Level;
+import dnd.game.Location;
+import dnd.game.Tile;
+import dnd.game.World;
+import dnd.game.mapper.BinaryMapper;
+import dnd.game.sim.Intent;
+import dnd.game.sim.Recording;
+import dnd.game.sim.Recording.Step;
+import dnd.game.sim.Recording.StepType;
+import dnd.game.sim.Replay;
+import dnd.game.sim.SessionRecorder;
+import dnd.game.sim.SimulationRunner;
+import dnd.game.sim.StateHash;
+
+public class TestReplay {
+
+	@Test public void replayMatchesTheRecording() {
+		Recording recording = Replay.record(2, 30, 30, 300, "tank", "bully", "nimble");
+		assertTrue(recording.getIntentCount() > 0);
+		Replay replay = new Replay(recording);
+		assertTrue(replay.getMismatch(), replay.run());
+		assertEquals(recording.getIntentCount(), replay.getIntents());
+		assertEquals(recording.getSteps().size() - recording.getIntentCount(), replay.getCheckpoints());
+	}
+
+	@Test public void savedRecordingReplays() throws IOException {
+		Recording recording = Replay.record(5, 20, 20, 100, "bully");
+		StringWriter text = new StringWriter();
+		recording.write(text);
+		Recording loaded = Recording.read(new StringReader(text.toString()));
+		assertEquals(recording.getSteps().size(), loaded.getSteps().size());
+		assertTrue(new Replay(loaded).run());
+	}
+
+	@Test public void changedGameIsFound() throws IOException {
+		String text = text(Replay.record(2, 30, 30, 300, "tank", "bully", "nimble"));
+		String otherWorld = text(Replay.record(3, 30, 30, 1, "tank", "bully", "nimble"));
+		// the same intents in another world
+		String header = otherWorld.substring(0, otherWorld.indexOf("\nturn "));
+		Recording other = Recording.read(new StringReader(header + text.substring(text.indexOf("\nturn "))));
+		Replay replay = new Replay(other);
+		assertFalse(replay.run());
+		assertNotNull(replay.getMismatch());
+	}
+
+	@Test public void intentsAreWrittenAsText() {
+		String[] lines = { "MOVE -1 1", "WAIT", "ATTACK MONSTER 3", "TOGGLE_DOOR 4 5", "EQUIP INVENTORY 2",
+				"UNEQUIP EQUIPMENT HELMET", "USE_ITEM GROUND 0", "OPEN_INVENTORY MONSTER 1",
+				"TAKE_ITEM MONSTER 1 EQUIPMENT WEAPON", "TAKE_ITEM GROUND 4 INVENTORY 0" };
+		for (String line : lines) {
+			assertEquals(line, Intent.parse(line).toString());
+		}
+		assertEquals("MOVE 1 0", Intent.move(new Location(1, 0)).toString());
+		assertEquals("UNEQUIP EQUIPMENT BELT", Intent.unequip(EquipmentSlot.BELT).toString());
+	}
+
+	@Test(expected = IOException.class) public void badRecordingIsRefused() throws IOException {
+		String text = text(Replay.record(5, 20, 20, 1, "bully"));
+		Recording.read(new StringReader(text + "intent 1 1 1 JUMP\n"));
+	}
+
+	@Test(expected = IOException.class) public void badSnapshotIsRefused() throws IOException {
+		Recording.read(new StringReader("world 444e44x2\ndice 00\n"));
+	}
+
+	@Test public void loadedGameIsRecordedFromItsState() throws IOException {
+		World played = SimulationRunner.createWorld(4, 30, 30, "tank", "nimble");
+		new SimulationRunner(played).run(20);
+		// the game goes on from a save, as it does when loaded in the game view
+		ByteArrayOutputStream save = new ByteArrayOutputStream();
+		new BinaryMapper<World>(World.class).save(played, save);
+		World loaded = new BinaryMapper<World>(World.class).load(new ByteArrayInputStream(save.toByteArray()));
+		SessionRecorder recorder = new SessionRecorder(loaded);
+		new SimulationRunner(loaded).run(100);
+		recorder.stop();
+
+		Recording recording = Recording.read(new StringReader(text(recorder.getRecording())));
+		Replay replay = new Replay(recording);
+		assertTrue(replay.getMismatch(), replay.run());
+		assertEquals(recording.getIntentCount(), replay.getIntents());
+	}
+
+	@Test public void savedRecordingKeepsRecording() throws IOException {
+		World world = SimulationRunner.createWorld(5, 20, 20, "bully");
+		SessionRecorder recorder = new SessionRecorder(world);
+		new SimulationRunner(world).run(10);
+		File file = File.createTempFile("session", Recording.RECORDING_SUFFIX);
+		try {
+			recorder.save(file);
+			Recording saved = Recording.load(file);
+			new SimulationRunner(world).run(10);
+			recorder.stop();
+			assertTrue(recorder.getRecording().getSteps().size() > saved.getSteps().size());
+			assertTrue(new Replay(saved).run());
+			assertTrue(new Replay(recorder.getRecording()).run());
+		}
+		finally {
+			file.delete();
+		}
+	}
+
+	@Test public void keptHashFollowsCellChanges() {
+		World world = SimulationRunner.createWorld(6, 150, 100, "tank");
+		StateHash hash = new StateHash(world);
+		long before = hash.hash();
+		assertEquals(StateHash.of(world), before);
+		Level level = world.getLevel();
+		Tile tile = level.getCell(130, 90);
+		level.setCell(130, 90, tile == Tile.Floor ? Tile.Rock : Tile.Floor);
+		assertEquals(StateHash.of(world), hash.hash());
+		assertTrue(before != hash.hash());
+		level.setCell(130, 90, tile);
+		assertEquals(before, hash.hash());
+		hash.dispose();
+	}
+
+	@Test public void keptHashFollowsTheNewLevel() {
+		World world = SimulationRunner.createWorld(6, 40, 40, "tank");
+		StateHash hash = new StateHash(world);
+		long before = hash.hash();
+		Level level = new Level(70, 70);
+		level.fillRegion(0, 0, 70, 70, Tile.Floor);
+		world.setLevel(level);
+		assertEquals(StateHash.of(world), hash.hash());
+		assertTrue(before != hash.hash());
+		hash.dispose();
+	}
+
+	@Test public void recordingEndsWithTheFinalState() {
+		Recording recording = Replay.record(5, 20, 20, 100, "bully");
+		Step last = recording.getSteps().get(recording.getSteps().size() - 1);
+		assertEquals(StepType.END, last.getType());
+	}
+
+	private static String text(Recording recording) {
+		StringWriter text = new StringWriter();
+		recording.write(text);
+		return text.toString();
+	}
+}
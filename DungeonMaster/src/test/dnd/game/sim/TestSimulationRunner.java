@@ -0,0 +1,48 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.junit.Test;
+
+import dnd.game.World;
+import dnd.game.entity.living.LivingEntity;
+import dnd.game.sim.EntityController;
+import dnd.game.sim.SimulationResult;
+import dnd.game.sim.SimulationResult.Outcome;
+import dnd.game.sim.SimulationRunner;
+
+public class TestSimulationRunner {
+	
+	@Test public void runEndsWithAnOutcome() {
+		World world = SimulationRunner.createWorld(7, 15, 15, "tank");
+		SimulationResult result = new SimulationRunner(world).run(500);
+		assertNotNull(result.getOutcome());
+	}
+	
+	@Test public void sameSeedPlaysTheSameGame() {
+		SimulationResult first = new SimulationRunner(SimulationRunner.createWorld(3, 15, 15, "bully")).run(500);
+		SimulationResult second = new SimulationRunner(SimulationRunner.createWorld(3, 15, 15, "bully")).run(500);
+		assertEquals(first.getOutcome(), second.getOutcome());
+		assertEquals(first.getTurns(), second.getTurns());
+		assertEquals(first.getSteps(), second.getSteps());
+	}
+	
+	@Test public void levelWithoutMonstersIsCleared() {
+		EntityController idle = new EntityController() {
+			@Override
+			public void think(World world, LivingEntity entity) {
+			}
+		};
+		World world = SimulationRunner.createWorld(11, 2, 1, "nimble");
+		SimulationResult result = new SimulationRunner(world, idle).run(10);
+		assertEquals(Outcome.CLEARED, result.getOutcome());
+	}
+	
+	@Test public void runStopsAtTurnLimit() {
+		World world = SimulationRunner.createWorld(7, 15, 15, "tank");
+		SimulationResult result = new SimulationRunner(world).run(0);
+		assertEquals(Outcome.TIMEOUT, result.getOutcome());
+		assertEquals(0, result.getTurns());
+	}
+}
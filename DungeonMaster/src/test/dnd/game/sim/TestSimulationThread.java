@@ -0,0 +1,98 @@
+package test.dnd.game.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dnd.game.Location;
+import dnd.game.World;
+import dnd.game.entity.living.Player;
+import dnd.game.sim.Command;
+import dnd.game.sim.Commands;
+import dnd.game.sim.RenderSnapshot;
+import dnd.game.sim.SimulationRunner;
+import dnd.game.sim.SimulationThread;
+
+public class TestSimulationThread {
+	private World world;
+	private SimulationThread simulation;
+
+	@Before public void setup() {
+		world = SimulationRunner.createWorld(7, 15, 15, "tank");
+		world.start();
+		simulation = new SimulationThread(world);
+		simulation.start();
+	}
+
+	@After public void teardown() {
+		simulation.stop();
+	}
+
+	/**
+	 * Waits for the simulation to publish a snapshot taken during a player's turn
+	 */
+	private RenderSnapshot awaitPlayerTurn(long afterVersion) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			RenderSnapshot snapshot = simulation.getSnapshot();
+			if (snapshot != null && snapshot.getVersion() > afterVersion && snapshot.isPlayerTurn()) {
+				return snapshot;
+			}
+			Thread.sleep(5);
+		}
+		return null;
+	}
+
+	@Test public void commandsRunOnTheSimulationThread() throws InterruptedException {
+		final Thread[] ranOn = new Thread[1];
+		final CountDownLatch done = new CountDownLatch(1);
+		simulation.submit(new Command() {
+			public void execute(World world) {
+				ranOn[0] = Thread.currentThread();
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertNotNull(ranOn[0]);
+		assertNotSame(Thread.currentThread(), ranOn[0]);
+	}
+
+	@Test public void monstersPlayUntilThePlayersTurn() throws InterruptedException {
+		RenderSnapshot snapshot = awaitPlayerTurn(0);
+		assertNotNull(snapshot);
+		simulation.submit(Commands.move(0, 0)); // wait, the monsters play again
+		RenderSnapshot next = awaitPlayerTurn(snapshot.getVersion());
+		assertNotNull(next);
+		assertTrue(next.getTurnNumber() > snapshot.getTurnNumber());
+	}
+
+	@Test public void snapshotMatchesTheWorld() throws InterruptedException {
+		RenderSnapshot snapshot = awaitPlayerTurn(0);
+		assertNotNull(snapshot);
+		final Location[] location = new Location[1];
+		final int[] turn = new int[1];
+		final CountDownLatch done = new CountDownLatch(1);
+		simulation.submit(new Command() {
+			public void execute(World world) {
+				Player player = world.getPlayers().get(0);
+				location[0] = player.getLocation();
+				turn[0] = world.getTurnNumber();
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		snapshot = awaitPlayerTurn(snapshot.getVersion());
+		assertNotNull(snapshot);
+		assertEquals(location[0], snapshot.getFocus());
+		assertEquals(turn[0], snapshot.getTurnNumber());
+		assertNotNull(snapshot.getEntityInfo(world.getPlayers().get(0)));
+	}
+}
@@ -0,0 +1,69 @@
+package test.dnd.ui;
+
+import static org.junit.Assert.*;
+
+import javax.swing.JScrollPane;
+import javax.swing.SwingUtilities;
+
+import org.junit.Test;
+
+import dnd.ui.LogView;
+
+public class TestLogView {
+	private LogView log = new LogView(3);
+
+	private void flush() throws Exception {
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() { log.flush(); }
+		});
+	}
+
+	@Test public void messagesWaitForFlush() throws Exception {
+		SwingUtilities.invokeAndWait(new Runnable() {
+			public void run() {
+				log.log("a");
+				assertEquals(0, log.getLineCount());
+				log.flush();
+				assertEquals(1, log.getLineCount());
+			}
+		});
+	}
+
+	@Test public void oldestLinesAreForgotten() throws Exception {
+		log.log("a");
+		log.log("b");
+		flush();
+		log.log("c");
+		log.log("d");
+		flush();
+		assertEquals(3, log.getLineCount());
+		assertEquals("b", log.getLine(0));
+		assertEquals("d", log.getLine(2));
+	}
+
+	@Test public void largeBatchKeepsNewestLines() throws Exception {
+		for (int i = 0; i < 10; i++) log.log("line " + i);
+		flush();
+		assertEquals(3, log.getLineCount());
+		assertEquals("line 7", log.getLine(0));
+		assertEquals("line 9", log.getLine(2));
+	}
+
+	@Test public void longLinesCanBeScrolledTo() throws Exception {
+		log.log("a");
+		flush();
+		int shortWidth = listWidth();
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 50; i++) line.append("a long message ");
+		log.log(line.toString());
+		flush();
+		assertTrue(listWidth() > shortWidth * 20);
+		log.log("b");
+		flush();
+		assertTrue(listWidth() > shortWidth * 20);
+	}
+
+	private int listWidth() {
+		return ((JScrollPane) log.getComponent(0)).getViewport().getView().getPreferredSize().width;
+	}
+}
@@ -50,6 +50,20 @@ public class TestModifierSet {
 		assertEquals(2, set1.delta(STR));
 	}
 	
+	@Test public void removingUpdatesTotals() {
+		ModifierSet<AbilityType> set = new ModifierSet<AbilityType>();
+		set.add(mod1);
+		set.add(mod2);
+		assertEquals(-2, set.delta(WIS));
+		set.remove(mod1);
+		assertEquals(-5, set.delta(WIS));
+		assertEquals(0, set.delta(STR));
+		set.clear();
+		assertEquals(0, set.delta(WIS));
+		set.add(mod3);
+		assertEquals(1, set.delta(WIS));
+	}
+	
 	@Test public void disallowAddingNullModifiers() {
 		ModifierSet<AbilityType> set1 = new ModifierSet<AbilityType>();
 		set1.add((Modifier<AbilityType>)null);
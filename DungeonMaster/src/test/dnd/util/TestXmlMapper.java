@@ -7,6 +7,8 @@ import java.io.ByteArrayOutputStream;
 
 import org.junit.Test;
 
+import dnd.game.AbilityType;
+import dnd.util.ModifierSet;
 import dnd.util.XmlMapper;
 
 public class TestXmlMapper {
@@ -29,6 +31,28 @@ public class TestXmlMapper {
 		assertEquals(false, mock.isTrue);
 	}
 
+	@Test public void willLoadModifiersInHashMapFormat() {
+		String xml = "<?xml version=\"1.0\" ?><dnd.util.ModifierSet><modifiers><dnd.util.Modifier><modifications>" +
+				"<entry><dnd.game.AbilityType>HP</dnd.game.AbilityType><int>-7</int></entry>" +
+				"<entry><dnd.game.AbilityType>STR</dnd.game.AbilityType><int>3</int></entry>" +
+				"</modifications></dnd.util.Modifier></modifiers></dnd.util.ModifierSet>";
+		ModifierSet<AbilityType> set = new XmlMapper<ModifierSet<AbilityType>>().load(
+				new ByteArrayInputStream(xml.getBytes()));
+		assertEquals(-7, set.delta(AbilityType.HP));
+		assertEquals(3, set.delta(AbilityType.STR));
+		assertEquals(0, set.delta(AbilityType.DEX));
+	}
+	
+	@Test public void willSaveModifiersInHashMapFormat() {
+		ModifierSet<AbilityType> set = new ModifierSet<AbilityType>();
+		set.add(AbilityType.HP, -7);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new XmlMapper<ModifierSet<AbilityType>>().save(set, out);
+		assertEquals("<?xml version=\"1.0\" ?><dnd.util.ModifierSet><modifiers><dnd.util.Modifier><modifications>" +
+				"<entry><dnd.game.AbilityType>HP</dnd.game.AbilityType><int>-7</int></entry>" +
+				"</modifications></dnd.util.Modifier></modifiers></dnd.util.ModifierSet>", new String(out.toByteArray()));
+	}
+
 	@Test public void willSaveObjectAsXmlFile() {
 		ByteArrayOutputStream out = new ByteArrayOutputStream();
 		new XmlMapper<SmallMock>().save(new SmallMock(), out);